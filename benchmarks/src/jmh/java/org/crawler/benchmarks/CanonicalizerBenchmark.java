@@ -0,0 +1,39 @@
+package org.crawler.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.crawler.common.UrlCanonicalizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * URL canonicalization, run on every extracted outlink, over URLs that need none, some and most of
+ * the rewrites.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class CanonicalizerBenchmark {
+  private static final String[] URLS = {
+    "https://example.com/articles/2024/10/some-long-article-slug-with-words",
+    "HTTPS://WWW.Example.COM:443/a/./b/../c/index.html#section",
+    "https://example.com/search?utm_source=news&q=crawler&page=2&utm_medium=email",
+    "http://example.org/path with spaces/ünïcode?b=2&a=1",
+    "https://example.com/downloads/archive.tar?sessionid=0123456789abcdef",
+    "mailto:someone@example.com"
+  };
+
+  private final UrlCanonicalizer canonicalizer =
+      new UrlCanonicalizer(UrlCanonicalizer.defaultConfig());
+
+  @Benchmark
+  public void canonicalize(Blackhole blackhole) {
+    for (String url : URLS) {
+      blackhole.consume(canonicalizer.canonicalize(url));
+    }
+  }
+}
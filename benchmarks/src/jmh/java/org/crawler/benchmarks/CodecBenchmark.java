@@ -0,0 +1,100 @@
+package org.crawler.benchmarks;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import org.crawler.domain.Link;
+import org.crawler.domain.Page;
+import org.crawler.domain.config.CodecFormat;
+import org.crawler.infrastructure.codec.LinkCodec;
+import org.crawler.infrastructure.codec.PageCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JSON versus binary wire format for the queue payloads. Encoded sizes are printed once per trial
+ * next to the timings, since JMH only measures time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class CodecBenchmark {
+  @Param({"4096", "65536", "1048576"})
+  public int htmlBytes;
+
+  private final LinkCodec jsonLinkCodec = new LinkCodec(CodecFormat.JSON);
+  private final LinkCodec binaryLinkCodec = new LinkCodec(CodecFormat.BINARY);
+  private final PageCodec jsonPageCodec = new PageCodec(CodecFormat.JSON);
+  private final PageCodec binaryPageCodec = new PageCodec(CodecFormat.BINARY);
+
+  private Link link;
+  private Page page;
+  private byte[] jsonLink;
+  private byte[] binaryLink;
+  private byte[] jsonPage;
+  private byte[] binaryPage;
+
+  @Setup
+  public void setUp() {
+    link = new Link(URI.create("https://example.com/articles/2024/05/some-article-title"), 2);
+    page = new Page(link, SyntheticHtml.page(htmlBytes, 2));
+
+    jsonLink = jsonLinkCodec.encode(link);
+    binaryLink = binaryLinkCodec.encode(link);
+    jsonPage = jsonPageCodec.encode(page);
+    binaryPage = binaryPageCodec.encode(page);
+
+    System.out.printf(
+        "%nlink: json=%d binary=%d bytes, page: html=%d json=%d binary=%d bytes%n",
+        jsonLink.length,
+        binaryLink.length,
+        page.html().length(),
+        jsonPage.length,
+        binaryPage.length);
+  }
+
+  @Benchmark
+  public byte[] encodeLinkJson() {
+    return jsonLinkCodec.encode(link);
+  }
+
+  @Benchmark
+  public byte[] encodeLinkBinary() {
+    return binaryLinkCodec.encode(link);
+  }
+
+  @Benchmark
+  public Link decodeLinkJson() {
+    return jsonLinkCodec.decode(jsonLink);
+  }
+
+  @Benchmark
+  public Link decodeLinkBinary() {
+    return binaryLinkCodec.decode(binaryLink);
+  }
+
+  @Benchmark
+  public byte[] encodePageJson() {
+    return jsonPageCodec.encode(page);
+  }
+
+  @Benchmark
+  public byte[] encodePageBinary() {
+    return binaryPageCodec.encode(page);
+  }
+
+  @Benchmark
+  public Page decodePageJson() {
+    return jsonPageCodec.decode(jsonPage);
+  }
+
+  @Benchmark
+  public Page decodePageBinary() {
+    return binaryPageCodec.decode(binaryPage);
+  }
+}
@@ -0,0 +1,58 @@
+package org.crawler.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.crawler.domain.config.CompressionType;
+import org.crawler.infrastructure.codec.Compressor;
+import org.crawler.infrastructure.codec.Compressors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * CPU cost of compressing page bodies before they are queued. The compression ratio is printed once
+ * per trial so it can be weighed against the timings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class CompressionBenchmark {
+  @Param({"DEFLATE", "LZ4"})
+  public CompressionType compression;
+
+  @Param({"4096", "65536", "1048576"})
+  public int htmlBytes;
+
+  private Compressor compressor;
+  private byte[] html;
+  private byte[] compressed;
+
+  @Setup
+  public void setUp() {
+    compressor = Compressors.of(compression);
+    html = SyntheticHtml.page(htmlBytes, 2).getBytes(StandardCharsets.UTF_8);
+    compressed = compressor.compress(html);
+
+    System.out.printf(
+        "%n%s: html=%d compressed=%d bytes, ratio=%.2f%n",
+        compressor.name(),
+        html.length,
+        compressed.length,
+        (double) html.length / compressed.length);
+  }
+
+  @Benchmark
+  public byte[] compress() {
+    return compressor.compress(html);
+  }
+
+  @Benchmark
+  public byte[] decompress() {
+    return compressor.decompress(compressed, html.length);
+  }
+}
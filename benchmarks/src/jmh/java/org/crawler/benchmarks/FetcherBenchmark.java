@@ -0,0 +1,111 @@
+package org.crawler.benchmarks;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.crawler.domain.Link;
+import org.crawler.domain.Page;
+import org.crawler.domain.config.FetcherConfig;
+import org.crawler.domain.config.FetcherType;
+import org.crawler.service.worker.HttpClientPageFetcher;
+import org.crawler.service.worker.JsoupPageFetcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Jsoup versus the shared HttpClient engine against a local stub server. The stub speaks HTTP/1.1
+ * only, so this measures connection reuse and in-flight concurrency rather than HTTP/2.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class FetcherBenchmark {
+  private static final int IN_FLIGHT = 16;
+
+  @Param({"16384", "262144"})
+  public int htmlBytes;
+
+  private HttpServer server;
+  private ExecutorService executor;
+  private JsoupPageFetcher jsoupFetcher;
+  private HttpClientPageFetcher httpClientFetcher;
+  private Link link;
+
+  @Setup
+  public void setUp() throws IOException {
+    byte[] body = SyntheticHtml.page(htmlBytes, 2).getBytes(StandardCharsets.UTF_8);
+
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.setExecutor(executor);
+    server.createContext(
+        "/page",
+        exchange -> {
+          exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+          exchange.sendResponseHeaders(200, body.length);
+          try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+          }
+        });
+    server.start();
+
+    link =
+        new Link(URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/page"), 0);
+    jsoupFetcher = new JsoupPageFetcher();
+    httpClientFetcher =
+        new HttpClientPageFetcher(
+            new FetcherConfig(
+                FetcherType.HTTP_CLIENT,
+                Duration.ofSeconds(5),
+                Duration.ofSeconds(30),
+                IN_FLIGHT,
+                2 * 1024 * 1024),
+            executor);
+  }
+
+  @TearDown
+  public void tearDown() {
+    server.stop(0);
+    executor.close();
+  }
+
+  @Benchmark
+  public Page jsoup() {
+    return jsoupFetcher.fetchPage(link);
+  }
+
+  @Benchmark
+  public Page httpClient() {
+    return httpClientFetcher.fetchPage(link);
+  }
+
+  /** Time per page with {@value #IN_FLIGHT} requests in flight, as one asynchronous worker. */
+  @Benchmark
+  @OperationsPerInvocation(IN_FLIGHT)
+  public List<Page> httpClientInFlight() {
+    List<CompletableFuture<Page>> fetches =
+        IntStream.range(0, IN_FLIGHT)
+            .mapToObj(i -> httpClientFetcher.fetchPageAsync(link))
+            .toList();
+
+    return fetches.stream().map(CompletableFuture::join).toList();
+  }
+}
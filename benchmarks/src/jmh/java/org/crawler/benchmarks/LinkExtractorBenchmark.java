@@ -0,0 +1,75 @@
+package org.crawler.benchmarks;
+
+import java.net.URI;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.crawler.common.URLPredicates;
+import org.crawler.domain.Link;
+import org.crawler.domain.Page;
+import org.crawler.infrastructure.VisitedUrlsSet;
+import org.crawler.service.worker.JsoupLinkExtractor;
+import org.crawler.service.worker.StreamingLinkExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Jsoup DOM versus streaming href scan, on small, medium and huge pages. Compare the allocation
+ * rate reported by the gc profiler, which is the point of the streaming extractor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class LinkExtractorBenchmark {
+  @Param({"2048", "65536", "2097152"})
+  public int htmlBytes;
+
+  @Param({"2", "20"})
+  public int linksPerKb;
+
+  private JsoupLinkExtractor jsoupExtractor;
+  private StreamingLinkExtractor streamingExtractor;
+  private Page page;
+
+  @Setup
+  public void setUp() {
+    VisitedUrlsSet nothingVisited =
+        new VisitedUrlsSet() {
+          @Override
+          public void clear() {}
+
+          @Override
+          public boolean addIfNotPresent(String url) {
+            return true;
+          }
+
+          @Override
+          public boolean isPresent(String url) {
+            return false;
+          }
+        };
+
+    jsoupExtractor = new JsoupLinkExtractor(URLPredicates.defaultValidator(), nothingVisited, 3);
+    streamingExtractor =
+        new StreamingLinkExtractor(URLPredicates.defaultValidator(), nothingVisited, 3);
+    page =
+        new Page(
+            new Link(URI.create("https://example.com/articles/index.html"), 1),
+            SyntheticHtml.page(htmlBytes, linksPerKb));
+  }
+
+  @Benchmark
+  public Set<Link> jsoup() {
+    return jsoupExtractor.extractLinks(page);
+  }
+
+  @Benchmark
+  public Set<Link> streaming() {
+    return streamingExtractor.extractLinks(page);
+  }
+}
@@ -0,0 +1,66 @@
+package org.crawler.benchmarks;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.crawler.domain.Link;
+import org.crawler.infrastructure.memory.MemoryFrontierQueue;
+import org.crawler.infrastructure.memory.MemoryVisitedUrlsSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Throughput of the in-memory backend under contention, the ceiling that the Redis backend pays a
+ * network round trip and a codec on top of. Compare runs with {@code -t 1} and more threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Threads(4)
+public class MemoryBackendBenchmark {
+  private static final Link LINK = new Link(URI.create("https://example.com/page"), 1);
+  private static final List<Link> BATCH = List.of(LINK, LINK, LINK, LINK, LINK, LINK, LINK, LINK);
+
+  private final AtomicLong counter = new AtomicLong();
+
+  private MemoryFrontierQueue frontierQueue;
+  private MemoryVisitedUrlsSet visitedUrlsSet;
+
+  @Setup
+  public void setUp() {
+    frontierQueue =
+        new MemoryFrontierQueue(1_000_000, Duration.ofSeconds(1), Duration.ofMillis(1));
+    visitedUrlsSet = new MemoryVisitedUrlsSet(1 << 20);
+  }
+
+  @Benchmark
+  public Optional<Link> frontierPushPop() {
+    frontierQueue.push(LINK);
+    return frontierQueue.pop();
+  }
+
+  @Benchmark
+  public List<Link> frontierBatchPushPop() {
+    frontierQueue.pushAll(BATCH);
+    return frontierQueue.popBatch(BATCH.size());
+  }
+
+  @Benchmark
+  public boolean visitedAddNew() {
+    return visitedUrlsSet.addIfNotPresent("https://example.com/" + counter.incrementAndGet());
+  }
+
+  @Benchmark
+  public boolean visitedLookup() {
+    return visitedUrlsSet.isPresent("https://example.com/page");
+  }
+}
@@ -0,0 +1,142 @@
+package org.crawler.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.crawler.domain.Link;
+import org.crawler.domain.Page;
+import org.crawler.domain.config.CodecFormat;
+import org.crawler.domain.config.FrontierConfig;
+import org.crawler.domain.config.FrontierType;
+import org.crawler.infrastructure.FrontierQueue;
+import org.crawler.infrastructure.codec.LinkCodec;
+import org.crawler.infrastructure.codec.PageCodec;
+import org.crawler.infrastructure.redis.FetchedPagesQueueImpl;
+import org.crawler.infrastructure.redis.FrontierQueueImpl;
+import org.crawler.infrastructure.redis.HostPartitionedFrontierQueue;
+import org.crawler.infrastructure.redis.PriorityFrontierQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+
+/**
+ * The Redis queues, against {@link RespStandIn} by default so that the client side of every call
+ * is measured on its own: borrowing a connection, the round trip over loopback and the codec.
+ * Compare with {@link MemoryBackendBenchmark} for the cost of going through Redis at all.
+ *
+ * <p>With the {@value #REDIS_PROPERTY} system property set to a {@code host:port}, the suite runs
+ * against that server instead. The Lua backed POLITE and PRIORITY frontiers only run there, the
+ * stand-in has no scripting. Every link of a batch is on its own host, so that the polite frontier
+ * hands the whole batch out at once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class RedisQueueBenchmark {
+  static final String REDIS_PROPERTY = "benchmarks.redis";
+
+  @Param({"FIFO", "POLITE", "PRIORITY"})
+  public FrontierType frontier;
+
+  @Param({"JSON", "BINARY"})
+  public CodecFormat codec;
+
+  @Param({"1", "32"})
+  public int batchSize;
+
+  private RespStandIn standIn;
+  private JedisPool jedisPool;
+  private FrontierQueue frontierQueue;
+  private FetchedPagesQueueImpl fetchedPagesQueue;
+  private List<Link> links;
+  private List<Page> pages;
+
+  @Setup
+  public void setUp() throws IOException {
+    String redis = System.getProperty(REDIS_PROPERTY, "");
+    if (redis.isEmpty()) {
+      if (frontier != FrontierType.FIFO) {
+        throw new IllegalStateException(frontier + " frontier needs -D" + REDIS_PROPERTY);
+      }
+      standIn = new RespStandIn();
+      jedisPool = new JedisPool(new JedisPoolConfig(), "127.0.0.1", standIn.port());
+    } else {
+      HostAndPort server = HostAndPort.from(redis);
+      jedisPool = new JedisPool(new JedisPoolConfig(), server.getHost(), server.getPort());
+    }
+
+    frontierQueue = frontierQueue(new LinkCodec(codec));
+    frontierQueue.clear();
+    fetchedPagesQueue = new FetchedPagesQueueImpl(jedisPool, 1, new PageCodec(codec));
+    fetchedPagesQueue.clear();
+
+    links =
+        IntStream.range(0, batchSize)
+            .mapToObj(i -> new Link(URI.create("https://site" + i + ".example.com/articles"), 2))
+            .toList();
+    String html = SyntheticHtml.page(16384, 2);
+    pages = links.stream().map(link -> new Page(link, html)).toList();
+  }
+
+  private FrontierQueue frontierQueue(LinkCodec linkCodec) {
+    var config =
+        new FrontierConfig(
+            frontier,
+            Duration.ZERO,
+            Duration.ZERO,
+            0,
+            0,
+            Path.of("build/frontier"),
+            1000,
+            1024 * 1024,
+            100,
+            0.1,
+            1.0);
+
+    return switch (frontier) {
+      case POLITE -> new HostPartitionedFrontierQueue(jedisPool, 1, config, linkCodec);
+      case PRIORITY -> new PriorityFrontierQueue(jedisPool, 1, config, linkCodec);
+      default -> new FrontierQueueImpl(jedisPool, 1, linkCodec);
+    };
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    frontierQueue.clear();
+    fetchedPagesQueue.clear();
+    jedisPool.close();
+    if (standIn != null) {
+      standIn.close();
+    }
+  }
+
+  @Benchmark
+  public List<Link> frontierPushPop() {
+    frontierQueue.pushAll(links);
+    return frontierQueue.popBatch(batchSize);
+  }
+
+  @Benchmark
+  public List<Page> parsingPushPop() {
+    fetchedPagesQueue.pushAll(pages);
+    return fetchedPagesQueue.popBatch(batchSize);
+  }
+
+  @Benchmark
+  public long frontierSize() {
+    return frontierQueue.size();
+  }
+}
@@ -0,0 +1,217 @@
+package org.crawler.benchmarks;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-process stand-in for Redis speaking just enough RESP2 for the list-backed queues: LPUSH,
+ * RPUSH, LPOP, BLPOP, BLMPOP, LLEN and DEL, with blocking pops answering at once. Everything else
+ * gets {@code +OK}. Running against it measures what the crawler side of a queue call costs, the
+ * pool, the protocol and the codecs, without the network and the server.
+ */
+final class RespStandIn implements AutoCloseable {
+  private final ServerSocket serverSocket;
+  // Keys decoded as ISO-8859-1, which maps every byte to one char
+  private final Map<String, ArrayDeque<byte[]>> lists = new HashMap<>();
+
+  RespStandIn() throws IOException {
+    serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    Thread.ofVirtual().start(this::accept);
+  }
+
+  int port() {
+    return serverSocket.getLocalPort();
+  }
+
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+  }
+
+  private void accept() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket socket = serverSocket.accept();
+        socket.setTcpNoDelay(true);
+        Thread.ofVirtual().start(() -> serve(socket));
+      } catch (IOException e) {
+        return;
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    try (socket;
+        InputStream in = new BufferedInputStream(socket.getInputStream());
+        OutputStream out = new BufferedOutputStream(socket.getOutputStream())) {
+      while (true) {
+        List<byte[]> command = readCommand(in);
+        synchronized (lists) {
+          execute(command, out);
+        }
+        out.flush();
+      }
+    } catch (IOException e) {
+      // Client went away
+    }
+  }
+
+  private void execute(List<byte[]> command, OutputStream out) throws IOException {
+    String name = string(command.get(0)).toUpperCase(Locale.ROOT);
+
+    switch (name) {
+      case "PING" -> out.write("+PONG\r\n".getBytes(StandardCharsets.US_ASCII));
+      case "LPUSH", "RPUSH" -> {
+        ArrayDeque<byte[]> list =
+            lists.computeIfAbsent(string(command.get(1)), key -> new ArrayDeque<>());
+        for (byte[] value : command.subList(2, command.size())) {
+          if (name.equals("LPUSH")) {
+            list.addFirst(value);
+          } else {
+            list.addLast(value);
+          }
+        }
+        integer(out, list.size());
+      }
+      case "LPOP" -> {
+        ArrayDeque<byte[]> list = lists.get(string(command.get(1)));
+        if (command.size() == 2) {
+          bulk(out, list == null ? null : list.pollFirst());
+        } else if (list == null || list.isEmpty()) {
+          out.write("*-1\r\n".getBytes(StandardCharsets.US_ASCII));
+        } else {
+          array(out, pop(list, Integer.parseInt(string(command.get(2)))));
+        }
+      }
+      case "BLPOP" -> {
+        for (byte[] key : command.subList(1, command.size() - 1)) {
+          ArrayDeque<byte[]> list = lists.get(string(key));
+          if (list != null && !list.isEmpty()) {
+            array(out, List.of(key, list.pollFirst()));
+            return;
+          }
+        }
+        out.write("*-1\r\n".getBytes(StandardCharsets.US_ASCII));
+      }
+      case "BLMPOP" -> {
+        int keys = Integer.parseInt(string(command.get(2)));
+        int count = 1;
+        if (command.size() > 4 + keys) {
+          count = Integer.parseInt(string(command.get(command.size() - 1)));
+        }
+        for (byte[] key : command.subList(3, 3 + keys)) {
+          ArrayDeque<byte[]> list = lists.get(string(key));
+          if (list != null && !list.isEmpty()) {
+            out.write("*2\r\n".getBytes(StandardCharsets.US_ASCII));
+            bulk(out, key);
+            array(out, pop(list, count));
+            return;
+          }
+        }
+        out.write("*-1\r\n".getBytes(StandardCharsets.US_ASCII));
+      }
+      case "LLEN" -> {
+        ArrayDeque<byte[]> list = lists.get(string(command.get(1)));
+        integer(out, list == null ? 0 : list.size());
+      }
+      case "DEL" -> {
+        int deleted = 0;
+        for (byte[] key : command.subList(1, command.size())) {
+          deleted += lists.remove(string(key)) != null ? 1 : 0;
+        }
+        integer(out, deleted);
+      }
+      default -> out.write("+OK\r\n".getBytes(StandardCharsets.US_ASCII));
+    }
+  }
+
+  private static List<byte[]> pop(ArrayDeque<byte[]> list, int count) {
+    List<byte[]> values = new ArrayList<>(Math.min(count, list.size()));
+    while (values.size() < count && !list.isEmpty()) {
+      values.add(list.pollFirst());
+    }
+    return values;
+  }
+
+  private static List<byte[]> readCommand(InputStream in) throws IOException {
+    expect(in, '*');
+    int count = (int) readNumber(in);
+    List<byte[]> command = new ArrayList<>(count);
+
+    for (int i = 0; i < count; i++) {
+      expect(in, '$');
+      byte[] value = in.readNBytes((int) readNumber(in));
+      in.skipNBytes(2);
+      command.add(value);
+    }
+    return command;
+  }
+
+  private static void expect(InputStream in, char type) throws IOException {
+    int read = in.read();
+    if (read < 0) {
+      throw new EOFException();
+    }
+    if (read != type) {
+      throw new IOException("Expected " + type + " but got " + (char) read);
+    }
+  }
+
+  // Reads digits up to the CRLF that ends the line
+  private static long readNumber(InputStream in) throws IOException {
+    long value = 0;
+    boolean negative = false;
+
+    for (int read = in.read(); read != '\r'; read = in.read()) {
+      if (read < 0) {
+        throw new EOFException();
+      }
+      if (read == '-') {
+        negative = true;
+      } else {
+        value = value * 10 + (read - '0');
+      }
+    }
+    in.read();
+    return negative ? -value : value;
+  }
+
+  private static void integer(OutputStream out, long value) throws IOException {
+    out.write((":" + value + "\r\n").getBytes(StandardCharsets.US_ASCII));
+  }
+
+  private static void bulk(OutputStream out, byte[] value) throws IOException {
+    if (value == null) {
+      out.write("$-1\r\n".getBytes(StandardCharsets.US_ASCII));
+      return;
+    }
+    out.write(("$" + value.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+    out.write(value);
+    out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+  }
+
+  private static void array(OutputStream out, List<byte[]> values) throws IOException {
+    out.write(("*" + values.size() + "\r\n").getBytes(StandardCharsets.US_ASCII));
+    for (byte[] value : values) {
+      bulk(out, value);
+    }
+  }
+
+  private static String string(byte[] value) {
+    return new String(value, StandardCharsets.ISO_8859_1);
+  }
+}
@@ -0,0 +1,92 @@
+package org.crawler.benchmarks;
+
+import crawlercommons.robots.BaseRobotRules;
+import crawlercommons.robots.SimpleRobotRulesParser;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.crawler.domain.config.FetcherConfig;
+import org.crawler.domain.config.FetcherType;
+import org.crawler.domain.config.RobotsConfig;
+import org.crawler.service.RobotsCheckerImpl;
+import org.crawler.service.RobotsRulesCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parsing a robots.txt the size of a large news site's, and checking URLs against cached rules
+ * through {@link RobotsCheckerImpl}, which every fetch does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class RobotsBenchmark {
+  private static final URI[] URIS = {
+    URI.create("https://example.com/articles/2024/10/some-article"),
+    URI.create("https://example.com/search?q=crawler"),
+    URI.create("https://example.com/private/section-17/page.html"),
+    URI.create("https://example.com/static/images/logo.png")
+  };
+
+  private byte[] robotsTxt;
+  private RobotsCheckerImpl robotsChecker;
+
+  @Setup
+  public void setUp() {
+    robotsTxt = robotsTxt().getBytes(StandardCharsets.UTF_8);
+    BaseRobotRules rules = parse(robotsTxt);
+
+    RobotsRulesCache rulesCache =
+        new RobotsRulesCache(
+            new RobotsConfig(1000, Duration.ofHours(1), Duration.ofMinutes(1)),
+            new FetcherConfig(FetcherType.HTTP_CLIENT, Duration.ZERO, Duration.ZERO, 1, 0),
+            Runnable::run) {
+          @Override
+          protected BaseRobotRules fetchRules(String hostKey) {
+            return rules;
+          }
+        };
+    robotsChecker = new RobotsCheckerImpl(rulesCache);
+    robotsChecker.isUrlAllowed(URIS[0]);
+  }
+
+  @Benchmark
+  public BaseRobotRules parse() {
+    return parse(robotsTxt);
+  }
+
+  @Benchmark
+  public void isUrlAllowed(Blackhole blackhole) {
+    for (URI uri : URIS) {
+      blackhole.consume(robotsChecker.isUrlAllowed(uri));
+    }
+  }
+
+  private static BaseRobotRules parse(byte[] content) {
+    return new SimpleRobotRulesParser()
+        .parseContent(
+            "https://example.com/robots.txt", content, "text/plain", Set.of("MyCrawler"));
+  }
+
+  private static String robotsTxt() {
+    StringBuilder robots = new StringBuilder();
+    for (String agent : new String[] {"Googlebot", "Bingbot", "*"}) {
+      robots.append("User-agent: ").append(agent).append('\n');
+      for (int i = 0; i < 200; i++) {
+        robots.append("Disallow: /private/section-").append(i).append("/\n");
+        robots.append("Allow: /private/section-").append(i).append("/public/*.html$\n");
+      }
+      robots.append("Disallow: /search\nDisallow: /*?sessionid=\nCrawl-delay: 1\n\n");
+    }
+    robots.append("Sitemap: https://example.com/sitemap.xml\n");
+    return robots.toString();
+  }
+}
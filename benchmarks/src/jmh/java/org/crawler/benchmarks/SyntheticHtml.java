@@ -0,0 +1,37 @@
+package org.crawler.benchmarks;
+
+import java.util.Random;
+
+/** Deterministic HTML of roughly the requested size, with a mix of markup, text and links. */
+final class SyntheticHtml {
+  private SyntheticHtml() {}
+
+  static String page(int targetBytes, int linksPerKb) {
+    Random random = new Random(targetBytes);
+    StringBuilder html = new StringBuilder(targetBytes + 256);
+    html.append("<!DOCTYPE html><html><head><title>Synthetic page</title>")
+        .append("<link rel=\"stylesheet\" href=\"/static/site.css\"></head><body>")
+        .append("<nav><a href=\"/\">Home</a> <a href=\"/about\">About</a></nav>");
+
+    int link = 0;
+    while (html.length() < targetBytes) {
+      html.append("<div class=\"item\"><p>Lorem ipsum dolor sit amet, \"consectetur\" ")
+          .append("adipiscing elit &amp; sed do eiusmod tempor <em>incididunt</em> ut labore.</p>");
+
+      if (random.nextInt(1024) < linksPerKb * 160) {
+        switch (link++ % 4) {
+          case 0 -> html.append("<a href=\"/articles/").append(random.nextInt(100_000));
+          case 1 -> html.append("<a href=\"https://example.com/page/").append(link);
+          case 2 -> html.append("<a href=\"../relative/").append(link).append("?ref=nav");
+          default -> html.append("<a href=\"https://other-").append(link % 50).append(".org/");
+        }
+        html.append("\">Link ").append(link).append("</a>");
+      }
+
+      html.append("</div>\n");
+    }
+
+    html.append("<footer><a href=\"/contact\">Contact</a></footer></body></html>");
+    return html.toString();
+  }
+}
@@ -0,0 +1,52 @@
+package org.crawler.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.crawler.common.CompiledUrlFilter;
+import org.crawler.common.URLPredicate;
+import org.crawler.common.URLPredicates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Regex-per-call validator versus the compiled rule engine, on a mix of kept and dropped URLs. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class UrlFilterBenchmark {
+  private static final String[] URLS = {
+    "https://example.com/",
+    "https://www.example.com/articles/2024/10/some-long-article-slug-with-words",
+    "https://example.com/search?q=crawler&page=2",
+    "https://cdn.example.com/files/annual-report.pdf",
+    "https://example.com/downloads/archive.tar",
+    "https://example.com/page#comments",
+    "http://user@example.org:8080/a/b/c/d/e/f/index.html",
+    "javascript:void(0)"
+  };
+
+  @Param({"REGEX", "COMPILED"})
+  public String filter;
+
+  private URLPredicate predicate;
+
+  @Setup
+  public void setUp() {
+    predicate =
+        filter.equals("REGEX")
+            ? URLPredicates.defaultValidator()
+            : new CompiledUrlFilter(CompiledUrlFilter.defaultConfig());
+  }
+
+  @Benchmark
+  public void isValid(Blackhole blackhole) {
+    for (String url : URLS) {
+      blackhole.consume(predicate.isValid(url));
+    }
+  }
+}
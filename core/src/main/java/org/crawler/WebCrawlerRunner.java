@@ -1,51 +1,176 @@
 package org.crawler;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import org.crawler.common.URLPredicates;
+import org.crawler.common.CompiledUrlFilter;
+import org.crawler.common.UrlCanonicalizer;
 import org.crawler.domain.config.AppConfig;
+import org.crawler.domain.config.BackendType;
+import org.crawler.domain.config.FrontierType;
+import org.crawler.domain.config.MetricsConfig;
+import org.crawler.domain.config.QueueType;
+import org.crawler.domain.config.ResumeConfig;
+import org.crawler.domain.config.VisitedSetType;
 import org.crawler.infrastructure.*;
+import org.crawler.infrastructure.codec.Compressors;
+import org.crawler.infrastructure.codec.LinkCodec;
+import org.crawler.infrastructure.codec.PageCodec;
+import org.crawler.infrastructure.disk.DiskVisitedUrlsSet;
+import org.crawler.infrastructure.disk.SpillingFrontierQueue;
+import org.crawler.infrastructure.memory.MemoryFetchedPagesQueue;
+import org.crawler.infrastructure.memory.MemoryFrontierQueue;
+import org.crawler.infrastructure.memory.MemoryVisitedUrlsSet;
+import org.crawler.infrastructure.redis.CheckpointStoreImpl;
 import org.crawler.infrastructure.redis.FetchedPagesQueueImpl;
+import org.crawler.infrastructure.redis.FingerprintVisitedUrlsSet;
 import org.crawler.infrastructure.redis.FrontierQueueImpl;
+import org.crawler.infrastructure.redis.HostPartitionedFrontierQueue;
+import org.crawler.infrastructure.redis.PriorityFrontierQueue;
+import org.crawler.infrastructure.redis.RedisShards;
+import org.crawler.infrastructure.redis.StreamFetchedPagesQueue;
+import org.crawler.infrastructure.redis.StreamFrontierQueue;
+import org.crawler.infrastructure.redis.ValidatorStoreImpl;
 import org.crawler.infrastructure.redis.VisitedUrlsSetImpl;
+import org.crawler.infrastructure.seen.LocalSeenFilter;
+import org.crawler.infrastructure.shard.ShardedFetchedPagesQueue;
+import org.crawler.infrastructure.shard.ShardedFrontierQueue;
+import org.crawler.infrastructure.shard.ShardedVisitedUrlsSet;
+import org.crawler.metrics.MetricsHttpServer;
+import org.crawler.metrics.MetricsMBean;
+import org.crawler.metrics.MetricsRegistry;
+import org.crawler.service.CrawlCounters;
+import org.crawler.service.RecrawlCache;
 import org.crawler.service.RobotsChecker;
 import org.crawler.service.RobotsCheckerImpl;
+import org.crawler.service.RobotsRulesCache;
+import org.crawler.service.ScalingDecision;
 import org.crawler.service.WorkersManager;
+import org.crawler.service.worker.CrawlMaintenanceWorker;
+import org.crawler.service.worker.HttpClientPageFetcher;
+import org.crawler.service.worker.JsoupPageFetcher;
+import org.crawler.service.worker.PageFetcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import redis.clients.jedis.JedisPool;
 
 public class WebCrawlerRunner {
   private static final Logger logger = LoggerFactory.getLogger(WebCrawlerRunner.class);
 
+  private final CountDownLatch stopped = new CountDownLatch(1);
+
+  /** Crawls until the JVM exits or {@link #stop()} is called. */
   public void run(AppConfig appConfig) {
     var redisConfig = appConfig.redis();
 
+    // No pool at all with the memory backend, so no Redis server is needed
     try (var executorService = Executors.newVirtualThreadPerTaskExecutor();
-        var jedisPool =
-            new JedisPool(redisConfig.jedisPoolConfig(), redisConfig.host(), redisConfig.port())) {
+        var redisShards =
+            appConfig.backend().type() == BackendType.REDIS ? new RedisShards(redisConfig) : null) {
+
+      if (redisShards != null && redisShards.size() > 1) {
+        logger.info("Sharding the crawl state by host across {}", redisConfig.endpoints());
+      }
 
-      WorkersManager workersManager = setupWorkers(executorService, jedisPool, appConfig);
+      VisitedUrlsSet visitedUrlsSet = newVisitedUrlsSet(redisShards, appConfig);
+      WorkersManager workersManager =
+          setupWorkers(executorService, redisShards, visitedUrlsSet, appConfig);
+      List<AutoCloseable> metricsExporters =
+          startMetricsExporters(appConfig.metrics(), executorService);
 
-      registerShutdownHook(workersManager, executorService, jedisPool);
+      Thread shutdownHook =
+          registerShutdownHook(
+              workersManager, visitedUrlsSet, metricsExporters, executorService, redisShards);
       workersManager.start();
 
-      Thread.currentThread().join();
+      stopped.await();
+
+      Runtime.getRuntime().removeShutdownHook(shutdownHook);
+      logger.info("Stopping...");
+      shutdown(workersManager, visitedUrlsSet, metricsExporters, executorService, redisShards);
     } catch (Exception e) {
       logger.error("Fatal error during startup: {}", e.getMessage(), e);
     }
   }
 
+  /** Makes {@link #run} shut the crawl down and return, for harnesses running it in-process. */
+  public void stop() {
+    stopped.countDown();
+  }
+
   private static WorkersManager setupWorkers(
-      ExecutorService executorService, JedisPool jedisPool, AppConfig config) {
+      ExecutorService executorService,
+      RedisShards redisShards,
+      VisitedUrlsSet visitedUrlsSet,
+      AppConfig config) {
     var numberOfPageFetcherWorkers = config.numberOfPageFetcherWorkers();
     var numberOfLinksExtractorWorker = config.numberOfLinksExtractorWorker();
 
-    FrontierQueue frontierQueue = new FrontierQueueImpl(jedisPool, config.redis().timeout());
+    var linkCodec = new LinkCodec(config.queue().codec());
+    var pageCodec =
+        new PageCodec(
+            config.queue().codec(),
+            config.queue().compression(),
+            config.queue().compressionMinBytes());
+
+    // Items are only leased in resume mode, a fresh crawl has nothing to recover
+    ResumeConfig resumeConfig = isResumable(config) ? config.resume() : null;
+
+    RobotsRulesCache robotsRulesCache =
+        new RobotsRulesCache(config.robots(), config.fetcher(), executorService);
+    RobotsChecker robotsChecker = new RobotsCheckerImpl(robotsRulesCache);
+
+    FrontierQueue frontierQueue =
+        newFrontierQueue(redisShards, config, linkCodec, resumeConfig, robotsChecker);
     FetchedPagesQueue fetchedPagesQueue =
-        new FetchedPagesQueueImpl(jedisPool, config.redis().timeout());
-    VisitedUrlsSet visitedUrlsSet = new VisitedUrlsSetImpl(jedisPool);
-    RobotsChecker robotsChecker = new RobotsCheckerImpl();
+        newFetchedPagesQueue(redisShards, config, pageCodec, resumeConfig);
+    PageFetcher pageFetcher =
+        switch (config.fetcher().type()) {
+          case JSOUP -> new JsoupPageFetcher();
+          case HTTP_CLIENT -> new HttpClientPageFetcher(config.fetcher(), executorService);
+        };
+    if (config.recrawl().enabled() && redisShards == null) {
+      logger.warn("Recrawl validators are stored in Redis, recrawl is off with the memory backend");
+    }
+    RecrawlCache recrawlCache =
+        config.recrawl().enabled() && redisShards != null
+            ? new RecrawlCache(
+                new ValidatorStoreImpl(redisShards.primary(), config.recrawl().validatorTtl()),
+                config.recrawl(),
+                config.maxDepth())
+            : RecrawlCache.disabled();
+
+    var urlCanonicalizer = new UrlCanonicalizer(config.canonicalizer());
+
+    CrawlCounters counters = new CrawlCounters();
+    CheckpointStore checkpointStore =
+        redisShards != null ? new CheckpointStoreImpl(redisShards.primary()) : null;
+    CrawlMaintenanceWorker maintenanceWorker = null;
+
+    if (resumeConfig != null) {
+      counters.restore(checkpointStore.load());
+      logger.info("Resuming the crawl from checkpoint {}", counters);
+
+      maintenanceWorker =
+          new CrawlMaintenanceWorker(
+              List.of(frontierQueue, fetchedPagesQueue),
+              counters,
+              checkpointStore,
+              resumeConfig.reaperInterval());
+    } else {
+      // Page validators survive on purpose, the next crawl revalidates instead of refetching
+      if (!keepsVisitedUrls(config)) {
+        visitedUrlsSet.clear();
+      }
+      frontierQueue.clear();
+      fetchedPagesQueue.clear();
+      if (checkpointStore != null) {
+        checkpointStore.clear();
+      }
+    }
 
     var workersManger =
         new WorkersManager(
@@ -53,46 +178,280 @@ public class WebCrawlerRunner {
             fetchedPagesQueue,
             visitedUrlsSet,
             executorService,
-            URLPredicates.defaultValidator(),
+            new CompiledUrlFilter(config.urlFilter()),
+            urlCanonicalizer,
             robotsChecker,
             config.maxDepth(),
             numberOfPageFetcherWorkers,
-            numberOfLinksExtractorWorker);
+            numberOfLinksExtractorWorker,
+            config.queueBatchSize(),
+            config.pipelineMode(),
+            config.linkExtractor(),
+            List.of(),
+            pageFetcher,
+            config.fetcher().maxInFlightPerWorker(),
+            recrawlCache,
+            counters,
+            maintenanceWorker,
+            config.autoscale(),
+            config.backpressure());
 
-    visitedUrlsSet.clear();
-    frontierQueue.clear();
-    fetchedPagesQueue.clear();
+    registerGauges(
+        frontierQueue,
+        fetchedPagesQueue,
+        visitedUrlsSet,
+        robotsRulesCache,
+        counters,
+        workersManger);
 
-    frontierQueue.push(config.seedLink());
+    // Also pushed when resuming, the visited set drops it if it was crawled already
+    frontierQueue.push(urlCanonicalizer.normalize(config.seedLink()));
 
     return workersManger;
   }
 
-  private static void registerShutdownHook(
-      WorkersManager workersManager, ExecutorService executorService, JedisPool jedisPool) {
+  // Gauges are read on export only, a Redis backed size costs one round trip per scrape
+  private static void registerGauges(
+      FrontierQueue frontierQueue,
+      FetchedPagesQueue fetchedPagesQueue,
+      VisitedUrlsSet visitedUrlsSet,
+      RobotsRulesCache robotsRulesCache,
+      CrawlCounters counters,
+      WorkersManager workersManager) {
+    MetricsRegistry registry = MetricsRegistry.global();
+
+    registry.gauge("frontier_depth", frontierQueue::size);
+    registry.gauge("parsing_depth", fetchedPagesQueue::size);
+    registry.gauge("visited_urls", visitedUrlsSet::size);
+    registry.gauge("robots_cache_hosts", robotsRulesCache::size);
+    registry.gauge("robots_cache_hits", robotsRulesCache::hitCount);
+    registry.gauge("robots_cache_misses", robotsRulesCache::missCount);
+    registry.gauge(
+        "robots_cache_hit_ratio",
+        () -> {
+          long hits = robotsRulesCache.hitCount();
+          long lookups = hits + robotsRulesCache.missCount();
+          return lookups == 0 ? 0 : (double) hits / lookups;
+        });
+
+    for (CrawlCounters.Counter counter : CrawlCounters.Counter.values()) {
+      registry.gauge(
+          "crawl_" + counter.name().toLowerCase(Locale.ROOT), () -> counters.get(counter));
+    }
+    for (ScalingDecision.Stage stage : ScalingDecision.Stage.values()) {
+      registry.gauge(
+          "workers_" + stage.name().toLowerCase(Locale.ROOT),
+          () -> workersManager.workerCount(stage));
+    }
+  }
+
+  private static List<AutoCloseable> startMetricsExporters(
+      MetricsConfig config, Executor executor) throws Exception {
+    List<AutoCloseable> exporters = new ArrayList<>();
+
+    if (config.jmxEnabled()) {
+      MetricsMBean mbean = new MetricsMBean(MetricsRegistry.global());
+      mbean.register();
+      exporters.add(mbean);
+    }
+
+    if (config.httpEnabled()) {
+      MetricsHttpServer server =
+          new MetricsHttpServer(
+              MetricsRegistry.global(), config.httpHost(), config.httpPort(), executor);
+      server.start();
+      exporters.add(server);
+    }
+
+    return exporters;
+  }
+
+  private static boolean isResumable(AppConfig config) {
+    if (!config.resume().enabled()) {
+      return false;
+    }
+
+    // The memory and spilling frontiers start empty, resuming would only skip visited pages
+    if (config.backend().type() != BackendType.REDIS
+        || config.frontier().type() == FrontierType.SPILLING) {
+      logger.warn("Resuming needs the Redis backend and frontier, starting a fresh crawl");
+      if (keepsVisitedUrls(config)) {
+        logger.warn("Keeping the disk visited set, the URLs it holds are not crawled again");
+      }
+      return false;
+    }
+
+    return true;
+  }
+
+  // The disk visited set is reopened on any backend, so resuming keeps it even when the frontier
+  // starts over from the seed
+  private static boolean keepsVisitedUrls(AppConfig config) {
+    return config.resume().enabled() && config.visited().type() == VisitedSetType.DISK;
+  }
+
+  private static FrontierQueue newFrontierQueue(
+      RedisShards redisShards,
+      AppConfig config,
+      LinkCodec linkCodec,
+      ResumeConfig resumeConfig,
+      RobotsChecker robotsChecker) {
+    FrontierType frontierType = config.frontier().type();
+
+    if (config.backend().type() == BackendType.MEMORY && frontierType != FrontierType.SPILLING) {
+      logger.info("Using the in-memory FIFO frontier in place of the {} one", frontierType);
+      return new MemoryFrontierQueue(
+          config.backend().frontierCapacity(),
+          config.backend().maxBlock(),
+          config.backend().pollTimeout());
+    }
+
+    boolean streams = config.queue().type() == QueueType.STREAM;
+    if (streams && frontierType != FrontierType.FIFO) {
+      logger.info("Only the FIFO frontier runs on a stream, not the {} one", frontierType);
+    }
+
+    return switch (frontierType) {
+      case FIFO ->
+          redisShards.shard(
+              jedisPool ->
+                  streams
+                      ? new StreamFrontierQueue(
+                          jedisPool, config.redis().timeout(), linkCodec, config.stream())
+                      : new FrontierQueueImpl(
+                          jedisPool, config.redis().timeout(), linkCodec, resumeConfig),
+              ShardedFrontierQueue::new);
+      case POLITE ->
+          redisShards.shard(
+              jedisPool ->
+                  new HostPartitionedFrontierQueue(
+                      jedisPool,
+                      config.redis().timeout(),
+                      config.frontier(),
+                      linkCodec,
+                      resumeConfig,
+                      robotsChecker::crawlDelay),
+              ShardedFrontierQueue::new);
+      case PRIORITY ->
+          redisShards.shard(
+              jedisPool ->
+                  new PriorityFrontierQueue(
+                      jedisPool,
+                      config.redis().timeout(),
+                      config.frontier(),
+                      linkCodec,
+                      resumeConfig),
+              ShardedFrontierQueue::new);
+      case SPILLING ->
+          new SpillingFrontierQueue(
+              config.frontier().spillDirectory(),
+              config.frontier().spillHotCapacity(),
+              config.frontier().spillSegmentBytes(),
+              config.backend().pollTimeout(),
+              linkCodec);
+    };
+  }
+
+  private static FetchedPagesQueue newFetchedPagesQueue(
+      RedisShards redisShards, AppConfig config, PageCodec pageCodec, ResumeConfig resumeConfig) {
+    return switch (config.backend().type()) {
+      case REDIS ->
+          redisShards.shard(
+              jedisPool ->
+                  config.queue().type() == QueueType.STREAM
+                      ? new StreamFetchedPagesQueue(
+                          jedisPool, config.redis().timeout(), pageCodec, config.stream())
+                      : new FetchedPagesQueueImpl(
+                          jedisPool, config.redis().timeout(), pageCodec, resumeConfig),
+              ShardedFetchedPagesQueue::new);
+      case MEMORY ->
+          new MemoryFetchedPagesQueue(
+              config.backend().fetchedPagesCapacity(),
+              config.backend().maxBlock(),
+              config.backend().pollTimeout());
+    };
+  }
+
+  private static VisitedUrlsSet newVisitedUrlsSet(RedisShards redisShards, AppConfig config) {
+    VisitedSetType visitedSetType = config.visited().type();
+
+    if (config.backend().type() == BackendType.MEMORY && visitedSetType != VisitedSetType.DISK) {
+      return new MemoryVisitedUrlsSet(config.backend().visitedInitialCapacity());
+    }
+
+    VisitedUrlsSet visitedUrlsSet =
+        switch (visitedSetType) {
+          case STRINGS -> redisShards.shard(VisitedUrlsSetImpl::new, ShardedVisitedUrlsSet::new);
+          case FINGERPRINTS ->
+              redisShards.shard(
+                  jedisPool ->
+                      new FingerprintVisitedUrlsSet(
+                          jedisPool,
+                          config.visited().fingerprintBucketBits(),
+                          config.visited().legacyCompat()),
+                  ShardedVisitedUrlsSet::new);
+          case DISK ->
+              new DiskVisitedUrlsSet(
+                  config.visited().diskDirectory(),
+                  config.visited().diskExpectedUrls(),
+                  config.visited().diskSyncEvery());
+        };
+
+    return config.seenFilter().enabled()
+        ? new LocalSeenFilter(visitedUrlsSet, config.seenFilter())
+        : visitedUrlsSet;
+  }
 
-    Runtime.getRuntime()
-        .addShutdownHook(
-            new Thread(
-                () -> {
-                  logger.info("Shutting down...");
+  private static Thread registerShutdownHook(
+      WorkersManager workersManager,
+      VisitedUrlsSet visitedUrlsSet,
+      List<AutoCloseable> metricsExporters,
+      ExecutorService executorService,
+      RedisShards redisShards) {
 
-                  shutdown(workersManager, executorService, jedisPool);
-                }));
+    Thread shutdownHook =
+        new Thread(
+            () -> {
+              logger.info("Shutting down...");
+
+              shutdown(
+                  workersManager, visitedUrlsSet, metricsExporters, executorService, redisShards);
+            });
+
+    Runtime.getRuntime().addShutdownHook(shutdownHook);
+    return shutdownHook;
   }
 
   private static void shutdown(
-      WorkersManager workersManager, ExecutorService executorService, JedisPool jedisPool) {
+      WorkersManager workersManager,
+      VisitedUrlsSet visitedUrlsSet,
+      List<AutoCloseable> metricsExporters,
+      ExecutorService executorService,
+      RedisShards redisShards) {
     if (workersManager != null) {
       workersManager.shutdown();
     }
 
+    for (AutoCloseable exporter : metricsExporters) {
+      try {
+        exporter.close();
+      } catch (Exception e) {
+        logger.warn("Failed to stop {}", exporter.getClass().getSimpleName(), e);
+      }
+    }
+
+    if (visitedUrlsSet != null) {
+      visitedUrlsSet.close();
+    }
+
+    Compressors.all().forEach(compressor -> logger.info("{}", compressor.stats()));
+
     if (executorService != null) {
       executorService.close();
     }
 
-    if (jedisPool != null) {
-      jedisPool.close();
+    if (redisShards != null) {
+      redisShards.close();
     }
   }
 }
@@ -0,0 +1,137 @@
+package org.crawler.common;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+
+/**
+ * Immutable ASCII case-insensitive trie flattened into arrays, matching words against the start or
+ * the end of a character range without allocating. Suffix tries store the words reversed and walk
+ * the input backwards.
+ */
+final class CharTrie {
+  private final boolean suffix;
+  // Per node: its first edge in the edge arrays, its edge count and whether a word ends there
+  private final int[] firstEdge;
+  private final int[] edgeCount;
+  private final boolean[] terminal;
+  // Edges of a node are contiguous and sorted by character
+  private final char[] edgeChar;
+  private final int[] edgeTarget;
+
+  private CharTrie(boolean suffix, Collection<String> words) {
+    this.suffix = suffix;
+
+    List<TreeMap<Character, Integer>> children = new ArrayList<>();
+    List<Boolean> ends = new ArrayList<>();
+    children.add(new TreeMap<>());
+    ends.add(false);
+
+    for (String word : words) {
+      String normalized = word.toLowerCase(Locale.ROOT);
+      int node = 0;
+
+      for (int i = 0; i < normalized.length(); i++) {
+        char c = normalized.charAt(suffix ? normalized.length() - 1 - i : i);
+        Integer next = children.get(node).get(c);
+        if (next == null) {
+          next = children.size();
+          children.get(node).put(c, next);
+          children.add(new TreeMap<>());
+          ends.add(false);
+        }
+        node = next;
+      }
+
+      ends.set(node, true);
+    }
+
+    int nodes = children.size();
+    this.firstEdge = new int[nodes];
+    this.edgeCount = new int[nodes];
+    this.terminal = new boolean[nodes];
+    this.edgeChar = new char[nodes - 1];
+    this.edgeTarget = new int[nodes - 1];
+
+    int edge = 0;
+    for (int node = 0; node < nodes; node++) {
+      firstEdge[node] = edge;
+      edgeCount[node] = children.get(node).size();
+      terminal[node] = ends.get(node);
+      for (var entry : children.get(node).entrySet()) {
+        edgeChar[edge] = entry.getKey();
+        edgeTarget[edge] = entry.getValue();
+        edge++;
+      }
+    }
+  }
+
+  static CharTrie forPrefixes(Collection<String> words) {
+    return new CharTrie(false, words);
+  }
+
+  static CharTrie forSuffixes(Collection<String> words) {
+    return new CharTrie(true, words);
+  }
+
+  boolean isEmpty() {
+    return edgeChar.length == 0 && !terminal[0];
+  }
+
+  /**
+   * Whether a word is a prefix (or suffix) of {@code s[start, end)}. With a non-zero {@code
+   * boundary}, a match only counts when it covers the whole range or stops right before that
+   * character, so that the suffix {@code example.com} matches {@code www.example.com} but not
+   * {@code badexample.com}.
+   */
+  boolean matches(CharSequence s, int start, int end, char boundary) {
+    int node = 0;
+    int length = end - start;
+
+    for (int i = 0; ; i++) {
+      if (terminal[node]) {
+        if (boundary == 0 || i == length) {
+          return true;
+        }
+        char next = s.charAt(suffix ? end - 1 - i : start + i);
+        if (next == boundary) {
+          return true;
+        }
+      }
+
+      if (i == length) {
+        return false;
+      }
+
+      node = child(node, toLowerAscii(s.charAt(suffix ? end - 1 - i : start + i)));
+      if (node < 0) {
+        return false;
+      }
+    }
+  }
+
+  private int child(int node, char c) {
+    int low = firstEdge[node];
+    int high = low + edgeCount[node] - 1;
+
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      char midChar = edgeChar[mid];
+      if (midChar < c) {
+        low = mid + 1;
+      } else if (midChar > c) {
+        high = mid - 1;
+      } else {
+        return edgeTarget[mid];
+      }
+    }
+
+    return -1;
+  }
+
+  private static char toLowerAscii(char c) {
+    return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+  }
+}
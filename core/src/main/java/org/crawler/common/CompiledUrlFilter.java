@@ -0,0 +1,160 @@
+package org.crawler.common;
+
+import java.util.List;
+import java.util.Locale;
+import org.crawler.domain.config.UrlFilterConfig;
+
+/**
+ * {@link URLPredicate} whose rules are compiled once into tries. A URL is checked in a single pass
+ * over its characters without allocating: the scheme, host, path and extension are located by
+ * index and matched in place.
+ *
+ * <p>A URL is valid when it is absolute and hierarchical, not longer than {@code maxUrlLength},
+ * uses one of {@code schemes}, has a host ending in one of {@code allowHostSuffixes} (any host when
+ * empty) and none of {@code denyHostSuffixes}, and a path that neither starts with one of {@code
+ * denyPathPrefixes} nor ends with one of {@code denyExtensions}. Host suffixes match whole labels.
+ */
+public class CompiledUrlFilter implements URLPredicate {
+  private final String[] schemes;
+  private final CharTrie allowHosts;
+  private final CharTrie denyHosts;
+  private final CharTrie denyPathPrefixes;
+  private final CharTrie denyExtensions;
+  private final int maxUrlLength;
+  private final boolean rejectFragments;
+
+  public CompiledUrlFilter(UrlFilterConfig config) {
+    this.schemes =
+        config.schemes().stream()
+            .map(scheme -> scheme.toLowerCase(Locale.ROOT))
+            .toArray(String[]::new);
+    this.allowHosts = CharTrie.forSuffixes(config.allowHostSuffixes());
+    this.denyHosts = CharTrie.forSuffixes(config.denyHostSuffixes());
+    this.denyPathPrefixes = CharTrie.forPrefixes(config.denyPathPrefixes());
+    this.denyExtensions =
+        CharTrie.forSuffixes(
+            config.denyExtensions().stream()
+                .map(extension -> extension.startsWith(".") ? extension : "." + extension)
+                .toList());
+    this.maxUrlLength = config.maxUrlLength();
+    this.rejectFragments = config.rejectFragments();
+  }
+
+  /** The rules equivalent to {@link URLPredicates#defaultValidator()}. */
+  public static UrlFilterConfig defaultConfig() {
+    return new UrlFilterConfig(
+        List.of("http", "https"),
+        List.of(),
+        List.of(),
+        List.of(),
+        List.of(
+            "pdf", "zip", "rar", "tar", "gz", "exe", "doc", "docx", "xls", "xlsx", "ppt", "pptx",
+            "txt"),
+        2048,
+        true);
+  }
+
+  @Override
+  public boolean isValid(String url) {
+    int length = url.length();
+    if (length == 0 || length > maxUrlLength) {
+      return false;
+    }
+
+    int schemeEnd = schemeEnd(url);
+    if (schemeEnd < 0 || !isAllowedScheme(url, schemeEnd)) {
+      return false;
+    }
+
+    // Only hierarchical URLs have a host to crawl
+    if (!url.startsWith("//", schemeEnd + 1)) {
+      return false;
+    }
+
+    int authorityStart = schemeEnd + 3;
+    int authorityEnd = authorityStart;
+    int hostStart = authorityStart;
+    int queryOrFragment = -1;
+
+    for (; authorityEnd < length; authorityEnd++) {
+      char c = url.charAt(authorityEnd);
+      if (c == '/' || c == '?' || c == '#') {
+        break;
+      }
+      if (c == '@') {
+        hostStart = authorityEnd + 1;
+      }
+    }
+
+    int hostEnd = hostEnd(url, hostStart, authorityEnd);
+    if (hostEnd <= hostStart) {
+      return false;
+    }
+
+    if (!allowHosts.isEmpty() && !allowHosts.matches(url, hostStart, hostEnd, '.')) {
+      return false;
+    }
+    if (denyHosts.matches(url, hostStart, hostEnd, '.')) {
+      return false;
+    }
+
+    int pathEnd = authorityEnd;
+    for (; pathEnd < length; pathEnd++) {
+      char c = url.charAt(pathEnd);
+      if (c == '?' || c == '#') {
+        queryOrFragment = pathEnd;
+        break;
+      }
+    }
+
+    if (rejectFragments && queryOrFragment >= 0 && url.indexOf('#', queryOrFragment) >= 0) {
+      return false;
+    }
+
+    return !denyPathPrefixes.matches(url, authorityEnd, pathEnd, (char) 0)
+        && !denyExtensions.matches(url, authorityEnd, pathEnd, (char) 0);
+  }
+
+  /** Index of the ':' ending a valid scheme, or -1 when the URL is relative. */
+  private static int schemeEnd(String url) {
+    if (!isAsciiLetter(url.charAt(0))) {
+      return -1;
+    }
+
+    for (int i = 1; i < url.length(); i++) {
+      char c = url.charAt(i);
+      if (c == ':') {
+        return i;
+      }
+      if (!isAsciiLetter(c) && !(c >= '0' && c <= '9') && c != '+' && c != '-' && c != '.') {
+        return -1;
+      }
+    }
+
+    return -1;
+  }
+
+  private boolean isAllowedScheme(String url, int schemeEnd) {
+    for (String scheme : schemes) {
+      if (scheme.length() == schemeEnd && url.regionMatches(true, 0, scheme, 0, schemeEnd)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private static int hostEnd(String url, int hostStart, int authorityEnd) {
+    if (hostStart < authorityEnd && url.charAt(hostStart) == '[') {
+      int closing = url.indexOf(']', hostStart);
+      return closing < 0 || closing >= authorityEnd ? -1 : closing + 1;
+    }
+
+    int colon = url.indexOf(':', hostStart);
+    return colon < 0 || colon >= authorityEnd ? authorityEnd : colon;
+  }
+
+  private static boolean isAsciiLetter(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+}
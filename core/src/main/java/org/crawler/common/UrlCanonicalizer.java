@@ -0,0 +1,382 @@
+package org.crawler.common;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import org.crawler.domain.Link;
+import org.crawler.domain.config.CanonicalizerConfig;
+
+/**
+ * Rewrites absolute http(s) URLs into one canonical form, whose string is the key of the visited
+ * set. Besides the RFC 3986 normalizations (case of scheme and host, default port, dot segments,
+ * percent-encoding of unreserved characters, empty path) it drops the fragment and the user info,
+ * and optionally the {@code www.} label, index files and trailing slashes.
+ *
+ * <p>The canonical URL is only a key, the server may not serve it: links keep the URL given by
+ * {@link #normalize(String)}, which applies the RFC 3986 normalizations alone.
+ *
+ * <p>Query and path parameters listed in {@code stripParams} are dropped ({@code utm_*} matches a
+ * prefix), hosts with an entry in {@code allowParamsByHost}, or one of their parent domains, keep
+ * only the listed query parameters. The remaining ones are sorted so that their order does not
+ * matter.
+ */
+public class UrlCanonicalizer {
+  private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+  private final boolean stripWww;
+  private final boolean stripTrailingSlash;
+  private final Set<String> indexFiles = new HashSet<>();
+  private final Set<String> stripParams = new HashSet<>();
+  private final List<String> stripParamPrefixes = new ArrayList<>();
+  private final Map<String, Set<String>> allowParamsByHost = new HashMap<>();
+  private final boolean honorRelCanonical;
+
+  public UrlCanonicalizer(CanonicalizerConfig config) {
+    this.stripWww = config.stripWww();
+    this.stripTrailingSlash = config.stripTrailingSlash();
+    this.honorRelCanonical = config.honorRelCanonical();
+
+    config.indexFiles().forEach(file -> indexFiles.add(file.toLowerCase(Locale.ROOT)));
+
+    for (String param : config.stripParams()) {
+      String name = param.toLowerCase(Locale.ROOT);
+      if (name.endsWith("*")) {
+        stripParamPrefixes.add(name.substring(0, name.length() - 1));
+      } else {
+        stripParams.add(name);
+      }
+    }
+
+    config
+        .allowParamsByHost()
+        .forEach(
+            (host, params) ->
+                allowParamsByHost.put(
+                    host.toLowerCase(Locale.ROOT),
+                    new HashSet<>(params.stream().map(p -> p.toLowerCase(Locale.ROOT)).toList())));
+  }
+
+  public static CanonicalizerConfig defaultConfig() {
+    return new CanonicalizerConfig(
+        true,
+        true,
+        List.of("index.html", "index.htm", "index.php", "default.asp", "default.aspx"),
+        List.of(
+            "utm_*", "gclid", "fbclid", "msclkid", "jsessionid", "phpsessid", "sid",
+            "sessionid"),
+        Map.of(),
+        true);
+  }
+
+  public boolean honorsRelCanonical() {
+    return honorRelCanonical;
+  }
+
+  /** The link with its URL normalized, or the link itself when the URL is not crawlable. */
+  public Link normalize(Link link) {
+    return normalize(link.uri().toString())
+        .map(uri -> new Link(uri, link.depth()))
+        .orElse(link);
+  }
+
+  /** Visited set key of a link: its canonical URL, or its URL when that is not crawlable. */
+  public String key(Link link) {
+    return key(link.uri());
+  }
+
+  public String key(URI uri) {
+    String url = uri.toString();
+    return canonicalize(url).map(URI::toString).orElse(url);
+  }
+
+  /**
+   * The URL with the RFC 3986 normalizations only, the one to fetch. Empty when the URL cannot be
+   * parsed or is not an absolute http(s) URL with a host.
+   */
+  public Optional<URI> normalize(String url) {
+    return rewrite(url, false);
+  }
+
+  /** Empty when the URL cannot be parsed or is not an absolute http(s) URL with a host. */
+  public Optional<URI> canonicalize(String url) {
+    return rewrite(url, true);
+  }
+
+  private Optional<URI> rewrite(String url, boolean canonical) {
+    String trimmed = url.trim();
+    int fragment = trimmed.indexOf('#');
+    if (fragment >= 0) {
+      trimmed = trimmed.substring(0, fragment);
+    }
+
+    URI uri;
+    try {
+      uri = new URI(escapeIllegal(trimmed));
+    } catch (Exception e) {
+      return Optional.empty();
+    }
+
+    if (uri.getScheme() == null || uri.getHost() == null || uri.isOpaque()) {
+      return Optional.empty();
+    }
+
+    String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+    if (!scheme.equals("http") && !scheme.equals("https")) {
+      return Optional.empty();
+    }
+
+    String host = uri.getHost().toLowerCase(Locale.ROOT);
+    if (host.endsWith(".")) {
+      host = host.substring(0, host.length() - 1);
+    }
+    if (canonical && stripWww && host.startsWith("www.") && host.indexOf('.', 4) > 0) {
+      host = host.substring(4);
+    }
+
+    int port = uri.getPort();
+    boolean defaultPort =
+        port == -1
+            || (port == 80 && scheme.equals("http"))
+            || (port == 443 && scheme.equals("https"));
+
+    StringBuilder rewritten = new StringBuilder(trimmed.length());
+    rewritten.append(scheme).append("://").append(host);
+    if (!defaultPort) {
+      rewritten.append(':').append(port);
+    }
+    rewritten.append(path(uri.getRawPath(), canonical));
+
+    String query =
+        canonical
+            ? query(host, uri.getRawQuery())
+            : normalizePercentEncoding(Objects.requireNonNullElse(uri.getRawQuery(), ""));
+    if (!query.isEmpty()) {
+      rewritten.append('?').append(query);
+    }
+
+    try {
+      return Optional.of(new URI(rewritten.toString()));
+    } catch (Exception e) {
+      return Optional.empty();
+    }
+  }
+
+  private String path(String rawPath, boolean canonical) {
+    if (rawPath == null || rawPath.isEmpty()) {
+      return "/";
+    }
+
+    List<String> segments = new ArrayList<>();
+    String[] parts = rawPath.split("/", -1);
+
+    // RFC 3986 section 5.2.4, on an absolute path
+    for (int i = 1; i < parts.length; i++) {
+      String segment = normalizePercentEncoding(parts[i]);
+      if (canonical) {
+        segment = stripPathParams(segment);
+      }
+      boolean last = i == parts.length - 1;
+
+      if (segment.equals(".")) {
+        if (last) {
+          segments.add("");
+        }
+      } else if (segment.equals("..")) {
+        if (!segments.isEmpty()) {
+          segments.removeLast();
+        }
+        if (last) {
+          segments.add("");
+        }
+      } else {
+        segments.add(segment);
+      }
+    }
+
+    if (canonical
+        && !segments.isEmpty()
+        && indexFiles.contains(segments.getLast().toLowerCase(Locale.ROOT))) {
+      segments.set(segments.size() - 1, "");
+    }
+
+    String path = "/" + String.join("/", segments);
+    if (canonical && stripTrailingSlash && path.length() > 1 && path.endsWith("/")) {
+      path = path.substring(0, path.length() - 1);
+    }
+
+    return path;
+  }
+
+  /** Drops the stripped parameters of a segment, such as {@code ;jsessionid=...}. */
+  private String stripPathParams(String segment) {
+    int semicolon = segment.indexOf(';');
+    if (semicolon < 0) {
+      return segment;
+    }
+
+    StringBuilder kept = new StringBuilder(segment.length()).append(segment, 0, semicolon);
+    for (String param : segment.substring(semicolon + 1).split(";")) {
+      int equals = param.indexOf('=');
+      String name = (equals < 0 ? param : param.substring(0, equals)).toLowerCase(Locale.ROOT);
+      if (!param.isEmpty() && !isStripped(name)) {
+        kept.append(';').append(param);
+      }
+    }
+
+    return kept.toString();
+  }
+
+  private String query(String host, String rawQuery) {
+    if (rawQuery == null || rawQuery.isEmpty()) {
+      return "";
+    }
+
+    Set<String> allowed = allowedParams(host);
+    List<String> kept = new ArrayList<>();
+
+    for (String param : rawQuery.split("&")) {
+      if (param.isEmpty()) {
+        continue;
+      }
+
+      int equals = param.indexOf('=');
+      String name = normalizePercentEncoding(equals < 0 ? param : param.substring(0, equals));
+      String lowerName = name.toLowerCase(Locale.ROOT);
+
+      if (allowed != null ? allowed.contains(lowerName) : !isStripped(lowerName)) {
+        String value = equals < 0 ? null : normalizePercentEncoding(param.substring(equals + 1));
+        kept.add(value == null ? name : name + "=" + value);
+      }
+    }
+
+    kept.sort(null);
+    return String.join("&", kept);
+  }
+
+  private Set<String> allowedParams(String host) {
+    if (allowParamsByHost.isEmpty()) {
+      return null;
+    }
+
+    for (String domain = host; ; ) {
+      Set<String> allowed = allowParamsByHost.get(domain);
+      if (allowed != null) {
+        return allowed;
+      }
+
+      int dot = domain.indexOf('.');
+      if (dot < 0) {
+        return null;
+      }
+      domain = domain.substring(dot + 1);
+    }
+  }
+
+  private boolean isStripped(String name) {
+    if (stripParams.contains(name)) {
+      return true;
+    }
+
+    for (String prefix : stripParamPrefixes) {
+      if (name.startsWith(prefix)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /** Decodes escaped unreserved characters and upper-cases the hex digits of the others. */
+  private static String normalizePercentEncoding(String s) {
+    if (s.indexOf('%') < 0) {
+      return s;
+    }
+
+    StringBuilder out = new StringBuilder(s.length());
+
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (c != '%') {
+        out.append(c);
+        continue;
+      }
+
+      int high = i + 2 < s.length() ? Character.digit(s.charAt(i + 1), 16) : -1;
+      int low = high >= 0 ? Character.digit(s.charAt(i + 2), 16) : -1;
+
+      if (low < 0) {
+        out.append("%25");
+      } else {
+        char decoded = (char) (high << 4 | low);
+        if (isUnreserved(decoded)) {
+          out.append(decoded);
+        } else {
+          out.append('%').append(HEX[high]).append(HEX[low]);
+        }
+        i += 2;
+      }
+    }
+
+    return out.toString();
+  }
+
+  /**
+   * Percent-encodes, as UTF-8, the characters that browsers accept in hrefs but URIs do not,
+   * including a {@code %} that does not start an escape.
+   */
+  private static String escapeIllegal(String url) {
+    int i = 0;
+    while (i < url.length() && isLegal(url, i)) {
+      i++;
+    }
+    if (i == url.length()) {
+      return url;
+    }
+
+    StringBuilder out = new StringBuilder(url.length() + 16).append(url, 0, i);
+
+    for (; i < url.length(); i++) {
+      if (isLegal(url, i)) {
+        out.append(url.charAt(i));
+        continue;
+      }
+
+      int end = Character.isHighSurrogate(url.charAt(i)) && i + 1 < url.length() ? i + 2 : i + 1;
+      for (byte b : url.substring(i, end).getBytes(StandardCharsets.UTF_8)) {
+        out.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+      }
+      i = end - 1;
+    }
+
+    return out.toString();
+  }
+
+  private static boolean isLegal(String url, int i) {
+    char c = url.charAt(i);
+    if (c == '%') {
+      return i + 2 < url.length()
+          && Character.digit(url.charAt(i + 1), 16) >= 0
+          && Character.digit(url.charAt(i + 2), 16) >= 0;
+    }
+
+    return isUnreserved(c) || (c < 0x80 && ":/?#[]@!$&'()*+,;=".indexOf(c) >= 0);
+  }
+
+  private static boolean isUnreserved(char c) {
+    return (c >= 'a' && c <= 'z')
+        || (c >= 'A' && c <= 'Z')
+        || (c >= '0' && c <= '9')
+        || c == '-'
+        || c == '.'
+        || c == '_'
+        || c == '~';
+  }
+}
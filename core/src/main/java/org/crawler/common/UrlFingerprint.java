@@ -0,0 +1,32 @@
+package org.crawler.common;
+
+/**
+ * 64-bit fingerprint of a URL string (FNV-1a over the UTF-16 code units followed by the
+ * MurmurHash3 finalizer). Never returns 0, so 0 can mark empty slots in primitive tables.
+ */
+public final class UrlFingerprint {
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private UrlFingerprint() {}
+
+  public static long of(CharSequence url) {
+    long hash = FNV_OFFSET_BASIS;
+    for (int i = 0; i < url.length(); i++) {
+      hash ^= url.charAt(i);
+      hash *= FNV_PRIME;
+    }
+
+    hash = mix(hash);
+    return hash == 0 ? 1 : hash;
+  }
+
+  public static long mix(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
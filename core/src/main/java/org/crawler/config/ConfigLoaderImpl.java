@@ -2,13 +2,47 @@ package org.crawler.config;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.InetAddress;
 import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.function.Function;
 import org.crawler.domain.Link;
 import org.crawler.domain.config.AppConfig;
+import org.crawler.domain.config.AutoscaleConfig;
+import org.crawler.domain.config.BackendConfig;
+import org.crawler.domain.config.BackendType;
+import org.crawler.domain.config.BackpressureConfig;
+import org.crawler.domain.config.CanonicalizerConfig;
+import org.crawler.domain.config.CodecFormat;
+import org.crawler.domain.config.CompressionType;
+import org.crawler.domain.config.FetcherConfig;
+import org.crawler.domain.config.FetcherType;
+import org.crawler.domain.config.FrontierConfig;
+import org.crawler.domain.config.FrontierType;
+import org.crawler.domain.config.LinkExtractorType;
+import org.crawler.domain.config.MetricsConfig;
+import org.crawler.domain.config.PipelineMode;
+import org.crawler.domain.config.QueueConfig;
+import org.crawler.domain.config.QueueType;
+import org.crawler.domain.config.RecrawlConfig;
 import org.crawler.domain.config.RedisConfig;
+import org.crawler.domain.config.RedisEndpoint;
+import org.crawler.domain.config.ResumeConfig;
+import org.crawler.domain.config.RobotsConfig;
+import org.crawler.domain.config.SeenFilterConfig;
+import org.crawler.domain.config.StreamConfig;
+import org.crawler.domain.config.UrlFilterConfig;
+import org.crawler.domain.config.VisitedConfig;
+import org.crawler.domain.config.VisitedSetType;
 import org.crawler.domain.exception.ConfigurationException;
+import org.crawler.infrastructure.redis.FingerprintVisitedUrlsSet;
 import redis.clients.jedis.JedisPoolConfig;
 
 public class ConfigLoaderImpl implements ConfigLoader {
@@ -26,6 +60,11 @@ public class ConfigLoaderImpl implements ConfigLoader {
     return loadAppConfig(props);
   }
 
+  /** Builds the config from properties the caller loaded, with its own overrides applied. */
+  public AppConfig load(Properties props) {
+    return loadAppConfig(props);
+  }
+
   private AppConfig loadAppConfig(Properties props) throws ConfigurationException {
     try {
       var propertyReader = makePropertyReader(props);
@@ -36,6 +75,10 @@ public class ConfigLoaderImpl implements ConfigLoader {
           Integer.parseInt(propertyReader.apply("app.numberOfLinksExtractorWorker"));
       int numberOfPageFetcherWorkers =
           Integer.parseInt(propertyReader.apply("app.numberOfPageFetcherWorkers"));
+      int queueBatchSize = Integer.parseInt(propertyReader.apply("app.queueBatchSize"));
+      PipelineMode pipelineMode = PipelineMode.valueOf(propertyReader.apply("app.pipelineMode"));
+      LinkExtractorType linkExtractor =
+          LinkExtractorType.valueOf(propertyReader.apply("app.linkExtractor"));
 
       int redisTimeout = Integer.parseInt(propertyReader.apply("redis.timeout"));
       String redisHost = propertyReader.apply("redis.host");
@@ -50,14 +93,255 @@ public class ConfigLoaderImpl implements ConfigLoader {
       config.setMinIdle(jedisMinIdle);
       config.setBlockWhenExhausted(true);
 
-      RedisConfig redisConfig = new RedisConfig(redisTimeout, redisHost, redisPort, config);
+      List<RedisEndpoint> redisEndpoints =
+          parseList(propertyReader.apply("redis.endpoints")).stream()
+              .map(ConfigLoaderImpl::parseEndpoint)
+              .toList();
+      if (redisEndpoints.isEmpty()) {
+        redisEndpoints = List.of(new RedisEndpoint(redisHost, redisPort));
+      }
+
+      RedisConfig redisConfig =
+          new RedisConfig(redisTimeout, redisHost, redisPort, config, redisEndpoints);
+
+      BackendType backendType = BackendType.valueOf(propertyReader.apply("backend.type"));
+      int backendFrontierCapacity =
+          Integer.parseInt(propertyReader.apply("backend.frontierCapacity"));
+      int backendFetchedPagesCapacity =
+          Integer.parseInt(propertyReader.apply("backend.fetchedPagesCapacity"));
+      int backendVisitedInitialCapacity =
+          Integer.parseInt(propertyReader.apply("backend.visitedInitialCapacity"));
+      Duration backendMaxBlock =
+          Duration.ofMillis(Long.parseLong(propertyReader.apply("backend.maxBlockMs")));
+      Duration backendPollTimeout =
+          Duration.ofMillis(Long.parseLong(propertyReader.apply("backend.pollTimeoutMs")));
+
+      BackendConfig backendConfig =
+          new BackendConfig(
+              backendType,
+              backendFrontierCapacity,
+              backendFetchedPagesCapacity,
+              backendVisitedInitialCapacity,
+              backendMaxBlock,
+              backendPollTimeout);
+
+      int robotsCacheMaxHosts = Integer.parseInt(propertyReader.apply("robots.cache.maxHosts"));
+      Duration robotsCacheTtl =
+          Duration.ofSeconds(Long.parseLong(propertyReader.apply("robots.cache.ttlSeconds")));
+      Duration robotsCacheErrorTtl =
+          Duration.ofSeconds(Long.parseLong(propertyReader.apply("robots.cache.errorTtlSeconds")));
+
+      RobotsConfig robotsConfig =
+          new RobotsConfig(robotsCacheMaxHosts, robotsCacheTtl, robotsCacheErrorTtl);
+
+      FrontierType frontierType = FrontierType.valueOf(propertyReader.apply("frontier.type"));
+      Duration minHostDelay =
+          Duration.ofMillis(Long.parseLong(propertyReader.apply("frontier.minHostDelayMs")));
+      Duration maxHostDelay =
+          Duration.ofMillis(Long.parseLong(propertyReader.apply("frontier.maxHostDelayMs")));
+      double latencyFactor = Double.parseDouble(propertyReader.apply("frontier.latencyFactor"));
+      double latencySmoothing =
+          Double.parseDouble(propertyReader.apply("frontier.latencySmoothing"));
+
+      Path spillDirectory = Path.of(propertyReader.apply("frontier.spillDirectory"));
+      int spillHotCapacity = Integer.parseInt(propertyReader.apply("frontier.spillHotCapacity"));
+      long spillSegmentBytes =
+          Long.parseLong(propertyReader.apply("frontier.spillSegmentMb")) * 1024 * 1024;
+
+      int priorityHostBudget =
+          Integer.parseInt(propertyReader.apply("frontier.priorityHostBudget"));
+      double priorityInlinkWeight =
+          Double.parseDouble(propertyReader.apply("frontier.priorityInlinkWeight"));
+      double priorityMaxInlinkBoost =
+          Double.parseDouble(propertyReader.apply("frontier.priorityMaxInlinkBoost"));
+
+      FrontierConfig frontierConfig =
+          new FrontierConfig(
+              frontierType,
+              minHostDelay,
+              maxHostDelay,
+              latencyFactor,
+              latencySmoothing,
+              spillDirectory,
+              spillHotCapacity,
+              spillSegmentBytes,
+              priorityHostBudget,
+              priorityInlinkWeight,
+              priorityMaxInlinkBoost);
+
+      boolean seenFilterEnabled = Boolean.parseBoolean(propertyReader.apply("seenFilter.enabled"));
+      long seenFilterExpectedInsertions =
+          Long.parseLong(propertyReader.apply("seenFilter.expectedInsertions"));
+      double seenFilterFalsePositiveRate =
+          Double.parseDouble(propertyReader.apply("seenFilter.falsePositiveRate"));
+      int seenFilterRecentCapacity =
+          Integer.parseInt(propertyReader.apply("seenFilter.recentCapacity"));
+
+      SeenFilterConfig seenFilterConfig =
+          new SeenFilterConfig(
+              seenFilterEnabled,
+              seenFilterExpectedInsertions,
+              seenFilterFalsePositiveRate,
+              seenFilterRecentCapacity);
+
+      VisitedSetType visitedSetType = VisitedSetType.valueOf(propertyReader.apply("visited.type"));
+      String fingerprintBucketBitsValue =
+          propertyReader.apply("visited.fingerprintBucketBits").trim();
+      long fingerprintExpectedUrls =
+          Long.parseLong(propertyReader.apply("visited.fingerprintExpectedUrls"));
+      int fingerprintBucketBits =
+          fingerprintBucketBitsValue.isEmpty()
+              ? FingerprintVisitedUrlsSet.bucketBitsFor(fingerprintExpectedUrls)
+              : Integer.parseInt(fingerprintBucketBitsValue);
+      boolean visitedLegacyCompat =
+          Boolean.parseBoolean(propertyReader.apply("visited.legacyCompat"));
+
+      Path visitedDiskDirectory = Path.of(propertyReader.apply("visited.diskDirectory"));
+      long visitedDiskExpectedUrls =
+          Long.parseLong(propertyReader.apply("visited.diskExpectedUrls"));
+      int visitedDiskSyncEvery = Integer.parseInt(propertyReader.apply("visited.diskSyncEvery"));
+
+      VisitedConfig visitedConfig =
+          new VisitedConfig(
+              visitedSetType,
+              fingerprintBucketBits,
+              visitedLegacyCompat,
+              visitedDiskDirectory,
+              visitedDiskExpectedUrls,
+              visitedDiskSyncEvery);
+
+      QueueType queueType = QueueType.valueOf(propertyReader.apply("queue.type"));
+      CodecFormat queueCodec = CodecFormat.valueOf(propertyReader.apply("queue.codec"));
+
+      CompressionType queueCompression =
+          CompressionType.valueOf(propertyReader.apply("queue.compression"));
+      int queueCompressionMinBytes =
+          Integer.parseInt(propertyReader.apply("queue.compressionMinBytes"));
+
+      QueueConfig queueConfig =
+          new QueueConfig(queueType, queueCodec, queueCompression, queueCompressionMinBytes);
+
+      FetcherType fetcherType = FetcherType.valueOf(propertyReader.apply("fetcher.type"));
+      Duration fetcherConnectTimeout =
+          Duration.ofMillis(Long.parseLong(propertyReader.apply("fetcher.connectTimeoutMs")));
+      Duration fetcherReadTimeout =
+          Duration.ofMillis(Long.parseLong(propertyReader.apply("fetcher.readTimeoutMs")));
+      int fetcherMaxInFlightPerWorker =
+          Integer.parseInt(propertyReader.apply("fetcher.maxInFlightPerWorker"));
+      int fetcherMaxBodyBytes = Integer.parseInt(propertyReader.apply("fetcher.maxBodyBytes"));
+
+      FetcherConfig fetcherConfig =
+          new FetcherConfig(
+              fetcherType,
+              fetcherConnectTimeout,
+              fetcherReadTimeout,
+              fetcherMaxInFlightPerWorker,
+              fetcherMaxBodyBytes);
+
+      boolean recrawlEnabled = Boolean.parseBoolean(propertyReader.apply("recrawl.enabled"));
+      boolean recrawlReuseOutlinks =
+          Boolean.parseBoolean(propertyReader.apply("recrawl.reuseOutlinks"));
+      Duration recrawlValidatorTtl =
+          Duration.ofDays(Long.parseLong(propertyReader.apply("recrawl.validatorTtlDays")));
+
+      RecrawlConfig recrawlConfig =
+          new RecrawlConfig(recrawlEnabled, recrawlReuseOutlinks, recrawlValidatorTtl);
+
+      UrlFilterConfig urlFilterConfig =
+          new UrlFilterConfig(
+              parseList(propertyReader.apply("urlFilter.schemes")),
+              parseList(propertyReader.apply("urlFilter.allowHostSuffixes")),
+              parseList(propertyReader.apply("urlFilter.denyHostSuffixes")),
+              parseList(propertyReader.apply("urlFilter.denyPathPrefixes")),
+              parseList(propertyReader.apply("urlFilter.denyExtensions")),
+              Integer.parseInt(propertyReader.apply("urlFilter.maxUrlLength")),
+              Boolean.parseBoolean(propertyReader.apply("urlFilter.rejectFragments")));
+
+      CanonicalizerConfig canonicalizerConfig =
+          new CanonicalizerConfig(
+              Boolean.parseBoolean(propertyReader.apply("canonical.stripWww")),
+              Boolean.parseBoolean(propertyReader.apply("canonical.stripTrailingSlash")),
+              parseList(propertyReader.apply("canonical.indexFiles")),
+              parseList(propertyReader.apply("canonical.stripParams")),
+              parseHostLists(propertyReader.apply("canonical.allowParamsByHost")),
+              Boolean.parseBoolean(propertyReader.apply("canonical.honorRelCanonical")));
+
+      boolean resumeEnabled = Boolean.parseBoolean(propertyReader.apply("resume.enabled"));
+      Duration resumeVisibilityTimeout =
+          Duration.ofSeconds(
+              Long.parseLong(propertyReader.apply("resume.visibilityTimeoutSeconds")));
+      Duration resumeReaperInterval =
+          Duration.ofSeconds(Long.parseLong(propertyReader.apply("resume.reaperIntervalSeconds")));
+      int resumeMaxRedeliveries = Integer.parseInt(propertyReader.apply("resume.maxRedeliveries"));
+
+      ResumeConfig resumeConfig =
+          new ResumeConfig(
+              resumeEnabled, resumeVisibilityTimeout, resumeReaperInterval, resumeMaxRedeliveries);
+
+      String streamConsumer = propertyReader.apply("stream.consumer").trim();
+
+      StreamConfig streamConfig =
+          new StreamConfig(
+              propertyReader.apply("stream.group"),
+              streamConsumer.isEmpty() ? defaultStreamConsumer() : streamConsumer,
+              Duration.ofSeconds(Long.parseLong(propertyReader.apply("stream.claimIdleSeconds"))),
+              Duration.ofSeconds(
+                  Long.parseLong(propertyReader.apply("stream.claimIntervalSeconds"))),
+              Integer.parseInt(propertyReader.apply("stream.maxRedeliveries")),
+              Integer.parseInt(propertyReader.apply("stream.ackBatchSize")));
+
+      AutoscaleConfig autoscaleConfig =
+          new AutoscaleConfig(
+              Boolean.parseBoolean(propertyReader.apply("autoscale.enabled")),
+              Duration.ofSeconds(Long.parseLong(propertyReader.apply("autoscale.intervalSeconds"))),
+              Integer.parseInt(propertyReader.apply("autoscale.minPageFetcherWorkers")),
+              Integer.parseInt(propertyReader.apply("autoscale.maxPageFetcherWorkers")),
+              Integer.parseInt(propertyReader.apply("autoscale.minLinksExtractorWorkers")),
+              Integer.parseInt(propertyReader.apply("autoscale.maxLinksExtractorWorkers")),
+              Long.parseLong(propertyReader.apply("autoscale.scaleUpQueueDepth")),
+              Double.parseDouble(propertyReader.apply("autoscale.scaleDownUtilization")));
+
+      BackpressureConfig backpressureConfig =
+          new BackpressureConfig(
+              Boolean.parseBoolean(propertyReader.apply("backpressure.enabled")),
+              Long.parseLong(propertyReader.apply("backpressure.frontier.highWatermark")),
+              Long.parseLong(propertyReader.apply("backpressure.frontier.lowWatermark")),
+              Long.parseLong(propertyReader.apply("backpressure.parsing.highWatermark")),
+              Long.parseLong(propertyReader.apply("backpressure.parsing.lowWatermark")),
+              Duration.ofMillis(Long.parseLong(propertyReader.apply("backpressure.refreshMs"))),
+              Duration.ofMillis(Long.parseLong(propertyReader.apply("backpressure.maxBlockMs"))));
+
+      MetricsConfig metricsConfig =
+          new MetricsConfig(
+              Boolean.parseBoolean(propertyReader.apply("metrics.jmx.enabled")),
+              Boolean.parseBoolean(propertyReader.apply("metrics.http.enabled")),
+              propertyReader.apply("metrics.http.host"),
+              Integer.parseInt(propertyReader.apply("metrics.http.port")));
 
       return new AppConfig(
           seedLink,
           maxDepth,
           numberOfPageFetcherWorkers,
           numberOfLinksExtractorWorker,
-          redisConfig);
+          queueBatchSize,
+          pipelineMode,
+          linkExtractor,
+          redisConfig,
+          robotsConfig,
+          frontierConfig,
+          seenFilterConfig,
+          visitedConfig,
+          queueConfig,
+          fetcherConfig,
+          recrawlConfig,
+          urlFilterConfig,
+          canonicalizerConfig,
+          backendConfig,
+          resumeConfig,
+          autoscaleConfig,
+          backpressureConfig,
+          metricsConfig,
+          streamConfig);
     } catch (Exception e) {
       throw new ConfigurationException("Error parsing configuration: " + e.getMessage(), e);
     }
@@ -73,4 +357,47 @@ public class ConfigLoaderImpl implements ConfigLoader {
       return value;
     };
   }
+
+  private static RedisEndpoint parseEndpoint(String endpoint) {
+    int colon = endpoint.lastIndexOf(':');
+    if (colon <= 0) {
+      throw new ConfigurationException("Expected host:port, got: " + endpoint);
+    }
+    return new RedisEndpoint(
+        endpoint.substring(0, colon), Integer.parseInt(endpoint.substring(colon + 1)));
+  }
+
+  /** Host name and process id, unique per crawler process on the same Redis. */
+  private static String defaultStreamConsumer() {
+    String host;
+    try {
+      host = InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException e) {
+      host = "unknown";
+    }
+    return host + "-" + ProcessHandle.current().pid();
+  }
+
+  private static List<String> parseList(String value) {
+    return Arrays.stream(value.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+  }
+
+  /** Parses {@code host=a,b;other.host=c} into the list of values of each host. */
+  private static Map<String, List<String>> parseHostLists(String value) {
+    Map<String, List<String>> lists = new HashMap<>();
+
+    for (String entry : value.split(";")) {
+      if (entry.isBlank()) {
+        continue;
+      }
+
+      int equals = entry.indexOf('=');
+      if (equals < 0) {
+        throw new ConfigurationException("Expected host=values, got: " + entry.trim());
+      }
+      lists.put(entry.substring(0, equals).trim(), parseList(entry.substring(equals + 1)));
+    }
+
+    return lists;
+  }
 }
@@ -0,0 +1,16 @@
+package org.crawler.domain;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * What is known about a page from a previous crawl. {@code etag} and {@code lastModified} are null
+ * when the server did not send them, {@code outlinks} is null until the page has been extracted.
+ */
+public record PageValidators(
+    String etag, String lastModified, long contentHash, List<URI> outlinks) {
+
+  public boolean canRevalidate() {
+    return etag != null || lastModified != null;
+  }
+}
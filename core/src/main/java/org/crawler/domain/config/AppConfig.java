@@ -7,4 +7,22 @@ public record AppConfig(
     int maxDepth,
     int numberOfPageFetcherWorkers,
     int numberOfLinksExtractorWorker,
-    RedisConfig redis) {}
+    int queueBatchSize,
+    PipelineMode pipelineMode,
+    LinkExtractorType linkExtractor,
+    RedisConfig redis,
+    RobotsConfig robots,
+    FrontierConfig frontier,
+    SeenFilterConfig seenFilter,
+    VisitedConfig visited,
+    QueueConfig queue,
+    FetcherConfig fetcher,
+    RecrawlConfig recrawl,
+    UrlFilterConfig urlFilter,
+    CanonicalizerConfig canonicalizer,
+    BackendConfig backend,
+    ResumeConfig resume,
+    AutoscaleConfig autoscale,
+    BackpressureConfig backpressure,
+    MetricsConfig metrics,
+    StreamConfig stream) {}
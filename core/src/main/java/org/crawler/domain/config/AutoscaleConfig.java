@@ -0,0 +1,13 @@
+package org.crawler.domain.config;
+
+import java.time.Duration;
+
+public record AutoscaleConfig(
+    boolean enabled,
+    Duration interval,
+    int minPageFetcherWorkers,
+    int maxPageFetcherWorkers,
+    int minLinksExtractorWorkers,
+    int maxLinksExtractorWorkers,
+    long scaleUpQueueDepth,
+    double scaleDownUtilization) {}
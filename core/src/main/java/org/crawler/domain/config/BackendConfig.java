@@ -0,0 +1,11 @@
+package org.crawler.domain.config;
+
+import java.time.Duration;
+
+public record BackendConfig(
+    BackendType type,
+    int frontierCapacity,
+    int fetchedPagesCapacity,
+    int visitedInitialCapacity,
+    Duration maxBlock,
+    Duration pollTimeout) {}
@@ -0,0 +1,12 @@
+package org.crawler.domain.config;
+
+import java.time.Duration;
+
+public record BackpressureConfig(
+    boolean enabled,
+    long frontierHighWatermark,
+    long frontierLowWatermark,
+    long parsingHighWatermark,
+    long parsingLowWatermark,
+    Duration refreshInterval,
+    Duration maxBlock) {}
@@ -0,0 +1,12 @@
+package org.crawler.domain.config;
+
+import java.util.List;
+import java.util.Map;
+
+public record CanonicalizerConfig(
+    boolean stripWww,
+    boolean stripTrailingSlash,
+    List<String> indexFiles,
+    List<String> stripParams,
+    Map<String, List<String>> allowParamsByHost,
+    boolean honorRelCanonical) {}
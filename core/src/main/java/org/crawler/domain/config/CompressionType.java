@@ -0,0 +1,7 @@
+package org.crawler.domain.config;
+
+public enum CompressionType {
+  NONE,
+  DEFLATE,
+  LZ4
+}
@@ -0,0 +1,10 @@
+package org.crawler.domain.config;
+
+import java.time.Duration;
+
+public record FetcherConfig(
+    FetcherType type,
+    Duration connectTimeout,
+    Duration readTimeout,
+    int maxInFlightPerWorker,
+    int maxBodyBytes) {}
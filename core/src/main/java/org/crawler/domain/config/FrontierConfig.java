@@ -0,0 +1,17 @@
+package org.crawler.domain.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+public record FrontierConfig(
+    FrontierType type,
+    Duration minHostDelay,
+    Duration maxHostDelay,
+    double latencyFactor,
+    double latencySmoothing,
+    Path spillDirectory,
+    int spillHotCapacity,
+    long spillSegmentBytes,
+    int priorityHostBudget,
+    double priorityInlinkWeight,
+    double priorityMaxInlinkBoost) {}
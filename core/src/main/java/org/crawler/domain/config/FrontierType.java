@@ -0,0 +1,8 @@
+package org.crawler.domain.config;
+
+public enum FrontierType {
+  FIFO,
+  POLITE,
+  PRIORITY,
+  SPILLING
+}
@@ -0,0 +1,4 @@
+package org.crawler.domain.config;
+
+public record MetricsConfig(
+    boolean jmxEnabled, boolean httpEnabled, String httpHost, int httpPort) {}
@@ -0,0 +1,4 @@
+package org.crawler.domain.config;
+
+public record QueueConfig(
+    QueueType type, CodecFormat codec, CompressionType compression, int compressionMinBytes) {}
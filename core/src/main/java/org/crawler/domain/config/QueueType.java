@@ -0,0 +1,6 @@
+package org.crawler.domain.config;
+
+public enum QueueType {
+  LIST,
+  STREAM
+}
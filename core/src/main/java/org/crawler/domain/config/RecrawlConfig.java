@@ -0,0 +1,5 @@
+package org.crawler.domain.config;
+
+import java.time.Duration;
+
+public record RecrawlConfig(boolean enabled, boolean reuseOutlinks, Duration validatorTtl) {}
@@ -1,5 +1,15 @@
 package org.crawler.domain.config;
 
+import java.util.List;
 import redis.clients.jedis.JedisPoolConfig;
 
-public record RedisConfig(int timeout, String host, int port, JedisPoolConfig jedisPoolConfig) {}
+/**
+ * {@code endpoints} are the shards of the crawl state, just {@code host:port} unless more are
+ * configured. The first one also holds the state that is not sharded.
+ */
+public record RedisConfig(
+    int timeout,
+    String host,
+    int port,
+    JedisPoolConfig jedisPoolConfig,
+    List<RedisEndpoint> endpoints) {}
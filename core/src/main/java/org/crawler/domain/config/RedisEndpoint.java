@@ -0,0 +1,3 @@
+package org.crawler.domain.config;
+
+public record RedisEndpoint(String host, int port) {}
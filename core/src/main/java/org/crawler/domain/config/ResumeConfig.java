@@ -0,0 +1,6 @@
+package org.crawler.domain.config;
+
+import java.time.Duration;
+
+public record ResumeConfig(
+    boolean enabled, Duration visibilityTimeout, Duration reaperInterval, int maxRedeliveries) {}
@@ -0,0 +1,5 @@
+package org.crawler.domain.config;
+
+import java.time.Duration;
+
+public record RobotsConfig(int cacheMaxHosts, Duration cacheTtl, Duration cacheErrorTtl) {}
@@ -0,0 +1,4 @@
+package org.crawler.domain.config;
+
+public record SeenFilterConfig(
+    boolean enabled, long expectedInsertions, double falsePositiveRate, int recentCapacity) {}
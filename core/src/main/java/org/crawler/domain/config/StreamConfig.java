@@ -0,0 +1,16 @@
+package org.crawler.domain.config;
+
+import java.time.Duration;
+
+/**
+ * Consumer group settings of the stream queues. Every crawler process reads as its own {@code
+ * consumer} of the shared {@code group}, entries pending longer than {@code claimIdle} are claimed
+ * by the next consumer that checks, at most every {@code claimInterval}.
+ */
+public record StreamConfig(
+    String group,
+    String consumer,
+    Duration claimIdle,
+    Duration claimInterval,
+    int maxRedeliveries,
+    int ackBatchSize) {}
@@ -0,0 +1,12 @@
+package org.crawler.domain.config;
+
+import java.util.List;
+
+public record UrlFilterConfig(
+    List<String> schemes,
+    List<String> allowHostSuffixes,
+    List<String> denyHostSuffixes,
+    List<String> denyPathPrefixes,
+    List<String> denyExtensions,
+    int maxUrlLength,
+    boolean rejectFragments) {}
@@ -0,0 +1,11 @@
+package org.crawler.domain.config;
+
+import java.nio.file.Path;
+
+public record VisitedConfig(
+    VisitedSetType type,
+    int fingerprintBucketBits,
+    boolean legacyCompat,
+    Path diskDirectory,
+    long diskExpectedUrls,
+    int diskSyncEvery) {}
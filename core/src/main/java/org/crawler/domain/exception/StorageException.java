@@ -0,0 +1,11 @@
+package org.crawler.domain.exception;
+
+public class StorageException extends RuntimeException {
+  public StorageException(String message) {
+    super(message);
+  }
+
+  public StorageException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,12 @@
+package org.crawler.infrastructure;
+
+import java.util.Map;
+
+/** Crawl counters that outlive the crawler process, shared by every node of the crawl. */
+public interface CheckpointStore {
+  Map<String, Long> load();
+
+  void add(Map<String, Long> deltas);
+
+  void clear();
+}
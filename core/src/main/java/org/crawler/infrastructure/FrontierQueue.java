@@ -1,5 +1,9 @@
 package org.crawler.infrastructure;
 
+import java.time.Duration;
 import org.crawler.domain.Link;
 
-public interface FrontierQueue extends Queue<Link> {}
+public interface FrontierQueue extends Queue<Link> {
+  /** Feedback from the fetchers, used by frontiers that schedule hosts politely. */
+  default void recordFetch(Link link, Duration latency, Duration crawlDelay) {}
+}
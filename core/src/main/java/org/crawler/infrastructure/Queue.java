@@ -1,11 +1,36 @@
 package org.crawler.infrastructure;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface Queue<T> {
   Optional<T> pop();
 
+  List<T> popBatch(int maxItems);
+
   void push(T t);
 
+  void pushAll(Collection<T> items);
+
   void clear();
+
+  /** Items waiting in the queue, not counting the ones handed out. */
+  long size();
+
+  /**
+   * Confirms that a popped item has been processed. Queues that lease the items they hand out give
+   * an item to another consumer when its lease expires before this call, the others ignore it.
+   */
+  default void ack(T t) {}
+
+  /** Whether a popped item is handed out again because a previous consumer never acked it. */
+  default boolean isRedelivery(T t) {
+    return false;
+  }
+
+  /** Hands the items whose lease expired back to the queue and returns how many there were. */
+  default int requeueExpired() {
+    return 0;
+  }
 }
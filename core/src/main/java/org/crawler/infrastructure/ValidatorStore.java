@@ -0,0 +1,19 @@
+package org.crawler.infrastructure;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.Optional;
+import org.crawler.domain.PageValidators;
+
+/** Per-URL validators kept across crawls, unlike the visited set. */
+public interface ValidatorStore {
+  Optional<PageValidators> get(URI uri);
+
+  /** Stores the validators of a fetch, dropping the outlinks unless {@code keepOutlinks}. */
+  void putValidators(
+      URI uri, String etag, String lastModified, long contentHash, boolean keepOutlinks);
+
+  void putOutlinks(URI uri, Collection<URI> outlinks);
+
+  void clear();
+}
@@ -1,9 +1,18 @@
 package org.crawler.infrastructure;
 
-public interface VisitedUrlsSet {
+public interface VisitedUrlsSet extends AutoCloseable {
   void clear();
 
   boolean addIfNotPresent(String url);
 
   boolean isPresent(String url);
+
+  /** Number of URLs in the set, read by the metrics exporters, or -1 when unknown. */
+  default long size() {
+    return -1;
+  }
+
+  /** Releases local resources, sets stored in Redis have none. */
+  @Override
+  default void close() {}
 }
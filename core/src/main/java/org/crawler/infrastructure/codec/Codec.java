@@ -0,0 +1,7 @@
+package org.crawler.infrastructure.codec;
+
+public interface Codec<T> {
+  byte[] encode(T t);
+
+  T decode(byte[] bytes);
+}
@@ -0,0 +1,64 @@
+package org.crawler.infrastructure.codec;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class CompressionStats {
+  private final String name;
+  private final LongAdder compressed = new LongAdder();
+  private final LongAdder bytesIn = new LongAdder();
+  private final LongAdder bytesOut = new LongAdder();
+  private final LongAdder compressNanos = new LongAdder();
+  private final LongAdder decompressed = new LongAdder();
+  private final LongAdder decompressNanos = new LongAdder();
+
+  CompressionStats(String name) {
+    this.name = name;
+  }
+
+  void recordCompression(int originalBytes, int compressedBytes, long nanos) {
+    compressed.increment();
+    bytesIn.add(originalBytes);
+    bytesOut.add(compressedBytes);
+    compressNanos.add(nanos);
+  }
+
+  void recordDecompression(long nanos) {
+    decompressed.increment();
+    decompressNanos.add(nanos);
+  }
+
+  public String name() {
+    return name;
+  }
+
+  /** Original size divided by compressed size over everything compressed so far. */
+  public double ratio() {
+    long out = bytesOut.sum();
+    return out == 0 ? 0 : (double) bytesIn.sum() / out;
+  }
+
+  public double averageCompressMicros() {
+    return average(compressNanos.sum(), compressed.sum());
+  }
+
+  public double averageDecompressMicros() {
+    return average(decompressNanos.sum(), decompressed.sum());
+  }
+
+  private static double average(long nanos, long count) {
+    return count == 0 ? 0 : (double) nanos / count / TimeUnit.MICROSECONDS.toNanos(1);
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "%s: compressed=%d ratio=%.2f compress=%.1fus decompressed=%d decompress=%.1fus",
+        name,
+        compressed.sum(),
+        ratio(),
+        averageCompressMicros(),
+        decompressed.sum(),
+        averageDecompressMicros());
+  }
+}
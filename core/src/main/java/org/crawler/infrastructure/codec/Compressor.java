@@ -0,0 +1,42 @@
+package org.crawler.infrastructure.codec;
+
+import org.crawler.domain.exception.ParserException;
+
+/** Block compressor for page bodies that records ratio and CPU time per algorithm. */
+public abstract class Compressor {
+  // The original length comes from the payload, a corrupt one must not size a huge buffer
+  static final int MAX_ORIGINAL_LENGTH = 256 * 1024 * 1024;
+
+  private final CompressionStats stats = new CompressionStats(name());
+
+  public final byte[] compress(byte[] data) {
+    long startedAt = System.nanoTime();
+    byte[] compressed = doCompress(data);
+    stats.recordCompression(data.length, compressed.length, System.nanoTime() - startedAt);
+    return compressed;
+  }
+
+  public final byte[] decompress(byte[] data, int originalLength) {
+    if (originalLength < 0 || originalLength > MAX_ORIGINAL_LENGTH) {
+      throw new ParserException("Original length out of range: " + originalLength);
+    }
+
+    long startedAt = System.nanoTime();
+    byte[] decompressed = doDecompress(data, originalLength);
+    stats.recordDecompression(System.nanoTime() - startedAt);
+    return decompressed;
+  }
+
+  public CompressionStats stats() {
+    return stats;
+  }
+
+  /** Identifier written in front of compressed payloads, must never change once released. */
+  public abstract int id();
+
+  public abstract String name();
+
+  protected abstract byte[] doCompress(byte[] data);
+
+  protected abstract byte[] doDecompress(byte[] data, int originalLength);
+}
@@ -0,0 +1,33 @@
+package org.crawler.infrastructure.codec;
+
+import java.util.List;
+import org.crawler.domain.config.CompressionType;
+import org.crawler.domain.exception.ParserException;
+
+/** Shared compressor instances, so statistics add up across every queue using the same one. */
+public final class Compressors {
+  private static final DeflateCompressor DEFLATE = new DeflateCompressor();
+  private static final Lz4Compressor LZ4 = new Lz4Compressor();
+
+  private Compressors() {}
+
+  public static Compressor of(CompressionType type) {
+    return switch (type) {
+      case NONE -> throw new IllegalArgumentException("No compressor for " + type);
+      case DEFLATE -> DEFLATE;
+      case LZ4 -> LZ4;
+    };
+  }
+
+  static Compressor forId(int id) {
+    return switch (id) {
+      case 1 -> DEFLATE;
+      case 2 -> LZ4;
+      default -> throw new ParserException("Unknown compressor id: " + id);
+    };
+  }
+
+  public static List<Compressor> all() {
+    return List.of(DEFLATE, LZ4);
+  }
+}
@@ -0,0 +1,62 @@
+package org.crawler.infrastructure.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.crawler.domain.exception.ParserException;
+
+/** Deflate at the default level, for when queue memory matters more than CPU. */
+public class DeflateCompressor extends Compressor {
+  @Override
+  public int id() {
+    return 1;
+  }
+
+  @Override
+  public String name() {
+    return "deflate";
+  }
+
+  @Override
+  protected byte[] doCompress(byte[] data) {
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+
+    try {
+      deflater.setInput(data);
+      deflater.finish();
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+      byte[] chunk = new byte[8192];
+      while (!deflater.finished()) {
+        out.write(chunk, 0, deflater.deflate(chunk));
+      }
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  @Override
+  protected byte[] doDecompress(byte[] data, int originalLength) {
+    Inflater inflater = new Inflater();
+
+    try {
+      inflater.setInput(data);
+      byte[] out = new byte[originalLength];
+      int length = 0;
+      while (!inflater.finished()) {
+        int inflated = inflater.inflate(out, length, out.length - length);
+        if (inflated == 0 && (inflater.needsInput() || length == out.length)) {
+          throw new ParserException("Corrupted deflate payload");
+        }
+        length += inflated;
+      }
+      return out;
+    } catch (DataFormatException e) {
+      throw new ParserException("Corrupted deflate payload", e);
+    } finally {
+      inflater.end();
+    }
+  }
+}
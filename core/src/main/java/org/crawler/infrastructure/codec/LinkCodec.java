@@ -0,0 +1,60 @@
+package org.crawler.infrastructure.codec;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import org.crawler.domain.Link;
+import org.crawler.domain.config.CodecFormat;
+import org.crawler.domain.exception.ParserException;
+
+/**
+ * Encodes links either as JSON or as {@code [version][varint uri length][uri utf-8][varint
+ * depth]}. Decoding accepts both forms, so a queue can be switched from one to the other without
+ * draining it first.
+ */
+public class LinkCodec implements Codec<Link> {
+  static final int BINARY_V1 = 0x01;
+  static final int JSON_START = '{';
+
+  private final CodecFormat format;
+
+  public LinkCodec(CodecFormat format) {
+    this.format = format;
+  }
+
+  @Override
+  public byte[] encode(Link link) {
+    if (format == CodecFormat.JSON) {
+      return link.toJson().getBytes(StandardCharsets.UTF_8);
+    }
+
+    String uri = link.uri().toString();
+    WireBuffer buffer = new WireBuffer(uri.length() + 8);
+    buffer.writeByte(BINARY_V1);
+    write(buffer, link);
+    return buffer.toByteArray();
+  }
+
+  @Override
+  public Link decode(byte[] bytes) {
+    if (bytes.length == 0) {
+      throw new ParserException("Empty link payload");
+    }
+
+    return switch (bytes[0]) {
+      case BINARY_V1 -> read(new WireBuffer(bytes, 1));
+      case JSON_START -> Link.fromJson(new String(bytes, StandardCharsets.UTF_8));
+      default -> throw new ParserException("Unknown link format: " + bytes[0]);
+    };
+  }
+
+  static void write(WireBuffer buffer, Link link) {
+    buffer.writeString(link.uri().toString());
+    buffer.writeVarint(link.depth());
+  }
+
+  static Link read(WireBuffer buffer) {
+    URI uri = URI.create(buffer.readString());
+    int depth = (int) buffer.readVarint();
+    return new Link(uri, depth);
+  }
+}
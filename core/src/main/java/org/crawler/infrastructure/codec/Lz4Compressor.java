@@ -0,0 +1,55 @@
+package org.crawler.infrastructure.codec;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.crawler.domain.exception.ParserException;
+
+/**
+ * LZ4 block compression: a lower ratio than deflate for a fraction of the CPU time. Payloads are
+ * decompressed with the safe decompressor, which never reads or writes out of bounds on corrupt
+ * input.
+ */
+public class Lz4Compressor extends Compressor {
+  private final LZ4Compressor compressor;
+  private final LZ4SafeDecompressor decompressor;
+
+  public Lz4Compressor() {
+    LZ4Factory factory = LZ4Factory.fastestInstance();
+    this.compressor = factory.fastCompressor();
+    this.decompressor = factory.safeDecompressor();
+  }
+
+  @Override
+  public int id() {
+    return 2;
+  }
+
+  @Override
+  public String name() {
+    return "lz4";
+  }
+
+  @Override
+  protected byte[] doCompress(byte[] data) {
+    return compressor.compress(data);
+  }
+
+  @Override
+  protected byte[] doDecompress(byte[] data, int originalLength) {
+    byte[] out = new byte[originalLength];
+    int length;
+
+    try {
+      length = decompressor.decompress(data, 0, data.length, out, 0, originalLength);
+    } catch (LZ4Exception e) {
+      throw new ParserException("Corrupted lz4 payload", e);
+    }
+
+    if (length != originalLength) {
+      throw new ParserException("Corrupted lz4 payload");
+    }
+    return out;
+  }
+}
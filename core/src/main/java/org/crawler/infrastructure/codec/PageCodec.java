@@ -0,0 +1,92 @@
+package org.crawler.infrastructure.codec;
+
+import java.nio.charset.StandardCharsets;
+import org.crawler.domain.Link;
+import org.crawler.domain.Page;
+import org.crawler.domain.config.CodecFormat;
+import org.crawler.domain.config.CompressionType;
+import org.crawler.domain.exception.ParserException;
+
+/**
+ * Encodes pages either as JSON or in a binary layout where the link uses the {@link LinkCodec}
+ * layout without its version byte and the body is copied as raw bytes instead of being
+ * JSON-escaped:
+ *
+ * <ul>
+ *   <li>v1: {@code [0x01][link][varint body length][body utf-8]}
+ *   <li>v2: {@code [0x02][link][compressor id][varint body length][varint compressed length]
+ *       [compressed body]}
+ * </ul>
+ *
+ * <p>Bodies of at least {@code compressionMinBytes} are compressed when a compressor is
+ * configured. Decoding accepts every form, whatever the configuration.
+ */
+public class PageCodec implements Codec<Page> {
+  static final int BINARY_V1 = 0x01;
+  static final int BINARY_V2_COMPRESSED = 0x02;
+
+  private final CodecFormat format;
+  private final Compressor compressor;
+  private final int compressionMinBytes;
+
+  public PageCodec(CodecFormat format) {
+    this(format, CompressionType.NONE, Integer.MAX_VALUE);
+  }
+
+  public PageCodec(CodecFormat format, CompressionType compression, int compressionMinBytes) {
+    this.format = format;
+    this.compressor = compression == CompressionType.NONE ? null : Compressors.of(compression);
+    this.compressionMinBytes = compressionMinBytes;
+  }
+
+  @Override
+  public byte[] encode(Page page) {
+    if (format == CodecFormat.JSON) {
+      return page.toJson().getBytes(StandardCharsets.UTF_8);
+    }
+
+    byte[] body = page.html().getBytes(StandardCharsets.UTF_8);
+
+    if (compressor != null && body.length >= compressionMinBytes) {
+      byte[] compressed = compressor.compress(body);
+      WireBuffer buffer = new WireBuffer(compressed.length + 128);
+      buffer.writeByte(BINARY_V2_COMPRESSED);
+      LinkCodec.write(buffer, page.link());
+      buffer.writeByte(compressor.id());
+      buffer.writeVarint(body.length);
+      buffer.writeBytes(compressed);
+      return buffer.toByteArray();
+    }
+
+    WireBuffer buffer = new WireBuffer(body.length + 128);
+    buffer.writeByte(BINARY_V1);
+    LinkCodec.write(buffer, page.link());
+    buffer.writeBytes(body);
+    return buffer.toByteArray();
+  }
+
+  @Override
+  public Page decode(byte[] bytes) {
+    if (bytes.length == 0) {
+      throw new ParserException("Empty page payload");
+    }
+
+    return switch (bytes[0]) {
+      case BINARY_V1 -> {
+        WireBuffer buffer = new WireBuffer(bytes, 1);
+        Link link = LinkCodec.read(buffer);
+        yield new Page(link, buffer.readString());
+      }
+      case BINARY_V2_COMPRESSED -> {
+        WireBuffer buffer = new WireBuffer(bytes, 1);
+        Link link = LinkCodec.read(buffer);
+        Compressor bodyCompressor = Compressors.forId(buffer.readByte());
+        int bodyLength = (int) buffer.readVarint();
+        byte[] body = bodyCompressor.decompress(buffer.readBytes(), bodyLength);
+        yield new Page(link, new String(body, StandardCharsets.UTF_8));
+      }
+      case LinkCodec.JSON_START -> Page.fromJson(new String(bytes, StandardCharsets.UTF_8));
+      default -> throw new ParserException("Unknown page format: " + bytes[0]);
+    };
+  }
+}
@@ -0,0 +1,101 @@
+package org.crawler.infrastructure.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.crawler.domain.exception.ParserException;
+
+/** Growable byte buffer with the unsigned LEB128 varint and length-prefixed string encodings. */
+final class WireBuffer {
+  private byte[] bytes;
+  private int position;
+
+  WireBuffer(int initialCapacity) {
+    this.bytes = new byte[initialCapacity];
+  }
+
+  WireBuffer(byte[] bytes, int offset) {
+    this.bytes = bytes;
+    this.position = offset;
+  }
+
+  void writeByte(int value) {
+    ensureCapacity(1);
+    bytes[position++] = (byte) value;
+  }
+
+  void writeVarint(long value) {
+    ensureCapacity(10);
+    while ((value & ~0x7FL) != 0) {
+      bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    bytes[position++] = (byte) value;
+  }
+
+  void writeBytes(byte[] value) {
+    writeVarint(value.length);
+    ensureCapacity(value.length);
+    System.arraycopy(value, 0, bytes, position, value.length);
+    position += value.length;
+  }
+
+  void writeString(String value) {
+    writeBytes(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  int readByte() {
+    checkAvailable(1);
+    return bytes[position++] & 0xFF;
+  }
+
+  long readVarint() {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = readByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new ParserException("Malformed varint");
+  }
+
+  byte[] readBytes() {
+    int length = readLength();
+    byte[] value = Arrays.copyOfRange(bytes, position, position + length);
+    position += length;
+    return value;
+  }
+
+  String readString() {
+    int length = readLength();
+    String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+    position += length;
+    return value;
+  }
+
+  byte[] toByteArray() {
+    return bytes.length == position ? bytes : Arrays.copyOf(bytes, position);
+  }
+
+  private int readLength() {
+    long length = readVarint();
+    if (length > Integer.MAX_VALUE) {
+      throw new ParserException("Length out of range: " + length);
+    }
+    checkAvailable((int) length);
+    return (int) length;
+  }
+
+  private void checkAvailable(int length) {
+    if (length > bytes.length - position) {
+      throw new ParserException("Truncated payload");
+    }
+  }
+
+  private void ensureCapacity(int extra) {
+    if (position + extra > bytes.length) {
+      bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, position + extra));
+    }
+  }
+}
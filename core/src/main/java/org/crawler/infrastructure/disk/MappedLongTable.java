@@ -0,0 +1,239 @@
+package org.crawler.infrastructure.disk;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Open-addressing hash set of non-zero longs living in a memory-mapped file, so that reopening it
+ * costs one {@code mmap} whatever its size. Values are placed by their low bits with linear
+ * probing; the table doubles into a new file, swapped in with an atomic rename, past 70% load.
+ *
+ * <p>Writes reach the file when the OS flushes the mapping or on {@link #sync()}. The header keeps
+ * the size and a clean flag, cleared while the table is open: after a crash the size is recounted
+ * on open, and values added after the last sync may be missing. Not thread-safe.
+ */
+final class MappedLongTable {
+  private static final long MAGIC = 0x43524157_4c564953L;
+  private static final int VERSION = 1;
+  private static final long HEADER_BYTES = 64;
+  private static final double MAX_LOAD = 0.7;
+
+  private static final ValueLayout.OfLong LONG =
+      ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+  private static final ValueLayout.OfInt INT =
+      ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+  private static final long MAGIC_OFFSET = 0;
+  private static final long VERSION_OFFSET = 8;
+  private static final long CLEAN_OFFSET = 12;
+  private static final long CAPACITY_OFFSET = 16;
+  private static final long SIZE_OFFSET = 24;
+
+  private final Path path;
+  private final long initialCapacity;
+  private Arena arena;
+  private MemorySegment memory;
+  private long capacity;
+  private long size;
+
+  private MappedLongTable(Path path, long initialCapacity) {
+    this.path = path;
+    this.initialCapacity = initialCapacity;
+  }
+
+  /** Opens the table stored at {@code path}, creating it when the file does not exist. */
+  static MappedLongTable open(Path path, long initialCapacity) throws IOException {
+    MappedLongTable table = new MappedLongTable(path, tableCapacity(initialCapacity));
+
+    if (Files.exists(path)) {
+      table.map(path, Files.size(path));
+      table.load();
+    } else {
+      table.create();
+    }
+
+    table.memory.set(INT, CLEAN_OFFSET, 0);
+    table.syncHeader();
+    return table;
+  }
+
+  /** Returns false when the value was already present. */
+  boolean add(long value) throws IOException {
+    long slot = find(memory, capacity, value);
+    if (memory.get(LONG, slot) == value) {
+      return false;
+    }
+
+    memory.set(LONG, slot, value);
+    if (++size > capacity * MAX_LOAD) {
+      resize(capacity << 1);
+    }
+    return true;
+  }
+
+  boolean contains(long value) {
+    return memory.get(LONG, find(memory, capacity, value)) == value;
+  }
+
+  long size() {
+    return size;
+  }
+
+  void clear() throws IOException {
+    close(false);
+    Files.deleteIfExists(path);
+    create();
+    memory.set(INT, CLEAN_OFFSET, 0);
+    syncHeader();
+  }
+
+  /** Flushes the values and the size to disk. */
+  void sync() {
+    memory.set(LONG, SIZE_OFFSET, size);
+    memory.force();
+  }
+
+  void close() {
+    close(true);
+  }
+
+  private void close(boolean clean) {
+    if (arena == null) {
+      return;
+    }
+
+    memory.set(LONG, SIZE_OFFSET, size);
+    memory.set(INT, CLEAN_OFFSET, clean ? 1 : 0);
+    memory.force();
+    arena.close();
+    arena = null;
+  }
+
+  private void create() throws IOException {
+    capacity = initialCapacity;
+    size = 0;
+    map(path, fileBytes(capacity));
+    writeHeader(memory, capacity);
+  }
+
+  private void load() throws IOException {
+    if (memory.byteSize() < HEADER_BYTES
+        || memory.get(LONG, MAGIC_OFFSET) != MAGIC
+        || memory.get(INT, VERSION_OFFSET) != VERSION) {
+      throw new IOException("Not a visited set file: " + path);
+    }
+
+    capacity = memory.get(LONG, CAPACITY_OFFSET);
+    if (memory.byteSize() != fileBytes(capacity)) {
+      throw new IOException("Truncated visited set file: " + path);
+    }
+
+    if (memory.get(INT, CLEAN_OFFSET) == 1) {
+      size = memory.get(LONG, SIZE_OFFSET);
+    } else {
+      size = 0;
+      for (long slot = HEADER_BYTES; slot < memory.byteSize(); slot += Long.BYTES) {
+        if (memory.get(LONG, slot) != 0) {
+          size++;
+        }
+      }
+    }
+  }
+
+  private void resize(long newCapacity) throws IOException {
+    Path resizedPath = path.resolveSibling(path.getFileName() + ".resize");
+    Files.deleteIfExists(resizedPath);
+
+    Arena resizedArena = Arena.ofShared();
+    try {
+      MemorySegment resized = mapFile(resizedPath, fileBytes(newCapacity), resizedArena);
+      writeHeader(resized, newCapacity);
+
+      for (long slot = HEADER_BYTES; slot < memory.byteSize(); slot += Long.BYTES) {
+        long value = memory.get(LONG, slot);
+        if (value != 0) {
+          resized.set(LONG, find(resized, newCapacity, value), value);
+        }
+      }
+
+      resized.set(LONG, SIZE_OFFSET, size);
+      resized.force();
+      Files.move(
+          resizedPath,
+          path,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+
+      arena.close();
+      arena = resizedArena;
+      memory = resized;
+      capacity = newCapacity;
+    } catch (IOException | RuntimeException e) {
+      resizedArena.close();
+      throw e;
+    }
+  }
+
+  private void map(Path file, long bytes) throws IOException {
+    Arena newArena = Arena.ofShared();
+    try {
+      memory = mapFile(file, bytes, newArena);
+      arena = newArena;
+    } catch (IOException | RuntimeException e) {
+      newArena.close();
+      throw e;
+    }
+  }
+
+  private void syncHeader() {
+    memory.asSlice(0, HEADER_BYTES).force();
+  }
+
+  private static MemorySegment mapFile(Path file, long bytes, Arena arena) throws IOException {
+    try (FileChannel channel =
+        FileChannel.open(
+            file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      return channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes, arena);
+    }
+  }
+
+  private static void writeHeader(MemorySegment memory, long capacity) {
+    memory.set(LONG, MAGIC_OFFSET, MAGIC);
+    memory.set(INT, VERSION_OFFSET, VERSION);
+    memory.set(INT, CLEAN_OFFSET, 0);
+    memory.set(LONG, CAPACITY_OFFSET, capacity);
+    memory.set(LONG, SIZE_OFFSET, 0);
+  }
+
+  /** Byte offset of the slot holding the value, or of the empty slot where it belongs. */
+  private static long find(MemorySegment memory, long capacity, long value) {
+    long mask = capacity - 1;
+    long index = value & mask;
+
+    while (true) {
+      long offset = HEADER_BYTES + index * Long.BYTES;
+      long stored = memory.get(LONG, offset);
+      if (stored == 0 || stored == value) {
+        return offset;
+      }
+      index = (index + 1) & mask;
+    }
+  }
+
+  private static long fileBytes(long capacity) {
+    return HEADER_BYTES + capacity * Long.BYTES;
+  }
+
+  private static long tableCapacity(long expectedValues) {
+    long slots = (long) Math.ceil(Math.max(16, expectedValues) / MAX_LOAD);
+    return Long.highestOneBit(slots - 1) << 1;
+  }
+}
@@ -0,0 +1,100 @@
+package org.crawler.infrastructure.disk;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only file of length-prefixed records, mapped in memory for its whole size. Records are
+ * read back in order. Not thread-safe, callers hold their own lock.
+ *
+ * <p>The mapping belongs to a shared {@link Arena}, so {@link #delete()} unmaps it right away
+ * instead of leaving it to the garbage collector.
+ */
+final class MappedSegment {
+  private static final Logger logger = LoggerFactory.getLogger(MappedSegment.class);
+
+  static final int RECORD_HEADER_BYTES = Integer.BYTES;
+
+  private static final ValueLayout.OfInt LENGTH =
+      ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+  private final Path path;
+  private final Arena arena;
+  private final MemorySegment memory;
+  private long writePosition;
+  private long readPosition;
+
+  private MappedSegment(Path path, Arena arena, MemorySegment memory) {
+    this.path = path;
+    this.arena = arena;
+    this.memory = memory;
+  }
+
+  static MappedSegment create(Path path, long size) throws IOException {
+    Arena arena = Arena.ofShared();
+
+    try (FileChannel channel =
+        FileChannel.open(
+            path,
+            StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+      MemorySegment memory = channel.map(FileChannel.MapMode.READ_WRITE, 0, size, arena);
+      return new MappedSegment(path, arena, memory);
+    } catch (IOException | RuntimeException e) {
+      arena.close();
+      throw e;
+    }
+  }
+
+  /** Returns false, writing nothing, when the record does not fit in the remaining space. */
+  boolean append(byte[] record) {
+    if (writePosition + RECORD_HEADER_BYTES + record.length > memory.byteSize()) {
+      return false;
+    }
+
+    memory.set(LENGTH, writePosition, record.length);
+    MemorySegment.copy(
+        record,
+        0,
+        memory,
+        ValueLayout.JAVA_BYTE,
+        writePosition + RECORD_HEADER_BYTES,
+        record.length);
+    writePosition += RECORD_HEADER_BYTES + record.length;
+    return true;
+  }
+
+  /** The next unread record, or null when every appended record has been read. */
+  byte[] next() {
+    if (readPosition >= writePosition) {
+      return null;
+    }
+
+    int length = memory.get(LENGTH, readPosition);
+    byte[] record = new byte[length];
+    MemorySegment.copy(
+        memory, ValueLayout.JAVA_BYTE, readPosition + RECORD_HEADER_BYTES, record, 0, length);
+    readPosition += RECORD_HEADER_BYTES + length;
+    return record;
+  }
+
+  void delete() {
+    arena.close();
+
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      logger.warn("Failed to delete segment {}", path, e);
+    }
+  }
+}
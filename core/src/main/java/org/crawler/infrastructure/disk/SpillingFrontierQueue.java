@@ -0,0 +1,249 @@
+package org.crawler.infrastructure.disk;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import org.crawler.domain.Link;
+import org.crawler.domain.exception.StorageException;
+import org.crawler.infrastructure.FrontierQueue;
+import org.crawler.infrastructure.codec.Codec;
+
+/**
+ * FIFO frontier with a fixed memory footprint. Up to {@code hotCapacity} links are kept on the
+ * heap; beyond that, links are appended to memory-mapped segment files of {@code segmentBytes}
+ * each and read back sequentially when the head runs dry. A segment is deleted as soon as it has
+ * been read, so the disk holds only the pending links.
+ *
+ * <p>Once links have spilled, new ones are spilled too until the segments are drained, which keeps
+ * the order first in, first out. Segment files are local to the node, leftovers from a previous
+ * run are discarded.
+ */
+public class SpillingFrontierQueue implements FrontierQueue {
+  static final String SEGMENT_SUFFIX = ".seg";
+
+  private final Path directory;
+  private final int hotCapacity;
+  private final long segmentBytes;
+  private final long pollTimeoutNanos;
+  private final Codec<Link> codec;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final ArrayDeque<Link> head;
+  // Oldest first, links are read from the first and appended to the last
+  private final ArrayDeque<MappedSegment> segments = new ArrayDeque<>();
+  private long spilled;
+  private long nextSegmentId;
+
+  public SpillingFrontierQueue(
+      Path directory,
+      int hotCapacity,
+      long segmentBytes,
+      Duration pollTimeout,
+      Codec<Link> codec) {
+    this.directory = directory;
+    this.hotCapacity = hotCapacity;
+    this.segmentBytes = segmentBytes;
+    this.pollTimeoutNanos = pollTimeout.toNanos();
+    this.codec = codec;
+    this.head = new ArrayDeque<>(Math.min(hotCapacity, 1 << 16));
+
+    try {
+      Files.createDirectories(directory);
+      deleteSegmentFiles();
+    } catch (IOException | UncheckedIOException e) {
+      throw new StorageException("Failed to prepare frontier directory " + directory, e);
+    }
+  }
+
+  @Override
+  public Optional<Link> pop() {
+    lock.lock();
+    try {
+      return awaitHead() ? Optional.of(head.poll()) : Optional.empty();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public List<Link> popBatch(int maxItems) {
+    lock.lock();
+    try {
+      if (!awaitHead()) {
+        return List.of();
+      }
+
+      List<Link> batch = new ArrayList<>(maxItems);
+      while (batch.size() < maxItems && (!head.isEmpty() || refill())) {
+        batch.add(head.poll());
+      }
+      return batch;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void push(Link link) {
+    byte[] encoded = codec.encode(link);
+
+    lock.lock();
+    try {
+      add(link, encoded);
+      notEmpty.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void pushAll(Collection<Link> links) {
+    if (links.isEmpty()) {
+      return;
+    }
+
+    // Encoded up front so that the lock is only held for the copies
+    List<Link> batch = List.copyOf(links);
+    List<byte[]> encoded = batch.stream().map(codec::encode).toList();
+
+    lock.lock();
+    try {
+      for (int i = 0; i < batch.size(); i++) {
+        add(batch.get(i), encoded.get(i));
+      }
+      notEmpty.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    lock.lock();
+    try {
+      head.clear();
+      while (!segments.isEmpty()) {
+        segments.poll().delete();
+      }
+      spilled = 0;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public long size() {
+    lock.lock();
+    try {
+      return head.size() + spilled;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Links currently held on disk rather than on the heap. */
+  public long spilled() {
+    lock.lock();
+    try {
+      return spilled;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void add(Link link, byte[] encoded) {
+    if (spilled == 0 && head.size() < hotCapacity) {
+      head.add(link);
+      return;
+    }
+
+    MappedSegment tail = segments.peekLast();
+    if (tail == null || !tail.append(encoded)) {
+      tail = newSegment(encoded.length);
+      if (!tail.append(encoded)) {
+        throw new StorageException("Link does not fit in a frontier segment: " + link);
+      }
+    }
+    spilled++;
+  }
+
+  /** Waits up to the poll timeout for the head to hold a link, refilling it from disk. */
+  private boolean awaitHead() {
+    long remaining = pollTimeoutNanos;
+
+    while (head.isEmpty() && !refill()) {
+      if (remaining <= 0) {
+        return false;
+      }
+      try {
+        remaining = notEmpty.awaitNanos(remaining);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /** Moves spilled links back to the head, returns false when there were none. */
+  private boolean refill() {
+    boolean refilled = false;
+
+    while (spilled > 0 && head.size() < hotCapacity) {
+      MappedSegment oldest = segments.peek();
+      byte[] encoded = oldest.next();
+
+      if (encoded == null) {
+        // Fully read and no longer written to, as the tail always holds the unread links
+        segments.poll().delete();
+        continue;
+      }
+
+      head.add(codec.decode(encoded));
+      spilled--;
+      refilled = true;
+    }
+
+    if (spilled == 0) {
+      while (!segments.isEmpty()) {
+        segments.poll().delete();
+      }
+    }
+
+    return refilled;
+  }
+
+  private MappedSegment newSegment(int recordBytes) {
+    Path path =
+        directory.resolve(String.format("frontier-%020d%s", nextSegmentId++, SEGMENT_SUFFIX));
+    long size = Math.max(segmentBytes, MappedSegment.RECORD_HEADER_BYTES + recordBytes);
+
+    try {
+      MappedSegment segment = MappedSegment.create(path, size);
+      segments.add(segment);
+      return segment;
+    } catch (IOException e) {
+      throw new StorageException("Failed to create frontier segment " + path, e);
+    }
+  }
+
+  private void deleteSegmentFiles() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : files.filter(f -> f.toString().endsWith(SEGMENT_SUFFIX)).toList()) {
+        Files.deleteIfExists(file);
+      }
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package org.crawler.infrastructure.memory;
+
+import java.util.concurrent.locks.LockSupport;
+
+/** Exponential parking back-off for the lock-free queues, from a few microseconds up to 1ms. */
+final class Backoff {
+  private static final long MIN_PARK_NANOS = 10_000;
+  private static final long MAX_PARK_NANOS = 1_000_000;
+
+  private final long deadline;
+  private long parkNanos = MIN_PARK_NANOS;
+
+  Backoff(long timeoutNanos) {
+    this.deadline = System.nanoTime() + timeoutNanos;
+  }
+
+  /** Parks for the next step, false once the timeout expired or the thread was interrupted. */
+  boolean pause() {
+    long remaining = deadline - System.nanoTime();
+    if (remaining <= 0 || Thread.currentThread().isInterrupted()) {
+      return false;
+    }
+
+    LockSupport.parkNanos(Math.min(parkNanos, remaining));
+    parkNanos = Math.min(parkNanos << 1, MAX_PARK_NANOS);
+    return true;
+  }
+}
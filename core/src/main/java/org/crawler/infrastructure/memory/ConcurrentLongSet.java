@@ -0,0 +1,109 @@
+package org.crawler.infrastructure.memory;
+
+/**
+ * Concurrent set of non-zero longs, split into independently locked stripes. Each stripe is an
+ * open-addressing table with linear probing over a plain {@code long[]}, so an entry costs 8 to 16
+ * bytes and no object. The top bits of a value pick its stripe and the low bits its slot, which
+ * assumes well-mixed values such as fingerprints.
+ */
+final class ConcurrentLongSet {
+  private static final int STRIPE_BITS = 6;
+  private static final double MAX_LOAD = 0.7;
+
+  private final Stripe[] stripes = new Stripe[1 << STRIPE_BITS];
+
+  ConcurrentLongSet(int initialCapacity) {
+    int perStripe = Math.max(16, initialCapacity >> STRIPE_BITS);
+    for (int i = 0; i < stripes.length; i++) {
+      stripes[i] = new Stripe(perStripe);
+    }
+  }
+
+  /** Returns false when the value was already present. */
+  boolean add(long value) {
+    return stripe(value).add(value);
+  }
+
+  boolean contains(long value) {
+    return stripe(value).contains(value);
+  }
+
+  long size() {
+    long size = 0;
+    for (Stripe stripe : stripes) {
+      size += stripe.size();
+    }
+    return size;
+  }
+
+  void clear() {
+    for (Stripe stripe : stripes) {
+      stripe.clear();
+    }
+  }
+
+  private Stripe stripe(long value) {
+    if (value == 0) {
+      throw new IllegalArgumentException("0 marks empty slots");
+    }
+    return stripes[(int) (value >>> (64 - STRIPE_BITS))];
+  }
+
+  private static final class Stripe {
+    private final int initialSlots;
+    private long[] slots;
+    private int size;
+
+    Stripe(int capacity) {
+      this.initialSlots = Integer.highestOneBit((int) Math.ceil(capacity / MAX_LOAD) - 1) << 1;
+      this.slots = new long[initialSlots];
+    }
+
+    synchronized boolean add(long value) {
+      int slot = find(slots, value);
+      if (slots[slot] == value) {
+        return false;
+      }
+
+      slots[slot] = value;
+      if (++size > slots.length * MAX_LOAD) {
+        resize();
+      }
+      return true;
+    }
+
+    synchronized boolean contains(long value) {
+      return slots[find(slots, value)] == value;
+    }
+
+    synchronized int size() {
+      return size;
+    }
+
+    synchronized void clear() {
+      slots = new long[initialSlots];
+      size = 0;
+    }
+
+    /** Slot holding the value, or the empty slot where it belongs. */
+    private static int find(long[] table, long value) {
+      int mask = table.length - 1;
+      int slot = (int) value & mask;
+
+      while (table[slot] != 0 && table[slot] != value) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+
+    private void resize() {
+      long[] resized = new long[slots.length << 1];
+      for (long value : slots) {
+        if (value != 0) {
+          resized[find(resized, value)] = value;
+        }
+      }
+      slots = resized;
+    }
+  }
+}
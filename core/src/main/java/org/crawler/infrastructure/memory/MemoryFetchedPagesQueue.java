@@ -0,0 +1,11 @@
+package org.crawler.infrastructure.memory;
+
+import java.time.Duration;
+import org.crawler.domain.Page;
+import org.crawler.infrastructure.FetchedPagesQueue;
+
+public class MemoryFetchedPagesQueue extends MemoryQueue<Page> implements FetchedPagesQueue {
+  public MemoryFetchedPagesQueue(int capacity, Duration maxBlock, Duration pollTimeout) {
+    super(capacity, maxBlock, pollTimeout);
+  }
+}
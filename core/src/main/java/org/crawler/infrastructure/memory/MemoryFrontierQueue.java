@@ -0,0 +1,12 @@
+package org.crawler.infrastructure.memory;
+
+import java.time.Duration;
+import org.crawler.domain.Link;
+import org.crawler.infrastructure.FrontierQueue;
+
+/** Breadth-first frontier for single-node crawls, without per-host politeness. */
+public class MemoryFrontierQueue extends MemoryQueue<Link> implements FrontierQueue {
+  public MemoryFrontierQueue(int capacity, Duration maxBlock, Duration pollTimeout) {
+    super(capacity, maxBlock, pollTimeout);
+  }
+}
@@ -0,0 +1,122 @@
+package org.crawler.infrastructure.memory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.crawler.infrastructure.Queue;
+
+/**
+ * FIFO queue on a lock-free {@link ConcurrentLinkedQueue}, holding the items themselves so nothing
+ * is serialized.
+ *
+ * <p>The capacity is a soft bound: producers back off while the queue is full, for at most {@code
+ * maxBlock}, and then enqueue anyway. Fetchers and extractors feed each other's queues, blocking
+ * them indefinitely could deadlock the pipeline. {@link #overflows()} counts these forced pushes.
+ * Consumers wait up to {@code pollTimeout} for an item, like a blocking pop on Redis.
+ */
+public class MemoryQueue<T> implements Queue<T> {
+  private final ConcurrentLinkedQueue<T> items = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger size = new AtomicInteger();
+  private final AtomicLong overflows = new AtomicLong();
+
+  private final int capacity;
+  private final long maxBlockNanos;
+  private final long pollTimeoutNanos;
+
+  public MemoryQueue(int capacity, Duration maxBlock, Duration pollTimeout) {
+    this.capacity = capacity;
+    this.maxBlockNanos = maxBlock.toNanos();
+    this.pollTimeoutNanos = pollTimeout.toNanos();
+  }
+
+  @Override
+  public Optional<T> pop() {
+    T item = items.poll();
+    Backoff backoff = null;
+
+    while (item == null) {
+      if (backoff == null) {
+        backoff = new Backoff(pollTimeoutNanos);
+      }
+      if (!backoff.pause()) {
+        return Optional.empty();
+      }
+      item = items.poll();
+    }
+
+    size.decrementAndGet();
+    return Optional.of(item);
+  }
+
+  @Override
+  public List<T> popBatch(int maxItems) {
+    Optional<T> first = pop();
+    if (first.isEmpty()) {
+      return List.of();
+    }
+
+    List<T> batch = new ArrayList<>(maxItems);
+    batch.add(first.get());
+
+    T item;
+    while (batch.size() < maxItems && (item = items.poll()) != null) {
+      batch.add(item);
+      size.decrementAndGet();
+    }
+
+    return batch;
+  }
+
+  @Override
+  public void push(T item) {
+    awaitRoom();
+    size.incrementAndGet();
+    items.offer(item);
+  }
+
+  @Override
+  public void pushAll(Collection<T> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    awaitRoom();
+    size.addAndGet(batch.size());
+    items.addAll(batch);
+  }
+
+  @Override
+  public void clear() {
+    while (items.poll() != null) {
+      size.decrementAndGet();
+    }
+  }
+
+  @Override
+  public long size() {
+    return Math.max(0, size.get());
+  }
+
+  public long overflows() {
+    return overflows.get();
+  }
+
+  private void awaitRoom() {
+    if (size.get() < capacity) {
+      return;
+    }
+
+    Backoff backoff = new Backoff(maxBlockNanos);
+    while (size.get() >= capacity) {
+      if (!backoff.pause()) {
+        overflows.incrementAndGet();
+        return;
+      }
+    }
+  }
+}
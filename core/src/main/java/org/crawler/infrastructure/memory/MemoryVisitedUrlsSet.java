@@ -0,0 +1,36 @@
+package org.crawler.infrastructure.memory;
+
+import org.crawler.common.UrlFingerprint;
+import org.crawler.infrastructure.VisitedUrlsSet;
+
+/**
+ * Visited set held on the heap as 64-bit {@link UrlFingerprint}s, with the same collision odds as
+ * {@link org.crawler.infrastructure.redis.FingerprintVisitedUrlsSet} and about 16 bytes per URL.
+ */
+public class MemoryVisitedUrlsSet implements VisitedUrlsSet {
+  private final ConcurrentLongSet fingerprints;
+
+  public MemoryVisitedUrlsSet(int initialCapacity) {
+    this.fingerprints = new ConcurrentLongSet(initialCapacity);
+  }
+
+  @Override
+  public void clear() {
+    fingerprints.clear();
+  }
+
+  @Override
+  public boolean addIfNotPresent(String url) {
+    return fingerprints.add(UrlFingerprint.of(url));
+  }
+
+  @Override
+  public boolean isPresent(String url) {
+    return fingerprints.contains(UrlFingerprint.of(url));
+  }
+
+  @Override
+  public long size() {
+    return fingerprints.size();
+  }
+}
@@ -0,0 +1,57 @@
+package org.crawler.infrastructure.redis;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.crawler.domain.exception.RedisException;
+import org.crawler.infrastructure.CheckpointStore;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+
+/** One Redis hash of counters, nodes add their progress with {@code HINCRBY}. */
+public class CheckpointStoreImpl implements CheckpointStore {
+  private static final String CHECKPOINT_KEY = "hash#crawl_checkpoint";
+
+  private final JedisPool jedisPool;
+
+  public CheckpointStoreImpl(JedisPool jedisPool) {
+    this.jedisPool = jedisPool;
+  }
+
+  @Override
+  public Map<String, Long> load() {
+    try (Jedis jedis = jedisPool.getResource()) {
+      Map<String, Long> counters = new HashMap<>();
+      jedis
+          .hgetAll(CHECKPOINT_KEY)
+          .forEach((name, value) -> counters.put(name, Long.parseLong(value)));
+      return counters;
+    } catch (Exception e) {
+      throw new RedisException("Failed to load crawl checkpoint", e);
+    }
+  }
+
+  @Override
+  public void add(Map<String, Long> deltas) {
+    if (deltas.isEmpty()) {
+      return;
+    }
+
+    try (Jedis jedis = jedisPool.getResource()) {
+      Pipeline pipeline = jedis.pipelined();
+      deltas.forEach((name, delta) -> pipeline.hincrBy(CHECKPOINT_KEY, name, delta));
+      pipeline.sync();
+    } catch (Exception e) {
+      throw new RedisException("Failed to save crawl checkpoint", e);
+    }
+  }
+
+  @Override
+  public void clear() {
+    try (Jedis jedis = jedisPool.getResource()) {
+      jedis.del(CHECKPOINT_KEY);
+    } catch (Exception e) {
+      throw new RedisException("Failed to clear crawl checkpoint", e);
+    }
+  }
+}
@@ -1,33 +1,55 @@
 package org.crawler.infrastructure.redis;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.crawler.domain.Page;
+import org.crawler.domain.config.ResumeConfig;
 import org.crawler.domain.exception.RedisException;
 import org.crawler.infrastructure.FetchedPagesQueue;
+import org.crawler.infrastructure.codec.Codec;
+import org.crawler.metrics.Histogram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.args.ListDirection;
 
 public class FetchedPagesQueueImpl implements FetchedPagesQueue {
   private static final Logger logger = LoggerFactory.getLogger(FetchedPagesQueueImpl.class);
 
-  private static final String PARSING_QUEUE_KEY = "queue#parsing";
+  private static final byte[] PARSING_QUEUE_KEY = "queue#parsing".getBytes(StandardCharsets.UTF_8);
+  private static final Histogram PUSH_LATENCY = RedisMetrics.latency("parsing_push");
   private final JedisPool jedisPool;
   private final int timeout;
+  private final Codec<Page> codec;
+  private final Leases leases;
 
-  public FetchedPagesQueueImpl(JedisPool jedisPool, int timeout) {
+  public FetchedPagesQueueImpl(JedisPool jedisPool, int timeout, Codec<Page> codec) {
+    this(jedisPool, timeout, codec, null);
+  }
+
+  /** With a resume config, popped items are leased until acked. */
+  public FetchedPagesQueueImpl(
+      JedisPool jedisPool, int timeout, Codec<Page> codec, ResumeConfig resumeConfig) {
     this.jedisPool = jedisPool;
     this.timeout = timeout;
+    this.codec = codec;
+    this.leases = resumeConfig != null ? new Leases(jedisPool, "parsing", resumeConfig) : null;
   }
 
   @Override
   public Optional<Page> pop() {
+    if (leases != null) {
+      return popBatch(1).stream().findFirst();
+    }
+
     try (Jedis jedis = jedisPool.getResource()) {
       var result = jedis.blpop(timeout, PARSING_QUEUE_KEY);
 
       if (result != null && result.size() > 1) {
-        return Optional.of(Page.fromJson(result.get(1)));
+        return Optional.of(codec.decode(result.get(1)));
       } else {
         return Optional.empty();
       }
@@ -36,19 +58,86 @@ public class FetchedPagesQueueImpl implements FetchedPagesQueue {
     }
   }
 
+  @Override
+  public List<Page> popBatch(int maxItems) {
+    if (leases != null) {
+      return leases.popFromList(PARSING_QUEUE_KEY, maxItems, timeout, codec);
+    }
+
+    try (Jedis jedis = jedisPool.getResource()) {
+      var result = jedis.blmpop(timeout, ListDirection.LEFT, maxItems, PARSING_QUEUE_KEY);
+
+      if (result == null) {
+        return List.of();
+      }
+
+      return result.getValue().stream().map(codec::decode).toList();
+    } catch (Exception e) {
+      throw new RedisException("Failed to get pages from queue", e);
+    }
+  }
+
   @Override
   public void push(Page page) {
     try (Jedis jedis = jedisPool.getResource()) {
-      jedis.lpush(PARSING_QUEUE_KEY, page.toJson());
+      byte[] payload = codec.encode(page);
+      long startedAt = System.nanoTime();
+      jedis.lpush(PARSING_QUEUE_KEY, payload);
+      PUSH_LATENCY.recordSince(startedAt);
     } catch (Exception e) {
       throw new RedisException("Failed to add link to queue", e);
     }
   }
 
+  @Override
+  public void pushAll(Collection<Page> pages) {
+    if (pages.isEmpty()) {
+      return;
+    }
+
+    try (Jedis jedis = jedisPool.getResource()) {
+      byte[][] payloads = pages.stream().map(codec::encode).toArray(byte[][]::new);
+      long startedAt = System.nanoTime();
+      jedis.lpush(PARSING_QUEUE_KEY, payloads);
+      PUSH_LATENCY.recordSince(startedAt);
+    } catch (Exception e) {
+      throw new RedisException("Failed to add pages to queue", e);
+    }
+  }
+
+  @Override
+  public long size() {
+    try (Jedis jedis = jedisPool.getResource()) {
+      return jedis.llen(PARSING_QUEUE_KEY);
+    } catch (Exception e) {
+      throw new RedisException("Failed to get parsing queue size", e);
+    }
+  }
+
+  @Override
+  public void ack(Page page) {
+    if (leases != null) {
+      leases.ack(page);
+    }
+  }
+
+  @Override
+  public boolean isRedelivery(Page page) {
+    return leases != null && leases.isRedelivery(page);
+  }
+
+  @Override
+  public int requeueExpired() {
+    return leases != null ? leases.requeueToList(PARSING_QUEUE_KEY) : 0;
+  }
+
   @Override
   public void clear() {
     try (Jedis jedis = jedisPool.getResource()) {
       jedis.del(PARSING_QUEUE_KEY);
+      if (leases != null) {
+        leases.clear(jedis);
+      }
     } catch (Exception e) {
       throw new RedisException("Failed to clear parsing queue", e);
     }
@@ -0,0 +1,168 @@
+package org.crawler.infrastructure.redis;
+
+import java.util.List;
+import org.crawler.common.UrlFingerprint;
+import org.crawler.domain.exception.RedisException;
+import org.crawler.infrastructure.VisitedUrlsSet;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
+
+/**
+ * Visited set storing the 64-bit {@link UrlFingerprint} of each URL instead of the URL itself.
+ *
+ * <p>Fingerprints are spread over {@code 2^bucketBits} small Redis sets keyed by their top bits.
+ * Sets holding only integers use the compact intset encoding (8 bytes per entry) as long as they
+ * stay under {@code set-max-intset-entries}, 512 by default, so the set stays compact up to {@code
+ * 2^bucketBits * 512} URLs: about 33M with 16 bits, 537M with 20. {@link #bucketBitsFor} gives the
+ * bits for an expected number of URLs.
+ *
+ * <p>Two different URLs sharing a fingerprint makes the second one look visited. With {@code n}
+ * URLs the expected number of such collisions is about {@code n^2 / 2^65}: 2.7e-6 at 10M URLs,
+ * 0.007 at 500M. {@link #estimatedCollisions()} reports it for the current size.
+ *
+ * <p>With {@code legacyCompat} the string set written by {@link VisitedUrlsSetImpl} is consulted
+ * on a miss, and URLs found there are migrated to their fingerprint. This only matters when a crawl
+ * resumes, {@link #clear()} deletes that set along with the fingerprints. The probe is the key the
+ * caller passes, today's canonical URL. Entries written by versions that keyed the set differently,
+ * such as the lower-cased URLs without query of the first releases, rarely equal it and are then
+ * refetched once.
+ */
+public class FingerprintVisitedUrlsSet implements VisitedUrlsSet {
+  private static final String BUCKET_KEY_PREFIX = "set#visited_fp:";
+  private static final String SIZE_KEY = "counter#visited_fp";
+  private static final String LEGACY_KEY = "set#visited_urls";
+  private static final int MAX_BUCKET_BITS = 24;
+  private static final long INTSET_ENTRIES = 512;
+
+  private static final RedisScript ADD_SCRIPT =
+      new RedisScript(
+          "visited_add",
+          """
+          if ARGV[2] ~= '' and redis.call('SISMEMBER', KEYS[3], ARGV[2]) == 1 then
+            if redis.call('SADD', KEYS[1], ARGV[1]) == 1 then
+              redis.call('INCR', KEYS[2])
+            end
+            return 0
+          end
+          if redis.call('SADD', KEYS[1], ARGV[1]) == 1 then
+            redis.call('INCR', KEYS[2])
+            return 1
+          end
+          return 0
+          """);
+
+  private static final RedisScript IS_PRESENT_SCRIPT =
+      new RedisScript(
+          "visited_is_present",
+          """
+          if redis.call('SISMEMBER', KEYS[1], ARGV[1]) == 1 then
+            return 1
+          end
+          if ARGV[2] ~= '' then
+            return redis.call('SISMEMBER', KEYS[2], ARGV[2])
+          end
+          return 0
+          """);
+
+  private final JedisPool jedisPool;
+  private final int bucketShift;
+  private final boolean legacyCompat;
+
+  public FingerprintVisitedUrlsSet(JedisPool jedisPool, int bucketBits, boolean legacyCompat) {
+    if (bucketBits < 0 || bucketBits > MAX_BUCKET_BITS) {
+      throw new IllegalArgumentException(
+          "bucketBits must be between 0 and " + MAX_BUCKET_BITS + ": " + bucketBits);
+    }
+
+    this.jedisPool = jedisPool;
+    this.bucketShift = 64 - bucketBits;
+    this.legacyCompat = legacyCompat;
+  }
+
+  /** Fewest bucket bits keeping every bucket an intset for {@code expectedUrls} URLs. */
+  public static int bucketBitsFor(long expectedUrls) {
+    int bits = 0;
+    while (bits < MAX_BUCKET_BITS && (INTSET_ENTRIES << bits) < expectedUrls) {
+      bits++;
+    }
+    return bits;
+  }
+
+  @Override
+  public void clear() {
+    try (Jedis jedis = jedisPool.getResource()) {
+      ScanParams params = new ScanParams().match(BUCKET_KEY_PREFIX + "*").count(1000);
+      String cursor = ScanParams.SCAN_POINTER_START;
+
+      do {
+        ScanResult<String> page = jedis.scan(cursor, params);
+        List<String> keys = page.getResult();
+        if (!keys.isEmpty()) {
+          jedis.del(keys.toArray(String[]::new));
+        }
+        cursor = page.getCursor();
+      } while (!cursor.equals(ScanParams.SCAN_POINTER_START));
+
+      jedis.del(SIZE_KEY, LEGACY_KEY);
+    } catch (Exception e) {
+      throw new RedisException("Failed to clear visited set", e);
+    }
+  }
+
+  @Override
+  public boolean addIfNotPresent(String url) {
+    long fingerprint = UrlFingerprint.of(url);
+
+    try (Jedis jedis = jedisPool.getResource()) {
+      Object result =
+          ADD_SCRIPT.eval(
+              jedis,
+              List.of(bucketKey(fingerprint), SIZE_KEY, LEGACY_KEY),
+              List.of(Long.toString(fingerprint), legacyCompat ? url : ""));
+
+      return ((Long) result) > 0;
+    } catch (Exception e) {
+      throw new RedisException("Failed to add url to visited set", e);
+    }
+  }
+
+  @Override
+  public boolean isPresent(String url) {
+    long fingerprint = UrlFingerprint.of(url);
+
+    try (Jedis jedis = jedisPool.getResource()) {
+      Object result =
+          IS_PRESENT_SCRIPT.eval(
+              jedis,
+              List.of(bucketKey(fingerprint), LEGACY_KEY),
+              List.of(Long.toString(fingerprint), legacyCompat ? url : ""));
+
+      return ((Long) result) > 0;
+    } catch (Exception e) {
+      throw new RedisException("Failed to check url in visited set", e);
+    }
+  }
+
+  @Override
+  public long size() {
+    try (Jedis jedis = jedisPool.getResource()) {
+      String size = jedis.get(SIZE_KEY);
+      return size == null ? 0 : Long.parseLong(size);
+    } catch (Exception e) {
+      throw new RedisException("Failed to read visited set size", e);
+    }
+  }
+
+  /** Expected number of URL pairs sharing a fingerprint at the current size, n(n-1)/2^65. */
+  public double estimatedCollisions() {
+    double n = size();
+    return n * (n - 1) / Math.pow(2, 65);
+  }
+
+  private String bucketKey(long fingerprint) {
+    long bucket = bucketShift == 64 ? 0 : fingerprint >>> bucketShift;
+    return BUCKET_KEY_PREFIX + bucket;
+  }
+}
@@ -1,33 +1,56 @@
 package org.crawler.infrastructure.redis;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.crawler.domain.Link;
+import org.crawler.domain.config.ResumeConfig;
 import org.crawler.domain.exception.RedisException;
 import org.crawler.infrastructure.FrontierQueue;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.crawler.infrastructure.codec.Codec;
+import org.crawler.metrics.Histogram;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.args.ListDirection;
 
+/**
+ * First in, first out frontier on one Redis list: links are pushed at the tail and popped from the
+ * head, so the crawl goes breadth first. Requeued leases go back at the head.
+ */
 public class FrontierQueueImpl implements FrontierQueue {
-  private static final Logger logger = LoggerFactory.getLogger(FrontierQueueImpl.class);
-
-  private static final String FRONTIER_QUEUE_KEY = "queue#frontier";
+  private static final byte[] FRONTIER_QUEUE_KEY =
+      "queue#frontier".getBytes(StandardCharsets.UTF_8);
+  private static final Histogram PUSH_LATENCY = RedisMetrics.latency("frontier_push");
   private final JedisPool jedisPool;
   private final int timeout;
+  private final Codec<Link> codec;
+  private final Leases leases;
+
+  public FrontierQueueImpl(JedisPool jedisPool, int timeout, Codec<Link> codec) {
+    this(jedisPool, timeout, codec, null);
+  }
 
-  public FrontierQueueImpl(JedisPool jedisPool, int timeout) {
+  /** With a resume config, popped items are leased until acked. */
+  public FrontierQueueImpl(
+      JedisPool jedisPool, int timeout, Codec<Link> codec, ResumeConfig resumeConfig) {
     this.jedisPool = jedisPool;
     this.timeout = timeout;
+    this.codec = codec;
+    this.leases = resumeConfig != null ? new Leases(jedisPool, "frontier", resumeConfig) : null;
   }
 
   @Override
   public Optional<Link> pop() {
+    if (leases != null) {
+      return popBatch(1).stream().findFirst();
+    }
+
     try (Jedis jedis = jedisPool.getResource()) {
       var result = jedis.blpop(timeout, FRONTIER_QUEUE_KEY);
 
       if (result != null && result.size() > 1) {
-        return Optional.of(Link.fromJson(result.get(1)));
+        return Optional.of(codec.decode(result.get(1)));
       } else {
         return Optional.empty();
       }
@@ -38,20 +61,85 @@ public class FrontierQueueImpl implements FrontierQueue {
   }
 
   @Override
-  public void push(Link link) {
+  public List<Link> popBatch(int maxItems) {
+    if (leases != null) {
+      return leases.popFromList(FRONTIER_QUEUE_KEY, maxItems, timeout, codec);
+    }
+
     try (Jedis jedis = jedisPool.getResource()) {
-      long result = jedis.lpush(FRONTIER_QUEUE_KEY, link.toJson());
+      var result = jedis.blmpop(timeout, ListDirection.LEFT, maxItems, FRONTIER_QUEUE_KEY);
 
-      logger.info("Pushed link to Frontier queue, result: {}", result > 0);
+      if (result == null) {
+        return List.of();
+      }
+
+      return result.getValue().stream().map(codec::decode).toList();
+    } catch (Exception e) {
+      throw new RedisException("Failed to get links from queue", e);
+    }
+  }
+
+  @Override
+  public void push(Link link) {
+    try (Jedis jedis = jedisPool.getResource()) {
+      byte[] payload = codec.encode(link);
+      long startedAt = System.nanoTime();
+      jedis.rpush(FRONTIER_QUEUE_KEY, payload);
+      PUSH_LATENCY.recordSince(startedAt);
     } catch (Exception e) {
       throw new RedisException("Failed to add link to queue", e);
     }
   }
 
+  @Override
+  public void pushAll(Collection<Link> links) {
+    if (links.isEmpty()) {
+      return;
+    }
+
+    try (Jedis jedis = jedisPool.getResource()) {
+      byte[][] payloads = links.stream().map(codec::encode).toArray(byte[][]::new);
+      long startedAt = System.nanoTime();
+      jedis.rpush(FRONTIER_QUEUE_KEY, payloads);
+      PUSH_LATENCY.recordSince(startedAt);
+    } catch (Exception e) {
+      throw new RedisException("Failed to add links to queue", e);
+    }
+  }
+
+  @Override
+  public long size() {
+    try (Jedis jedis = jedisPool.getResource()) {
+      return jedis.llen(FRONTIER_QUEUE_KEY);
+    } catch (Exception e) {
+      throw new RedisException("Failed to get frontier queue size", e);
+    }
+  }
+
+  @Override
+  public void ack(Link link) {
+    if (leases != null) {
+      leases.ack(link);
+    }
+  }
+
+  @Override
+  public boolean isRedelivery(Link link) {
+    return leases != null && leases.isRedelivery(link);
+  }
+
+  @Override
+  public int requeueExpired() {
+    return leases != null ? leases.requeueToList(FRONTIER_QUEUE_KEY) : 0;
+  }
+
   @Override
   public void clear() {
     try (Jedis jedis = jedisPool.getResource()) {
       jedis.del(FRONTIER_QUEUE_KEY);
+      if (leases != null) {
+        leases.clear(jedis);
+      }
     } catch (Exception e) {
       throw new RedisException("Failed to clear frontier queue", e);
     }
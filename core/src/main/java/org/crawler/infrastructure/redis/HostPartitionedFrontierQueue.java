@@ -0,0 +1,475 @@
+package org.crawler.infrastructure.redis;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.crawler.domain.Link;
+import org.crawler.domain.config.FrontierConfig;
+import org.crawler.domain.config.ResumeConfig;
+import org.crawler.domain.exception.RedisException;
+import org.crawler.infrastructure.FrontierQueue;
+import org.crawler.infrastructure.codec.Codec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
+
+/**
+ * Frontier split into one Redis list per host plus a sorted set of hosts scored by the time at
+ * which they may be fetched again.
+ *
+ * <p>Popping takes a link from the first host whose ready time has passed and pushes that host
+ * back by its politeness delay. The delay is the larger of the robots {@code Crawl-delay} and
+ * {@code latencyFactor} times the smoothed response latency of the host, the latter clamped to the
+ * configured bounds. The {@code Crawl-delay} is never capped. Until its first fetch is recorded, a
+ * host waits the delay seeded when its first link was pushed, its {@code Crawl-delay} or {@code
+ * minHostDelay}. All timestamps come from the Redis server clock so that several crawler nodes
+ * agree.
+ *
+ * <p>In resume mode popped links are {@link Leases leased}, the host of every leased link is kept
+ * so that an expired lease puts the link back at the head of its host queue.
+ */
+public class HostPartitionedFrontierQueue implements FrontierQueue {
+  private static final Logger logger = LoggerFactory.getLogger(HostPartitionedFrontierQueue.class);
+
+  private static final String HOST_QUEUE_KEY_PREFIX = "queue#frontier:";
+  private static final String SCHEDULE_KEY = "zset#frontier_schedule";
+  private static final String NEXT_READY_KEY = "hash#frontier_next_ready";
+  private static final String DELAY_KEY = "hash#frontier_delay";
+  private static final String LATENCY_KEY = "hash#frontier_latency";
+  private static final String LEASE_HOST_KEY = "hash#frontier_lease_host";
+  // Links across all host queues, kept by the scripts so that size() is a single GET
+  private static final String SIZE_KEY = "counter#frontier_size";
+
+  private static final List<byte[]> POP_KEYS =
+      List.of(bytes(SCHEDULE_KEY), bytes(DELAY_KEY), bytes(NEXT_READY_KEY), bytes(SIZE_KEY));
+  private static final List<byte[]> REQUEUE_KEYS =
+      List.of(bytes(LEASE_HOST_KEY), bytes(SCHEDULE_KEY), bytes(NEXT_READY_KEY), bytes(SIZE_KEY));
+  private static final List<byte[]> PUSH_KEYS =
+      List.of(bytes(SCHEDULE_KEY), bytes(NEXT_READY_KEY), bytes(SIZE_KEY), bytes(DELAY_KEY));
+
+  private static final long IDLE_POLL_MILLIS = 100;
+
+  // Every host queue a script touches comes in KEYS, after the fixed keys, one per host argument
+  private static final RedisScript PUSH_SCRIPT =
+      new RedisScript(
+          "frontier_push",
+          """
+          local time = redis.call('TIME')
+          local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+          local links = #ARGV / 3
+          for j = 1, links do
+            local host = ARGV[3 * j - 2]
+            redis.call('LPUSH', KEYS[4 + j], ARGV[3 * j])
+            redis.call('HSETNX', KEYS[4], host, ARGV[3 * j - 1])
+            if not redis.call('ZSCORE', KEYS[1], host) then
+              local readyAt = math.max(now, tonumber(redis.call('HGET', KEYS[2], host) or 0))
+              redis.call('ZADD', KEYS[1], readyAt, host)
+              redis.call('HDEL', KEYS[2], host)
+            end
+          end
+          redis.call('INCRBY', KEYS[3], links)
+          return 1
+          """);
+
+  // Pops the candidate hosts that are still ready, another consumer may have taken some
+  private static final RedisScript POP_SCRIPT =
+      new RedisScript(
+          "frontier_pop",
+          """
+          local time = redis.call('TIME')
+          local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+          local hosts = #ARGV - 2
+          local first = #KEYS - hosts
+          local result = {0}
+          for j = 1, hosts do
+            local host = ARGV[2 + j]
+            local readyAt = tonumber(redis.call('ZSCORE', KEYS[1], host))
+            if readyAt and readyAt <= now then
+              local queueKey = KEYS[first + j]
+              local item = redis.call('RPOP', queueKey)
+              local delay = tonumber(redis.call('HGET', KEYS[2], host) or ARGV[1])
+              if redis.call('LLEN', queueKey) > 0 then
+                redis.call('ZADD', KEYS[1], now + delay, host)
+              else
+                redis.call('ZREM', KEYS[1], host)
+                redis.call('HSET', KEYS[3], host, now + delay)
+              end
+              if item then
+                redis.call('DECR', KEYS[4])
+                result[#result + 1] = item
+                if first > 4 then
+                  redis.call('ZADD', KEYS[5], now + tonumber(ARGV[2]), item)
+                  redis.call('HSET', KEYS[7], item, host)
+                  result[#result + 1] = tonumber(redis.call('HGET', KEYS[6], item) or 0)
+                end
+              end
+            end
+          end
+          if #result > 1 then
+            return result
+          end
+          local next = redis.call('ZRANGE', KEYS[1], 0, 0, 'WITHSCORES')
+          if #next == 0 then
+            return {-1}
+          end
+          return {math.max(0, tonumber(next[2]) - now)}
+          """);
+
+  // Returns each expired item followed by its host, empty when the host is unknown
+  private static final RedisScript EXPIRED_SCRIPT =
+      new RedisScript(
+          "frontier_expired",
+          """
+          local time = redis.call('TIME')
+          local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+          local expired =
+            redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', now, 'LIMIT', 0, tonumber(ARGV[1]))
+          local result = {}
+          for _, item in ipairs(expired) do
+            result[#result + 1] = item
+            result[#result + 1] = redis.call('HGET', KEYS[2], item) or ''
+          end
+          return result
+          """);
+
+  // Requeued links go back to the end their host list is popped from, acked ones are skipped
+  private static final RedisScript REQUEUE_SCRIPT =
+      new RedisScript(
+          "frontier_requeue",
+          """
+          local time = redis.call('TIME')
+          local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+          local requeued = 0
+          local dropped = 0
+          for j = 1, (#ARGV - 1) / 2 do
+            local item = ARGV[2 * j]
+            local host = ARGV[2 * j + 1]
+            if redis.call('ZREM', KEYS[1], item) == 1 then
+              redis.call('HDEL', KEYS[3], item)
+              if redis.call('HINCRBY', KEYS[2], item, 1) > tonumber(ARGV[1]) or host == '' then
+                redis.call('HDEL', KEYS[2], item)
+                dropped = dropped + 1
+              else
+                redis.call('RPUSH', KEYS[6 + j], item)
+                if not redis.call('ZSCORE', KEYS[4], host) then
+                  local readyAt = math.max(now, tonumber(redis.call('HGET', KEYS[5], host) or 0))
+                  redis.call('ZADD', KEYS[4], readyAt, host)
+                  redis.call('HDEL', KEYS[5], host)
+                end
+                requeued = requeued + 1
+              end
+            end
+          end
+          redis.call('INCRBY', KEYS[6], requeued)
+          return {requeued, dropped}
+          """);
+
+  private static final RedisScript RECORD_FETCH_SCRIPT =
+      new RedisScript(
+          "frontier_record_fetch",
+          """
+          local sample = tonumber(ARGV[2])
+          local smoothing = tonumber(ARGV[3])
+          local previous = tonumber(redis.call('HGET', KEYS[1], ARGV[1]))
+          local latency = sample
+          if previous then
+            latency = smoothing * sample + (1 - smoothing) * previous
+          end
+          redis.call('HSET', KEYS[1], ARGV[1], math.floor(latency))
+          local adaptive = math.max(tonumber(ARGV[4]) * latency, tonumber(ARGV[5]))
+          adaptive = math.min(adaptive, tonumber(ARGV[6]))
+          local delay = math.max(tonumber(ARGV[7]), adaptive)
+          redis.call('HSET', KEYS[2], ARGV[1], math.floor(delay))
+          return math.floor(delay)
+          """);
+
+  private final JedisPool jedisPool;
+  private final int timeout;
+  private final FrontierConfig config;
+  private final Codec<Link> codec;
+  private final Leases leases;
+  private final Function<URI, Duration> crawlDelays;
+  private final List<byte[]> popKeys;
+
+  public HostPartitionedFrontierQueue(
+      JedisPool jedisPool, int timeout, FrontierConfig config, Codec<Link> codec) {
+    this(jedisPool, timeout, config, codec, null);
+  }
+
+  /** With a resume config, popped links are leased until acked. */
+  public HostPartitionedFrontierQueue(
+      JedisPool jedisPool,
+      int timeout,
+      FrontierConfig config,
+      Codec<Link> codec,
+      ResumeConfig resumeConfig) {
+    this(jedisPool, timeout, config, codec, resumeConfig, uri -> Duration.ZERO);
+  }
+
+  /**
+   * {@code crawlDelays} gives the robots {@code Crawl-delay} of a host when its first link is
+   * pushed. It is called on every push, so it should answer from a cache.
+   */
+  public HostPartitionedFrontierQueue(
+      JedisPool jedisPool,
+      int timeout,
+      FrontierConfig config,
+      Codec<Link> codec,
+      ResumeConfig resumeConfig,
+      Function<URI, Duration> crawlDelays) {
+    this.jedisPool = jedisPool;
+    this.timeout = timeout;
+    this.config = config;
+    this.codec = codec;
+    this.crawlDelays = crawlDelays;
+    this.leases =
+        resumeConfig != null
+            ? new Leases(jedisPool, "frontier", resumeConfig, LEASE_HOST_KEY)
+            : null;
+
+    List<byte[]> popKeys = new ArrayList<>(POP_KEYS);
+    if (leases != null) {
+      popKeys.addAll(leases.keys());
+    }
+    this.popKeys = List.copyOf(popKeys);
+  }
+
+  @Override
+  public Optional<Link> pop() {
+    return popBatch(1).stream().findFirst();
+  }
+
+  /** Pops at most one link per ready host, so a batch never holds two links of the same host. */
+  @Override
+  public List<Link> popBatch(int maxItems) {
+    long deadline =
+        timeout == 0 ? Long.MAX_VALUE : System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout);
+
+    while (true) {
+      List<?> result;
+
+      try (Jedis jedis = jedisPool.getResource()) {
+        // The hosts scheduled first, a script may only touch the host queues it is given
+        List<byte[]> hosts = jedis.zrange(bytes(SCHEDULE_KEY), 0, maxItems - 1);
+
+        List<byte[]> keys = new ArrayList<>(popKeys.size() + hosts.size());
+        keys.addAll(popKeys);
+        List<byte[]> args = new ArrayList<>(2 + hosts.size());
+        args.add(bytes(String.valueOf(config.minHostDelay().toMillis())));
+        args.add(leases != null ? leases.visibilityTimeoutMillis() : bytes("0"));
+        for (byte[] host : hosts) {
+          keys.add(hostQueueKey(host));
+          args.add(host);
+        }
+
+        result = (List<?>) POP_SCRIPT.evalBinary(jedis, keys, args);
+      } catch (Exception e) {
+        throw new RedisException("Failed to get links from queue", e);
+      }
+
+      if (result.size() > 1 && leases != null) {
+        return leases.register(result.subList(1, result.size()), codec);
+      }
+
+      if (result.size() > 1) {
+        return result.subList(1, result.size()).stream()
+            .map(payload -> codec.decode((byte[]) payload))
+            .toList();
+      }
+
+      long waitMillis = (Long) result.get(0);
+      long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+      if (remainingMillis <= 0) {
+        return List.of();
+      }
+
+      long sleepMillis = waitMillis < 0 ? IDLE_POLL_MILLIS : waitMillis;
+      if (sleepMillis > 0) {
+        try {
+          Thread.sleep(Math.min(sleepMillis, remainingMillis));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return List.of();
+        }
+      }
+    }
+  }
+
+  @Override
+  public void push(Link link) {
+    pushAll(List.of(link));
+  }
+
+  @Override
+  public void pushAll(Collection<Link> links) {
+    if (links.isEmpty()) {
+      return;
+    }
+
+    List<byte[]> keys = new ArrayList<>(PUSH_KEYS.size() + links.size());
+    keys.addAll(PUSH_KEYS);
+    List<byte[]> args = new ArrayList<>(links.size() * 3);
+    Map<String, byte[]> initialDelays = new HashMap<>();
+    for (Link link : links) {
+      String hostKey = hostKey(link.uri());
+      byte[] host = bytes(hostKey);
+      keys.add(hostQueueKey(host));
+      args.add(host);
+      args.add(initialDelays.computeIfAbsent(hostKey, key -> initialDelay(link.uri())));
+      args.add(codec.encode(link));
+    }
+
+    try (Jedis jedis = jedisPool.getResource()) {
+      PUSH_SCRIPT.evalBinary(jedis, keys, args);
+    } catch (Exception e) {
+      throw new RedisException("Failed to add links to queue", e);
+    }
+  }
+
+  private byte[] initialDelay(URI uri) {
+    Duration crawlDelay = Objects.requireNonNullElse(crawlDelays.apply(uri), Duration.ZERO);
+    long millis = Math.max(crawlDelay.toMillis(), config.minHostDelay().toMillis());
+    return bytes(String.valueOf(millis));
+  }
+
+  @Override
+  public void recordFetch(Link link, Duration latency, Duration crawlDelay) {
+    try (Jedis jedis = jedisPool.getResource()) {
+      RECORD_FETCH_SCRIPT.eval(
+          jedis,
+          List.of(LATENCY_KEY, DELAY_KEY),
+          List.of(
+              hostKey(link.uri()),
+              String.valueOf(latency.toMillis()),
+              String.valueOf(config.latencySmoothing()),
+              String.valueOf(config.latencyFactor()),
+              String.valueOf(config.minHostDelay().toMillis()),
+              String.valueOf(config.maxHostDelay().toMillis()),
+              String.valueOf(crawlDelay == null ? 0 : crawlDelay.toMillis())));
+    } catch (Exception e) {
+      throw new RedisException("Failed to record fetch latency", e);
+    }
+  }
+
+  @Override
+  public long size() {
+    try (Jedis jedis = jedisPool.getResource()) {
+      String size = jedis.get(SIZE_KEY);
+      // Links left by a version without the counter can drive it below zero
+      return size == null ? 0 : Math.max(0, Long.parseLong(size));
+    } catch (Exception e) {
+      throw new RedisException("Failed to get frontier size", e);
+    }
+  }
+
+  @Override
+  public void ack(Link link) {
+    if (leases != null) {
+      leases.ack(link);
+    }
+  }
+
+  @Override
+  public boolean isRedelivery(Link link) {
+    return leases != null && leases.isRedelivery(link);
+  }
+
+  /**
+   * Reads a batch of expired leases with their hosts first, so that the requeue script is given
+   * the host queues it pushes to.
+   */
+  @Override
+  public int requeueExpired() {
+    if (leases == null) {
+      return 0;
+    }
+
+    List<byte[]> leaseKeys = leases.keys();
+    List<byte[]> expiredKeys = List.of(leaseKeys.get(0), bytes(LEASE_HOST_KEY));
+    List<byte[]> expiredArgs = List.of(bytes(String.valueOf(Leases.REQUEUE_BATCH)));
+    int requeued = 0;
+
+    try (Jedis jedis = jedisPool.getResource()) {
+      while (true) {
+        List<?> expired = (List<?>) EXPIRED_SCRIPT.evalBinary(jedis, expiredKeys, expiredArgs);
+        if (expired.isEmpty()) {
+          return requeued;
+        }
+
+        List<byte[]> keys = new ArrayList<>(6 + expired.size() / 2);
+        keys.addAll(leaseKeys.subList(0, 2));
+        keys.addAll(REQUEUE_KEYS);
+        List<byte[]> args = new ArrayList<>(1 + expired.size());
+        args.add(leases.maxRedeliveries());
+        for (int i = 0; i < expired.size(); i += 2) {
+          byte[] host = (byte[]) expired.get(i + 1);
+          keys.add(hostQueueKey(host));
+          args.add((byte[]) expired.get(i));
+          args.add(host);
+        }
+
+        List<?> result = (List<?>) REQUEUE_SCRIPT.evalBinary(jedis, keys, args);
+        requeued += ((Long) result.get(0)).intValue();
+        long dropped = (Long) result.get(1);
+        if (dropped > 0) {
+          logger.warn("Dropped {} links redelivered too many times", dropped);
+        }
+        if (expired.size() / 2 < Leases.REQUEUE_BATCH) {
+          return requeued;
+        }
+      }
+    } catch (Exception e) {
+      throw new RedisException("Failed to requeue expired links", e);
+    }
+  }
+
+  @Override
+  public void clear() {
+    try (Jedis jedis = jedisPool.getResource()) {
+      ScanParams params = new ScanParams().match(HOST_QUEUE_KEY_PREFIX + "{*").count(1000);
+      String cursor = ScanParams.SCAN_POINTER_START;
+
+      do {
+        ScanResult<String> page = jedis.scan(cursor, params);
+        List<String> keys = page.getResult();
+        if (!keys.isEmpty()) {
+          jedis.del(keys.toArray(String[]::new));
+        }
+        cursor = page.getCursor();
+      } while (!cursor.equals(ScanParams.SCAN_POINTER_START));
+
+      jedis.del(SCHEDULE_KEY, NEXT_READY_KEY, DELAY_KEY, LATENCY_KEY, SIZE_KEY);
+      if (leases != null) {
+        leases.clear(jedis);
+      }
+    } catch (Exception e) {
+      throw new RedisException("Failed to clear frontier queue", e);
+    }
+  }
+
+  private static byte[] hostQueueKey(byte[] host) {
+    return bytes(HOST_QUEUE_KEY_PREFIX + "{" + new String(host, StandardCharsets.UTF_8) + "}");
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  static String hostKey(URI uri) {
+    String host = Objects.requireNonNullElse(uri.getHost(), "").toLowerCase(Locale.ROOT);
+    return uri.getPort() == -1 ? host : host + ":" + uri.getPort();
+  }
+}
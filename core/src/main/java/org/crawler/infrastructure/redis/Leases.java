@@ -0,0 +1,228 @@
+package org.crawler.infrastructure.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.crawler.domain.config.ResumeConfig;
+import org.crawler.domain.exception.RedisException;
+import org.crawler.infrastructure.codec.Codec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.args.ListDirection;
+
+/**
+ * Leases on the items popped from a Redis queue, so that the items of a consumer that dies are
+ * handed out again instead of being lost.
+ *
+ * <p>Popping moves an item into a sorted set scored by the Redis time at which its lease expires
+ * and acking removes it from there. Requeue scripts push the items of expired leases back to their
+ * queue and count the redeliveries in a hash: an item redelivered more than {@code
+ * maxRedeliveries} times is dropped, so a page that kills its consumer cannot stall the crawl.
+ *
+ * <p>Requeue scripts take the lease keys first, then their own keys, and {@code [batch,
+ * maxRedeliveries]} followed by their own arguments. They return the number of expired leases and
+ * the number of requeued items.
+ */
+final class Leases {
+  private static final Logger logger = LoggerFactory.getLogger(Leases.class);
+
+  static final int REQUEUE_BATCH = 1000;
+
+  private static final RedisScript LIST_POP_SCRIPT =
+      new RedisScript(
+          "lease_pop",
+          """
+          local items = redis.call('LPOP', KEYS[3], tonumber(ARGV[1]))
+          if not items then
+            return {}
+          end
+          local time = redis.call('TIME')
+          local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+          local result = {}
+          for _, item in ipairs(items) do
+            redis.call('ZADD', KEYS[1], now + tonumber(ARGV[2]), item)
+            result[#result + 1] = item
+            result[#result + 1] = tonumber(redis.call('HGET', KEYS[2], item) or 0)
+          end
+          return result
+          """);
+
+  private static final RedisScript LIST_REQUEUE_SCRIPT =
+      new RedisScript(
+          "lease_requeue",
+          """
+          local time = redis.call('TIME')
+          local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+          local expired =
+            redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', now, 'LIMIT', 0, tonumber(ARGV[1]))
+          local requeued = 0
+          for _, item in ipairs(expired) do
+            redis.call('ZREM', KEYS[1], item)
+            if redis.call('HINCRBY', KEYS[2], item, 1) > tonumber(ARGV[2]) then
+              redis.call('HDEL', KEYS[2], item)
+            else
+              redis.call('LPUSH', KEYS[3], item)
+              requeued = requeued + 1
+            end
+          end
+          return {#expired, requeued}
+          """);
+
+  private static final RedisScript ACK_SCRIPT =
+      new RedisScript(
+          "lease_ack",
+          """
+          redis.call('ZREM', KEYS[1], unpack(ARGV))
+          for k = 2, #KEYS do
+            redis.call('HDEL', KEYS[k], unpack(ARGV))
+          end
+          return 1
+          """);
+
+  private final JedisPool jedisPool;
+  private final List<byte[]> keys;
+  private final byte[] visibilityTimeoutMillis;
+  private final byte[] maxRedeliveries;
+  // Payload of every item handed out by this process and not acked yet
+  private final Map<Object, Lease> pending = Collections.synchronizedMap(new IdentityHashMap<>());
+
+  private record Lease(byte[] payload, boolean redelivery) {}
+
+  /**
+   * Acking an item also removes it from the hashes of {@code itemKeys}, in which the scripts of
+   * the queue keep their own per-item state.
+   */
+  Leases(JedisPool jedisPool, String name, ResumeConfig config, String... itemKeys) {
+    this.jedisPool = jedisPool;
+    List<byte[]> keys = new ArrayList<>();
+    keys.add(bytes("zset#" + name + "_leases"));
+    keys.add(bytes("hash#" + name + "_redeliveries"));
+    for (String itemKey : itemKeys) {
+      keys.add(bytes(itemKey));
+    }
+    this.keys = List.copyOf(keys);
+    this.visibilityTimeoutMillis = bytes(String.valueOf(config.visibilityTimeout().toMillis()));
+    this.maxRedeliveries = bytes(String.valueOf(config.maxRedeliveries()));
+  }
+
+  /** The lease sorted set, the redeliveries hash and the item hashes, in that order. */
+  List<byte[]> keys() {
+    return keys;
+  }
+
+  byte[] visibilityTimeoutMillis() {
+    return visibilityTimeoutMillis;
+  }
+
+  byte[] maxRedeliveries() {
+    return maxRedeliveries;
+  }
+
+  /**
+   * Leases up to {@code maxItems} from the head of a list. When the list is empty, waits for an
+   * item with a {@code BLMOVE} of the list onto itself, which blocks like {@code BLPOP} but leaves
+   * the item in place for the lease script.
+   */
+  <T> List<T> popFromList(byte[] listKey, int maxItems, int timeout, Codec<T> codec) {
+    try (Jedis jedis = jedisPool.getResource()) {
+      List<?> result = popFromList(jedis, listKey, maxItems);
+
+      if (result.isEmpty()
+          && jedis.blmove(listKey, listKey, ListDirection.LEFT, ListDirection.LEFT, timeout)
+              != null) {
+        result = popFromList(jedis, listKey, maxItems);
+      }
+
+      return register(result, codec);
+    } catch (Exception e) {
+      throw new RedisException("Failed to lease items from queue", e);
+    }
+  }
+
+  private List<?> popFromList(Jedis jedis, byte[] listKey, int maxItems) {
+    return (List<?>)
+        LIST_POP_SCRIPT.evalBinary(
+            jedis,
+            List.of(keys.get(0), keys.get(1), listKey),
+            List.of(bytes(String.valueOf(maxItems)), visibilityTimeoutMillis));
+  }
+
+  int requeueToList(byte[] listKey) {
+    return requeue(LIST_REQUEUE_SCRIPT, List.of(listKey), List.of());
+  }
+
+  /** Tracks the items of a flat {@code [payload, redeliveries, ...]} script result. */
+  <T> List<T> register(List<?> payloadsAndRedeliveries, Codec<T> codec) {
+    List<T> items = new ArrayList<>(payloadsAndRedeliveries.size() / 2);
+
+    for (int i = 0; i < payloadsAndRedeliveries.size(); i += 2) {
+      byte[] payload = (byte[]) payloadsAndRedeliveries.get(i);
+      T item = codec.decode(payload);
+      pending.put(item, new Lease(payload, (Long) payloadsAndRedeliveries.get(i + 1) > 0));
+      items.add(item);
+    }
+
+    return items;
+  }
+
+  boolean isRedelivery(Object item) {
+    Lease lease = pending.get(item);
+    return lease != null && lease.redelivery();
+  }
+
+  void ack(Object item) {
+    Lease lease = pending.remove(item);
+    if (lease == null) {
+      return;
+    }
+
+    try (Jedis jedis = jedisPool.getResource()) {
+      ACK_SCRIPT.evalBinary(jedis, keys, List.of(lease.payload()));
+    } catch (Exception e) {
+      throw new RedisException("Failed to ack item", e);
+    }
+  }
+
+  int requeue(RedisScript script, List<byte[]> scriptKeys, List<byte[]> scriptArgs) {
+    List<byte[]> allKeys = new ArrayList<>(keys.subList(0, 2));
+    allKeys.addAll(scriptKeys);
+    List<byte[]> allArgs = new ArrayList<>();
+    allArgs.add(bytes(String.valueOf(REQUEUE_BATCH)));
+    allArgs.add(maxRedeliveries);
+    allArgs.addAll(scriptArgs);
+
+    int requeued = 0;
+
+    try (Jedis jedis = jedisPool.getResource()) {
+      while (true) {
+        List<?> result = (List<?>) script.evalBinary(jedis, allKeys, allArgs);
+        long expired = (Long) result.get(0);
+        long batchRequeued = (Long) result.get(1);
+
+        requeued += (int) batchRequeued;
+        if (expired > batchRequeued) {
+          logger.warn("Dropped {} items redelivered too many times", expired - batchRequeued);
+        }
+        if (expired < REQUEUE_BATCH) {
+          return requeued;
+        }
+      }
+    } catch (Exception e) {
+      throw new RedisException("Failed to requeue expired items", e);
+    }
+  }
+
+  void clear(Jedis jedis) {
+    jedis.del(keys.toArray(byte[][]::new));
+    pending.clear();
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
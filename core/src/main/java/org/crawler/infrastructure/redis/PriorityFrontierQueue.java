@@ -0,0 +1,299 @@
+package org.crawler.infrastructure.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.crawler.common.UrlFingerprint;
+import org.crawler.domain.Link;
+import org.crawler.domain.config.FrontierConfig;
+import org.crawler.domain.config.ResumeConfig;
+import org.crawler.domain.exception.RedisException;
+import org.crawler.infrastructure.FrontierQueue;
+import org.crawler.infrastructure.codec.Codec;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+
+/**
+ * Frontier on a Redis sorted set of pending URLs, popped lowest score first, so that workers
+ * always fetch the most valuable link instead of the last one found.
+ *
+ * <p>A link is scored when first pushed by its depth plus one for every {@code
+ * priorityHostBudget} links of its host pushed before it, so that a large host cannot crowd out
+ * the others at the same depth. The count of a host is cumulative over the crawl, a budget:
+ * popping or fetching its links never lowers it, only {@link #clear()} resets it. Every further
+ * push of a pending URL counts one more inlink and lowers its score by {@code
+ * priorityInlinkWeight}, by {@code priorityMaxInlinkBoost} at most. A URL keeps the depth of its
+ * first push, which links popped shallowest first make the smallest one in practice. A jitter
+ * below 0.001, hashed from the URL, interleaves the hosts of equal scores.
+ *
+ * <p>In resume mode popped links are {@link Leases leased}, the URL and score of every leased
+ * link are kept so that an expired lease puts the link back at its score.
+ */
+public class PriorityFrontierQueue implements FrontierQueue {
+  private static final String QUEUE_KEY = "zset#frontier_priority";
+  private static final String LINKS_KEY = "hash#frontier_priority_links";
+  private static final String INLINKS_KEY = "hash#frontier_priority_inlinks";
+  // First pushes per host since the frontier was cleared, never decremented
+  private static final String HOST_PUSHES_KEY = "hash#frontier_priority_host_pushes";
+  private static final String LEASE_URL_KEY = "hash#frontier_lease_url";
+  private static final String LEASE_SCORE_KEY = "hash#frontier_lease_score";
+
+  private static final List<byte[]> PUSH_KEYS =
+      List.of(bytes(QUEUE_KEY), bytes(LINKS_KEY), bytes(INLINKS_KEY), bytes(HOST_PUSHES_KEY));
+  private static final List<byte[]> POP_KEYS =
+      List.of(bytes(QUEUE_KEY), bytes(LINKS_KEY), bytes(INLINKS_KEY));
+  private static final List<byte[]> REQUEUE_KEYS =
+      List.of(bytes(LEASE_URL_KEY), bytes(LEASE_SCORE_KEY), bytes(QUEUE_KEY), bytes(LINKS_KEY));
+
+  private static final long IDLE_POLL_MILLIS = 100;
+  private static final double JITTER = 0.001;
+
+  private static final RedisScript PUSH_SCRIPT =
+      new RedisScript(
+          "priority_push",
+          """
+          local budget = tonumber(ARGV[1])
+          local weight = tonumber(ARGV[2])
+          local maxBoost = tonumber(ARGV[3])
+          local added = 0
+          for i = 4, #ARGV, 4 do
+            local url = ARGV[i]
+            if redis.call('ZSCORE', KEYS[1], url) then
+              local inlinks = redis.call('HINCRBY', KEYS[3], url, 1)
+              if inlinks * weight <= maxBoost then
+                redis.call('ZINCRBY', KEYS[1], -weight, url)
+              end
+            else
+              local pushes = redis.call('HINCRBY', KEYS[4], ARGV[i + 1], 1)
+              local score = tonumber(ARGV[i + 2]) + math.floor((pushes - 1) / budget)
+              redis.call('ZADD', KEYS[1], score, url)
+              redis.call('HSET', KEYS[2], url, ARGV[i + 3])
+              added = added + 1
+            end
+          end
+          return added
+          """);
+
+  private static final RedisScript POP_SCRIPT =
+      new RedisScript(
+          "priority_pop",
+          """
+          local popped = redis.call('ZPOPMIN', KEYS[1], tonumber(ARGV[1]))
+          local now = 0
+          if #KEYS > 3 then
+            local time = redis.call('TIME')
+            now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+          end
+          local result = {}
+          for i = 1, #popped, 2 do
+            local url = popped[i]
+            local item = redis.call('HGET', KEYS[2], url)
+            redis.call('HDEL', KEYS[2], url)
+            redis.call('HDEL', KEYS[3], url)
+            if item then
+              result[#result + 1] = item
+              if #KEYS > 3 then
+                redis.call('ZADD', KEYS[4], now + tonumber(ARGV[2]), item)
+                redis.call('HSET', KEYS[6], item, url)
+                redis.call('HSET', KEYS[7], item, popped[i + 1])
+                result[#result + 1] = tonumber(redis.call('HGET', KEYS[5], item) or 0)
+              end
+            end
+          end
+          return result
+          """);
+
+  // A URL pushed again while its link was leased is already back in the queue
+  private static final RedisScript REQUEUE_SCRIPT =
+      new RedisScript(
+          "priority_requeue",
+          """
+          local time = redis.call('TIME')
+          local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+          local expired =
+            redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', now, 'LIMIT', 0, tonumber(ARGV[1]))
+          local requeued = 0
+          for _, item in ipairs(expired) do
+            redis.call('ZREM', KEYS[1], item)
+            local url = redis.call('HGET', KEYS[3], item)
+            local score = redis.call('HGET', KEYS[4], item)
+            redis.call('HDEL', KEYS[3], item)
+            redis.call('HDEL', KEYS[4], item)
+            if redis.call('HINCRBY', KEYS[2], item, 1) > tonumber(ARGV[2]) or not url then
+              redis.call('HDEL', KEYS[2], item)
+            else
+              if not redis.call('ZSCORE', KEYS[5], url) then
+                redis.call('ZADD', KEYS[5], score, url)
+                redis.call('HSET', KEYS[6], url, item)
+              end
+              requeued = requeued + 1
+            end
+          end
+          return {#expired, requeued}
+          """);
+
+  private final JedisPool jedisPool;
+  private final int timeout;
+  private final Codec<Link> codec;
+  private final Leases leases;
+  private final List<byte[]> popKeys;
+  private final List<byte[]> scoringArgs;
+
+  public PriorityFrontierQueue(
+      JedisPool jedisPool, int timeout, FrontierConfig config, Codec<Link> codec) {
+    this(jedisPool, timeout, config, codec, null);
+  }
+
+  /** With a resume config, popped links are leased until acked. */
+  public PriorityFrontierQueue(
+      JedisPool jedisPool,
+      int timeout,
+      FrontierConfig config,
+      Codec<Link> codec,
+      ResumeConfig resumeConfig) {
+    this.jedisPool = jedisPool;
+    this.timeout = timeout;
+    this.codec = codec;
+    this.leases =
+        resumeConfig != null
+            ? new Leases(jedisPool, "frontier", resumeConfig, LEASE_URL_KEY, LEASE_SCORE_KEY)
+            : null;
+
+    List<byte[]> popKeys = new ArrayList<>(POP_KEYS);
+    if (leases != null) {
+      popKeys.addAll(leases.keys());
+    }
+    this.popKeys = List.copyOf(popKeys);
+    this.scoringArgs =
+        List.of(
+            bytes(String.valueOf(config.priorityHostBudget())),
+            bytes(String.valueOf(config.priorityInlinkWeight())),
+            bytes(String.valueOf(config.priorityMaxInlinkBoost())));
+  }
+
+  @Override
+  public Optional<Link> pop() {
+    return popBatch(1).stream().findFirst();
+  }
+
+  /** Pops the {@code maxItems} best scored links, polling until one is pushed or time is up. */
+  @Override
+  public List<Link> popBatch(int maxItems) {
+    long deadline =
+        timeout == 0 ? Long.MAX_VALUE : System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout);
+
+    while (true) {
+      List<?> result;
+
+      try (Jedis jedis = jedisPool.getResource()) {
+        result =
+            (List<?>)
+                POP_SCRIPT.evalBinary(
+                    jedis,
+                    popKeys,
+                    List.of(
+                        bytes(String.valueOf(maxItems)),
+                        leases != null ? leases.visibilityTimeoutMillis() : bytes("0")));
+      } catch (Exception e) {
+        throw new RedisException("Failed to get links from queue", e);
+      }
+
+      if (!result.isEmpty() && leases != null) {
+        return leases.register(result, codec);
+      }
+
+      if (!result.isEmpty()) {
+        return result.stream().map(payload -> codec.decode((byte[]) payload)).toList();
+      }
+
+      long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+      if (remainingMillis <= 0) {
+        return List.of();
+      }
+
+      try {
+        Thread.sleep(Math.min(IDLE_POLL_MILLIS, remainingMillis));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return List.of();
+      }
+    }
+  }
+
+  @Override
+  public void push(Link link) {
+    pushAll(List.of(link));
+  }
+
+  @Override
+  public void pushAll(Collection<Link> links) {
+    if (links.isEmpty()) {
+      return;
+    }
+
+    List<byte[]> args = new ArrayList<>(3 + links.size() * 4);
+    args.addAll(scoringArgs);
+    for (Link link : links) {
+      String url = link.uri().toString();
+      args.add(bytes(url));
+      args.add(bytes(HostPartitionedFrontierQueue.hostKey(link.uri())));
+      args.add(bytes(String.valueOf(baseScore(link.depth(), url))));
+      args.add(codec.encode(link));
+    }
+
+    try (Jedis jedis = jedisPool.getResource()) {
+      PUSH_SCRIPT.evalBinary(jedis, PUSH_KEYS, args);
+    } catch (Exception e) {
+      throw new RedisException("Failed to add links to queue", e);
+    }
+  }
+
+  static double baseScore(int depth, String url) {
+    return depth + (UrlFingerprint.of(url) >>> 11) * 0x1.0p-53 * JITTER;
+  }
+
+  @Override
+  public long size() {
+    try (Jedis jedis = jedisPool.getResource()) {
+      return jedis.zcard(QUEUE_KEY);
+    } catch (Exception e) {
+      throw new RedisException("Failed to get frontier size", e);
+    }
+  }
+
+  @Override
+  public void ack(Link link) {
+    if (leases != null) {
+      leases.ack(link);
+    }
+  }
+
+  @Override
+  public boolean isRedelivery(Link link) {
+    return leases != null && leases.isRedelivery(link);
+  }
+
+  @Override
+  public int requeueExpired() {
+    return leases != null ? leases.requeue(REQUEUE_SCRIPT, REQUEUE_KEYS, List.of()) : 0;
+  }
+
+  @Override
+  public void clear() {
+    try (Jedis jedis = jedisPool.getResource()) {
+      jedis.del(QUEUE_KEY, LINKS_KEY, INLINKS_KEY, HOST_PUSHES_KEY);
+      if (leases != null) {
+        leases.clear(jedis);
+      }
+    } catch (Exception e) {
+      throw new RedisException("Failed to clear frontier queue", e);
+    }
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,18 @@
+package org.crawler.infrastructure.redis;
+
+import org.crawler.metrics.Histogram;
+import org.crawler.metrics.MetricsRegistry;
+
+/**
+ * Latency of Redis operations by name. Only non-blocking operations are timed, a blocking pop
+ * would measure how long the queue stayed empty rather than Redis.
+ */
+final class RedisMetrics {
+  static final String LATENCY = "redis_latency_micros";
+
+  private RedisMetrics() {}
+
+  static Histogram latency(String operation) {
+    return MetricsRegistry.global().histogram(LATENCY, "op", operation);
+  }
+}
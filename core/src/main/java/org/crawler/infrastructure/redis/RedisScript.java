@@ -0,0 +1,62 @@
+package org.crawler.infrastructure.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import org.crawler.metrics.Histogram;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+
+/**
+ * Lua script invoked by SHA1, falling back to a full EVAL when the server does not know it. Calls
+ * are timed under the name of the script.
+ */
+class RedisScript {
+  private final String script;
+  private final String sha;
+  private final byte[] scriptBytes;
+  private final byte[] shaBytes;
+  private final Histogram latency;
+
+  RedisScript(String name, String script) {
+    this.script = script;
+    this.sha = sha1(script);
+    this.scriptBytes = script.getBytes(StandardCharsets.UTF_8);
+    this.shaBytes = sha.getBytes(StandardCharsets.UTF_8);
+    this.latency = RedisMetrics.latency(name);
+  }
+
+  Object eval(Jedis jedis, List<String> keys, List<String> args) {
+    long startedAt = System.nanoTime();
+    try {
+      return jedis.evalsha(sha, keys, args);
+    } catch (JedisNoScriptException e) {
+      return jedis.eval(script, keys, args);
+    } finally {
+      latency.recordSince(startedAt);
+    }
+  }
+
+  Object evalBinary(Jedis jedis, List<byte[]> keys, List<byte[]> args) {
+    long startedAt = System.nanoTime();
+    try {
+      return jedis.evalsha(shaBytes, keys, args);
+    } catch (JedisNoScriptException e) {
+      return jedis.eval(scriptBytes, keys, args);
+    } finally {
+      latency.recordSince(startedAt);
+    }
+  }
+
+  private static String sha1(String script) {
+    try {
+      byte[] digest =
+          MessageDigest.getInstance("SHA-1").digest(script.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-1 not available", e);
+    }
+  }
+}
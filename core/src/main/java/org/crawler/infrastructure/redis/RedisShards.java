@@ -0,0 +1,62 @@
+package org.crawler.infrastructure.redis;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.crawler.domain.config.RedisConfig;
+import org.crawler.domain.config.RedisEndpoint;
+import org.crawler.infrastructure.shard.ConsistentHashRing;
+import redis.clients.jedis.JedisPool;
+
+/**
+ * One pool per Redis endpoint and the ring placing every host on one of them. Structures built
+ * with {@link #shard} run one instance per endpoint, each holding the hosts of its endpoint, so a
+ * host's keys and scripts never span two servers. State that is not sharded, like checkpoints and
+ * page validators, lives on the {@link #primary()} endpoint.
+ *
+ * <p>Every process of a crawl must list the same endpoints, under the same names and with the same
+ * first one.
+ */
+public class RedisShards implements AutoCloseable {
+  private final List<JedisPool> pools;
+  private final ConsistentHashRing ring;
+
+  public RedisShards(RedisConfig config) {
+    this.pools =
+        config.endpoints().stream()
+            .map(
+                endpoint ->
+                    new JedisPool(config.jedisPoolConfig(), endpoint.host(), endpoint.port()))
+            .toList();
+    this.ring = new ConsistentHashRing(config.endpoints().stream().map(RedisShards::name).toList());
+  }
+
+  public JedisPool primary() {
+    return pools.getFirst();
+  }
+
+  public int size() {
+    return pools.size();
+  }
+
+  /**
+   * Builds one instance per endpoint with {@code perShard} and joins them with {@code sharded}, or
+   * returns the single instance when there is one endpoint.
+   */
+  public <T> T shard(
+      Function<JedisPool, T> perShard, BiFunction<ConsistentHashRing, List<T>, T> sharded) {
+    if (pools.size() == 1) {
+      return perShard.apply(pools.getFirst());
+    }
+    return sharded.apply(ring, pools.stream().map(perShard).toList());
+  }
+
+  @Override
+  public void close() {
+    pools.forEach(JedisPool::close);
+  }
+
+  private static String name(RedisEndpoint endpoint) {
+    return endpoint.host() + ":" + endpoint.port();
+  }
+}
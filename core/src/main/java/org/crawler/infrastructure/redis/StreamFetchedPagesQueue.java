@@ -0,0 +1,14 @@
+package org.crawler.infrastructure.redis;
+
+import org.crawler.domain.Page;
+import org.crawler.domain.config.StreamConfig;
+import org.crawler.infrastructure.FetchedPagesQueue;
+import org.crawler.infrastructure.codec.Codec;
+import redis.clients.jedis.JedisPool;
+
+public class StreamFetchedPagesQueue extends StreamQueue<Page> implements FetchedPagesQueue {
+  public StreamFetchedPagesQueue(
+      JedisPool jedisPool, int timeout, Codec<Page> codec, StreamConfig config) {
+    super(jedisPool, "parsing", timeout, codec, config);
+  }
+}
@@ -0,0 +1,15 @@
+package org.crawler.infrastructure.redis;
+
+import org.crawler.domain.Link;
+import org.crawler.domain.config.StreamConfig;
+import org.crawler.infrastructure.FrontierQueue;
+import org.crawler.infrastructure.codec.Codec;
+import redis.clients.jedis.JedisPool;
+
+/** Breadth-first frontier shared by several crawler processes, without per-host politeness. */
+public class StreamFrontierQueue extends StreamQueue<Link> implements FrontierQueue {
+  public StreamFrontierQueue(
+      JedisPool jedisPool, int timeout, Codec<Link> codec, StreamConfig config) {
+    super(jedisPool, "frontier", timeout, codec, config);
+  }
+}
@@ -0,0 +1,374 @@
+package org.crawler.infrastructure.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import org.crawler.domain.config.StreamConfig;
+import org.crawler.domain.exception.RedisException;
+import org.crawler.infrastructure.Queue;
+import org.crawler.infrastructure.codec.Codec;
+import org.crawler.metrics.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.params.XReadGroupParams;
+
+/**
+ * Queue on a Redis stream read through a consumer group, so that several crawler processes share
+ * the queue with at-least-once delivery. Needs Redis 6.2 or later.
+ *
+ * <p>Every entry read stays pending for its consumer until acked. Acks are buffered and sent in one
+ * {@code XACK} once {@code ackBatchSize} piled up, once nothing read by this process is left
+ * unacked, or on the next pop. At most every {@code claimInterval}, a pop first claims with {@code
+ * XAUTOCLAIM} the entries pending for longer than {@code claimIdle}, those of a consumer that died
+ * or stalled. An entry redelivered more than {@code maxRedeliveries} times is acked and dropped.
+ *
+ * <p>Once a claim scan went through the whole stream, the entries every group has acked are
+ * trimmed, the stream only holds the entries not read yet or pending.
+ */
+public class StreamQueue<T> implements Queue<T> {
+  private static final Logger logger = LoggerFactory.getLogger(StreamQueue.class);
+
+  private static final byte[] NEW_ENTRIES = bytes(">");
+  private static final byte[] SCAN_START = bytes("0-0");
+  private static final Histogram ACK_LATENCY = RedisMetrics.latency("stream_ack");
+
+  private static final RedisScript CREATE_GROUP_SCRIPT =
+      new RedisScript(
+          "stream_create_group",
+          """
+          local result = redis.pcall('XGROUP', 'CREATE', KEYS[1], ARGV[1], '0', 'MKSTREAM')
+          local failed = type(result) == 'table' and result.err
+          if failed and not string.find(result.err, 'BUSYGROUP') then
+            return redis.error_reply(result.err)
+          end
+          return 1
+          """);
+
+  private static final RedisScript PUSH_SCRIPT =
+      new RedisScript(
+          "stream_push",
+          """
+          for i = 1, #ARGV do
+            redis.call('XADD', KEYS[1], '*', 'p', ARGV[i])
+          end
+          return #ARGV
+          """);
+
+  // Returns the next cursor, the number of dropped entries, then the id and payload of each entry
+  private static final RedisScript CLAIM_SCRIPT =
+      new RedisScript(
+          "stream_claim",
+          """
+          local claimed = redis.call(
+            'XAUTOCLAIM', KEYS[1], ARGV[1], ARGV[2], ARGV[3], ARGV[4], 'COUNT', ARGV[5])
+          local result = {claimed[1], 0}
+          for _, entry in ipairs(claimed[2]) do
+            local id = entry[1]
+            local pending = redis.call('XPENDING', KEYS[1], ARGV[1], id, id, 1)
+            local deliveries = pending[1] and pending[1][4] or 1
+            if not entry[2] or deliveries - 1 > tonumber(ARGV[6]) then
+              redis.call('XACK', KEYS[1], ARGV[1], id)
+              result[2] = result[2] + 1
+            else
+              result[#result + 1] = id
+              result[#result + 1] = entry[2][2]
+            end
+          end
+          return result
+          """);
+
+  // Entries below the oldest pending one, or the last delivered one, were acked by every group
+  private static final RedisScript TRIM_SCRIPT =
+      new RedisScript(
+          "stream_trim",
+          """
+          if redis.call('EXISTS', KEYS[1]) == 0 then
+            return 0
+          end
+          local function parse(id)
+            local ms, seq = string.match(id, '(%d+)-(%d+)')
+            return tonumber(ms), tonumber(seq)
+          end
+          local function less(a, b)
+            local aMs, aSeq = parse(a)
+            local bMs, bSeq = parse(b)
+            return aMs < bMs or (aMs == bMs and aSeq < bSeq)
+          end
+          local minId = nil
+          for _, group in ipairs(redis.call('XINFO', 'GROUPS', KEYS[1])) do
+            local info = {}
+            for i = 1, #group, 2 do
+              info[group[i]] = group[i + 1]
+            end
+            local safe = info['last-delivered-id']
+            if info['pending'] > 0 then
+              safe = redis.call('XPENDING', KEYS[1], info['name'])[2]
+            end
+            if not minId or less(safe, minId) then
+              minId = safe
+            end
+          end
+          if not minId then
+            return 0
+          end
+          return redis.call('XTRIM', KEYS[1], 'MINID', '~', minId)
+          """);
+
+  // The lag of the group, missing on servers before 7.0 and after some deletions
+  private static final RedisScript SIZE_SCRIPT =
+      new RedisScript(
+          "stream_size",
+          """
+          if redis.call('EXISTS', KEYS[1]) == 0 then
+            return 0
+          end
+          for _, group in ipairs(redis.call('XINFO', 'GROUPS', KEYS[1])) do
+            local info = {}
+            for i = 1, #group, 2 do
+              info[group[i]] = group[i + 1]
+            end
+            if info['name'] == ARGV[1] and type(info['lag']) == 'number' then
+              return info['lag']
+            end
+          end
+          return redis.call('XLEN', KEYS[1])
+          """);
+
+  private final JedisPool jedisPool;
+  private final byte[] key;
+  private final byte[] group;
+  private final byte[] consumer;
+  private final int timeoutMillis;
+  private final Codec<T> codec;
+  private final byte[] claimIdleMillis;
+  private final long claimIntervalNanos;
+  private final byte[] maxRedeliveries;
+  private final int ackBatchSize;
+
+  // Entry id of every item handed out by this process and not acked yet
+  private final Map<Object, Delivery> pending =
+      Collections.synchronizedMap(new IdentityHashMap<>());
+  private final List<byte[]> acks = new ArrayList<>();
+  private final AtomicLong nextClaimAt = new AtomicLong(System.nanoTime());
+  private volatile byte[] claimCursor = SCAN_START;
+
+  private record Delivery(byte[] id, boolean redelivery) {}
+
+  /** Reads {@code stream#<name>}, creating the stream and the group when missing. */
+  public StreamQueue(
+      JedisPool jedisPool, String name, int timeout, Codec<T> codec, StreamConfig config) {
+    this.jedisPool = jedisPool;
+    this.key = bytes("stream#" + name);
+    this.group = bytes(config.group());
+    this.consumer = bytes(config.consumer());
+    this.timeoutMillis = timeout * 1000;
+    this.codec = codec;
+    this.claimIdleMillis = bytes(String.valueOf(config.claimIdle().toMillis()));
+    this.claimIntervalNanos = config.claimInterval().toNanos();
+    this.maxRedeliveries = bytes(String.valueOf(config.maxRedeliveries()));
+    this.ackBatchSize = config.ackBatchSize();
+
+    try (Jedis jedis = jedisPool.getResource()) {
+      createGroup(jedis);
+    } catch (Exception e) {
+      throw new RedisException("Failed to create the consumer group of " + name, e);
+    }
+  }
+
+  @Override
+  public Optional<T> pop() {
+    return popBatch(1).stream().findFirst();
+  }
+
+  @Override
+  public List<T> popBatch(int maxItems) {
+    flushAcks();
+
+    List<T> claimed = claimIfDue(maxItems);
+    if (!claimed.isEmpty()) {
+      return claimed;
+    }
+
+    try (Jedis jedis = jedisPool.getResource()) {
+      List<?> streams =
+          jedis.xreadGroup(
+              group,
+              consumer,
+              XReadGroupParams.xReadGroupParams().count(maxItems).block(timeoutMillis),
+              Map.entry(key, NEW_ENTRIES));
+
+      if (streams == null || streams.isEmpty()) {
+        return List.of();
+      }
+
+      List<?> entries = (List<?>) ((List<?>) streams.get(0)).get(1);
+      List<T> items = new ArrayList<>(entries.size());
+
+      for (Object entry : entries) {
+        List<?> idAndFields = (List<?>) entry;
+        List<?> fields = (List<?>) idAndFields.get(1);
+        items.add(register((byte[]) idAndFields.get(0), (byte[]) fields.get(1), false));
+      }
+
+      return items;
+    } catch (Exception e) {
+      throw new RedisException("Failed to read items from stream", e);
+    }
+  }
+
+  private List<T> claimIfDue(int maxItems) {
+    long now = System.nanoTime();
+    long claimAt = nextClaimAt.get();
+
+    if (now - claimAt < 0 || !nextClaimAt.compareAndSet(claimAt, now + claimIntervalNanos)) {
+      return List.of();
+    }
+
+    try (Jedis jedis = jedisPool.getResource()) {
+      List<?> result =
+          (List<?>)
+              CLAIM_SCRIPT.evalBinary(
+                  jedis,
+                  List.of(key),
+                  List.of(
+                      group,
+                      consumer,
+                      claimIdleMillis,
+                      claimCursor,
+                      bytes(String.valueOf(maxItems)),
+                      maxRedeliveries));
+
+      byte[] cursor = (byte[]) result.get(0);
+      long dropped = (Long) result.get(1);
+      if (dropped > 0) {
+        logger.warn("Dropped {} items redelivered too many times", dropped);
+      }
+
+      if (Arrays.equals(cursor, SCAN_START)) {
+        TRIM_SCRIPT.evalBinary(jedis, List.of(key), List.of());
+      } else {
+        // Claim the rest of the stream on the next pop instead of waiting for the interval
+        nextClaimAt.set(now);
+      }
+      claimCursor = cursor;
+
+      List<T> items = new ArrayList<>((result.size() - 2) / 2);
+      for (int i = 2; i < result.size(); i += 2) {
+        items.add(register((byte[]) result.get(i), (byte[]) result.get(i + 1), true));
+      }
+      return items;
+    } catch (Exception e) {
+      throw new RedisException("Failed to claim stalled items from stream", e);
+    }
+  }
+
+  private T register(byte[] id, byte[] payload, boolean redelivery) {
+    T item = codec.decode(payload);
+    pending.put(item, new Delivery(id, redelivery));
+    return item;
+  }
+
+  @Override
+  public void push(T item) {
+    pushAll(List.of(item));
+  }
+
+  @Override
+  public void pushAll(Collection<T> items) {
+    if (items.isEmpty()) {
+      return;
+    }
+
+    try (Jedis jedis = jedisPool.getResource()) {
+      PUSH_SCRIPT.evalBinary(jedis, List.of(key), items.stream().map(codec::encode).toList());
+    } catch (Exception e) {
+      throw new RedisException("Failed to add items to stream", e);
+    }
+  }
+
+  @Override
+  public long size() {
+    try (Jedis jedis = jedisPool.getResource()) {
+      return (Long) SIZE_SCRIPT.evalBinary(jedis, List.of(key), List.of(group));
+    } catch (Exception e) {
+      throw new RedisException("Failed to get stream size", e);
+    }
+  }
+
+  @Override
+  public void ack(T item) {
+    Delivery delivery = pending.remove(item);
+    if (delivery == null) {
+      return;
+    }
+
+    boolean flush;
+    synchronized (acks) {
+      acks.add(delivery.id());
+      flush = acks.size() >= ackBatchSize || pending.isEmpty();
+    }
+
+    if (flush) {
+      flushAcks();
+    }
+  }
+
+  private void flushAcks() {
+    byte[][] ids;
+    synchronized (acks) {
+      if (acks.isEmpty()) {
+        return;
+      }
+      ids = acks.toArray(byte[][]::new);
+      acks.clear();
+    }
+
+    try (Jedis jedis = jedisPool.getResource()) {
+      long startedAt = System.nanoTime();
+      jedis.xack(key, group, ids);
+      ACK_LATENCY.recordSince(startedAt);
+    } catch (Exception e) {
+      throw new RedisException("Failed to ack items", e);
+    }
+  }
+
+  @Override
+  public boolean isRedelivery(T item) {
+    Delivery delivery = pending.get(item);
+    return delivery != null && delivery.redelivery();
+  }
+
+  /** Deletes the stream, and the pending entries of every consumer with it. */
+  @Override
+  public void clear() {
+    try (Jedis jedis = jedisPool.getResource()) {
+      jedis.del(key);
+      createGroup(jedis);
+    } catch (Exception e) {
+      throw new RedisException("Failed to clear stream", e);
+    }
+
+    pending.clear();
+    synchronized (acks) {
+      acks.clear();
+    }
+    claimCursor = SCAN_START;
+  }
+
+  private void createGroup(Jedis jedis) {
+    CREATE_GROUP_SCRIPT.evalBinary(jedis, List.of(key), List.of(group));
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,141 @@
+package org.crawler.infrastructure.redis;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.crawler.domain.PageValidators;
+import org.crawler.domain.exception.RedisException;
+import org.crawler.infrastructure.ValidatorStore;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
+
+/**
+ * One Redis hash per URL, so the fetcher and the extractor update their own fields without
+ * reading each other's. Every write pushes the expiry back by {@code ttl}.
+ */
+public class ValidatorStoreImpl implements ValidatorStore {
+  private static final String KEY_PREFIX = "hash#validators:";
+  private static final String ETAG = "etag";
+  private static final String LAST_MODIFIED = "last_modified";
+  private static final String CONTENT_HASH = "content_hash";
+  private static final String OUTLINKS = "outlinks";
+
+  private final JedisPool jedisPool;
+  private final long ttlSeconds;
+
+  public ValidatorStoreImpl(JedisPool jedisPool, Duration ttl) {
+    this.jedisPool = jedisPool;
+    this.ttlSeconds = ttl.toSeconds();
+  }
+
+  @Override
+  public Optional<PageValidators> get(URI uri) {
+    Map<String, String> fields;
+
+    try (Jedis jedis = jedisPool.getResource()) {
+      fields = jedis.hgetAll(key(uri));
+    } catch (Exception e) {
+      throw new RedisException("Failed to get page validators", e);
+    }
+
+    if (fields == null || !fields.containsKey(CONTENT_HASH)) {
+      return Optional.empty();
+    }
+
+    String outlinks = fields.get(OUTLINKS);
+
+    return Optional.of(
+        new PageValidators(
+            fields.get(ETAG),
+            fields.get(LAST_MODIFIED),
+            Long.parseLong(fields.get(CONTENT_HASH)),
+            outlinks == null ? null : parseOutlinks(outlinks)));
+  }
+
+  @Override
+  public void putValidators(
+      URI uri, String etag, String lastModified, long contentHash, boolean keepOutlinks) {
+    String key = key(uri);
+    Map<String, String> fields = new HashMap<>();
+    fields.put(CONTENT_HASH, String.valueOf(contentHash));
+    if (etag != null) {
+      fields.put(ETAG, etag);
+    }
+    if (lastModified != null) {
+      fields.put(LAST_MODIFIED, lastModified);
+    }
+
+    try (Jedis jedis = jedisPool.getResource()) {
+      Pipeline pipeline = jedis.pipelined();
+      if (!keepOutlinks) {
+        pipeline.hdel(key, OUTLINKS);
+      }
+      if (etag == null) {
+        pipeline.hdel(key, ETAG);
+      }
+      if (lastModified == null) {
+        pipeline.hdel(key, LAST_MODIFIED);
+      }
+      pipeline.hset(key, fields);
+      pipeline.expire(key, ttlSeconds);
+      pipeline.sync();
+    } catch (Exception e) {
+      throw new RedisException("Failed to store page validators", e);
+    }
+  }
+
+  @Override
+  public void putOutlinks(URI uri, Collection<URI> outlinks) {
+    String key = key(uri);
+    String value = outlinks.stream().map(URI::toString).collect(Collectors.joining("\n"));
+
+    try (Jedis jedis = jedisPool.getResource()) {
+      Pipeline pipeline = jedis.pipelined();
+      pipeline.hset(key, OUTLINKS, value);
+      pipeline.expire(key, ttlSeconds);
+      pipeline.sync();
+    } catch (Exception e) {
+      throw new RedisException("Failed to store page outlinks", e);
+    }
+  }
+
+  @Override
+  public void clear() {
+    try (Jedis jedis = jedisPool.getResource()) {
+      ScanParams params = new ScanParams().match(KEY_PREFIX + "*").count(1000);
+      String cursor = ScanParams.SCAN_POINTER_START;
+
+      do {
+        ScanResult<String> page = jedis.scan(cursor, params);
+        List<String> keys = page.getResult();
+        if (!keys.isEmpty()) {
+          jedis.del(keys.toArray(String[]::new));
+        }
+        cursor = page.getCursor();
+      } while (!cursor.equals(ScanParams.SCAN_POINTER_START));
+    } catch (Exception e) {
+      throw new RedisException("Failed to clear page validators", e);
+    }
+  }
+
+  private static String key(URI uri) {
+    return KEY_PREFIX + uri;
+  }
+
+  private static List<URI> parseOutlinks(String value) {
+    if (value.isEmpty()) {
+      return List.of();
+    }
+
+    return Arrays.stream(value.split("\n")).map(URI::create).toList();
+  }
+}
@@ -2,15 +2,13 @@ package org.crawler.infrastructure.redis;
 
 import org.crawler.domain.exception.RedisException;
 import org.crawler.infrastructure.VisitedUrlsSet;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.crawler.metrics.Histogram;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 
 public class VisitedUrlsSetImpl implements VisitedUrlsSet {
-  private static final Logger logger = LoggerFactory.getLogger(VisitedUrlsSetImpl.class);
-
   private static final String VISITED_URLS_KEY = "set#visited_urls";
+  private static final Histogram ADD_LATENCY = RedisMetrics.latency("visited_add");
   private final JedisPool jedisPool;
 
   public VisitedUrlsSetImpl(JedisPool jedisPool) {
@@ -29,12 +27,12 @@ public class VisitedUrlsSetImpl implements VisitedUrlsSet {
   @Override
   public boolean addIfNotPresent(String url) {
     try (Jedis jedis = jedisPool.getResource()) {
-      long result = jedis.sadd(VISITED_URLS_KEY, url);
-
-      logger.info("Added link to visited urls, result: {}", result > 0);
-      return result > 0;
+      long startedAt = System.nanoTime();
+      long added = jedis.sadd(VISITED_URLS_KEY, url);
+      ADD_LATENCY.recordSince(startedAt);
+      return added > 0;
     } catch (Exception e) {
-      throw new RedisException( "Failed to add url to visited set", e);
+      throw new RedisException("Failed to add url to visited set", e);
     }
   }
 
@@ -47,4 +45,13 @@ public class VisitedUrlsSetImpl implements VisitedUrlsSet {
       throw new RedisException("Failed to add url to visited set", e);
     }
   }
+
+  @Override
+  public long size() {
+    try (Jedis jedis = jedisPool.getResource()) {
+      return jedis.scard(VISITED_URLS_KEY);
+    } catch (Exception e) {
+      throw new RedisException("Failed to read visited set size", e);
+    }
+  }
 }
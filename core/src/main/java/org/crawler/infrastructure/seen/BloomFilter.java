@@ -0,0 +1,78 @@
+package org.crawler.infrastructure.seen;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.crawler.common.UrlFingerprint;
+
+/** Lock-free Bloom filter over 64-bit fingerprints, using double hashing to derive the probes. */
+public class BloomFilter {
+  private final AtomicLongArray words;
+  private final long numberOfBits;
+  private final int numberOfHashes;
+
+  public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+    long bits =
+        (long)
+            Math.ceil(
+                -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) >>> 6));
+
+    this.words = new AtomicLongArray(words);
+    this.numberOfBits = (long) words << 6;
+    this.numberOfHashes =
+        Math.max(1, (int) Math.round((double) numberOfBits / expectedInsertions * Math.log(2)));
+  }
+
+  public void put(long fingerprint) {
+    long h1 = fingerprint;
+    long h2 = UrlFingerprint.mix(fingerprint) | 1;
+
+    for (int i = 0; i < numberOfHashes; i++) {
+      long bit = Math.floorMod(h1 + i * h2, numberOfBits);
+      int index = (int) (bit >>> 6);
+      long mask = 1L << bit;
+
+      long word = words.get(index);
+      while ((word & mask) == 0) {
+        long witness = words.compareAndExchange(index, word, word | mask);
+        if (witness == word) {
+          break;
+        }
+        word = witness;
+      }
+    }
+  }
+
+  public boolean mightContain(long fingerprint) {
+    long h1 = fingerprint;
+    long h2 = UrlFingerprint.mix(fingerprint) | 1;
+
+    for (int i = 0; i < numberOfHashes; i++) {
+      long bit = Math.floorMod(h1 + i * h2, numberOfBits);
+      if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /** Current false positive probability, from the fraction of bits set. Scans the whole filter. */
+  public double estimatedFalsePositiveRate() {
+    long setBits = 0;
+    for (int i = 0; i < words.length(); i++) {
+      setBits += Long.bitCount(words.get(i));
+    }
+
+    return Math.pow((double) setBits / numberOfBits, numberOfHashes);
+  }
+
+  public long sizeInBytes() {
+    return numberOfBits >>> 3;
+  }
+
+  public void clear() {
+    for (int i = 0; i < words.length(); i++) {
+      words.set(i, 0);
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package org.crawler.infrastructure.seen;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.crawler.common.UrlFingerprint;
+import org.crawler.domain.config.SeenFilterConfig;
+import org.crawler.infrastructure.VisitedUrlsSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-process filter in front of a shared {@link VisitedUrlsSet}.
+ *
+ * <p>URLs confirmed as visited are kept in {@link RecentFingerprints} and answered locally. URLs
+ * the {@link BloomFilter} has never seen are reported as not visited without a remote call; only
+ * Bloom hits that are not in the recent cache go to the delegate. The filter only learns about
+ * URLs added through this instance, so with several crawler nodes a negative answer may be stale.
+ * That is safe because {@code addIfNotPresent} always reaches the delegate on a miss: a stale
+ * negative costs one redundant frontier entry, never a duplicate fetch.
+ */
+public class LocalSeenFilter implements VisitedUrlsSet {
+  private static final Logger logger = LoggerFactory.getLogger(LocalSeenFilter.class);
+
+  private static final long REPORT_EVERY_LOOKUPS = 1 << 20;
+
+  private final VisitedUrlsSet delegate;
+  private final BloomFilter bloomFilter;
+  private final RecentFingerprints recentFingerprints;
+
+  private final AtomicLong lookups = new AtomicLong();
+  private final LongAdder recentHits = new LongAdder();
+  private final LongAdder bloomNegatives = new LongAdder();
+  private final LongAdder remoteLookups = new LongAdder();
+  private final LongAdder bloomFalsePositives = new LongAdder();
+
+  public LocalSeenFilter(VisitedUrlsSet delegate, SeenFilterConfig config) {
+    this.delegate = delegate;
+    this.bloomFilter = new BloomFilter(config.expectedInsertions(), config.falsePositiveRate());
+    this.recentFingerprints = new RecentFingerprints(config.recentCapacity());
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+    bloomFilter.clear();
+    recentFingerprints.clear();
+  }
+
+  @Override
+  public void close() {
+    delegate.close();
+  }
+
+  @Override
+  public boolean addIfNotPresent(String url) {
+    long fingerprint = UrlFingerprint.of(url);
+
+    if (recentFingerprints.contains(fingerprint)) {
+      return false;
+    }
+
+    boolean added = delegate.addIfNotPresent(url);
+    bloomFilter.put(fingerprint);
+    recentFingerprints.add(fingerprint);
+
+    return added;
+  }
+
+  @Override
+  public boolean isPresent(String url) {
+    if ((lookups.incrementAndGet() & (REPORT_EVERY_LOOKUPS - 1)) == 0) {
+      logger.info("Seen filter stats: {}", stats());
+    }
+
+    long fingerprint = UrlFingerprint.of(url);
+
+    if (recentFingerprints.contains(fingerprint)) {
+      recentHits.increment();
+      return true;
+    }
+
+    if (!bloomFilter.mightContain(fingerprint)) {
+      bloomNegatives.increment();
+      return false;
+    }
+
+    remoteLookups.increment();
+    boolean present = delegate.isPresent(url);
+
+    if (present) {
+      recentFingerprints.add(fingerprint);
+    } else {
+      bloomFalsePositives.increment();
+    }
+
+    return present;
+  }
+
+  @Override
+  public long size() {
+    return delegate.size();
+  }
+
+  public SeenFilterStats stats() {
+    return new SeenFilterStats(
+        lookups.get(),
+        recentHits.sum(),
+        bloomNegatives.sum(),
+        remoteLookups.sum(),
+        bloomFalsePositives.sum(),
+        bloomFilter.estimatedFalsePositiveRate(),
+        bloomFilter.sizeInBytes());
+  }
+}
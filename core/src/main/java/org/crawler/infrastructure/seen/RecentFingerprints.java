@@ -0,0 +1,40 @@
+package org.crawler.infrastructure.seen;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Direct-mapped cache of recently confirmed fingerprints. A fingerprint evicts whatever occupied
+ * its slot, which approximates LRU without locks, links or boxing.
+ */
+public class RecentFingerprints {
+  private final AtomicLongArray slots;
+  private final int shift;
+
+  public RecentFingerprints(int capacity) {
+    int size = Integer.highestOneBit(Math.max(2, capacity - 1) << 1);
+    this.slots = new AtomicLongArray(size);
+    this.shift = 64 - Integer.numberOfTrailingZeros(size);
+  }
+
+  public boolean contains(long fingerprint) {
+    return slots.get(slot(fingerprint)) == fingerprint;
+  }
+
+  public void add(long fingerprint) {
+    slots.set(slot(fingerprint), fingerprint);
+  }
+
+  public int capacity() {
+    return slots.length();
+  }
+
+  public void clear() {
+    for (int i = 0; i < slots.length(); i++) {
+      slots.set(i, 0);
+    }
+  }
+
+  private int slot(long fingerprint) {
+    return (int) ((fingerprint * 0x9e3779b97f4a7c15L) >>> shift);
+  }
+}
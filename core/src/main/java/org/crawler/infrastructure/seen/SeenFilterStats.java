@@ -0,0 +1,19 @@
+package org.crawler.infrastructure.seen;
+
+public record SeenFilterStats(
+    long lookups,
+    long recentHits,
+    long bloomNegatives,
+    long remoteLookups,
+    long bloomFalsePositives,
+    double estimatedFalsePositiveRate,
+    long bloomSizeInBytes) {
+
+  public double localHitRate() {
+    return lookups == 0 ? 0 : (double) (recentHits + bloomNegatives) / lookups;
+  }
+
+  public double observedFalsePositiveRate() {
+    return remoteLookups == 0 ? 0 : (double) bloomFalsePositives / remoteLookups;
+  }
+}
@@ -0,0 +1,97 @@
+package org.crawler.infrastructure.shard;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import org.crawler.common.UrlFingerprint;
+
+/**
+ * Places hosts on shards by consistent hashing, so that adding a shard only moves about {@code
+ * 1/n} of the hosts. Each shard owns {@value #POINTS_PER_SHARD} points of the ring, hashed from its
+ * name, and a host belongs to the shard of the first point at or after its own hash.
+ *
+ * <p>Only the shard names decide the ring: processes listing the same names, in any order, place
+ * every host on the same shard. The host key is the lower-cased host plus the port when the URL
+ * has one, the key the polite frontier schedules hosts by, so everything about a host lives on one
+ * shard.
+ */
+public final class ConsistentHashRing {
+  static final int POINTS_PER_SHARD = 160;
+
+  private final int shards;
+  private final long[] points;
+  private final int[] owners;
+
+  public ConsistentHashRing(List<String> shardNames) {
+    if (shardNames.isEmpty()) {
+      throw new IllegalArgumentException("A ring needs at least one shard");
+    }
+
+    this.shards = shardNames.size();
+    long[][] ring = new long[shards * POINTS_PER_SHARD][];
+    for (int shard = 0; shard < shards; shard++) {
+      for (int point = 0; point < POINTS_PER_SHARD; point++) {
+        long hash = UrlFingerprint.of(shardNames.get(shard) + "#" + point);
+        ring[shard * POINTS_PER_SHARD + point] = new long[] {hash, shard};
+      }
+    }
+    Arrays.sort(ring, (a, b) -> Long.compare(a[0], b[0]));
+
+    this.points = new long[ring.length];
+    this.owners = new int[ring.length];
+    for (int i = 0; i < ring.length; i++) {
+      points[i] = ring[i][0];
+      owners[i] = (int) ring[i][1];
+    }
+  }
+
+  public int size() {
+    return shards;
+  }
+
+  public int shardOf(URI uri) {
+    return shardOfHost(hostKey(uri));
+  }
+
+  /** Same shard as {@link #shardOf(URI)}, reading the host straight from the URL string. */
+  public int shardOf(String url) {
+    return shardOfHost(hostKey(url));
+  }
+
+  int shardOfHost(String hostKey) {
+    if (shards == 1) {
+      return 0;
+    }
+
+    int index = Arrays.binarySearch(points, UrlFingerprint.of(hostKey));
+    if (index < 0) {
+      index = -index - 1;
+    }
+    return owners[index == points.length ? 0 : index];
+  }
+
+  static String hostKey(URI uri) {
+    String host = uri.getHost() == null ? "" : uri.getHost().toLowerCase(Locale.ROOT);
+    return uri.getPort() == -1 ? host : host + ":" + uri.getPort();
+  }
+
+  static String hostKey(String url) {
+    int start = url.indexOf("://");
+    if (start < 0) {
+      return "";
+    }
+    start += 3;
+
+    int end = start;
+    while (end < url.length() && "/?#".indexOf(url.charAt(end)) < 0) {
+      end++;
+    }
+
+    int userInfo = url.lastIndexOf('@', end - 1);
+    if (userInfo >= start) {
+      start = userInfo + 1;
+    }
+    return url.substring(start, end).toLowerCase(Locale.ROOT);
+  }
+}
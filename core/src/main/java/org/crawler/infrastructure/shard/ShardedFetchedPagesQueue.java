@@ -0,0 +1,12 @@
+package org.crawler.infrastructure.shard;
+
+import java.util.List;
+import org.crawler.domain.Page;
+import org.crawler.infrastructure.FetchedPagesQueue;
+
+public class ShardedFetchedPagesQueue extends ShardedQueue<Page, FetchedPagesQueue>
+    implements FetchedPagesQueue {
+  public ShardedFetchedPagesQueue(ConsistentHashRing ring, List<FetchedPagesQueue> shards) {
+    super(ring, shards, page -> page.link().uri());
+  }
+}
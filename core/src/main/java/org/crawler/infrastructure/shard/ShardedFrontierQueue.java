@@ -0,0 +1,18 @@
+package org.crawler.infrastructure.shard;
+
+import java.time.Duration;
+import java.util.List;
+import org.crawler.domain.Link;
+import org.crawler.infrastructure.FrontierQueue;
+
+public class ShardedFrontierQueue extends ShardedQueue<Link, FrontierQueue>
+    implements FrontierQueue {
+  public ShardedFrontierQueue(ConsistentHashRing ring, List<FrontierQueue> shards) {
+    super(ring, shards, Link::uri);
+  }
+
+  @Override
+  public void recordFetch(Link link, Duration latency, Duration crawlDelay) {
+    shardOf(link).recordFetch(link, latency, crawlDelay);
+  }
+}
@@ -0,0 +1,148 @@
+package org.crawler.infrastructure.shard;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.crawler.infrastructure.Queue;
+
+/**
+ * Queue split into one queue per shard, each item going to the shard of its host.
+ *
+ * <p>A consumer thread sticks to one shard as long as it gets items from it and moves on to the
+ * next shard once a pop comes back empty, so that consumers gather on the shards that have work
+ * instead of each waiting out the pop timeout on every empty shard in turn. Threads start on the
+ * shards in rotation.
+ *
+ * <p>Once a pop comes back short, the shard is likely drained. Before the next blocking pop the
+ * thread then sweeps the shard sizes, which never block, and moves to the first shard with items.
+ * It only waits out the pop timeout when every shard is empty.
+ */
+public class ShardedQueue<T, Q extends Queue<T>> implements Queue<T> {
+  private final ConsistentHashRing ring;
+  private final List<Q> shards;
+  private final Function<T, URI> uriOf;
+  private final AtomicInteger nextStartShard = new AtomicInteger();
+  // The shard of the thread, and 1 when its last pop came back short
+  private final ThreadLocal<int[]> currentShard;
+
+  public ShardedQueue(ConsistentHashRing ring, List<Q> shards, Function<T, URI> uriOf) {
+    if (ring.size() != shards.size()) {
+      throw new IllegalArgumentException(
+          "The ring has " + ring.size() + " shards but got " + shards.size() + " queues");
+    }
+
+    this.ring = ring;
+    this.shards = List.copyOf(shards);
+    this.uriOf = uriOf;
+    this.currentShard =
+        ThreadLocal.withInitial(
+            () -> new int[] {Math.floorMod(nextStartShard.getAndIncrement(), shards.size()), 1});
+  }
+
+  protected Q shardOf(T item) {
+    return shards.get(ring.shardOf(uriOf.apply(item)));
+  }
+
+  @Override
+  public Optional<T> pop() {
+    int[] current = shardWithItems();
+    Optional<T> item = shards.get(current[0]).pop();
+
+    current[1] = item.isEmpty() ? 1 : 0;
+    if (item.isEmpty()) {
+      current[0] = (current[0] + 1) % shards.size();
+    }
+    return item;
+  }
+
+  @Override
+  public List<T> popBatch(int maxItems) {
+    int[] current = shardWithItems();
+    List<T> items = shards.get(current[0]).popBatch(maxItems);
+
+    current[1] = items.size() < maxItems ? 1 : 0;
+    if (items.isEmpty()) {
+      current[0] = (current[0] + 1) % shards.size();
+    }
+    return items;
+  }
+
+  private int[] shardWithItems() {
+    int[] current = currentShard.get();
+    if (current[1] == 0 || shards.size() == 1) {
+      return current;
+    }
+
+    for (int i = 0; i < shards.size(); i++) {
+      int shard = (current[0] + i) % shards.size();
+      if (shards.get(shard).size() > 0) {
+        current[0] = shard;
+        return current;
+      }
+    }
+    return current;
+  }
+
+  @Override
+  public void push(T item) {
+    shardOf(item).push(item);
+  }
+
+  @Override
+  public void pushAll(Collection<T> items) {
+    if (items.isEmpty()) {
+      return;
+    }
+
+    List<List<T>> itemsByShard = new ArrayList<>(shards.size());
+    for (int shard = 0; shard < shards.size(); shard++) {
+      itemsByShard.add(new ArrayList<>());
+    }
+    for (T item : items) {
+      itemsByShard.get(ring.shardOf(uriOf.apply(item))).add(item);
+    }
+
+    for (int shard = 0; shard < shards.size(); shard++) {
+      if (!itemsByShard.get(shard).isEmpty()) {
+        shards.get(shard).pushAll(itemsByShard.get(shard));
+      }
+    }
+  }
+
+  @Override
+  public void clear() {
+    shards.forEach(Queue::clear);
+  }
+
+  @Override
+  public long size() {
+    long size = 0;
+    for (Q shard : shards) {
+      size += shard.size();
+    }
+    return size;
+  }
+
+  @Override
+  public void ack(T item) {
+    shardOf(item).ack(item);
+  }
+
+  @Override
+  public boolean isRedelivery(T item) {
+    return shardOf(item).isRedelivery(item);
+  }
+
+  @Override
+  public int requeueExpired() {
+    int requeued = 0;
+    for (Q shard : shards) {
+      requeued += shard.requeueExpired();
+    }
+    return requeued;
+  }
+}
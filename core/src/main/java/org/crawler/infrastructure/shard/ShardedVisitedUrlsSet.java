@@ -0,0 +1,53 @@
+package org.crawler.infrastructure.shard;
+
+import java.util.List;
+import org.crawler.infrastructure.VisitedUrlsSet;
+
+/** Visited set split into one set per shard, each URL going to the shard of its host. */
+public class ShardedVisitedUrlsSet implements VisitedUrlsSet {
+  private final ConsistentHashRing ring;
+  private final List<VisitedUrlsSet> shards;
+
+  public ShardedVisitedUrlsSet(ConsistentHashRing ring, List<VisitedUrlsSet> shards) {
+    if (ring.size() != shards.size()) {
+      throw new IllegalArgumentException(
+          "The ring has " + ring.size() + " shards but got " + shards.size() + " sets");
+    }
+
+    this.ring = ring;
+    this.shards = List.copyOf(shards);
+  }
+
+  @Override
+  public void clear() {
+    shards.forEach(VisitedUrlsSet::clear);
+  }
+
+  @Override
+  public boolean addIfNotPresent(String url) {
+    return shards.get(ring.shardOf(url)).addIfNotPresent(url);
+  }
+
+  @Override
+  public boolean isPresent(String url) {
+    return shards.get(ring.shardOf(url)).isPresent(url);
+  }
+
+  @Override
+  public long size() {
+    long size = 0;
+    for (VisitedUrlsSet shard : shards) {
+      long shardSize = shard.size();
+      if (shardSize < 0) {
+        return -1;
+      }
+      size += shardSize;
+    }
+    return size;
+  }
+
+  @Override
+  public void close() {
+    shards.forEach(VisitedUrlsSet::close);
+  }
+}
@@ -0,0 +1,73 @@
+package org.crawler.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative values, in microseconds for latencies, over power-of-two
+ * buckets: bucket {@code i} counts the values in {@code (2^(i-1), 2^i]} and the last one everything
+ * above. Recording is two {@link LongAdder} increments; quantiles are read from the bucket bounds,
+ * so they overestimate by less than a factor of two.
+ */
+public final class Histogram {
+  static final int BUCKETS = 32;
+
+  private final LongAdder[] buckets = new LongAdder[BUCKETS];
+  private final LongAdder sum = new LongAdder();
+
+  Histogram() {
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  public void record(long value) {
+    buckets[bucket(value)].increment();
+    sum.add(Math.max(0, value));
+  }
+
+  /** Records the microseconds elapsed since a {@link System#nanoTime()} reading. */
+  public void recordSince(long startedAtNanos) {
+    record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startedAtNanos));
+  }
+
+  public Snapshot snapshot() {
+    long[] counts = new long[BUCKETS];
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = buckets[i].sum();
+      count += counts[i];
+    }
+    return new Snapshot(counts, count, sum.sum());
+  }
+
+  static int bucket(long value) {
+    return value <= 1 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value - 1));
+  }
+
+  /** Inclusive upper bound of a bucket, {@link Long#MAX_VALUE} for the last one. */
+  static long upperBound(int bucket) {
+    return bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+  }
+
+  /** Bucket counts read one by one, so a snapshot taken while recording may be slightly off. */
+  public record Snapshot(long[] buckets, long count, long sum) {
+    public double mean() {
+      return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /** Upper bound of the bucket holding the {@code q} quantile, 0 when nothing was recorded. */
+    public long quantile(double q) {
+      long rank = (long) Math.ceil(q * count);
+      long seen = 0;
+
+      for (int i = 0; i < buckets.length; i++) {
+        seen += buckets[i];
+        if (seen >= rank && seen > 0) {
+          return upperBound(i);
+        }
+      }
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package org.crawler.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Total of events and their one-minute exponentially weighted rate per second, for pages/s and
+ * bytes/s. Marking only adds to two {@link LongAdder}s; the rate moves in 5 second ticks, caught up
+ * by whichever thread marks or reads first after a tick is due, so no timer thread is needed.
+ */
+public final class Meter {
+  private static final long TICK_NANOS = TimeUnit.SECONDS.toNanos(5);
+  private static final double TICK_SECONDS = 5;
+  private static final double ALPHA = 1 - Math.exp(-TICK_SECONDS / 60);
+
+  private final LongAdder count = new LongAdder();
+  private final LongAdder uncounted = new LongAdder();
+  private final LongSupplier nanoClock;
+  private final AtomicLong lastTick;
+  // Only written by the thread that won the tick
+  private volatile double rate;
+  private volatile boolean initialized;
+
+  Meter() {
+    this(System::nanoTime);
+  }
+
+  Meter(LongSupplier nanoClock) {
+    this.nanoClock = nanoClock;
+    this.lastTick = new AtomicLong(nanoClock.getAsLong());
+  }
+
+  public void mark() {
+    mark(1);
+  }
+
+  public void mark(long events) {
+    tickIfDue();
+    count.add(events);
+    uncounted.add(events);
+  }
+
+  public long count() {
+    return count.sum();
+  }
+
+  public double oneMinuteRate() {
+    tickIfDue();
+    return rate;
+  }
+
+  private void tickIfDue() {
+    long last = lastTick.get();
+    long age = nanoClock.getAsLong() - last;
+
+    if (age >= TICK_NANOS && lastTick.compareAndSet(last, last + age - age % TICK_NANOS)) {
+      for (long ticks = age / TICK_NANOS; ticks > 0; ticks--) {
+        double instantRate = uncounted.sumThenReset() / TICK_SECONDS;
+        rate = initialized ? rate + ALPHA * (instantRate - rate) : instantRate;
+        initialized = true;
+      }
+    }
+  }
+}
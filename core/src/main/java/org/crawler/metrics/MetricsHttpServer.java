@@ -0,0 +1,61 @@
+package org.crawler.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Serves a registry at {@code GET /metrics} in the Prometheus text format, on the JDK server. */
+public class MetricsHttpServer implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(MetricsHttpServer.class);
+
+  private final HttpServer server;
+  private final MetricsRegistry registry;
+
+  public MetricsHttpServer(MetricsRegistry registry, String host, int port, Executor executor)
+      throws IOException {
+    this.registry = registry;
+    this.server = HttpServer.create(new InetSocketAddress(host, port), 0);
+    server.createContext("/metrics", this::handle);
+    server.setExecutor(executor);
+  }
+
+  public void start() {
+    server.start();
+    logger.info("Serving metrics on http://{}/metrics", address());
+  }
+
+  /** The bound address, with the actual port when started on port 0. */
+  public String address() {
+    InetSocketAddress address = server.getAddress();
+    return address.getHostString() + ":" + address.getPort();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        exchange.getResponseHeaders().set("Allow", "GET");
+        exchange.sendResponseHeaders(405, -1);
+        return;
+      }
+
+      byte[] body = PrometheusFormat.render(registry).getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", PrometheusFormat.CONTENT_TYPE);
+      exchange.sendResponseHeaders(200, body.length);
+
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+}
@@ -0,0 +1,140 @@
+package org.crawler.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.crawler.metrics.MetricsRegistry.Gauge;
+import org.crawler.metrics.MetricsRegistry.MetricId;
+
+/**
+ * Read-only JMX view of a registry. Attributes are listed anew on every {@link #getMBeanInfo()},
+ * so metrics registered later show up on the next refresh of the JMX client: counters and gauges
+ * under their name, meters as {@code .count} and {@code .rate1m}, histograms as {@code .count},
+ * {@code .mean}, {@code .p50}, {@code .p99} and {@code .max}.
+ */
+public class MetricsMBean implements DynamicMBean, AutoCloseable {
+  static final String OBJECT_NAME = "org.crawler:type=Metrics";
+
+  private final MetricsRegistry registry;
+  private final ObjectName objectName;
+
+  public MetricsMBean(MetricsRegistry registry) throws JMException {
+    this.registry = registry;
+    this.objectName = new ObjectName(OBJECT_NAME);
+  }
+
+  /** Registers on the platform MBean server, replacing a previous registration. */
+  public void register() throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    if (server.isRegistered(objectName)) {
+      server.unregisterMBean(objectName);
+    }
+    server.registerMBean(this, objectName);
+  }
+
+  @Override
+  public void close() throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    if (server.isRegistered(objectName)) {
+      server.unregisterMBean(objectName);
+    }
+  }
+
+  Map<String, Number> values() {
+    Map<String, Number> values = new LinkedHashMap<>();
+
+    for (Map.Entry<MetricId, Object> entry : registry.metrics().entrySet()) {
+      String name = entry.getKey().toString();
+
+      switch (entry.getValue()) {
+        case LongAdder counter -> values.put(name, counter.sum());
+        case Meter meter -> {
+          values.put(name + ".count", meter.count());
+          values.put(name + ".rate1m", meter.oneMinuteRate());
+        }
+        case Histogram histogram -> {
+          Histogram.Snapshot snapshot = histogram.snapshot();
+          values.put(name + ".count", snapshot.count());
+          values.put(name + ".mean", snapshot.mean());
+          values.put(name + ".p50", snapshot.quantile(0.5));
+          values.put(name + ".p99", snapshot.quantile(0.99));
+          values.put(name + ".max", snapshot.quantile(1));
+        }
+        case Gauge gauge -> values.put(name, PrometheusFormat.read(gauge));
+        default -> {}
+      }
+    }
+
+    return values;
+  }
+
+  @Override
+  public Object getAttribute(String attribute) throws AttributeNotFoundException {
+    Number value = values().get(attribute);
+    if (value == null) {
+      throw new AttributeNotFoundException(attribute);
+    }
+    return value;
+  }
+
+  @Override
+  public AttributeList getAttributes(String[] attributes) {
+    Map<String, Number> values = values();
+    AttributeList list = new AttributeList();
+
+    for (String attribute : attributes) {
+      Number value = values.get(attribute);
+      if (value != null) {
+        list.add(new Attribute(attribute, value));
+      }
+    }
+    return list;
+  }
+
+  @Override
+  public void setAttribute(Attribute attribute) {
+    throw new UnsupportedOperationException("Metrics are read-only");
+  }
+
+  @Override
+  public AttributeList setAttributes(AttributeList attributes) {
+    return new AttributeList();
+  }
+
+  @Override
+  public Object invoke(String actionName, Object[] params, String[] signature) {
+    throw new UnsupportedOperationException("Metrics have no operations");
+  }
+
+  @Override
+  public MBeanInfo getMBeanInfo() {
+    List<MBeanAttributeInfo> attributes = new ArrayList<>();
+
+    values()
+        .forEach(
+            (name, value) ->
+                attributes.add(
+                    new MBeanAttributeInfo(
+                        name, value.getClass().getName(), name, true, false, false)));
+
+    return new MBeanInfo(
+        getClass().getName(),
+        "Crawler metrics",
+        attributes.toArray(MBeanAttributeInfo[]::new),
+        null,
+        null,
+        null);
+  }
+}
@@ -0,0 +1,116 @@
+package org.crawler.metrics;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Named counters, meters, histograms and gauges, optionally split by one label such as the host.
+ *
+ * <p>Looking a metric up goes through a concurrent map, so hot paths keep the returned instance in
+ * a field, usually a static one on the {@link #global()} registry. Each metric name gets at most
+ * {@code maxLabelValues} label values, later ones share the {@value #OTHER} series, so a crawl over
+ * millions of hosts cannot grow the registry without bound.
+ */
+public class MetricsRegistry {
+  static final String OTHER = "other";
+  private static final int DEFAULT_MAX_LABEL_VALUES = 1000;
+
+  private static final MetricsRegistry GLOBAL = new MetricsRegistry(DEFAULT_MAX_LABEL_VALUES);
+
+  private final int maxLabelValues;
+  private final ConcurrentSkipListMap<MetricId, Object> metrics =
+      new ConcurrentSkipListMap<>(MetricId.ORDER);
+  private final ConcurrentMap<String, AtomicInteger> labelValues = new ConcurrentHashMap<>();
+
+  /** Name of a series, {@code label} and {@code labelValue} are null for an unlabeled metric. */
+  public record MetricId(String name, String label, String labelValue) {
+    static final Comparator<MetricId> ORDER =
+        Comparator.comparing(MetricId::name)
+            .thenComparing(MetricId::labelValue, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    @Override
+    public String toString() {
+      return label == null ? name : name + "{" + label + "=\"" + labelValue + "\"}";
+    }
+  }
+
+  /** Gauges are read when exported and may block, on a Redis round trip for instance. */
+  record Gauge(DoubleSupplier value) {}
+
+  public MetricsRegistry(int maxLabelValues) {
+    this.maxLabelValues = maxLabelValues;
+  }
+
+  /** Registry shared by the whole process, the one the exporters publish. */
+  public static MetricsRegistry global() {
+    return GLOBAL;
+  }
+
+  public LongAdder counter(String name) {
+    return get(new MetricId(name, null, null), LongAdder.class, LongAdder::new);
+  }
+
+  public LongAdder counter(String name, String label, String labelValue) {
+    return get(new MetricId(name, label, labelValue), LongAdder.class, LongAdder::new);
+  }
+
+  public Meter meter(String name) {
+    return get(new MetricId(name, null, null), Meter.class, Meter::new);
+  }
+
+  public Histogram histogram(String name) {
+    return get(new MetricId(name, null, null), Histogram.class, Histogram::new);
+  }
+
+  public Histogram histogram(String name, String label, String labelValue) {
+    return get(new MetricId(name, label, labelValue), Histogram.class, Histogram::new);
+  }
+
+  /** Registers a gauge, replacing the previous one of the same name. */
+  public void gauge(String name, DoubleSupplier value) {
+    metrics.put(new MetricId(name, null, null), new Gauge(value));
+  }
+
+  /** Every metric sorted by name, then label value. */
+  NavigableMap<MetricId, Object> metrics() {
+    return Collections.unmodifiableNavigableMap(metrics);
+  }
+
+  private <T> T get(MetricId id, Class<T> type, Supplier<T> factory) {
+    Object metric = metrics.get(id);
+
+    if (metric == null) {
+      MetricId bounded = bounded(id);
+      metric = metrics.computeIfAbsent(bounded, key -> factory.get());
+    }
+
+    if (!type.isInstance(metric)) {
+      throw new IllegalArgumentException(
+          id + " is already registered as a " + metric.getClass().getSimpleName());
+    }
+    return type.cast(metric);
+  }
+
+  // Racing registrations may let a few values past the limit, which is fine for a safety net
+  private MetricId bounded(MetricId id) {
+    if (id.label() == null || OTHER.equals(id.labelValue())) {
+      return id;
+    }
+
+    AtomicInteger count = labelValues.computeIfAbsent(id.name(), name -> new AtomicInteger());
+    if (count.get() >= maxLabelValues) {
+      return new MetricId(id.name(), id.label(), OTHER);
+    }
+
+    count.incrementAndGet();
+    return id;
+  }
+}
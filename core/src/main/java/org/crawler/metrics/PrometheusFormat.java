@@ -0,0 +1,112 @@
+package org.crawler.metrics;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.crawler.metrics.MetricsRegistry.Gauge;
+import org.crawler.metrics.MetricsRegistry.MetricId;
+
+/**
+ * Renders a registry in the Prometheus text exposition format, version 0.0.4. Meters become a
+ * {@code _total} counter and a {@code _rate1m} gauge, histograms cumulative {@code le} buckets.
+ */
+final class PrometheusFormat {
+  static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  private PrometheusFormat() {}
+
+  static String render(MetricsRegistry registry) {
+    StringBuilder out = new StringBuilder();
+    String previousName = null;
+
+    for (Map.Entry<MetricId, Object> entry : registry.metrics().entrySet()) {
+      MetricId id = entry.getKey();
+      Object metric = entry.getValue();
+      boolean first = !id.name().equals(previousName);
+      previousName = id.name();
+
+      switch (metric) {
+        case LongAdder counter -> {
+          type(out, first, id.name(), "counter");
+          sample(out, id.name(), id, null, counter.sum());
+        }
+        case Meter meter -> {
+          type(out, first, id.name() + "_total", "counter");
+          sample(out, id.name() + "_total", id, null, meter.count());
+          type(out, first, id.name() + "_rate1m", "gauge");
+          sample(out, id.name() + "_rate1m", id, null, meter.oneMinuteRate());
+        }
+        case Histogram histogram -> {
+          type(out, first, id.name(), "histogram");
+          Histogram.Snapshot snapshot = histogram.snapshot();
+          long cumulative = 0;
+          for (int i = 0; i < Histogram.BUCKETS; i++) {
+            cumulative += snapshot.buckets()[i];
+            String le = i == Histogram.BUCKETS - 1 ? "+Inf" : Long.toString(1L << i);
+            sample(out, id.name() + "_bucket", id, le, cumulative);
+          }
+          sample(out, id.name() + "_sum", id, null, snapshot.sum());
+          sample(out, id.name() + "_count", id, null, snapshot.count());
+        }
+        case Gauge gauge -> {
+          type(out, first, id.name(), "gauge");
+          sample(out, id.name(), id, null, read(gauge));
+        }
+        default -> throw new IllegalStateException("Unknown metric " + metric);
+      }
+    }
+
+    return out.toString();
+  }
+
+  /** A gauge that cannot be read, because Redis is down for instance, is exported as NaN. */
+  static double read(Gauge gauge) {
+    try {
+      return gauge.value().getAsDouble();
+    } catch (RuntimeException e) {
+      return Double.NaN;
+    }
+  }
+
+  private static void type(StringBuilder out, boolean first, String name, String type) {
+    if (first) {
+      out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+  }
+
+  private static void sample(StringBuilder out, String name, MetricId id, String le, double value) {
+    out.append(name);
+
+    if (id.label() != null || le != null) {
+      out.append('{');
+      if (id.label() != null) {
+        out.append(id.label()).append("=\"");
+        escape(out, id.labelValue());
+        out.append('"');
+      }
+      if (le != null) {
+        out.append(id.label() != null ? "," : "").append("le=\"").append(le).append('"');
+      }
+      out.append('}');
+    }
+
+    out.append(' ');
+    if (value == Math.rint(value) && !Double.isInfinite(value)) {
+      out.append((long) value);
+    } else {
+      out.append(value);
+    }
+    out.append('\n');
+  }
+
+  private static void escape(StringBuilder out, String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '\\' -> out.append("\\\\");
+        case '"' -> out.append("\\\"");
+        case '\n' -> out.append("\\n");
+        default -> out.append(c);
+      }
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package org.crawler.service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals of the crawl, updated by every worker. In resume mode they start from the last
+ * checkpoint and their progress is added to it periodically, so a restarted node keeps counting
+ * from where the crawl stopped.
+ */
+public class CrawlCounters {
+  public enum Counter {
+    PAGES_FETCHED,
+    FETCH_FAILURES,
+    PAGES_EXTRACTED,
+    LINKS_QUEUED,
+    ITEMS_REQUEUED,
+    // Time spent per stage, throughput times latency
+    FETCH_MICROS,
+    EXTRACT_MICROS;
+
+    String key() {
+      return name().toLowerCase(Locale.ROOT);
+    }
+  }
+
+  private final Map<Counter, LongAdder> counters = new EnumMap<>(Counter.class);
+  // Totals already added to the checkpoint, only touched by the checkpointing thread
+  private final Map<Counter, Long> checkpointed = new EnumMap<>(Counter.class);
+
+  public CrawlCounters() {
+    for (Counter counter : Counter.values()) {
+      counters.put(counter, new LongAdder());
+      checkpointed.put(counter, 0L);
+    }
+  }
+
+  public void increment(Counter counter) {
+    counters.get(counter).increment();
+  }
+
+  public void add(Counter counter, long value) {
+    counters.get(counter).add(value);
+  }
+
+  public long get(Counter counter) {
+    return counters.get(counter).sum();
+  }
+
+  /** Starts from the totals of a checkpoint, which already account for them. */
+  public void restore(Map<String, Long> checkpoint) {
+    for (Counter counter : Counter.values()) {
+      long total = checkpoint.getOrDefault(counter.key(), 0L);
+      counters.get(counter).add(total);
+      checkpointed.merge(counter, total, Long::sum);
+    }
+  }
+
+  /** Progress since the last checkpoint, keyed like a checkpoint. */
+  public Map<String, Long> uncheckpointed() {
+    Map<String, Long> deltas = new LinkedHashMap<>();
+
+    for (Counter counter : Counter.values()) {
+      long delta = get(counter) - checkpointed.get(counter);
+      if (delta != 0) {
+        deltas.put(counter.key(), delta);
+      }
+    }
+
+    return deltas;
+  }
+
+  /** Records that the deltas returned by {@link #uncheckpointed()} were saved. */
+  public void checkpointed(Map<String, Long> deltas) {
+    for (Counter counter : Counter.values()) {
+      checkpointed.merge(counter, deltas.getOrDefault(counter.key(), 0L), Long::sum);
+    }
+  }
+
+  @Override
+  public String toString() {
+    Map<String, Long> totals = new LinkedHashMap<>();
+    counters.forEach((counter, adder) -> totals.put(counter.key(), adder.sum()));
+    return totals.toString();
+  }
+}
@@ -0,0 +1,120 @@
+package org.crawler.service;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.crawler.common.UrlFingerprint;
+import org.crawler.domain.Link;
+import org.crawler.domain.PageValidators;
+import org.crawler.domain.config.RecrawlConfig;
+import org.crawler.infrastructure.ValidatorStore;
+import org.crawler.service.worker.FetchResult;
+
+/**
+ * Decides from the validators of the previous crawl whether a page has to be fetched and parsed
+ * again. A page is unchanged when the server answers 304 or when its body hashes to the stored
+ * content hash. Unchanged pages are not extracted: their stored outlinks are reused instead.
+ *
+ * <p>Conditional requests are only sent when a 304 can be handled without the body, that is when
+ * the page sits at {@code maxDepth} or its outlinks are known and may be reused.
+ */
+public class RecrawlCache {
+  private static final RecrawlCache DISABLED = new RecrawlCache(null, null, 0);
+
+  private final ValidatorStore validatorStore;
+  private final boolean reuseOutlinks;
+  private final int maxDepth;
+
+  public RecrawlCache(ValidatorStore validatorStore, RecrawlConfig config, int maxDepth) {
+    this.validatorStore = validatorStore;
+    this.reuseOutlinks = config != null && config.reuseOutlinks();
+    this.maxDepth = maxDepth;
+  }
+
+  public static RecrawlCache disabled() {
+    return DISABLED;
+  }
+
+  public boolean isEnabled() {
+    return validatorStore != null;
+  }
+
+  public Optional<PageValidators> lookup(Link link) {
+    return isEnabled() ? validatorStore.get(link.uri()) : Optional.empty();
+  }
+
+  /** The validators to send with the request, null when the whole page is needed. */
+  public PageValidators conditionalValidators(Link link, Optional<PageValidators> stored) {
+    return stored
+        .filter(PageValidators::canRevalidate)
+        .filter(validators -> isLeaf(link) || reusableOutlinks(validators))
+        .orElse(null);
+  }
+
+  /**
+   * Records the fetch and, when the page is unchanged, returns the links to push in place of
+   * extracting it. An empty result means that the page has to go through extraction.
+   */
+  public Optional<Set<Link>> onFetched(
+      Link link, Optional<PageValidators> stored, FetchResult result) {
+    if (!isEnabled()) {
+      return Optional.empty();
+    }
+
+    if (result.isNotModified() && stored.isEmpty()) {
+      return Optional.of(Set.of());
+    }
+
+    long contentHash =
+        result.isNotModified()
+            ? stored.get().contentHash()
+            : UrlFingerprint.of(result.page().html());
+    boolean unchanged =
+        result.isNotModified()
+            || stored.map(validators -> validators.contentHash() == contentHash).orElse(false);
+
+    // A 304 may leave out the validators that did not change
+    String etag =
+        result.isNotModified() && result.etag() == null
+            ? stored.get().etag()
+            : result.etag();
+    String lastModified =
+        result.isNotModified() && result.lastModified() == null
+            ? stored.get().lastModified()
+            : result.lastModified();
+    validatorStore.putValidators(link.uri(), etag, lastModified, contentHash, unchanged);
+
+    if (!unchanged) {
+      return Optional.empty();
+    }
+
+    if (isLeaf(link)) {
+      return Optional.of(Set.of());
+    }
+
+    if (reusableOutlinks(stored.get())) {
+      return Optional.of(
+          stored.get().outlinks().stream()
+              .map(uri -> new Link(uri, link.depth() + 1))
+              .collect(Collectors.toSet()));
+    }
+
+    // Only reachable on a 200, a 304 is never requested when the outlinks cannot be reused
+    return result.isNotModified() ? Optional.of(Set.of()) : Optional.empty();
+  }
+
+  public void recordOutlinks(Link link, Collection<Link> outlinks) {
+    if (isEnabled() && !isLeaf(link)) {
+      validatorStore.putOutlinks(link.uri(), outlinks.stream().map(Link::uri).toList());
+    }
+  }
+
+  private boolean isLeaf(Link link) {
+    return link.depth() >= maxDepth;
+  }
+
+  private boolean reusableOutlinks(PageValidators validators) {
+    return reuseOutlinks && validators.outlinks() != null;
+  }
+}
@@ -1,7 +1,12 @@
 package org.crawler.service;
 
 import java.net.URI;
+import java.time.Duration;
 
 public interface RobotsChecker {
   boolean isUrlAllowed(URI uri);
+
+  void prefetch(URI uri);
+
+  Duration crawlDelay(URI uri);
 }
@@ -1,65 +1,46 @@
 package org.crawler.service;
 
-import crawlercommons.robots.BaseRobotRules;
-import crawlercommons.robots.BaseRobotsParser;
-import crawlercommons.robots.SimpleRobotRulesParser;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.net.HttpURLConnection;
 import java.net.URI;
-import java.net.URL;
-import java.util.Set;
+import java.time.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class RobotsCheckerImpl implements RobotsChecker {
   private static final Logger logger = LoggerFactory.getLogger(RobotsCheckerImpl.class);
 
-  private static final String USER_AGENT = "MyCrawler";
+  private final RobotsRulesCache rulesCache;
+
+  public RobotsCheckerImpl(RobotsRulesCache rulesCache) {
+    this.rulesCache = rulesCache;
+  }
 
   @Override
   public boolean isUrlAllowed(URI uri) {
-    InputStream inputStream = null;
-    ByteArrayOutputStream baos = null;
-
     try {
-      URL url = uri.toURL();
-      String host = url.getProtocol() + "://" + url.getHost();
-      String robotsTxtUrl = host + "/robots.txt";
-
-      HttpURLConnection connection =
-          (HttpURLConnection) URI.create(robotsTxtUrl).toURL().openConnection();
-      connection.setRequestProperty("User-Agent", USER_AGENT);
-
-      inputStream = connection.getInputStream();
-      baos = new ByteArrayOutputStream();
-      inputStream.transferTo(baos);
-      byte[] content = baos.toByteArray();
-
-      BaseRobotsParser parser = new SimpleRobotRulesParser();
-      BaseRobotRules rules =
-          parser.parseContent(robotsTxtUrl, content, "text/plain", Set.of(USER_AGENT));
-
-      return rules.isAllowed(url.toString());
+      return rulesCache.get(uri).isAllowed(uri.toString());
     } catch (Exception e) {
+      logger.debug("Failed to check robots rules for {}", uri, e);
       return true;
-    } finally {
-      if (inputStream != null) {
-        try {
-          inputStream.close();
-        } catch (IOException e) {
-          logger.error("Failed to close input stream");
-        }
-      }
+    }
+  }
 
-      if (baos != null) {
-        try {
-          baos.close();
-        } catch (IOException e) {
-          logger.error("Failed to close output stream");
-        }
-      }
+  @Override
+  public void prefetch(URI uri) {
+    try {
+      rulesCache.prefetch(uri);
+    } catch (Exception e) {
+      logger.debug("Failed to schedule robots prefetch for {}", uri, e);
+    }
+  }
+
+  @Override
+  public Duration crawlDelay(URI uri) {
+    try {
+      long crawlDelay = rulesCache.get(uri).getCrawlDelay();
+      return crawlDelay > 0 ? Duration.ofMillis(crawlDelay) : Duration.ZERO;
+    } catch (Exception e) {
+      logger.debug("Failed to read crawl delay for {}", uri, e);
+      return Duration.ZERO;
     }
   }
 }
@@ -0,0 +1,192 @@
+package org.crawler.service;
+
+import crawlercommons.robots.BaseRobotRules;
+import crawlercommons.robots.SimpleRobotRules;
+import crawlercommons.robots.SimpleRobotRulesParser;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.crawler.domain.config.FetcherConfig;
+import org.crawler.domain.config.RobotsConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded LRU cache of parsed robots.txt rules keyed by {@code scheme://host[:port]}.
+ *
+ * <p>Lookups for a host that is already being fetched wait on the in-flight fetch instead of
+ * starting a new one. Failed fetches are cached as well: 4xx and 5xx responses follow the
+ * crawler-commons semantics, network errors allow everything for {@code cacheErrorTtl}. Fetches
+ * use the connect and read timeouts of the page fetcher.
+ */
+public class RobotsRulesCache {
+  private static final Logger logger = LoggerFactory.getLogger(RobotsRulesCache.class);
+
+  static final String USER_AGENT = "MyCrawler";
+
+  private final int maxHosts;
+  private final long ttlNanos;
+  private final long errorTtlNanos;
+  private final int connectTimeoutMillis;
+  private final int readTimeoutMillis;
+  private final Executor executor;
+  private final LongSupplier nanoClock;
+
+  private final Map<String, CompletableFuture<Entry>> entries;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public RobotsRulesCache(RobotsConfig config, FetcherConfig fetcherConfig, Executor executor) {
+    this(config, fetcherConfig, executor, System::nanoTime);
+  }
+
+  RobotsRulesCache(
+      RobotsConfig config,
+      FetcherConfig fetcherConfig,
+      Executor executor,
+      LongSupplier nanoClock) {
+    this.maxHosts = config.cacheMaxHosts();
+    this.ttlNanos = config.cacheTtl().toNanos();
+    this.errorTtlNanos = config.cacheErrorTtl().toNanos();
+    this.connectTimeoutMillis = (int) fetcherConfig.connectTimeout().toMillis();
+    this.readTimeoutMillis = (int) fetcherConfig.readTimeout().toMillis();
+    this.executor = executor;
+    this.nanoClock = nanoClock;
+    this.entries =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<Entry>> eldest) {
+            return size() > maxHosts;
+          }
+        };
+  }
+
+  public BaseRobotRules get(URI uri) {
+    String hostKey = hostKey(uri);
+    CompletableFuture<Entry> future;
+    boolean owner;
+
+    synchronized (entries) {
+      future = entries.get(hostKey);
+      owner = future == null || isExpired(future);
+
+      if (owner) {
+        future = new CompletableFuture<>();
+        entries.put(hostKey, future);
+        misses.increment();
+      } else {
+        hits.increment();
+      }
+    }
+
+    if (owner) {
+      complete(hostKey, future);
+    }
+
+    return future.join().rules();
+  }
+
+  public void prefetch(URI uri) {
+    String hostKey = hostKey(uri);
+    CompletableFuture<Entry> future;
+
+    synchronized (entries) {
+      future = entries.get(hostKey);
+      if (future != null && !isExpired(future)) {
+        return;
+      }
+
+      future = new CompletableFuture<>();
+      entries.put(hostKey, future);
+    }
+
+    CompletableFuture<Entry> pending = future;
+    try {
+      executor.execute(() -> complete(hostKey, pending));
+    } catch (RuntimeException e) {
+      // Lookups already waiting fail instead of hanging, the next one fetches again
+      synchronized (entries) {
+        entries.remove(hostKey, pending);
+      }
+      pending.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  public long hitCount() {
+    return hits.sum();
+  }
+
+  public long missCount() {
+    return misses.sum();
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  protected BaseRobotRules fetchRules(String hostKey) throws IOException {
+    String robotsTxtUrl = hostKey + "/robots.txt";
+
+    HttpURLConnection connection =
+        (HttpURLConnection) URI.create(robotsTxtUrl).toURL().openConnection();
+    connection.setRequestProperty("User-Agent", USER_AGENT);
+    connection.setConnectTimeout(connectTimeoutMillis);
+    connection.setReadTimeout(readTimeoutMillis);
+
+    try {
+      int status = connection.getResponseCode();
+      SimpleRobotRulesParser parser = new SimpleRobotRulesParser();
+
+      if (status >= 400) {
+        return parser.failedFetch(status);
+      }
+
+      try (InputStream inputStream = connection.getInputStream()) {
+        return parser.parseContent(
+            robotsTxtUrl, inputStream.readAllBytes(), "text/plain", Set.of(USER_AGENT));
+      }
+    } finally {
+      connection.disconnect();
+    }
+  }
+
+  private void complete(String hostKey, CompletableFuture<Entry> future) {
+    Entry entry;
+
+    try {
+      BaseRobotRules rules = fetchRules(hostKey);
+      long ttl = rules.isDeferVisits() ? errorTtlNanos : ttlNanos;
+      entry = new Entry(rules, nanoClock.getAsLong() + ttl);
+    } catch (Exception e) {
+      logger.debug("Failed to fetch robots.txt for {}", hostKey, e);
+      entry =
+          new Entry(
+              new SimpleRobotRules(SimpleRobotRules.RobotRulesMode.ALLOW_ALL),
+              nanoClock.getAsLong() + errorTtlNanos);
+    }
+
+    future.complete(entry);
+  }
+
+  private boolean isExpired(CompletableFuture<Entry> future) {
+    return future.isDone() && future.join().expiresAtNanos() - nanoClock.getAsLong() <= 0;
+  }
+
+  static String hostKey(URI uri) {
+    String hostKey = uri.getScheme() + "://" + uri.getHost();
+    return uri.getPort() == -1 ? hostKey : hostKey + ":" + uri.getPort();
+  }
+
+  private record Entry(BaseRobotRules rules, long expiresAtNanos) {}
+}
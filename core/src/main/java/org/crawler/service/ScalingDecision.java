@@ -0,0 +1,12 @@
+package org.crawler.service;
+
+import java.time.Instant;
+
+/** A resize of a worker stage by the {@link WorkerAutoscaler}, with the samples that caused it. */
+public record ScalingDecision(Instant at, Stage stage, int from, int to, String reason) {
+  public enum Stage {
+    PAGE_FETCHER,
+    LINKS_EXTRACTOR,
+    FETCH_AND_EXTRACT
+  }
+}
@@ -0,0 +1,190 @@
+package org.crawler.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.crawler.domain.config.AutoscaleConfig;
+import org.crawler.infrastructure.Queue;
+import org.crawler.metrics.MetricsRegistry;
+import org.crawler.service.CrawlCounters.Counter;
+import org.crawler.service.ScalingDecision.Stage;
+import org.crawler.service.worker.AbstractStoppableWorker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Control loop that keeps the fetch and extract stages balanced. Every {@code interval} it samples
+ * the depth of both queues and, from the crawl counters, the throughput and the utilization of each
+ * stage: the time its workers spent on items out of the time they had.
+ *
+ * <p>A stage grows by one worker while its input queue is deeper than {@code scaleUpQueueDepth}
+ * and its workers are busy more than {@code scaleDownUtilization} of the time, a backlog that idle
+ * workers do not drain is held up elsewhere, by host politeness for instance. A stage shrinks by
+ * one worker while its input queue is empty and its utilization is below that mark. Fetchers also
+ * shrink while pages pile up with the extractors at their maximum. One step per stage and interval
+ * keeps the loop from oscillating.
+ *
+ * <p>Every resize counts in {@code autoscale_scale_ups_total} or {@code
+ * autoscale_scale_downs_total}, labeled by stage, on the global metrics registry.
+ */
+public class WorkerAutoscaler extends AbstractStoppableWorker {
+  private static final Logger logger = LoggerFactory.getLogger(WorkerAutoscaler.class);
+  private static final MetricsRegistry registry = MetricsRegistry.global();
+
+  private final WorkersManager workersManager;
+  private final Queue<?> frontierQueue;
+  private final Queue<?> fetchedPagesQueue;
+  private final CrawlCounters counters;
+  private final AutoscaleConfig config;
+  private final boolean fused;
+  private final int maxInFlightPerWorker;
+
+  private Totals previous;
+
+  record Sample(
+      long frontierDepth,
+      long parsingDepth,
+      double fetchRate,
+      double extractRate,
+      double fetchUtilization,
+      double extractUtilization) {}
+
+  private record Totals(
+      long takenAt, long fetched, long extracted, long fetchMicros, long extractMicros) {
+    static Totals of(CrawlCounters counters) {
+      return new Totals(
+          System.nanoTime(),
+          counters.get(Counter.PAGES_FETCHED) + counters.get(Counter.FETCH_FAILURES),
+          counters.get(Counter.PAGES_EXTRACTED),
+          counters.get(Counter.FETCH_MICROS),
+          counters.get(Counter.EXTRACT_MICROS));
+    }
+  }
+
+  WorkerAutoscaler(
+      WorkersManager workersManager,
+      Queue<?> frontierQueue,
+      Queue<?> fetchedPagesQueue,
+      CrawlCounters counters,
+      AutoscaleConfig config,
+      boolean fused,
+      int maxInFlightPerWorker) {
+    this.workersManager = workersManager;
+    this.frontierQueue = frontierQueue;
+    this.fetchedPagesQueue = fetchedPagesQueue;
+    this.counters = counters;
+    this.config = config;
+    this.fused = fused;
+    this.maxInFlightPerWorker = maxInFlightPerWorker;
+    // Resumed counters start from the checkpoint, only what happens from now on counts
+    this.previous = Totals.of(counters);
+  }
+
+  @Override
+  protected void doWork() throws Exception {
+    Thread.sleep(config.interval().toMillis());
+
+    int fetchers = workersManager.workerCount(fetchStage());
+    int extractors = fused ? 0 : workersManager.workerCount(Stage.LINKS_EXTRACTOR);
+    Sample sample = sample(fetchers, extractors);
+
+    logger.debug("Sampled {} with {} fetchers and {} extractors", sample, fetchers, extractors);
+
+    for (ScalingDecision decision : decide(sample, fetchers, extractors)) {
+      workersManager.resize(decision);
+      count(decision);
+    }
+  }
+
+  static void count(ScalingDecision decision) {
+    String direction = decision.to() > decision.from() ? "ups" : "downs";
+    String stage = decision.stage().name().toLowerCase(Locale.ROOT);
+    registry.counter("autoscale_scale_" + direction + "_total", "stage", stage).increment();
+  }
+
+  @Override
+  protected Logger getLogger() {
+    return logger;
+  }
+
+  Sample sample(int fetchers, int extractors) {
+    Totals current = Totals.of(counters);
+    double elapsedMicros = Math.max(1, (current.takenAt() - previous.takenAt()) / 1000);
+
+    Sample sample =
+        new Sample(
+            frontierQueue.size(),
+            fused ? 0 : fetchedPagesQueue.size(),
+            (current.fetched() - previous.fetched()) * 1_000_000 / elapsedMicros,
+            (current.extracted() - previous.extracted()) * 1_000_000 / elapsedMicros,
+            utilization(
+                current.fetchMicros() - previous.fetchMicros(),
+                elapsedMicros * fetchers * maxInFlightPerWorker),
+            utilization(
+                current.extractMicros() - previous.extractMicros(), elapsedMicros * extractors));
+
+    previous = current;
+    return sample;
+  }
+
+  List<ScalingDecision> decide(Sample sample, int fetchers, int extractors) {
+    List<ScalingDecision> decisions = new ArrayList<>();
+    boolean parsingBacklog = !fused && sample.parsingDepth() > config.scaleUpQueueDepth();
+
+    if (!fused) {
+      if (parsingBacklog
+          && sample.extractUtilization() > config.scaleDownUtilization()
+          && extractors < config.maxLinksExtractorWorkers()) {
+        decisions.add(decision(Stage.LINKS_EXTRACTOR, extractors, +1, "parsing backlog", sample));
+      } else if (sample.parsingDepth() == 0
+          && sample.extractUtilization() < config.scaleDownUtilization()
+          && extractors > config.minLinksExtractorWorkers()) {
+        decisions.add(decision(Stage.LINKS_EXTRACTOR, extractors, -1, "extractors idle", sample));
+      }
+    }
+
+    if (parsingBacklog
+        && extractors >= config.maxLinksExtractorWorkers()
+        && fetchers > config.minPageFetcherWorkers()) {
+      decisions.add(decision(fetchStage(), fetchers, -1, "extractors saturated", sample));
+    } else if (!parsingBacklog
+        && sample.frontierDepth() > config.scaleUpQueueDepth()
+        && sample.fetchUtilization() > config.scaleDownUtilization()
+        && fetchers < config.maxPageFetcherWorkers()) {
+      decisions.add(decision(fetchStage(), fetchers, +1, "frontier backlog", sample));
+    } else if (sample.frontierDepth() == 0
+        && sample.fetchUtilization() < config.scaleDownUtilization()
+        && fetchers > config.minPageFetcherWorkers()) {
+      decisions.add(decision(fetchStage(), fetchers, -1, "fetchers idle", sample));
+    }
+
+    return decisions;
+  }
+
+  private Stage fetchStage() {
+    return fused ? Stage.FETCH_AND_EXTRACT : Stage.PAGE_FETCHER;
+  }
+
+  private static ScalingDecision decision(
+      Stage stage, int workers, int step, String cause, Sample sample) {
+    String reason =
+        String.format(
+            Locale.ROOT,
+            "%s, frontier %d, parsing %d, %.1f fetched/s at %.0f%% busy,"
+                + " %.1f extracted/s at %.0f%% busy",
+            cause,
+            sample.frontierDepth(),
+            sample.parsingDepth(),
+            sample.fetchRate(),
+            sample.fetchUtilization() * 100,
+            sample.extractRate(),
+            sample.extractUtilization() * 100);
+
+    return new ScalingDecision(Instant.now(), stage, workers, workers + step, reason);
+  }
+
+  private static double utilization(double busyMicros, double availableMicros) {
+    return availableMicros <= 0 ? 0 : Math.min(1, busyMicros / availableMicros);
+  }
+}
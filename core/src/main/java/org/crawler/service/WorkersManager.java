@@ -1,86 +1,351 @@
 package org.crawler.service;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import org.crawler.common.URLPredicate;
+import org.crawler.common.UrlCanonicalizer;
+import org.crawler.domain.config.AutoscaleConfig;
+import org.crawler.domain.config.BackpressureConfig;
+import org.crawler.domain.config.LinkExtractorType;
+import org.crawler.domain.config.PipelineMode;
 import org.crawler.infrastructure.FetchedPagesQueue;
 import org.crawler.infrastructure.FrontierQueue;
 import org.crawler.infrastructure.VisitedUrlsSet;
+import org.crawler.service.ScalingDecision.Stage;
+import org.crawler.service.worker.AbstractStoppableWorker;
+import org.crawler.service.worker.Backpressure;
+import org.crawler.service.worker.CrawlMaintenanceWorker;
+import org.crawler.service.worker.FetchAndExtractWorker;
+import org.crawler.service.worker.JsoupLinkExtractor;
+import org.crawler.service.worker.LinkExtractors;
 import org.crawler.service.worker.LinksExtractorWorker;
+import org.crawler.service.worker.PageFetcher;
 import org.crawler.service.worker.PageFetcherWorker;
+import org.crawler.service.worker.PageSink;
+import org.crawler.service.worker.StreamingLinkExtractor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Starts and stops the workers of each stage. With autoscaling on, a {@link WorkerAutoscaler}
+ * resizes the stages while the crawl runs and the last decisions are kept for {@link
+ * #scalingDecisions()}.
+ */
 public class WorkersManager {
   private static final Logger logger = LoggerFactory.getLogger(WorkersManager.class);
 
+  private static final int MAX_KEPT_DECISIONS = 100;
+
   private final List<PageFetcherWorker> pageFetcherWorkers = new ArrayList<>();
   private final List<LinksExtractorWorker> linksExtractorWorkers = new ArrayList<>();
+  private final List<FetchAndExtractWorker> fetchAndExtractWorkers = new ArrayList<>();
+  private final ArrayDeque<ScalingDecision> scalingDecisions = new ArrayDeque<>();
 
   private final ExecutorService executorService;
   private final FrontierQueue frontierQueue;
   private final FetchedPagesQueue fetchedPagesQueue;
   private final VisitedUrlsSet visitedUrlsSet;
   private final URLPredicate urlPredicate;
+  private final UrlCanonicalizer urlCanonicalizer;
   private final RobotsChecker robotsChecker;
   private final int maxDepth;
   private final int numberOfPageFetcherWorkers;
   private final int numberOfLinksExtractorWorker;
+  private final int queueBatchSize;
+  private final PipelineMode pipelineMode;
+  private final LinkExtractorType linkExtractorType;
+  private final List<PageSink> pageSinks;
+  private final PageFetcher pageFetcher;
+  private final int maxInFlightPerWorker;
+  private final RecrawlCache recrawlCache;
+  private final CrawlCounters counters;
+  private final CrawlMaintenanceWorker maintenanceWorker;
+  private final AutoscaleConfig autoscaleConfig;
+  private final Backpressure frontierBackpressure;
+  private final Backpressure parsingBackpressure;
+  private volatile WorkerAutoscaler autoscaler;
 
+  /** The maintenance worker is null when the crawl does not run in resume mode. */
   public WorkersManager(
       FrontierQueue frontierQueue,
       FetchedPagesQueue fetchedPagesQueue,
       VisitedUrlsSet visitedUrlsSet,
       ExecutorService executorService,
       URLPredicate urlPredicate,
+      UrlCanonicalizer urlCanonicalizer,
       RobotsChecker robotsChecker,
       int maxDepth,
       int numberOfPageFetcherWorkers,
-      int numberOfLinksExtractorWorker) {
+      int numberOfLinksExtractorWorker,
+      int queueBatchSize,
+      PipelineMode pipelineMode,
+      LinkExtractorType linkExtractorType,
+      List<PageSink> pageSinks,
+      PageFetcher pageFetcher,
+      int maxInFlightPerWorker,
+      RecrawlCache recrawlCache,
+      CrawlCounters counters,
+      CrawlMaintenanceWorker maintenanceWorker,
+      AutoscaleConfig autoscaleConfig,
+      BackpressureConfig backpressureConfig) {
     this.executorService = executorService;
     this.frontierQueue = frontierQueue;
     this.fetchedPagesQueue = fetchedPagesQueue;
     this.visitedUrlsSet = visitedUrlsSet;
     this.urlPredicate = urlPredicate;
+    this.urlCanonicalizer = urlCanonicalizer;
     this.robotsChecker = robotsChecker;
     this.maxDepth = maxDepth;
     this.numberOfLinksExtractorWorker = numberOfLinksExtractorWorker;
     this.numberOfPageFetcherWorkers = numberOfPageFetcherWorkers;
+    this.queueBatchSize = queueBatchSize;
+    this.pipelineMode = pipelineMode;
+    this.linkExtractorType = linkExtractorType;
+    this.pageSinks = pageSinks;
+    this.pageFetcher = pageFetcher;
+    this.maxInFlightPerWorker = maxInFlightPerWorker;
+    this.recrawlCache = recrawlCache;
+    this.counters = counters;
+    this.maintenanceWorker = maintenanceWorker;
+    this.autoscaleConfig = autoscaleConfig;
+
+    boolean backpressure = backpressureConfig != null && backpressureConfig.enabled();
+    this.frontierBackpressure =
+        backpressure
+            ? new Backpressure(
+                frontierQueue,
+                backpressureConfig.frontierHighWatermark(),
+                backpressureConfig.frontierLowWatermark(),
+                backpressureConfig.refreshInterval(),
+                backpressureConfig.maxBlock())
+            : Backpressure.none();
+    this.parsingBackpressure =
+        backpressure
+            ? new Backpressure(
+                fetchedPagesQueue,
+                backpressureConfig.parsingHighWatermark(),
+                backpressureConfig.parsingLowWatermark(),
+                backpressureConfig.refreshInterval(),
+                backpressureConfig.maxBlock())
+            : Backpressure.none();
   }
 
-  public void start() {
-    for (int i = 0; i < numberOfPageFetcherWorkers; i++) {
-      PageFetcherWorker worker =
-          new PageFetcherWorker(frontierQueue, fetchedPagesQueue, visitedUrlsSet, robotsChecker);
-      pageFetcherWorkers.add(worker);
-      executorService.execute(worker);
+  public synchronized void start() {
+    if (maintenanceWorker != null) {
+      executorService.execute(maintenanceWorker);
+    }
+
+    boolean autoscale = autoscaleConfig != null && autoscaleConfig.enabled();
+    int fetchers =
+        autoscale
+            ? clamp(
+                numberOfPageFetcherWorkers,
+                autoscaleConfig.minPageFetcherWorkers(),
+                autoscaleConfig.maxPageFetcherWorkers())
+            : numberOfPageFetcherWorkers;
+    int extractors =
+        autoscale
+            ? clamp(
+                numberOfLinksExtractorWorker,
+                autoscaleConfig.minLinksExtractorWorkers(),
+                autoscaleConfig.maxLinksExtractorWorkers())
+            : numberOfLinksExtractorWorker;
+
+    if (pipelineMode == PipelineMode.FUSED) {
+      addWorkers(Stage.FETCH_AND_EXTRACT, fetchers);
+      logger.info("Started {} Fetch and Extract workers", fetchers);
+    } else {
+      addWorkers(Stage.PAGE_FETCHER, fetchers);
+      logger.info("Started {} Page Fetcher workers", fetchers);
+
+      addWorkers(Stage.LINKS_EXTRACTOR, extractors);
+      logger.info("Started {} Link Extractors workers", extractors);
+    }
+
+    if (autoscale) {
+      autoscaler =
+          new WorkerAutoscaler(
+              this,
+              frontierQueue,
+              fetchedPagesQueue,
+              counters,
+              autoscaleConfig,
+              pipelineMode == PipelineMode.FUSED,
+              pipelineMode == PipelineMode.FUSED ? 1 : maxInFlightPerWorker);
+      executorService.execute(autoscaler);
+    }
+  }
+
+  public synchronized int workerCount(Stage stage) {
+    return workers(stage).size();
+  }
+
+  /** The last scaling decisions, oldest first. */
+  public synchronized List<ScalingDecision> scalingDecisions() {
+    return List.copyOf(scalingDecisions);
+  }
+
+  /**
+   * Starts or retires workers of the stage of the decision until it has {@code to} of them. Retired
+   * workers hand their unprocessed items back outside the lock, which the other stages need.
+   */
+  void resize(ScalingDecision decision) {
+    List<AbstractStoppableWorker> retired;
+
+    synchronized (this) {
+      int current = workerCount(decision.stage());
+
+      logger.info(
+          "Scaling {} workers from {} to {}: {}",
+          decision.stage(),
+          current,
+          decision.to(),
+          decision.reason());
+
+      if (decision.to() > current) {
+        addWorkers(decision.stage(), decision.to() - current);
+        retired = List.of();
+      } else {
+        retired = removeWorkers(decision.stage(), current - decision.to());
+      }
+
+      if (scalingDecisions.size() == MAX_KEPT_DECISIONS) {
+        scalingDecisions.removeFirst();
+      }
+      scalingDecisions.addLast(decision);
     }
 
-    logger.info("Started {} Page Fetcher workers", numberOfPageFetcherWorkers);
+    stop(retired);
+  }
+
+  private void addWorkers(Stage stage, int count) {
+    for (int i = 0; i < count; i++) {
+      AbstractStoppableWorker worker =
+          switch (stage) {
+            case PAGE_FETCHER -> {
+              var pageFetcherWorker =
+                  new PageFetcherWorker(
+                      frontierQueue,
+                      fetchedPagesQueue,
+                      visitedUrlsSet,
+                      urlCanonicalizer,
+                      robotsChecker,
+                      pageFetcher,
+                      recrawlCache,
+                      counters,
+                      parsingBackpressure,
+                      frontierBackpressure,
+                      maxInFlightPerWorker,
+                      queueBatchSize);
+              pageFetcherWorkers.add(pageFetcherWorker);
+              yield pageFetcherWorker;
+            }
+            case LINKS_EXTRACTOR -> {
+              var linksExtractorWorker =
+                  new LinksExtractorWorker(
+                      frontierQueue,
+                      fetchedPagesQueue,
+                      newLinkExtractor(),
+                      robotsChecker,
+                      recrawlCache,
+                      counters,
+                      frontierBackpressure,
+                      queueBatchSize);
+              linksExtractorWorkers.add(linksExtractorWorker);
+              yield linksExtractorWorker;
+            }
+            case FETCH_AND_EXTRACT -> {
+              var fetchAndExtractWorker =
+                  new FetchAndExtractWorker(
+                      frontierQueue,
+                      visitedUrlsSet,
+                      urlCanonicalizer,
+                      newLinkExtractor(),
+                      robotsChecker,
+                      pageSinks,
+                      counters,
+                      frontierBackpressure,
+                      queueBatchSize);
+              fetchAndExtractWorkers.add(fetchAndExtractWorker);
+              yield fetchAndExtractWorker;
+            }
+          };
 
-    for (int i = 0; i < numberOfLinksExtractorWorker; i++) {
-      LinksExtractorWorker worker =
-          new LinksExtractorWorker(
-              frontierQueue, fetchedPagesQueue, visitedUrlsSet, urlPredicate, maxDepth);
-      linksExtractorWorkers.add(worker);
       executorService.execute(worker);
     }
+  }
+
+  // The newest workers go first
+  private List<AbstractStoppableWorker> removeWorkers(Stage stage, int count) {
+    List<? extends AbstractStoppableWorker> workers = workers(stage);
+    List<AbstractStoppableWorker> removed = new ArrayList<>();
+
+    for (int i = 0; i < count && !workers.isEmpty(); i++) {
+      removed.add(workers.removeLast());
+    }
+    return removed;
+  }
+
+  // Each worker hands its unprocessed items back before it returns
+  private static void stop(List<? extends AbstractStoppableWorker> workers) {
+    for (AbstractStoppableWorker worker : workers) {
+      worker.requestStop();
+    }
+    for (AbstractStoppableWorker worker : workers) {
+      worker.awaitStop();
+    }
+  }
+
+  private List<? extends AbstractStoppableWorker> workers(Stage stage) {
+    return switch (stage) {
+      case PAGE_FETCHER -> pageFetcherWorkers;
+      case LINKS_EXTRACTOR -> linksExtractorWorkers;
+      case FETCH_AND_EXTRACT -> fetchAndExtractWorkers;
+    };
+  }
+
+  private LinkExtractors newLinkExtractor() {
+    return switch (linkExtractorType) {
+      case JSOUP ->
+          new JsoupLinkExtractor(urlPredicate, urlCanonicalizer, visitedUrlsSet, maxDepth);
+      case STREAMING ->
+          new StreamingLinkExtractor(urlPredicate, urlCanonicalizer, visitedUrlsSet, maxDepth);
+    };
+  }
 
-    logger.info("Started {} Link Extractors workers", numberOfLinksExtractorWorker);
+  private static int clamp(int value, int min, int max) {
+    return Math.max(min, Math.min(max, value));
   }
 
   public void shutdown() {
-    logger.info("Shutting down Page Fetcher workers...");
+    // Outside the lock, the autoscaler may be waiting for it to resize a stage
+    if (autoscaler != null) {
+      autoscaler.interrupt();
+    }
 
-    for (PageFetcherWorker worker : pageFetcherWorkers) {
-      worker.interrupt();
+    List<PageFetcherWorker> fetchers;
+    List<LinksExtractorWorker> extractors;
+    List<FetchAndExtractWorker> fused;
+    synchronized (this) {
+      fetchers = List.copyOf(pageFetcherWorkers);
+      extractors = List.copyOf(linksExtractorWorkers);
+      fused = List.copyOf(fetchAndExtractWorkers);
     }
 
+    logger.info("Shutting down Page Fetcher workers...");
+    stop(fetchers);
+
     logger.info("Shutting down Link Extractors workers...");
+    stop(extractors);
+
+    logger.info("Shutting down Fetch and Extract workers...");
+    stop(fused);
 
-    for (LinksExtractorWorker worker : linksExtractorWorkers) {
-      worker.interrupt();
+    // Last, so that its final checkpoint counts the work of the stopped workers
+    if (maintenanceWorker != null) {
+      maintenanceWorker.interrupt();
     }
   }
 }
@@ -1,21 +1,20 @@
 package org.crawler.service.worker;
 
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.atomic.AtomicBoolean;
 import org.slf4j.Logger;
 
 public abstract class AbstractStoppableWorker implements StoppableWorker {
-  private final AtomicBoolean running = new AtomicBoolean(false);
-  private Thread worker;
+  // Sticky, a stop requested before the worker runs makes it return right away
+  private volatile boolean stopRequested;
+  private volatile Thread worker;
   private final CountDownLatch stoppedLatch = new CountDownLatch(1);
 
   @Override
   public final void run() {
-    running.set(true);
     worker = Thread.currentThread();
 
     try {
-      while (running.get()) {
+      while (!stopRequested) {
         try {
           doWork();
         } catch (Exception e) {
@@ -25,16 +24,39 @@ public abstract class AbstractStoppableWorker implements StoppableWorker {
         }
       }
     } finally {
+      // Clear the interrupt so that the cleanup can still talk to the queues
+      boolean interrupted = Thread.interrupted();
+      try {
+        onStop();
+      } catch (Exception e) {
+        getLogger().error("Worker cleanup failed", e);
+      } finally {
+        if (interrupted) {
+          Thread.currentThread().interrupt();
+        }
+      }
+
       getLogger().info("Worker shutting down");
       stoppedLatch.countDown();
     }
   }
 
+  /** Stops the worker and waits until it has returned. */
   @Override
   public void interrupt() {
-    running.set(false);
-    if (worker != null) worker.interrupt();
+    requestStop();
+    awaitStop();
+  }
 
+  /** Stops the worker without waiting, so that several workers can wind down together. */
+  public void requestStop() {
+    stopRequested = true;
+    Thread thread = worker;
+    if (thread != null) thread.interrupt();
+  }
+
+  /** Waits until the worker has returned from {@link #run()}. */
+  public void awaitStop() {
     try {
       stoppedLatch.await();
     } catch (InterruptedException e) {
@@ -44,10 +66,12 @@ public abstract class AbstractStoppableWorker implements StoppableWorker {
 
   @Override
   public boolean isRunning() {
-    return running.get();
+    return worker != null && !stopRequested;
   }
 
   protected abstract void doWork() throws Exception;
 
+  protected void onStop() {}
+
   protected abstract Logger getLogger();
 }
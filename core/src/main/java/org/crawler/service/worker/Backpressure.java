@@ -0,0 +1,119 @@
+package org.crawler.service.worker;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.crawler.infrastructure.Queue;
+
+/**
+ * Watermarks on a queue that its producers check before producing. Once the queue reaches the
+ * high watermark producers wait until it drains to the low watermark, for at most {@code maxBlock}
+ * so that two stages feeding each other cannot deadlock. {@link #overflows()} counts the producers
+ * that went on anyway.
+ *
+ * <p>The depth is read with {@link Queue#size()} at most once per {@code refreshInterval} for all
+ * the producers together, so the check is a volatile read on nearly every call.
+ */
+public class Backpressure {
+  private static final Backpressure NONE = new Backpressure();
+
+  private final Queue<?> queue;
+  private final long highWatermark;
+  private final long lowWatermark;
+  private final long refreshNanos;
+  private final long maxBlockNanos;
+
+  private final AtomicLong refreshedAt = new AtomicLong();
+  private final AtomicLong overflows = new AtomicLong();
+  private volatile long depth;
+  private volatile boolean paused;
+
+  /** A {@code maxBlock} of zero lets producers wait as long as the queue stays above the mark. */
+  public Backpressure(
+      Queue<?> queue,
+      long highWatermark,
+      long lowWatermark,
+      Duration refreshInterval,
+      Duration maxBlock) {
+    this.queue = queue;
+    this.highWatermark = highWatermark;
+    this.lowWatermark = lowWatermark;
+    this.refreshNanos = refreshInterval.toNanos();
+    this.maxBlockNanos = maxBlock.toNanos();
+    this.refreshedAt.set(System.nanoTime() - refreshNanos);
+  }
+
+  private Backpressure() {
+    this(null, Long.MAX_VALUE, Long.MAX_VALUE, Duration.ZERO, Duration.ZERO);
+  }
+
+  public static Backpressure none() {
+    return NONE;
+  }
+
+  /**
+   * Returns once the queue has room or {@code maxBlock} has passed. An interrupt ends the wait too
+   * and is left set for the caller, nothing is ever dropped here.
+   */
+  public void awaitRoom() {
+    if (queue == null) {
+      return;
+    }
+
+    refresh();
+    if (!paused) {
+      return;
+    }
+
+    long startedAt = System.nanoTime();
+
+    while (paused) {
+      long remainingNanos =
+          maxBlockNanos == 0 ? refreshNanos : maxBlockNanos - (System.nanoTime() - startedAt);
+      if (remainingNanos <= 0) {
+        overflows.incrementAndGet();
+        return;
+      }
+
+      try {
+        TimeUnit.NANOSECONDS.sleep(Math.max(1, Math.min(refreshNanos, remainingNanos)));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+
+      refresh();
+    }
+  }
+
+  public long depth() {
+    return depth;
+  }
+
+  public boolean isPaused() {
+    return paused;
+  }
+
+  public long overflows() {
+    return overflows.get();
+  }
+
+  private void refresh() {
+    long now = System.nanoTime();
+    long last = refreshedAt.get();
+
+    // A single producer reads the depth per interval, the others go with the cached one
+    if (now - last < refreshNanos || !refreshedAt.compareAndSet(last, now)) {
+      return;
+    }
+
+    long size = queue.size();
+    depth = size;
+
+    if (size >= highWatermark) {
+      paused = true;
+    } else if (size <= lowWatermark) {
+      paused = false;
+    }
+  }
+}
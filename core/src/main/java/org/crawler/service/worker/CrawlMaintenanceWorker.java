@@ -0,0 +1,73 @@
+package org.crawler.service.worker;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.crawler.infrastructure.CheckpointStore;
+import org.crawler.infrastructure.Queue;
+import org.crawler.service.CrawlCounters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resume mode housekeeping. Every {@code interval} it hands the items of expired leases back to
+ * their queues and adds the progress of the crawl counters to the checkpoint, which it saves a
+ * last time when stopped.
+ */
+public class CrawlMaintenanceWorker extends AbstractStoppableWorker {
+  private static final Logger logger = LoggerFactory.getLogger(CrawlMaintenanceWorker.class);
+
+  private final List<Queue<?>> queues;
+  private final CrawlCounters counters;
+  private final CheckpointStore checkpointStore;
+  private final Duration interval;
+
+  public CrawlMaintenanceWorker(
+      List<Queue<?>> queues,
+      CrawlCounters counters,
+      CheckpointStore checkpointStore,
+      Duration interval) {
+    this.queues = List.copyOf(queues);
+    this.counters = counters;
+    this.checkpointStore = checkpointStore;
+    this.interval = interval;
+  }
+
+  @Override
+  protected void doWork() throws Exception {
+    Thread.sleep(interval.toMillis());
+
+    requeueExpired();
+    checkpoint();
+  }
+
+  @Override
+  protected void onStop() {
+    checkpoint();
+
+    logger.info("Crawl counters at shutdown: {}", counters);
+  }
+
+  @Override
+  protected Logger getLogger() {
+    return logger;
+  }
+
+  void requeueExpired() {
+    for (Queue<?> queue : queues) {
+      int requeued = queue.requeueExpired();
+
+      if (requeued > 0) {
+        logger.info("Requeued {} items whose lease expired", requeued);
+        counters.add(CrawlCounters.Counter.ITEMS_REQUEUED, requeued);
+      }
+    }
+  }
+
+  void checkpoint() {
+    Map<String, Long> deltas = counters.uncheckpointed();
+
+    checkpointStore.add(deltas);
+    counters.checkpointed(deltas);
+  }
+}
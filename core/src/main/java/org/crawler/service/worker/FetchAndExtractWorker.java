@@ -0,0 +1,191 @@
+package org.crawler.service.worker;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import org.crawler.common.UrlCanonicalizer;
+import org.crawler.domain.Link;
+import org.crawler.domain.Page;
+import org.crawler.domain.exception.ConnectionException;
+import org.crawler.infrastructure.FrontierQueue;
+import org.crawler.infrastructure.VisitedUrlsSet;
+import org.crawler.service.CrawlCounters;
+import org.crawler.service.RobotsChecker;
+import org.jsoup.Connection;
+import org.jsoup.Jsoup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fetches a link and extracts its outlinks in the same worker. The response is parsed once and
+ * never serialized back to a String, only links go back to Redis, and pages at {@code maxDepth}
+ * are not parsed at all. A {@link JsoupLinkExtractor} works on the parsed response directly, any
+ * other extractor gets the body.
+ */
+public class FetchAndExtractWorker extends AbstractStoppableWorker {
+  private static final Logger logger = LoggerFactory.getLogger(FetchAndExtractWorker.class);
+
+  private final FrontierQueue frontierQueue;
+  private final VisitedUrlsSet visitedUrlsSet;
+  private final UrlCanonicalizer urlCanonicalizer;
+  private final RobotsChecker robotsChecker;
+  private final LinkExtractors linkExtractor;
+  private final List<PageSink> pageSinks;
+  private final CrawlCounters counters;
+  private final Backpressure frontierBackpressure;
+  private final PrefetchBuffer<Link> frontierBuffer;
+
+  public FetchAndExtractWorker(
+      FrontierQueue frontierQueue,
+      VisitedUrlsSet visitedUrlsSet,
+      LinkExtractors linkExtractor,
+      RobotsChecker robotsChecker,
+      List<PageSink> pageSinks,
+      int batchSize) {
+    this(
+        frontierQueue,
+        visitedUrlsSet,
+        new UrlCanonicalizer(UrlCanonicalizer.defaultConfig()),
+        linkExtractor,
+        robotsChecker,
+        pageSinks,
+        new CrawlCounters(),
+        Backpressure.none(),
+        batchSize);
+  }
+
+  public FetchAndExtractWorker(
+      FrontierQueue frontierQueue,
+      VisitedUrlsSet visitedUrlsSet,
+      UrlCanonicalizer urlCanonicalizer,
+      LinkExtractors linkExtractor,
+      RobotsChecker robotsChecker,
+      List<PageSink> pageSinks,
+      CrawlCounters counters,
+      Backpressure frontierBackpressure,
+      int batchSize) {
+    this.frontierQueue = frontierQueue;
+    this.visitedUrlsSet = visitedUrlsSet;
+    this.urlCanonicalizer = urlCanonicalizer;
+    this.robotsChecker = robotsChecker;
+    this.linkExtractor = linkExtractor;
+    this.pageSinks = List.copyOf(pageSinks);
+    this.counters = counters;
+    this.frontierBackpressure = frontierBackpressure;
+    this.frontierBuffer = new PrefetchBuffer<>(frontierQueue, batchSize);
+  }
+
+  @Override
+  protected void doWork() throws Exception {
+    var maybeElem = frontierBuffer.next();
+
+    if (maybeElem.isPresent()) {
+      process(maybeElem.get());
+    } else {
+      // To avoid CPU spinning when queue is empty
+      Thread.onSpinWait();
+    }
+  }
+
+  @Override
+  protected void onStop() {
+    frontierBuffer.returnUnprocessed();
+  }
+
+  @Override
+  protected Logger getLogger() {
+    return logger;
+  }
+
+  protected void process(Link link) {
+    try {
+      // A redelivered link was marked visited by the worker that never acked it
+      boolean wasAdded =
+          visitedUrlsSet.addIfNotPresent(urlCanonicalizer.key(link))
+              || frontierQueue.isRedelivery(link);
+
+      if (!wasAdded || !robotsChecker.isUrlAllowed(link.uri())) {
+        return;
+      }
+
+      logger.debug("Processing link {}", link);
+
+      long startedAt = System.nanoTime();
+      Connection.Response response;
+
+      try {
+        response = fetch(link);
+      } catch (ConnectionException e) {
+        WorkerMetrics.fetchFailed(link.uri());
+        throw e;
+      } finally {
+        Duration latency = Duration.ofNanos(System.nanoTime() - startedAt);
+        counters.add(CrawlCounters.Counter.FETCH_MICROS, latency.toNanos() / 1000);
+        WorkerMetrics.FETCH_LATENCY.record(latency.toNanos() / 1000);
+        recordFetch(link, latency);
+      }
+
+      counters.increment(CrawlCounters.Counter.PAGES_FETCHED);
+      WorkerMetrics.PAGES_FETCHED.mark();
+      boolean extract = linkExtractor.shouldExtract(link);
+      boolean parse = extract && linkExtractor instanceof JsoupLinkExtractor;
+
+      // The body has to be buffered before parse() consumes the response stream
+      String html = !pageSinks.isEmpty() || (extract && !parse) ? response.body() : null;
+
+      // A body parsed straight from the stream is only known by its declared length
+      WorkerMetrics.BYTES_FETCHED.mark(html != null ? html.length() : contentLength(response));
+
+      if (extract) {
+        long parseStartedAt = System.nanoTime();
+        Set<Link> links =
+            parse
+                ? ((JsoupLinkExtractor) linkExtractor).extractLinks(link, response.parse())
+                : linkExtractor.extractLinks(new Page(link, html));
+        WorkerMetrics.PARSE_LATENCY.recordSince(parseStartedAt);
+
+        links.forEach(next -> robotsChecker.prefetch(next.uri()));
+        frontierBackpressure.awaitRoom();
+        frontierQueue.pushAll(links);
+        counters.increment(CrawlCounters.Counter.PAGES_EXTRACTED);
+        WorkerMetrics.PAGES_EXTRACTED.mark();
+        counters.add(CrawlCounters.Counter.LINKS_QUEUED, links.size());
+      }
+
+      if (!pageSinks.isEmpty()) {
+        Page page = new Page(link, html);
+        pageSinks.forEach(sink -> sink.accept(page));
+      }
+    } catch (Exception e) {
+      logger.error("Failed to crawl {}", link, e);
+    } finally {
+      frontierQueue.ack(link);
+    }
+  }
+
+  private static long contentLength(Connection.Response response) {
+    try {
+      String header = response.header("Content-Length");
+      return header != null ? Long.parseLong(header.trim()) : 0;
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  private static Connection.Response fetch(Link link) {
+    try {
+      return Jsoup.connect(link.uri().toString()).execute();
+    } catch (Exception e) {
+      throw new ConnectionException("Failed to connect to URL: " + link, e);
+    }
+  }
+
+  // Politeness bookkeeping only, a failure here must not lose the fetched page
+  private void recordFetch(Link link, Duration latency) {
+    try {
+      frontierQueue.recordFetch(link, latency, robotsChecker.crawlDelay(link.uri()));
+    } catch (Exception e) {
+      logger.warn("Failed to record the fetch of {}", link, e);
+    }
+  }
+}
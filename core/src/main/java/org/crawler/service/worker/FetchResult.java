@@ -0,0 +1,17 @@
+package org.crawler.service.worker;
+
+import org.crawler.domain.Page;
+
+/**
+ * Outcome of a conditional fetch. {@code page} is null when the server answered 304 Not Modified,
+ * the validators are null when the server did not send them.
+ */
+public record FetchResult(Page page, String etag, String lastModified) {
+  public static FetchResult notModified(String etag, String lastModified) {
+    return new FetchResult(null, etag, lastModified);
+  }
+
+  public boolean isNotModified() {
+    return page == null;
+  }
+}
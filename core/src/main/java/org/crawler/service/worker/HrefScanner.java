@@ -0,0 +1,255 @@
+package org.crawler.service.worker;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.jsoup.parser.Parser;
+
+/**
+ * Single-pass scanner that finds the {@code href} of {@code <a>}, the first {@code <base>} and the
+ * first {@code <link rel=canonical>} without building a DOM. Only the attribute values that are
+ * returned get allocated.
+ *
+ * <p>It follows the HTML tokenizer where it matters for links: comments, bogus comments and the
+ * contents of raw text elements such as {@code <script>} are skipped, attribute values may be
+ * quoted or not, the first occurrence of a duplicated attribute wins and character references in
+ * values are decoded.
+ */
+final class HrefScanner {
+  private static final String[] RAW_TEXT_TAGS = {
+    "script", "style", "textarea", "title", "xmp", "iframe", "noembed", "noframes"
+  };
+
+  private final String html;
+  private final int length;
+  private int pos;
+
+  private final List<String> anchorHrefs = new ArrayList<>();
+  private String baseHref;
+  private String canonicalHref;
+
+  // Attributes of the tag being scanned
+  private String href;
+  private String rel;
+
+  private HrefScanner(String html) {
+    this.html = html;
+    this.length = html.length();
+  }
+
+  record Result(String baseHref, String canonicalHref, List<String> anchorHrefs) {}
+
+  static Result scan(String html) {
+    HrefScanner scanner = new HrefScanner(html);
+    scanner.run();
+    return new Result(scanner.baseHref, scanner.canonicalHref, scanner.anchorHrefs);
+  }
+
+  private void run() {
+    while (true) {
+      pos = html.indexOf('<', pos);
+      if (pos < 0 || pos + 1 >= length) {
+        return;
+      }
+
+      char next = html.charAt(pos + 1);
+
+      if (html.startsWith("<!--", pos)) {
+        skipComment();
+      } else if (next == '!' || next == '?') {
+        skipPast('>');
+      } else if (next == '/') {
+        skipPast('>');
+      } else if (isAsciiLetter(next)) {
+        if (!scanStartTag()) {
+          return;
+        }
+      } else {
+        pos++;
+      }
+    }
+  }
+
+  /** Returns false when the input ends inside the tag, in which case the tag is dropped. */
+  private boolean scanStartTag() {
+    int nameStart = pos + 1;
+    int nameEnd = nameStart;
+    while (nameEnd < length && !isTagNameEnd(html.charAt(nameEnd))) {
+      nameEnd++;
+    }
+
+    int nameLength = nameEnd - nameStart;
+    boolean anchor = nameLength == 1 && Character.toLowerCase(html.charAt(nameStart)) == 'a';
+    boolean base = nameLength == 4 && html.regionMatches(true, nameStart, "base", 0, 4);
+    boolean link = nameLength == 4 && html.regionMatches(true, nameStart, "link", 0, 4);
+
+    href = null;
+    rel = null;
+    pos = nameEnd;
+    if (!scanAttributes(anchor || base || link)) {
+      return false;
+    }
+
+    if (href != null) {
+      if (anchor) {
+        anchorHrefs.add(href);
+      } else if (base && baseHref == null) {
+        baseHref = href;
+      } else if (link && canonicalHref == null && rel != null && isCanonical(rel)) {
+        canonicalHref = href;
+      }
+    }
+
+    if (nameLength == 9 && html.regionMatches(true, nameStart, "plaintext", 0, 9)) {
+      pos = length;
+      return true;
+    }
+
+    for (String rawTextTag : RAW_TEXT_TAGS) {
+      if (nameLength == rawTextTag.length()
+          && html.regionMatches(true, nameStart, rawTextTag, 0, nameLength)) {
+        skipRawText(rawTextTag);
+        break;
+      }
+    }
+
+    return true;
+  }
+
+  private boolean scanAttributes(boolean keep) {
+    while (true) {
+      while (pos < length && (isWhitespace(html.charAt(pos)) || html.charAt(pos) == '/')) {
+        pos++;
+      }
+      if (pos >= length) {
+        return false;
+      }
+      if (html.charAt(pos) == '>') {
+        pos++;
+        return true;
+      }
+
+      int nameStart = pos;
+      pos++;
+      while (pos < length && !isAttributeNameEnd(html.charAt(pos))) {
+        pos++;
+      }
+      int nameEnd = pos;
+
+      while (pos < length && isWhitespace(html.charAt(pos))) {
+        pos++;
+      }
+
+      int valueStart = -1;
+      int valueEnd = -1;
+
+      if (pos < length && html.charAt(pos) == '=') {
+        pos++;
+        while (pos < length && isWhitespace(html.charAt(pos))) {
+          pos++;
+        }
+        if (pos >= length) {
+          return false;
+        }
+
+        char quote = html.charAt(pos);
+        if (quote == '"' || quote == '\'') {
+          valueStart = pos + 1;
+          valueEnd = html.indexOf(quote, valueStart);
+          if (valueEnd < 0) {
+            return false;
+          }
+          pos = valueEnd + 1;
+        } else {
+          valueStart = pos;
+          while (pos < length && !isWhitespace(html.charAt(pos)) && html.charAt(pos) != '>') {
+            pos++;
+          }
+          valueEnd = pos;
+        }
+      }
+
+      if (keep) {
+        int nameLength = nameEnd - nameStart;
+        if (href == null && nameLength == 4 && html.regionMatches(true, nameStart, "href", 0, 4)) {
+          href = value(valueStart, valueEnd);
+        } else if (rel == null
+            && nameLength == 3
+            && html.regionMatches(true, nameStart, "rel", 0, 3)) {
+          rel = value(valueStart, valueEnd);
+        }
+      }
+    }
+  }
+
+  private String value(int start, int end) {
+    if (start < 0) {
+      return "";
+    }
+
+    String value = html.substring(start, end);
+    return value.indexOf('&') < 0 ? value : Parser.unescapeEntities(value, true);
+  }
+
+  private void skipComment() {
+    int contentStart = pos + 4;
+
+    if (html.startsWith(">", contentStart)) {
+      pos = contentStart + 1;
+    } else if (html.startsWith("->", contentStart)) {
+      pos = contentStart + 2;
+    } else {
+      int end = html.indexOf("-->", contentStart);
+      pos = end < 0 ? length : end + 3;
+    }
+  }
+
+  private void skipRawText(String tagName) {
+    while (true) {
+      int end = html.indexOf("</", pos);
+      if (end < 0) {
+        pos = length;
+        return;
+      }
+
+      int nameEnd = end + 2 + tagName.length();
+      if (html.regionMatches(true, end + 2, tagName, 0, tagName.length())
+          && (nameEnd >= length || isTagNameEnd(html.charAt(nameEnd)))) {
+        pos = end;
+        return;
+      }
+
+      pos = end + 2;
+    }
+  }
+
+  private void skipPast(char c) {
+    int end = html.indexOf(c, pos + 1);
+    pos = end < 0 ? length : end + 1;
+  }
+
+  private static boolean isCanonical(String rel) {
+    for (String token : rel.split("\\s+")) {
+      if (token.equalsIgnoreCase("canonical")) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private static boolean isTagNameEnd(char c) {
+    return isWhitespace(c) || c == '/' || c == '>';
+  }
+
+  private static boolean isAttributeNameEnd(char c) {
+    return isWhitespace(c) || c == '/' || c == '>' || c == '=';
+  }
+
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+  }
+
+  private static boolean isAsciiLetter(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+}
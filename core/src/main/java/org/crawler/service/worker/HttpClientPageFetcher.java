@@ -0,0 +1,296 @@
+package org.crawler.service.worker;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import org.crawler.domain.Link;
+import org.crawler.domain.Page;
+import org.crawler.domain.PageValidators;
+import org.crawler.domain.config.FetcherConfig;
+import org.crawler.domain.exception.ConnectionException;
+
+/**
+ * Fetches pages through one shared {@link HttpClient}, so connections are pooled per host and
+ * HTTP/2 servers multiplex every request to them over a single connection. Servers that only
+ * speak HTTP/1.1 are used as such.
+ *
+ * <p>Like the Jsoup fetcher, it follows redirects, fails on 4xx and 5xx statuses and on content
+ * that is neither text nor XML, truncates bodies at {@code maxBodyBytes} and bounds the total time
+ * of an exchange. The status and content type are checked as soon as the headers arrive, so the
+ * body of a response that would be rejected is never downloaded, and a gzip body is truncated
+ * after decompression as well.
+ */
+public class HttpClientPageFetcher implements PageFetcher {
+  static final String USER_AGENT = "MyCrawler";
+
+  private final HttpClient httpClient;
+  private final Duration readTimeout;
+  private final Duration exchangeTimeout;
+  private final int maxBodyBytes;
+
+  public HttpClientPageFetcher(FetcherConfig config, Executor executor) {
+    this(
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(config.connectTimeout())
+            .executor(executor)
+            .build(),
+        config.readTimeout(),
+        config.connectTimeout().plus(config.readTimeout()),
+        config.maxBodyBytes());
+  }
+
+  HttpClientPageFetcher(
+      HttpClient httpClient, Duration readTimeout, Duration exchangeTimeout, int maxBodyBytes) {
+    this.httpClient = httpClient;
+    this.readTimeout = readTimeout;
+    this.exchangeTimeout = exchangeTimeout;
+    this.maxBodyBytes = maxBodyBytes;
+  }
+
+  @Override
+  public Page fetchPage(Link link) {
+    try {
+      return fetchPageAsync(link).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof ConnectionException connectionException) {
+        throw connectionException;
+      }
+      throw new ConnectionException("Failed to connect to URL: " + link, e.getCause());
+    }
+  }
+
+  @Override
+  public CompletableFuture<Page> fetchPageAsync(Link link) {
+    return fetchPageAsync(link, null).thenApply(FetchResult::page);
+  }
+
+  @Override
+  public CompletableFuture<FetchResult> fetchPageAsync(Link link, PageValidators validators) {
+    Objects.requireNonNull(link);
+
+    HttpRequest request;
+
+    try {
+      HttpRequest.Builder builder =
+          HttpRequest.newBuilder(link.uri())
+              .timeout(readTimeout)
+              .header("User-Agent", USER_AGENT)
+              .header("Accept", "text/html,application/xhtml+xml;q=0.9,*/*;q=0.1")
+              .header("Accept-Encoding", "gzip")
+              .GET();
+
+      if (validators != null && validators.etag() != null) {
+        builder.header("If-None-Match", validators.etag());
+      }
+      if (validators != null && validators.lastModified() != null) {
+        builder.header("If-Modified-Since", validators.lastModified());
+      }
+
+      request = builder.build();
+    } catch (Exception e) {
+      return CompletableFuture.failedFuture(
+          new ConnectionException("Failed to connect to URL: " + link, e));
+    }
+
+    // The request timeout stops applying once the headers arrive, so cancelling the exchange is
+    // what keeps a slow body from holding an in-flight slot
+    CompletableFuture<HttpResponse<Body>> exchange = httpClient.sendAsync(request, this::body);
+    CompletableFuture.delayedExecutor(exchangeTimeout.toMillis(), TimeUnit.MILLISECONDS)
+        .execute(() -> exchange.cancel(true));
+
+    return exchange.handle(
+        (response, error) -> {
+          if (unwrap(error) instanceof CancellationException) {
+            throw new ConnectionException(
+                "Timed out after " + exchangeTimeout.toMillis() + " ms fetching URL: " + link);
+          }
+          if (error != null) {
+            throw new ConnectionException("Failed to connect to URL: " + link, unwrap(error));
+          }
+          return toResult(link, response);
+        });
+  }
+
+  private HttpResponse.BodySubscriber<Body> body(HttpResponse.ResponseInfo info) {
+    String contentType = info.headers().firstValue("Content-Type").orElse("");
+    boolean rejected =
+        info.statusCode() == 304
+            || info.statusCode() >= 400
+            || (!contentType.isEmpty() && !isTextOrXml(contentType));
+
+    return new BoundedBodySubscriber(rejected ? 0 : maxBodyBytes);
+  }
+
+  private FetchResult toResult(Link link, HttpResponse<Body> response) {
+    String etag = response.headers().firstValue("ETag").orElse(null);
+    String lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+
+    if (response.statusCode() == 304) {
+      return FetchResult.notModified(etag, lastModified);
+    }
+
+    return new FetchResult(toPage(link, response), etag, lastModified);
+  }
+
+  private Page toPage(Link link, HttpResponse<Body> response) {
+    if (response.statusCode() >= 400) {
+      throw new ConnectionException(
+          "HTTP status " + response.statusCode() + " fetching URL: " + link);
+    }
+
+    String contentType = response.headers().firstValue("Content-Type").orElse("");
+    if (!contentType.isEmpty() && !isTextOrXml(contentType)) {
+      throw new ConnectionException("Unsupported content type " + contentType + " for: " + link);
+    }
+
+    try {
+      Body body = response.body();
+      byte[] bytes = body.bytes();
+      if (response.headers().firstValue("Content-Encoding").orElse("").equalsIgnoreCase("gzip")) {
+        bytes = gunzip(body);
+      }
+
+      return new Page(link, new String(bytes, charset(contentType)));
+    } catch (IOException e) {
+      throw new ConnectionException("Failed to read response from URL: " + link, e);
+    }
+  }
+
+  private static boolean isTextOrXml(String contentType) {
+    String mimeType = contentType.toLowerCase(Locale.ROOT);
+    return mimeType.startsWith("text/")
+        || mimeType.startsWith("application/xml")
+        || mimeType.matches("application/[^;]*\\+xml.*");
+  }
+
+  private static Charset charset(String contentType) {
+    for (String parameter : contentType.split(";")) {
+      String trimmed = parameter.trim();
+      if (trimmed.regionMatches(true, 0, "charset=", 0, 8)) {
+        try {
+          return Charset.forName(trimmed.substring(8).replace("\"", "").trim());
+        } catch (Exception e) {
+          return StandardCharsets.UTF_8;
+        }
+      }
+    }
+
+    return StandardCharsets.UTF_8;
+  }
+
+  private byte[] gunzip(Body body) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+
+    try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(body.bytes()))) {
+      while (output.size() < maxBodyBytes) {
+        int read;
+        try {
+          read = input.read(buffer, 0, Math.min(buffer.length, maxBodyBytes - output.size()));
+        } catch (EOFException e) {
+          // A truncated download ends mid-stream, keep what was decompressed so far
+          if (body.truncated()) {
+            break;
+          }
+          throw e;
+        }
+        if (read < 0) {
+          break;
+        }
+        output.write(buffer, 0, read);
+      }
+    }
+
+    return output.toByteArray();
+  }
+
+  private static Throwable unwrap(Throwable error) {
+    return error instanceof CompletionException && error.getCause() != null
+        ? error.getCause()
+        : error;
+  }
+
+  record Body(byte[] bytes, boolean truncated) {}
+
+  /**
+   * Collects at most {@code maxBytes} of the body, then cancels the subscription so the rest is
+   * never read. With a limit of zero the body is dropped without reading any of it.
+   */
+  static final class BoundedBodySubscriber implements HttpResponse.BodySubscriber<Body> {
+    private final int maxBytes;
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final CompletableFuture<Body> body = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+
+    BoundedBodySubscriber(int maxBytes) {
+      this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public CompletionStage<Body> getBody() {
+      return body;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      if (maxBytes == 0) {
+        subscription.cancel();
+        body.complete(new Body(new byte[0], false));
+        return;
+      }
+      subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> buffers) {
+      if (body.isDone()) {
+        return;
+      }
+
+      for (ByteBuffer buffer : buffers) {
+        byte[] chunk = new byte[Math.min(buffer.remaining(), maxBytes - bytes.size())];
+        buffer.get(chunk);
+        bytes.write(chunk, 0, chunk.length);
+
+        if (buffer.hasRemaining()) {
+          subscription.cancel();
+          body.complete(new Body(bytes.toByteArray(), true));
+          return;
+        }
+      }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      body.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      body.complete(new Body(bytes.toByteArray(), false));
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package org.crawler.service.worker;
+
+import java.util.Set;
+import org.crawler.common.URLPredicate;
+import org.crawler.common.UrlCanonicalizer;
+import org.crawler.domain.Link;
+import org.crawler.domain.Page;
+import org.crawler.domain.exception.ParserException;
+import org.crawler.infrastructure.VisitedUrlsSet;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+/**
+ * Extracts the outlinks of a page that are valid and not yet visited. Callers that already hold a
+ * parsed {@link Document} pass it in directly so the page is never parsed twice. Pages whose
+ * {@code <link rel=canonical>} was already crawled yield no links.
+ */
+public class JsoupLinkExtractor implements LinkExtractors {
+  private static final String CANONICAL_SELECTOR =
+      "link[rel~=(?i)(^|\\s)canonical(\\s|$)][href]";
+
+  private final OutlinkFilter outlinkFilter;
+
+  public JsoupLinkExtractor(
+      URLPredicate urlPredicate, VisitedUrlsSet visitedUrlsSet, int maxDepth) {
+    this(
+        urlPredicate,
+        new UrlCanonicalizer(UrlCanonicalizer.defaultConfig()),
+        visitedUrlsSet,
+        maxDepth);
+  }
+
+  public JsoupLinkExtractor(
+      URLPredicate urlPredicate,
+      UrlCanonicalizer urlCanonicalizer,
+      VisitedUrlsSet visitedUrlsSet,
+      int maxDepth) {
+    this.outlinkFilter =
+        new OutlinkFilter(urlPredicate, urlCanonicalizer, visitedUrlsSet, maxDepth);
+  }
+
+  @Override
+  public boolean shouldExtract(Link link) {
+    return outlinkFilter.shouldExtract(link);
+  }
+
+  @Override
+  public Set<Link> extractLinks(Page page) {
+    if (!shouldExtract(page.link())) {
+      return Set.of();
+    }
+
+    Document document;
+
+    try {
+      document = Jsoup.parse(page.html(), page.link().uri().toString());
+    } catch (Exception e) {
+      throw new ParserException("Failed to extract links from url: " + page.link(), e);
+    }
+
+    return extractLinks(page.link(), document);
+  }
+
+  public Set<Link> extractLinks(Link source, Document document) {
+    if (!shouldExtract(source)) {
+      return Set.of();
+    }
+
+    try {
+      Element canonical = document.selectFirst(CANONICAL_SELECTOR);
+      if (canonical != null && !outlinkFilter.acceptCanonical(source, canonical.attr("abs:href"))) {
+        return Set.of();
+      }
+
+      return outlinkFilter.toLinks(
+          source, document.select("a[href]").stream().map(elem -> elem.attr("abs:href")));
+    } catch (Exception e) {
+      throw new ParserException("Failed to extract links from url: " + source, e);
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package org.crawler.service.worker;
+
+import java.util.Objects;
+import org.crawler.domain.Link;
+import org.crawler.domain.Page;
+import org.crawler.domain.exception.ConnectionException;
+import org.jsoup.Jsoup;
+
+/** Blocking fetch through {@link Jsoup#connect}, one connection per request. */
+public class JsoupPageFetcher implements PageFetcher {
+  @Override
+  public Page fetchPage(Link link) {
+    Objects.requireNonNull(link);
+
+    String html;
+
+    try {
+      html = Jsoup.connect(link.uri().toString()).get().html();
+
+    } catch (Exception e) {
+      throw new ConnectionException("Failed to connect to URL: " + link, e);
+    }
+
+    return new Page(link, html);
+  }
+}
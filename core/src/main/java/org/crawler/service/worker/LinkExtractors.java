@@ -6,4 +6,9 @@ import org.crawler.domain.Page;
 
 public interface LinkExtractors {
   Set<Link> extractLinks(Page page);
+
+  /** Whether links found on a page of this depth would still be crawled. */
+  default boolean shouldExtract(Link link) {
+    return true;
+  }
 }
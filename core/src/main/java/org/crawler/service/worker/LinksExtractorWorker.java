@@ -1,17 +1,16 @@
 package org.crawler.service.worker;
 
-import java.net.URI;
-import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.crawler.common.URLPredicate;
 import org.crawler.domain.Link;
 import org.crawler.domain.Page;
-import org.crawler.domain.exception.ParserException;
 import org.crawler.infrastructure.FetchedPagesQueue;
 import org.crawler.infrastructure.FrontierQueue;
 import org.crawler.infrastructure.VisitedUrlsSet;
-import org.jsoup.Jsoup;
+import org.crawler.service.CrawlCounters;
+import org.crawler.service.RecrawlCache;
+import org.crawler.service.RobotsChecker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,56 +19,59 @@ public class LinksExtractorWorker extends AbstractStoppableWorker implements Lin
 
   private final FrontierQueue frontierQueue;
   private final FetchedPagesQueue fetchedPagesQueue;
-  private final URLPredicate urlPredicate;
-  private final VisitedUrlsSet visitedUrlsSet;
-  private final int maxDepth;
+  private final PrefetchBuffer<Page> pagesBuffer;
+  private final LinkExtractors linkExtractor;
+  private final RobotsChecker robotsChecker;
+  private final RecrawlCache recrawlCache;
+  private final CrawlCounters counters;
+  private final Backpressure frontierBackpressure;
 
   public LinksExtractorWorker(
       FrontierQueue frontierQueue,
       FetchedPagesQueue fetchedPagesQueue,
       VisitedUrlsSet visitedUrlsSet,
       URLPredicate urlPredicate,
-      int maxDepth) {
+      RobotsChecker robotsChecker,
+      int maxDepth,
+      int batchSize) {
+    this(
+        frontierQueue,
+        fetchedPagesQueue,
+        new JsoupLinkExtractor(urlPredicate, visitedUrlsSet, maxDepth),
+        robotsChecker,
+        RecrawlCache.disabled(),
+        new CrawlCounters(),
+        Backpressure.none(),
+        batchSize);
+  }
+
+  public LinksExtractorWorker(
+      FrontierQueue frontierQueue,
+      FetchedPagesQueue fetchedPagesQueue,
+      LinkExtractors linkExtractor,
+      RobotsChecker robotsChecker,
+      RecrawlCache recrawlCache,
+      CrawlCounters counters,
+      Backpressure frontierBackpressure,
+      int batchSize) {
     this.frontierQueue = frontierQueue;
     this.fetchedPagesQueue = fetchedPagesQueue;
-    this.urlPredicate = urlPredicate;
-    this.visitedUrlsSet = visitedUrlsSet;
-    this.maxDepth = maxDepth;
+    this.linkExtractor = linkExtractor;
+    this.robotsChecker = robotsChecker;
+    this.recrawlCache = recrawlCache;
+    this.counters = counters;
+    this.frontierBackpressure = frontierBackpressure;
+    this.pagesBuffer = new PrefetchBuffer<>(fetchedPagesQueue, batchSize);
   }
 
   @Override
   public Set<Link> extractLinks(Page page) {
-    Set<Link> links;
-
-    try {
-      if (page.link().depth() >= maxDepth) {
-        links = Set.of();
-      } else {
-        String baseUrl = page.link().uri().toString().toLowerCase().trim();
-
-        links =
-            Jsoup.parse(page.html(), baseUrl).select("a[href]").stream()
-                .map(elem -> elem.attr("abs:href"))
-                .map(String::trim)
-                .map(String::toLowerCase)
-                .filter(url -> !url.equals(baseUrl))
-                .filter(urlPredicate::isValid)
-                .filter(url -> !visitedUrlsSet.isPresent(url))
-                .map(LinksExtractorWorker::sanitizeUrl)
-                .flatMap(Optional::stream)
-                .map(uri -> new Link(uri, page.link().depth() + 1))
-                .collect(Collectors.toSet());
-      }
-    } catch (Exception e) {
-      throw new ParserException("Failed to extract links from url: " + page.link(), e);
-    }
-
-    return links;
+    return linkExtractor.extractLinks(page);
   }
 
   @Override
   protected void doWork() throws Exception {
-    var maybeElem = fetchedPagesQueue.pop();
+    var maybeElem = pagesBuffer.next();
 
     if (maybeElem.isPresent()) {
       Page page = maybeElem.get();
@@ -83,6 +85,11 @@ public class LinksExtractorWorker extends AbstractStoppableWorker implements Lin
     }
   }
 
+  @Override
+  protected void onStop() {
+    pagesBuffer.returnUnprocessed();
+  }
+
   @Override
   protected Logger getLogger() {
     return logger;
@@ -90,24 +97,29 @@ public class LinksExtractorWorker extends AbstractStoppableWorker implements Lin
 
   protected void process(Page page) {
     Set<Link> links;
+    long startedAt = System.nanoTime();
 
     try {
       links = extractLinks(page);
+      WorkerMetrics.PARSE_LATENCY.recordSince(startedAt);
 
       logger.debug("Extracted the following links {}", linksToJson(links));
 
-      links.forEach(frontierQueue::push);
+      // Warm the robots cache so fetchers find the rules of new hosts ready
+      links.forEach(link -> robotsChecker.prefetch(link.uri()));
+      frontierBackpressure.awaitRoom();
+      frontierQueue.pushAll(links);
+      recrawlCache.recordOutlinks(page.link(), links);
+
+      counters.increment(CrawlCounters.Counter.PAGES_EXTRACTED);
+      WorkerMetrics.PAGES_EXTRACTED.mark();
+      counters.add(
+          CrawlCounters.Counter.EXTRACT_MICROS, (System.nanoTime() - startedAt) / 1000);
+      counters.add(CrawlCounters.Counter.LINKS_QUEUED, links.size());
     } catch (Exception e) {
       logger.error("Failed to extract links from {}", page.link(), e);
-    }
-  }
-
-  private static Optional<URI> sanitizeUrl(String url) {
-    try {
-      var uri = URI.create(url);
-      return Optional.of(new URI(uri.getScheme(), uri.getAuthority(), uri.getPath(), null, null));
-    } catch (Exception e) {
-      return Optional.empty();
+    } finally {
+      fetchedPagesQueue.ack(page);
     }
   }
 
@@ -0,0 +1,82 @@
+package org.crawler.service.worker;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.crawler.common.URLPredicate;
+import org.crawler.common.UrlCanonicalizer;
+import org.crawler.domain.Link;
+import org.crawler.infrastructure.VisitedUrlsSet;
+
+/**
+ * Turns the absolute hrefs found on a page into the links worth adding to the frontier. Links keep
+ * their normalized URL, the one fetched, while their canonical URL is their key in the visited set
+ * and merges the hrefs of a page that lead to the same key.
+ */
+class OutlinkFilter {
+  private final URLPredicate urlPredicate;
+  private final UrlCanonicalizer urlCanonicalizer;
+  private final VisitedUrlsSet visitedUrlsSet;
+  private final int maxDepth;
+
+  OutlinkFilter(
+      URLPredicate urlPredicate,
+      UrlCanonicalizer urlCanonicalizer,
+      VisitedUrlsSet visitedUrlsSet,
+      int maxDepth) {
+    this.urlPredicate = urlPredicate;
+    this.urlCanonicalizer = urlCanonicalizer;
+    this.visitedUrlsSet = visitedUrlsSet;
+    this.maxDepth = maxDepth;
+  }
+
+  boolean shouldExtract(Link link) {
+    return link.depth() < maxDepth;
+  }
+
+  /**
+   * Whether the links of a page declaring {@code <link rel=canonical>} still have to be extracted.
+   * They do not when its canonical URL was crawled already, as the same page under another URL.
+   * Otherwise that URL is marked visited, so it is not fetched again once this copy is crawled.
+   */
+  boolean acceptCanonical(Link source, String canonicalUrl) {
+    if (canonicalUrl == null
+        || canonicalUrl.isEmpty()
+        || !urlCanonicalizer.honorsRelCanonical()
+        || !urlPredicate.isValid(canonicalUrl)) {
+      return true;
+    }
+
+    Optional<URI> canonical = urlCanonicalizer.canonicalize(canonicalUrl);
+    if (canonical.isEmpty() || canonical.get().toString().equals(urlCanonicalizer.key(source))) {
+      return true;
+    }
+
+    return visitedUrlsSet.addIfNotPresent(canonical.get().toString());
+  }
+
+  Set<Link> toLinks(Link source, Stream<String> absoluteUrls) {
+    String sourceKey = urlCanonicalizer.key(source);
+    Map<String, Link> linksByKey = new HashMap<>();
+
+    absoluteUrls
+        .map(String::trim)
+        .filter(urlPredicate::isValid)
+        .map(urlCanonicalizer::normalize)
+        .flatMap(Optional::stream)
+        .forEach(
+            uri -> {
+              String key = urlCanonicalizer.key(uri);
+              if (!key.equals(sourceKey)) {
+                linksByKey.putIfAbsent(key, new Link(uri, source.depth() + 1));
+              }
+            });
+
+    linksByKey.keySet().removeIf(visitedUrlsSet::isPresent);
+    return new HashSet<>(linksByKey.values());
+  }
+}
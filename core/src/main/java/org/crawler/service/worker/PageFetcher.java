@@ -1,8 +1,27 @@
 package org.crawler.service.worker;
 
+import java.util.concurrent.CompletableFuture;
 import org.crawler.domain.Link;
 import org.crawler.domain.Page;
+import org.crawler.domain.PageValidators;
 
 public interface PageFetcher {
   Page fetchPage(Link link);
+
+  /** Engines without non-blocking IO complete the future on the calling thread. */
+  default CompletableFuture<Page> fetchPageAsync(Link link) {
+    try {
+      return CompletableFuture.completedFuture(fetchPage(link));
+    } catch (Exception e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  /**
+   * Fetches the page unless it is unchanged since {@code validators}, which may be null. Engines
+   * that cannot send conditional requests always fetch the whole page.
+   */
+  default CompletableFuture<FetchResult> fetchPageAsync(Link link, PageValidators validators) {
+    return fetchPageAsync(link).thenApply(page -> new FetchResult(page, null, null));
+  }
 }
@@ -1,56 +1,107 @@
 package org.crawler.service.worker;
 
-import java.util.Objects;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.crawler.common.UrlCanonicalizer;
 import org.crawler.domain.Link;
 import org.crawler.domain.Page;
-import org.crawler.domain.exception.ConnectionException;
+import org.crawler.domain.PageValidators;
 import org.crawler.infrastructure.FetchedPagesQueue;
 import org.crawler.infrastructure.FrontierQueue;
 import org.crawler.infrastructure.VisitedUrlsSet;
+import org.crawler.service.CrawlCounters;
+import org.crawler.service.RecrawlCache;
 import org.crawler.service.RobotsChecker;
-import org.jsoup.Jsoup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Pops links and fetches them through a {@link PageFetcher} engine. With an asynchronous engine up
+ * to {@code maxInFlight} fetches run concurrently, their pages are pushed as they complete. Pages
+ * that the {@link RecrawlCache} finds unchanged are not pushed, their previous outlinks are.
+ */
 public class PageFetcherWorker extends AbstractStoppableWorker implements PageFetcher {
   private static final Logger logger = LoggerFactory.getLogger(PageFetcherWorker.class);
 
+  private static final long DRAIN_TIMEOUT_SECONDS = 30;
+
   private final FrontierQueue frontierQueue;
   private final FetchedPagesQueue fetchedPagesQueue;
   private final VisitedUrlsSet visitedUrlsSet;
+  private final UrlCanonicalizer urlCanonicalizer;
+  private final PrefetchBuffer<Link> frontierBuffer;
 
   private final RobotsChecker robotsChecker;
+  private final PageFetcher pageFetcher;
+  private final RecrawlCache recrawlCache;
+  private final CrawlCounters counters;
+  private final Backpressure parsingBackpressure;
+  private final Backpressure frontierBackpressure;
+  private final int maxInFlight;
+  private final Semaphore inFlight;
+
+  public PageFetcherWorker(
+      FrontierQueue frontierQueue,
+      FetchedPagesQueue fetchedPagesQueue,
+      VisitedUrlsSet visitedUrlsSet,
+      RobotsChecker robotsChecker,
+      int batchSize) {
+    this(
+        frontierQueue,
+        fetchedPagesQueue,
+        visitedUrlsSet,
+        new UrlCanonicalizer(UrlCanonicalizer.defaultConfig()),
+        robotsChecker,
+        new JsoupPageFetcher(),
+        RecrawlCache.disabled(),
+        new CrawlCounters(),
+        Backpressure.none(),
+        Backpressure.none(),
+        1,
+        batchSize);
+  }
 
   public PageFetcherWorker(
       FrontierQueue frontierQueue,
       FetchedPagesQueue fetchedPagesQueue,
       VisitedUrlsSet visitedUrlsSet,
-      RobotsChecker robotsChecker) {
+      UrlCanonicalizer urlCanonicalizer,
+      RobotsChecker robotsChecker,
+      PageFetcher pageFetcher,
+      RecrawlCache recrawlCache,
+      CrawlCounters counters,
+      Backpressure parsingBackpressure,
+      Backpressure frontierBackpressure,
+      int maxInFlight,
+      int batchSize) {
     this.frontierQueue = frontierQueue;
     this.fetchedPagesQueue = fetchedPagesQueue;
     this.visitedUrlsSet = visitedUrlsSet;
+    this.urlCanonicalizer = urlCanonicalizer;
     this.robotsChecker = robotsChecker;
+    this.pageFetcher = pageFetcher;
+    this.recrawlCache = recrawlCache;
+    this.counters = counters;
+    this.parsingBackpressure = parsingBackpressure;
+    this.frontierBackpressure = frontierBackpressure;
+    this.maxInFlight = maxInFlight;
+    this.inFlight = new Semaphore(maxInFlight);
+    this.frontierBuffer = new PrefetchBuffer<>(frontierQueue, batchSize);
   }
 
   @Override
   public Page fetchPage(Link link) {
-    Objects.requireNonNull(link);
-
-    String html;
-
-    try {
-      html = Jsoup.connect(link.uri().toString()).get().html();
-
-    } catch (Exception e) {
-      throw new ConnectionException("Failed to connect to URL: " + link, e);
-    }
-
-    return new Page(link, html);
+    return pageFetcher.fetchPage(link);
   }
 
   @Override
   protected void doWork() throws Exception {
-    var maybeElem = frontierQueue.pop();
+    var maybeElem = frontierBuffer.next();
 
     if (maybeElem.isPresent()) {
       Link link = maybeElem.get();
@@ -62,6 +113,19 @@ public class PageFetcherWorker extends AbstractStoppableWorker implements PageFe
     }
   }
 
+  @Override
+  protected void onStop() {
+    frontierBuffer.returnUnprocessed();
+
+    try {
+      if (!inFlight.tryAcquire(maxInFlight, DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        logger.warn("Gave up waiting for in-flight fetches to complete");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
   @Override
   protected Logger getLogger() {
     return logger;
@@ -69,16 +133,103 @@ public class PageFetcherWorker extends AbstractStoppableWorker implements PageFe
 
   protected void process(Link link) {
     try {
-      boolean wasAdded = visitedUrlsSet.addIfNotPresent(link.uri().toString());
+      // Waits while the parsing queue drains and then for a fetch slot, both before marking the
+      // link visited so that an interrupt here never loses a link
+      parsingBackpressure.awaitRoom();
+      inFlight.acquire();
+    } catch (InterruptedException e) {
+      frontierQueue.push(link);
+      ack(link);
+      Thread.currentThread().interrupt();
+      return;
+    }
+
+    boolean started = false;
+
+    try {
+      // A redelivered link was marked visited by the fetcher that never acked it
+      boolean wasAdded =
+          visitedUrlsSet.addIfNotPresent(urlCanonicalizer.key(link))
+              || frontierQueue.isRedelivery(link);
 
       if (wasAdded && robotsChecker.isUrlAllowed(link.uri())) {
         logger.debug("Processing link {}", link);
 
-        Page page = fetchPage(link);
-        fetchedPagesQueue.push(page);
+        Optional<PageValidators> stored = recrawlCache.lookup(link);
+        long startedAt = System.nanoTime();
+        CompletableFuture<FetchResult> fetch =
+            pageFetcher.fetchPageAsync(link, recrawlCache.conditionalValidators(link, stored));
+        started = true;
+        fetch.whenComplete((result, error) -> onFetched(link, stored, startedAt, result, error));
       }
     } catch (Exception e) {
       logger.error("Failed to fetch page from {}", link, e);
+    } finally {
+      if (!started) {
+        inFlight.release();
+        ack(link);
+      }
+    }
+  }
+
+  private void onFetched(
+      Link link,
+      Optional<PageValidators> stored,
+      long startedAt,
+      FetchResult result,
+      Throwable error) {
+    try {
+      Duration latency = Duration.ofNanos(System.nanoTime() - startedAt);
+      counters.add(CrawlCounters.Counter.FETCH_MICROS, latency.toNanos() / 1000);
+      WorkerMetrics.FETCH_LATENCY.record(latency.toNanos() / 1000);
+      recordFetch(link, latency);
+
+      if (error != null) {
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        logger.error("Failed to fetch page from {}", link, cause);
+        counters.increment(CrawlCounters.Counter.FETCH_FAILURES);
+        WorkerMetrics.fetchFailed(link.uri());
+        return;
+      }
+
+      counters.increment(CrawlCounters.Counter.PAGES_FETCHED);
+      WorkerMetrics.PAGES_FETCHED.mark();
+      if (!result.isNotModified() && result.page().html() != null) {
+        WorkerMetrics.BYTES_FETCHED.mark(result.page().html().length());
+      }
+      Optional<Set<Link>> reusedOutlinks = recrawlCache.onFetched(link, stored, result);
+
+      if (reusedOutlinks.isEmpty()) {
+        fetchedPagesQueue.push(result.page());
+      } else if (!reusedOutlinks.get().isEmpty()) {
+        logger.debug("Page {} unchanged, reusing its outlinks", link);
+        // Holds the fetch slot while the frontier drains, which throttles this worker too
+        frontierBackpressure.awaitRoom();
+        frontierQueue.pushAll(reusedOutlinks.get());
+        counters.add(CrawlCounters.Counter.LINKS_QUEUED, reusedOutlinks.get().size());
+      }
+    } catch (Exception e) {
+      logger.error("Failed to fetch page from {}", link, e);
+    } finally {
+      inFlight.release();
+      ack(link);
+    }
+  }
+
+  // Politeness bookkeeping only, a failure here must not lose the fetched page
+  private void recordFetch(Link link, Duration latency) {
+    try {
+      frontierQueue.recordFetch(link, latency, robotsChecker.crawlDelay(link.uri()));
+    } catch (Exception e) {
+      logger.warn("Failed to record the fetch of {}", link, e);
+    }
+  }
+
+  private void ack(Link link) {
+    try {
+      frontierQueue.ack(link);
+    } catch (Exception e) {
+      logger.error("Failed to ack link {}", link, e);
     }
   }
 }
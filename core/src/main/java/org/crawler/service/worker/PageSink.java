@@ -0,0 +1,8 @@
+package org.crawler.service.worker;
+
+import org.crawler.domain.Page;
+
+/** Receives the body of every page crawled in fused mode, where pages never reach a queue. */
+public interface PageSink {
+  void accept(Page page);
+}
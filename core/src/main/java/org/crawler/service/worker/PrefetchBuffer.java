@@ -0,0 +1,42 @@
+package org.crawler.service.worker;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Optional;
+import org.crawler.infrastructure.Queue;
+
+/** Worker-local buffer refilled from a shared queue in batches, one round trip per refill. */
+class PrefetchBuffer<T> {
+  private final Queue<T> queue;
+  private final int batchSize;
+  private final ArrayDeque<T> buffer;
+
+  PrefetchBuffer(Queue<T> queue, int batchSize) {
+    this.queue = queue;
+    this.batchSize = batchSize;
+    this.buffer = new ArrayDeque<>(batchSize);
+  }
+
+  Optional<T> next() {
+    if (buffer.isEmpty()) {
+      if (batchSize == 1) {
+        return queue.pop();
+      }
+
+      buffer.addAll(queue.popBatch(batchSize));
+    }
+
+    return Optional.ofNullable(buffer.poll());
+  }
+
+  /** Hands the items that were never processed back to the shared queue. */
+  void returnUnprocessed() {
+    if (!buffer.isEmpty()) {
+      List<T> unprocessed = List.copyOf(buffer);
+      queue.pushAll(unprocessed);
+      // Pushed back as new items, so their leases are done with
+      unprocessed.forEach(queue::ack);
+      buffer.clear();
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package org.crawler.service.worker;
+
+import java.util.Set;
+import org.crawler.common.URLPredicate;
+import org.crawler.common.UrlCanonicalizer;
+import org.crawler.domain.Link;
+import org.crawler.domain.Page;
+import org.crawler.domain.exception.ParserException;
+import org.crawler.infrastructure.VisitedUrlsSet;
+import org.jsoup.internal.StringUtil;
+
+/**
+ * Link extractor that scans the raw HTML for anchors instead of building a Jsoup document. It
+ * returns the same links as {@link JsoupLinkExtractor}, including the handling of {@code <base
+ * href>} and {@code <link rel=canonical>}, while allocating only the href strings.
+ */
+public class StreamingLinkExtractor implements LinkExtractors {
+  private final OutlinkFilter outlinkFilter;
+
+  public StreamingLinkExtractor(
+      URLPredicate urlPredicate, VisitedUrlsSet visitedUrlsSet, int maxDepth) {
+    this(
+        urlPredicate,
+        new UrlCanonicalizer(UrlCanonicalizer.defaultConfig()),
+        visitedUrlsSet,
+        maxDepth);
+  }
+
+  public StreamingLinkExtractor(
+      URLPredicate urlPredicate,
+      UrlCanonicalizer urlCanonicalizer,
+      VisitedUrlsSet visitedUrlsSet,
+      int maxDepth) {
+    this.outlinkFilter =
+        new OutlinkFilter(urlPredicate, urlCanonicalizer, visitedUrlsSet, maxDepth);
+  }
+
+  @Override
+  public boolean shouldExtract(Link link) {
+    return outlinkFilter.shouldExtract(link);
+  }
+
+  @Override
+  public Set<Link> extractLinks(Page page) {
+    if (!shouldExtract(page.link())) {
+      return Set.of();
+    }
+
+    try {
+      HrefScanner.Result result = HrefScanner.scan(page.html());
+      String baseUrl = baseUrl(page.link().uri().toString(), result.baseHref());
+
+      if (result.canonicalHref() != null
+          && !outlinkFilter.acceptCanonical(
+              page.link(), StringUtil.resolve(baseUrl, result.canonicalHref()))) {
+        return Set.of();
+      }
+
+      return outlinkFilter.toLinks(
+          page.link(),
+          result.anchorHrefs().stream().map(href -> StringUtil.resolve(baseUrl, href)));
+    } catch (Exception e) {
+      throw new ParserException("Failed to extract links from url: " + page.link(), e);
+    }
+  }
+
+  /** Jsoup rebases the document on the first {@code <base>} whose href resolves. */
+  private static String baseUrl(String pageUrl, String baseHref) {
+    if (baseHref == null) {
+      return pageUrl;
+    }
+
+    String resolved = StringUtil.resolve(pageUrl, baseHref);
+    return resolved.isEmpty() ? pageUrl : resolved;
+  }
+}
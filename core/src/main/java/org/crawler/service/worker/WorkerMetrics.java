@@ -0,0 +1,25 @@
+package org.crawler.service.worker;
+
+import java.net.URI;
+import org.crawler.metrics.Histogram;
+import org.crawler.metrics.Meter;
+import org.crawler.metrics.MetricsRegistry;
+
+/** Crawl metrics shared by the fetch and extract workers, on the global registry. */
+final class WorkerMetrics {
+  private static final MetricsRegistry registry = MetricsRegistry.global();
+
+  static final Meter PAGES_FETCHED = registry.meter("pages_fetched");
+  // Length of the decoded body, which matches the transferred bytes for ASCII pages
+  static final Meter BYTES_FETCHED = registry.meter("bytes_fetched");
+  static final Meter PAGES_EXTRACTED = registry.meter("pages_extracted");
+  static final Histogram FETCH_LATENCY = registry.histogram("fetch_latency_micros");
+  static final Histogram PARSE_LATENCY = registry.histogram("parse_latency_micros");
+
+  private WorkerMetrics() {}
+
+  static void fetchFailed(URI uri) {
+    String host = uri.getHost() != null ? uri.getHost() : "unknown";
+    registry.counter("fetch_errors_total", "host", host).increment();
+  }
+}
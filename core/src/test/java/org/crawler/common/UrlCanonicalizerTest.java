@@ -0,0 +1,134 @@
+package org.crawler.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.crawler.domain.Link;
+import org.crawler.domain.config.CanonicalizerConfig;
+import org.junit.jupiter.api.Test;
+
+class UrlCanonicalizerTest {
+  private final UrlCanonicalizer canonicalizer =
+      new UrlCanonicalizer(UrlCanonicalizer.defaultConfig());
+
+  @Test
+  void canonicalize_shouldMergeEquivalentUrls() {
+    // Given
+    List<String> aliases =
+        List.of(
+            "https://example.com/docs",
+            "HTTPS://Example.COM/docs",
+            "https://example.com:443/docs",
+            "https://www.example.com/docs/",
+            "https://example.com/docs/index.html",
+            "https://example.com/a/../docs/./",
+            "https://example.com/%64ocs",
+            "https://user@example.com/docs#intro",
+            "https://example.com./docs");
+
+    // When / Then
+    for (String alias : aliases) {
+      assertEquals(Optional.of(URI.create("https://example.com/docs")), canonical(alias), alias);
+    }
+  }
+
+  @Test
+  void canonicalize_shouldKeepPathCase() {
+    assertEquals(
+        "https://example.com/Docs/README",
+        canonical("https://example.com/Docs/README").get().toString());
+  }
+
+  @Test
+  void canonicalize_shouldNormalizeEmptyPathAndPort() {
+    assertEquals("https://example.com/", canonical("https://example.com").get().toString());
+    assertEquals("http://example.com:8080/", canonical("http://example.com:8080").get().toString());
+    assertEquals("https://example.com:80/", canonical("https://example.com:80/").get().toString());
+  }
+
+  @Test
+  void canonicalize_shouldNormalizePercentEncoding() {
+    assertEquals(
+        "https://example.com/caf%C3%A9/a%2Fb/~x",
+        canonical("https://example.com/café/a%2fb/%7Ex").get().toString());
+    assertEquals(
+        "https://example.com/100%25/with%20space",
+        canonical("https://example.com/100%/with space").get().toString());
+  }
+
+  @Test
+  void canonicalize_shouldStripTrackingParamsAndSortTheRest() {
+    assertEquals(
+        "https://example.com/list?a=1&page=2",
+        canonical("https://example.com/list?utm_source=x&page=2&gclid=y&a=1&UTM_Medium=z")
+            .get()
+            .toString());
+    assertEquals(
+        "https://example.com/cart",
+        canonical("https://example.com/cart;jsessionid=ABC?PHPSESSID=1").get().toString());
+  }
+
+  @Test
+  void canonicalize_shouldKeepOnlyAllowedParamsPerHost() {
+    // Given
+    var canonicalizer =
+        new UrlCanonicalizer(
+            new CanonicalizerConfig(
+                false, false, List.of(), List.of(), Map.of("shop.com", List.of("sku")), true));
+
+    // When / Then
+    assertEquals(
+        "https://eu.shop.com/item?sku=42",
+        canonicalizer.canonicalize("https://eu.shop.com/item?ref=home&sku=42").get().toString());
+    assertEquals(
+        "https://other.com/item?ref=home",
+        canonicalizer.canonicalize("https://other.com/item?ref=home").get().toString());
+    assertEquals(
+        "https://www.shop.com/item/",
+        canonicalizer.canonicalize("https://www.shop.com/item/?ref=home").get().toString());
+  }
+
+  @Test
+  void canonicalize_shouldRejectUncrawlableUrls() {
+    assertTrue(canonical("mailto:someone@example.com").isEmpty());
+    assertTrue(canonical("ftp://example.com/file").isEmpty());
+    assertTrue(canonical("/relative").isEmpty());
+    assertTrue(canonical("https:///no-host").isEmpty());
+  }
+
+  @Test
+  void normalize_shouldOnlyApplyRfcNormalizations() {
+    assertEquals(
+        "https://www.example.com/Docs/index.html?utm_source=x&id=%C3%A9",
+        canonicalizer
+            .normalize("HTTPS://WWW.Example.COM:443/a/../Docs/./index.html?utm_source=x&id=é#top")
+            .get()
+            .toString());
+    assertEquals(
+        "https://example.com/dir/",
+        canonicalizer.normalize("https://example.com/dir/").get().toString());
+    assertTrue(canonicalizer.normalize("mailto:someone@example.com").isEmpty());
+  }
+
+  @Test
+  void key_shouldBeTheCanonicalUrl_whileTheLinkKeepsItsNormalizedUrl() {
+    // Given
+    var link = new Link(URI.create("https://www.example.com/docs/?utm_source=x"), 1);
+
+    // When
+    Link normalized = canonicalizer.normalize(link);
+    String key = canonicalizer.key(link);
+
+    // Then
+    assertEquals(link, normalized);
+    assertEquals("https://example.com/docs", key);
+    assertEquals("ftp://example.com/file", canonicalizer.key(URI.create("ftp://example.com/file")));
+  }
+
+  private Optional<URI> canonical(String url) {
+    return canonicalizer.canonicalize(url);
+  }
+}
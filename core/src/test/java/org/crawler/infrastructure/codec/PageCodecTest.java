@@ -0,0 +1,130 @@
+package org.crawler.infrastructure.codec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import org.crawler.domain.Link;
+import org.crawler.domain.Page;
+import org.crawler.domain.config.CodecFormat;
+import org.crawler.domain.config.CompressionType;
+import org.crawler.domain.exception.ParserException;
+import org.crawler.fixture.LinkFixture;
+import org.junit.jupiter.api.Test;
+
+class PageCodecTest {
+  private static final String HTML =
+      """
+      <html><body>
+      <a href="https://example.com/page1">Ünïcode &amp; "quotes"</a>
+      </body></html>""";
+
+  @Test
+  void binary_shouldRoundTripPage() {
+    // Given
+    var codec = new PageCodec(CodecFormat.BINARY);
+    Page page = new Page(LinkFixture.deepLink(300), HTML);
+
+    // When
+    byte[] encoded = codec.encode(page);
+
+    // Then
+    assertEquals(page, codec.decode(encoded));
+    assertTrue(encoded.length < page.toJson().getBytes(StandardCharsets.UTF_8).length);
+  }
+
+  @Test
+  void binary_shouldRoundTripLink() {
+    // Given
+    var codec = new LinkCodec(CodecFormat.BINARY);
+    Link link = LinkFixture.deepLink(2);
+
+    // When
+    Link decoded = codec.decode(codec.encode(link));
+
+    // Then
+    assertEquals(link, decoded);
+  }
+
+  @Test
+  void decode_shouldAcceptJsonPayloads() {
+    // Given
+    Page page = new Page(LinkFixture.sampleLink(), HTML);
+    byte[] json = new PageCodec(CodecFormat.JSON).encode(page);
+
+    // When
+    Page decoded = new PageCodec(CodecFormat.BINARY).decode(json);
+
+    // Then
+    assertEquals(page, decoded);
+  }
+
+  @Test
+  void decode_shouldRejectTruncatedPayload() {
+    // Given
+    var codec = new PageCodec(CodecFormat.BINARY);
+    byte[] encoded = codec.encode(new Page(LinkFixture.sampleLink(), HTML));
+    byte[] truncated = Arrays.copyOf(encoded, encoded.length - 5);
+
+    // Then
+    assertThrows(ParserException.class, () -> codec.decode(truncated));
+  }
+
+  @Test
+  void compressed_shouldRoundTripPageWithEveryCompressor() {
+    for (CompressionType type : List.of(CompressionType.DEFLATE, CompressionType.LZ4)) {
+      // Given
+      var codec = new PageCodec(CodecFormat.BINARY, type, 64);
+      Page page = new Page(LinkFixture.sampleLink(), HTML.repeat(50));
+
+      // When
+      byte[] encoded = codec.encode(page);
+
+      // Then
+      assertEquals(PageCodec.BINARY_V2_COMPRESSED, encoded[0]);
+      assertEquals(page, new PageCodec(CodecFormat.BINARY).decode(encoded));
+      assertTrue(encoded.length < page.html().length() / 4);
+    }
+  }
+
+  @Test
+  void compressed_shouldKeepSmallBodiesUncompressed() {
+    // Given
+    var codec = new PageCodec(CodecFormat.BINARY, CompressionType.DEFLATE, 4096);
+    Page page = new Page(LinkFixture.sampleLink(), HTML);
+
+    // When
+    byte[] encoded = codec.encode(page);
+
+    // Then
+    assertEquals(PageCodec.BINARY_V1, encoded[0]);
+    assertEquals(page, codec.decode(encoded));
+  }
+
+  @Test
+  void decompress_shouldRejectOriginalLengthAboveTheLimit() {
+    for (Compressor compressor : List.of(new DeflateCompressor(), new Lz4Compressor())) {
+      // Given
+      byte[] compressed = compressor.compress(HTML.getBytes(StandardCharsets.UTF_8));
+
+      // Then
+      assertThrows(
+          ParserException.class,
+          () -> compressor.decompress(compressed, Compressor.MAX_ORIGINAL_LENGTH + 1));
+      assertThrows(ParserException.class, () -> compressor.decompress(compressed, -1));
+    }
+  }
+
+  @Test
+  void decompress_shouldRejectLz4PayloadShorterThanItsOriginalLength() {
+    // Given
+    var compressor = new Lz4Compressor();
+    byte[] data = HTML.getBytes(StandardCharsets.UTF_8);
+    byte[] compressed = compressor.compress(data);
+
+    // Then
+    assertThrows(
+        ParserException.class, () -> compressor.decompress(compressed, data.length + 100));
+  }
+}
@@ -0,0 +1,84 @@
+package org.crawler.infrastructure.disk;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DiskVisitedUrlsSetTest {
+  @TempDir Path directory;
+
+  @Test
+  void addIfNotPresent_shouldAddEachUrlOnce() {
+    // Given
+    var visitedUrlsSet = new DiskVisitedUrlsSet(directory, 1024, 100);
+
+    // When
+    boolean first = visitedUrlsSet.addIfNotPresent("https://example.com/page");
+    boolean second = visitedUrlsSet.addIfNotPresent("https://example.com/page");
+
+    // Then
+    assertTrue(first);
+    assertFalse(second);
+    assertTrue(visitedUrlsSet.isPresent("https://example.com/page"));
+    assertFalse(visitedUrlsSet.isPresent("https://example.com/other"));
+    visitedUrlsSet.close();
+  }
+
+  @Test
+  void reopen_shouldKeepUrlsAddedBeyondInitialCapacity() {
+    // Given
+    var visitedUrlsSet = new DiskVisitedUrlsSet(directory, 0, 1000);
+    for (int i = 0; i < 20_000; i++) {
+      visitedUrlsSet.addIfNotPresent("https://example.com/" + i);
+    }
+    visitedUrlsSet.close();
+
+    // When
+    var reopened = new DiskVisitedUrlsSet(directory, 0, 1000);
+
+    // Then
+    assertEquals(20_000, reopened.size());
+    assertTrue(reopened.isPresent("https://example.com/0"));
+    assertTrue(reopened.isPresent("https://example.com/19999"));
+    assertFalse(reopened.addIfNotPresent("https://example.com/42"));
+    assertFalse(reopened.isPresent("https://example.com/20000"));
+    reopened.close();
+  }
+
+  @Test
+  void reopen_shouldRecountAfterUncleanShutdown() {
+    // Given
+    var crashed = new DiskVisitedUrlsSet(directory, 1024, 1_000_000);
+    for (int i = 0; i < 500; i++) {
+      crashed.addIfNotPresent("https://example.com/" + i);
+    }
+    crashed.sync();
+
+    // When
+    var reopened = new DiskVisitedUrlsSet(directory, 1024, 1_000_000);
+
+    // Then
+    assertEquals(500, reopened.size());
+    assertTrue(reopened.isPresent("https://example.com/499"));
+    reopened.close();
+  }
+
+  @Test
+  void clear_shouldForgetUrls() {
+    // Given
+    var visitedUrlsSet = new DiskVisitedUrlsSet(directory, 1024, 100);
+    visitedUrlsSet.addIfNotPresent("https://example.com/page");
+
+    // When
+    visitedUrlsSet.clear();
+    visitedUrlsSet.close();
+    var reopened = new DiskVisitedUrlsSet(directory, 1024, 100);
+
+    // Then
+    assertFalse(reopened.isPresent("https://example.com/page"));
+    assertEquals(0, reopened.size());
+    reopened.close();
+  }
+}
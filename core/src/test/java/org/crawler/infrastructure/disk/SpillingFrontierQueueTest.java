@@ -0,0 +1,123 @@
+package org.crawler.infrastructure.disk;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.crawler.domain.Link;
+import org.crawler.domain.config.CodecFormat;
+import org.crawler.infrastructure.codec.LinkCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SpillingFrontierQueueTest {
+  @TempDir Path directory;
+
+  @Test
+  void pop_shouldKeepFifoOrderAcrossSpilledSegments() throws IOException {
+    // Given
+    SpillingFrontierQueue queue = newQueue(4, 256);
+    List<Link> links = links(100);
+    queue.push(links.getFirst());
+    queue.pushAll(links.subList(1, links.size()));
+
+    // When
+    long spilled = queue.spilled();
+    long segmentFiles = segmentFiles();
+    List<Link> popped = new ArrayList<>();
+    List<Link> batch;
+    while (!(batch = queue.popBatch(7)).isEmpty()) {
+      popped.addAll(batch);
+    }
+
+    // Then
+    assertEquals(96, spilled);
+    assertTrue(segmentFiles > 1);
+    assertEquals(links, popped);
+    assertEquals(0, queue.size());
+    assertEquals(0, segmentFiles());
+  }
+
+  @Test
+  void push_shouldSpillWhileEarlierLinksAreOnDisk() {
+    // Given
+    SpillingFrontierQueue queue = newQueue(2, 1024);
+    List<Link> links = links(5);
+    queue.pushAll(links.subList(0, 4));
+
+    // When
+    Optional<Link> first = queue.pop();
+    queue.push(links.get(4));
+
+    // Then
+    assertEquals(Optional.of(links.get(0)), first);
+    assertEquals(links.subList(1, 5), queue.popBatch(10));
+  }
+
+  @Test
+  void pop_shouldReturnEmptyAfterPollTimeout() {
+    // Given
+    SpillingFrontierQueue queue = newQueue(2, 1024);
+
+    // Then
+    assertTrue(queue.pop().isEmpty());
+    assertTrue(queue.popBatch(5).isEmpty());
+  }
+
+  @Test
+  void clear_shouldDeleteSegments() throws IOException {
+    // Given
+    SpillingFrontierQueue queue = newQueue(1, 128);
+    queue.pushAll(links(20));
+
+    // When
+    queue.clear();
+
+    // Then
+    assertEquals(0, queue.size());
+    assertEquals(0, segmentFiles());
+    assertTrue(queue.pop().isEmpty());
+  }
+
+  @Test
+  void constructor_shouldDiscardLeftoverSegments() throws IOException {
+    // Given
+    newQueue(1, 128).pushAll(links(20));
+
+    // When
+    SpillingFrontierQueue queue = newQueue(1, 128);
+
+    // Then
+    assertEquals(0, segmentFiles());
+    assertEquals(0, queue.size());
+  }
+
+  private SpillingFrontierQueue newQueue(int hotCapacity, long segmentBytes) {
+    return new SpillingFrontierQueue(
+        directory,
+        hotCapacity,
+        segmentBytes,
+        Duration.ofMillis(10),
+        new LinkCodec(CodecFormat.BINARY));
+  }
+
+  private long segmentFiles() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(f -> f.toString().endsWith(SpillingFrontierQueue.SEGMENT_SUFFIX)).count();
+    }
+  }
+
+  private static List<Link> links(int count) {
+    return IntStream.range(0, count)
+        .mapToObj(i -> new Link(URI.create("https://example.com/page/" + i), i % 4))
+        .toList();
+  }
+}
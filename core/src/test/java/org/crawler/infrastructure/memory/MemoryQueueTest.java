@@ -0,0 +1,83 @@
+package org.crawler.infrastructure.memory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class MemoryQueueTest {
+  @Test
+  void popBatch_shouldReturnItemsInFifoOrder() {
+    // Given
+    var queue = new MemoryQueue<Integer>(100, Duration.ofSeconds(1), Duration.ofMillis(10));
+    queue.push(1);
+    queue.pushAll(List.of(2, 3, 4));
+
+    // When
+    List<Integer> batch = queue.popBatch(3);
+
+    // Then
+    assertEquals(List.of(1, 2, 3), batch);
+    assertEquals(Optional.of(4), queue.pop());
+    assertEquals(0, queue.size());
+  }
+
+  @Test
+  void pop_shouldGiveUpAfterPollTimeout() {
+    // Given
+    var queue = new MemoryQueue<Integer>(100, Duration.ofSeconds(1), Duration.ofMillis(20));
+
+    // When
+    long startedAt = System.nanoTime();
+    Optional<Integer> item = queue.pop();
+
+    // Then
+    assertTrue(item.isEmpty());
+    assertTrue(System.nanoTime() - startedAt >= Duration.ofMillis(20).toNanos());
+    assertTrue(queue.popBatch(10).isEmpty());
+  }
+
+  @Test
+  void push_shouldWaitForRoomWhenFull() throws Exception {
+    // Given
+    var queue = new MemoryQueue<Integer>(1, Duration.ofSeconds(5), Duration.ofMillis(10));
+    queue.push(1);
+    var pushed = new CountDownLatch(1);
+
+    try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+      // When
+      executor.execute(
+          () -> {
+            queue.push(2);
+            pushed.countDown();
+          });
+
+      // Then
+      assertFalse(pushed.await(50, TimeUnit.MILLISECONDS));
+      assertEquals(Optional.of(1), queue.pop());
+      assertTrue(pushed.await(1, TimeUnit.SECONDS));
+      assertEquals(Optional.of(2), queue.pop());
+      assertEquals(0, queue.overflows());
+    }
+  }
+
+  @Test
+  void push_shouldOverflowAfterMaxBlock() {
+    // Given
+    var queue = new MemoryQueue<Integer>(1, Duration.ofMillis(20), Duration.ofMillis(10));
+    queue.push(1);
+
+    // When
+    queue.push(2);
+
+    // Then
+    assertEquals(2, queue.size());
+    assertEquals(1, queue.overflows());
+  }
+}
@@ -0,0 +1,75 @@
+package org.crawler.infrastructure.memory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class MemoryVisitedUrlsSetTest {
+  @Test
+  void addIfNotPresent_shouldAddEachUrlOnce() {
+    // Given
+    var visitedUrlsSet = new MemoryVisitedUrlsSet(16);
+
+    // When
+    boolean first = visitedUrlsSet.addIfNotPresent("https://example.com/page");
+    boolean second = visitedUrlsSet.addIfNotPresent("https://example.com/page");
+
+    // Then
+    assertTrue(first);
+    assertFalse(second);
+    assertTrue(visitedUrlsSet.isPresent("https://example.com/page"));
+    assertFalse(visitedUrlsSet.isPresent("https://example.com/other"));
+  }
+
+  @Test
+  void addIfNotPresent_shouldGrowAndStayConsistentUnderContention() throws Exception {
+    // Given
+    var visitedUrlsSet = new MemoryVisitedUrlsSet(16);
+    var added = new AtomicInteger();
+    int urls = 50_000;
+    List<Future<?>> futures = new ArrayList<>();
+
+    // When
+    try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+      for (int thread = 0; thread < 4; thread++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < urls; i++) {
+                    if (visitedUrlsSet.addIfNotPresent("https://example.com/" + i)) {
+                      added.incrementAndGet();
+                    }
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    }
+
+    // Then
+    assertEquals(urls, added.get());
+    assertEquals(urls, visitedUrlsSet.size());
+    assertTrue(visitedUrlsSet.isPresent("https://example.com/" + (urls - 1)));
+  }
+
+  @Test
+  void clear_shouldForgetUrls() {
+    // Given
+    var visitedUrlsSet = new MemoryVisitedUrlsSet(16);
+    visitedUrlsSet.addIfNotPresent("https://example.com/page");
+
+    // When
+    visitedUrlsSet.clear();
+
+    // Then
+    assertFalse(visitedUrlsSet.isPresent("https://example.com/page"));
+    assertEquals(0, visitedUrlsSet.size());
+  }
+}
@@ -0,0 +1,118 @@
+package org.crawler.infrastructure.seen;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.crawler.common.UrlFingerprint;
+import org.crawler.domain.config.SeenFilterConfig;
+import org.crawler.infrastructure.VisitedUrlsSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LocalSeenFilterTest {
+  private CountingVisitedUrlsSet remote;
+  private LocalSeenFilter seenFilter;
+
+  @BeforeEach
+  void setUp() {
+    remote = new CountingVisitedUrlsSet();
+    seenFilter = new LocalSeenFilter(remote, new SeenFilterConfig(true, 10_000, 0.01, 1024));
+  }
+
+  @Test
+  void isPresent_shouldNotQueryRemoteForUnseenUrl() {
+    // When
+    boolean present = seenFilter.isPresent("https://example.com/page1");
+
+    // Then
+    assertFalse(present);
+    assertEquals(0, remote.isPresentCalls);
+    assertEquals(1, seenFilter.stats().bloomNegatives());
+  }
+
+  @Test
+  void isPresent_shouldAnswerLocallyForAddedUrl() {
+    // Given
+    seenFilter.addIfNotPresent("https://example.com/page1");
+
+    // When
+    boolean present = seenFilter.isPresent("https://example.com/page1");
+
+    // Then
+    assertTrue(present);
+    assertEquals(0, remote.isPresentCalls);
+    assertEquals(1, seenFilter.stats().recentHits());
+  }
+
+  @Test
+  void addIfNotPresent_shouldNotQueryRemoteForRecentUrl() {
+    // Given
+    assertTrue(seenFilter.addIfNotPresent("https://example.com/page1"));
+
+    // When
+    boolean added = seenFilter.addIfNotPresent("https://example.com/page1");
+
+    // Then
+    assertFalse(added);
+    assertEquals(1, remote.addCalls);
+  }
+
+  @Test
+  void clear_shouldForgetLocalState() {
+    // Given
+    seenFilter.addIfNotPresent("https://example.com/page1");
+
+    // When
+    seenFilter.clear();
+
+    // Then
+    assertFalse(seenFilter.isPresent("https://example.com/page1"));
+    assertTrue(remote.urls.isEmpty());
+  }
+
+  @Test
+  void bloomFilter_shouldHaveNoFalseNegativesAndBoundedFalsePositives() {
+    // Given
+    var bloomFilter = new BloomFilter(10_000, 0.01);
+    for (int i = 0; i < 10_000; i++) {
+      bloomFilter.put(UrlFingerprint.of("https://example.com/page" + i));
+    }
+
+    // When
+    int falsePositives = 0;
+    for (int i = 0; i < 10_000; i++) {
+      assertTrue(bloomFilter.mightContain(UrlFingerprint.of("https://example.com/page" + i)));
+      if (bloomFilter.mightContain(UrlFingerprint.of("https://other.com/page" + i))) {
+        falsePositives++;
+      }
+    }
+
+    // Then
+    assertTrue(falsePositives < 200, "false positives: " + falsePositives);
+    assertTrue(bloomFilter.estimatedFalsePositiveRate() < 0.02);
+  }
+
+  private static class CountingVisitedUrlsSet implements VisitedUrlsSet {
+    private final Set<String> urls = new HashSet<>();
+    private int addCalls;
+    private int isPresentCalls;
+
+    @Override
+    public void clear() {
+      urls.clear();
+    }
+
+    @Override
+    public boolean addIfNotPresent(String url) {
+      addCalls++;
+      return urls.add(url);
+    }
+
+    @Override
+    public boolean isPresent(String url) {
+      isPresentCalls++;
+      return urls.contains(url);
+    }
+  }
+}
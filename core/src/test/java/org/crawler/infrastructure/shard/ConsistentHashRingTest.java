@@ -0,0 +1,67 @@
+package org.crawler.infrastructure.shard;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ConsistentHashRingTest {
+
+  @Test
+  void shardOf_shouldAgreeForUrisAndUrlStrings() {
+    // Given
+    var ring = new ConsistentHashRing(List.of("a:6379", "b:6379", "c:6379"));
+
+    // Then
+    for (String url :
+        List.of(
+            "http://Example.com/a?b#c",
+            "https://example.com:8443/",
+            "http://user@example.org",
+            "http://127.0.0.1:9000/p/1")) {
+      assertEquals(ring.shardOf(URI.create(url)), ring.shardOf(url), url);
+    }
+    assertEquals(
+        ring.shardOf("http://example.com/a"), ring.shardOf("https://EXAMPLE.com/other/path"));
+  }
+
+  @Test
+  void shardOf_shouldNotDependOnTheOrderOfTheShards() {
+    // Given
+    var ring = new ConsistentHashRing(List.of("a:6379", "b:6379", "c:6379"));
+    var reordered = new ConsistentHashRing(List.of("c:6379", "a:6379", "b:6379"));
+    List<String> names = List.of("a", "b", "c");
+    List<String> reorderedNames = List.of("c", "a", "b");
+
+    // Then
+    for (int host = 0; host < 1000; host++) {
+      String url = "http://host" + host + ".com/";
+      assertEquals(names.get(ring.shardOf(url)), reorderedNames.get(reordered.shardOf(url)));
+    }
+  }
+
+  @Test
+  void shardOf_shouldSpreadHostsEvenly_andMoveFewWhenAShardIsAdded() {
+    // Given
+    var ring = new ConsistentHashRing(List.of("a:6379", "b:6379", "c:6379", "d:6379"));
+    var grown = new ConsistentHashRing(List.of("a:6379", "b:6379", "c:6379", "d:6379", "e:6379"));
+    int hosts = 20_000;
+    int[] perShard = new int[4];
+    int moved = 0;
+
+    // When
+    for (int host = 0; host < hosts; host++) {
+      String url = "http://host" + host + ".com/";
+      int shard = ring.shardOf(url);
+      perShard[shard]++;
+      moved += grown.shardOf(url) == shard ? 0 : 1;
+    }
+
+    // Then
+    for (int count : perShard) {
+      assertTrue(Math.abs(count - hosts / 4) < hosts / 4 * 0.2, "per shard: " + count);
+    }
+    assertTrue(moved < hosts / 5 * 1.3, "moved: " + moved);
+  }
+}
@@ -0,0 +1,99 @@
+package org.crawler.infrastructure.shard;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.crawler.infrastructure.memory.MemoryQueue;
+import org.junit.jupiter.api.Test;
+
+class ShardedQueueTest {
+  private final ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c"));
+
+  @Test
+  void pushAll_shouldPutEveryHostOnItsOwnShard() {
+    // Given
+    List<MemoryQueue<URI>> shards = shards();
+    var queue = new ShardedQueue<URI, MemoryQueue<URI>>(ring, shards, uri -> uri);
+    List<URI> uris = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      uris.add(URI.create("http://host" + i % 10 + ".com/" + i));
+    }
+
+    // When
+    queue.pushAll(uris);
+
+    // Then
+    assertEquals(100, queue.size());
+    for (int shard = 0; shard < shards.size(); shard++) {
+      for (URI uri : shards.get(shard).popBatch(100)) {
+        assertEquals(shard, ring.shardOf(uri));
+      }
+    }
+  }
+
+  @Test
+  void popBatch_shouldMoveToTheNextShard_onlyOnceTheCurrentOneIsEmpty() {
+    // Given
+    List<MemoryQueue<URI>> shards = shards();
+    var queue = new ShardedQueue<URI, MemoryQueue<URI>>(ring, shards, uri -> uri);
+    for (int i = 0; i < 30; i++) {
+      queue.push(URI.create("http://host" + i + ".com/"));
+    }
+
+    // When
+    List<URI> popped = new ArrayList<>();
+    for (int attempt = 0; attempt < 30 && popped.size() < 30; attempt++) {
+      popped.addAll(queue.popBatch(4));
+    }
+
+    // Then
+    int switches = 0;
+    for (int i = 1; i < popped.size(); i++) {
+      switches += ring.shardOf(popped.get(i)) == ring.shardOf(popped.get(i - 1)) ? 0 : 1;
+    }
+    assertEquals(30, popped.size());
+    assertEquals(2, switches);
+    assertEquals(0, queue.size());
+  }
+
+  @Test
+  void popBatch_shouldSkipEmptyShardsWithoutWaitingOutTheirTimeout() {
+    // Given
+    List<MemoryQueue<URI>> shards = new ArrayList<>();
+    for (int shard = 0; shard < 3; shard++) {
+      shards.add(new MemoryQueue<>(1000, Duration.ofSeconds(1), Duration.ofSeconds(1)));
+    }
+    var queue = new ShardedQueue<URI, MemoryQueue<URI>>(ring, shards, uri -> uri);
+    // On shard 2, the first thread starts on shard 0
+    URI uri = URI.create("http://host1.com/");
+    queue.push(uri);
+
+    // When
+    long startedAt = System.nanoTime();
+    List<URI> popped = queue.popBatch(4);
+    long tookMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+    // Then
+    assertEquals(List.of(uri), popped);
+    assertTrue(tookMillis < 500, "took " + tookMillis + " ms");
+    assertEquals(0, queue.size());
+  }
+
+  @Test
+  void constructor_shouldRejectAShardCountOtherThanTheRings() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new ShardedQueue<URI, MemoryQueue<URI>>(ring, shards().subList(0, 2), uri -> uri));
+  }
+
+  private static List<MemoryQueue<URI>> shards() {
+    List<MemoryQueue<URI>> shards = new ArrayList<>();
+    for (int shard = 0; shard < 3; shard++) {
+      shards.add(new MemoryQueue<>(1000, Duration.ofSeconds(1), Duration.ofMillis(5)));
+    }
+    return shards;
+  }
+}
@@ -0,0 +1,49 @@
+package org.crawler.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class HistogramTest {
+
+  @Test
+  void bucket_shouldHoldValuesUpToItsPowerOfTwo() {
+    assertEquals(0, Histogram.bucket(0));
+    assertEquals(0, Histogram.bucket(1));
+    assertEquals(1, Histogram.bucket(2));
+    assertEquals(2, Histogram.bucket(3));
+    assertEquals(2, Histogram.bucket(4));
+    assertEquals(3, Histogram.bucket(5));
+    assertEquals(10, Histogram.bucket(1024));
+    assertEquals(Histogram.BUCKETS - 1, Histogram.bucket(Long.MAX_VALUE));
+  }
+
+  @Test
+  void snapshot_shouldEstimateQuantilesFromBucketBounds() {
+    // Given
+    var histogram = new Histogram();
+
+    // When
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(i <= 90 ? 100 : 5000);
+    }
+    var snapshot = histogram.snapshot();
+
+    // Then
+    assertEquals(100, snapshot.count());
+    assertEquals(90 * 100 + 10 * 5000, snapshot.sum());
+    assertEquals(128, snapshot.quantile(0.5));
+    assertEquals(128, snapshot.quantile(0.9));
+    assertEquals(8192, snapshot.quantile(0.99));
+    assertEquals(590, snapshot.mean(), 1e-9);
+  }
+
+  @Test
+  void snapshot_shouldBeEmpty_whenNothingRecorded() {
+    var snapshot = new Histogram().snapshot();
+
+    assertEquals(0, snapshot.count());
+    assertEquals(0, snapshot.quantile(0.99));
+    assertEquals(0, snapshot.mean(), 1e-9);
+  }
+}
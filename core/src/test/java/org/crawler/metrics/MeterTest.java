@@ -0,0 +1,41 @@
+package org.crawler.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class MeterTest {
+  private final AtomicLong clock = new AtomicLong();
+  private final Meter meter = new Meter(clock::get);
+
+  @Test
+  void oneMinuteRate_shouldStartAtTheFirstTickRate() {
+    // Given
+    meter.mark(50);
+
+    // When
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+
+    // Then
+    assertEquals(10, meter.oneMinuteRate(), 1e-9);
+    assertEquals(50, meter.count());
+  }
+
+  @Test
+  void oneMinuteRate_shouldDecay_whenEventsStop() {
+    // Given
+    meter.mark(50);
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+    double initialRate = meter.oneMinuteRate();
+
+    // When
+    clock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+
+    // Then
+    double decayedRate = meter.oneMinuteRate();
+    assertTrue(decayedRate < initialRate * 0.4, "rate: " + decayedRate);
+    assertTrue(decayedRate > 0);
+  }
+}
@@ -0,0 +1,65 @@
+package org.crawler.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class MetricsRegistryTest {
+  private final MetricsRegistry registry = new MetricsRegistry(2);
+
+  @Test
+  void counter_shouldReturnTheSameInstance_forTheSameSeries() {
+    assertSame(registry.counter("errors", "host", "a"), registry.counter("errors", "host", "a"));
+    assertNotSame(registry.counter("errors", "host", "a"), registry.counter("errors", "host", "b"));
+  }
+
+  @Test
+  void counter_shouldShareTheOtherSeries_pastMaxLabelValues() {
+    // Given
+    registry.counter("errors", "host", "a").increment();
+    registry.counter("errors", "host", "b").increment();
+
+    // When
+    registry.counter("errors", "host", "c").increment();
+    registry.counter("errors", "host", "d").increment();
+
+    // Then
+    assertEquals(2, registry.counter("errors", "host", MetricsRegistry.OTHER).sum());
+    assertEquals(3, registry.metrics().size());
+  }
+
+  @Test
+  void histogram_shouldFail_whenNameIsACounter() {
+    registry.counter("pages");
+
+    assertThrows(IllegalArgumentException.class, () -> registry.histogram("pages"));
+  }
+
+  @Test
+  void render_shouldWritePrometheusTextFormat() {
+    // Given
+    registry.counter("fetch_errors_total", "host", "example.com").add(3);
+    registry.histogram("fetch_latency_micros").record(3);
+    registry.gauge("frontier_depth", () -> 42);
+    registry.gauge(
+        "visited_urls",
+        () -> {
+          throw new IllegalStateException("Redis is down");
+        });
+
+    // When
+    String text = PrometheusFormat.render(registry);
+
+    // Then
+    assertTrue(text.contains("# TYPE fetch_errors_total counter\n"));
+    assertTrue(text.contains("fetch_errors_total{host=\"example.com\"} 3\n"));
+    assertTrue(text.contains("# TYPE fetch_latency_micros histogram\n"));
+    assertTrue(text.contains("fetch_latency_micros_bucket{le=\"2\"} 0\n"));
+    assertTrue(text.contains("fetch_latency_micros_bucket{le=\"4\"} 1\n"));
+    assertTrue(text.contains("fetch_latency_micros_bucket{le=\"+Inf\"} 1\n"));
+    assertTrue(text.contains("fetch_latency_micros_sum 3\n"));
+    assertTrue(text.contains("fetch_latency_micros_count 1\n"));
+    assertTrue(text.contains("frontier_depth 42\n"));
+    assertTrue(text.contains("visited_urls NaN\n"));
+  }
+}
@@ -0,0 +1,143 @@
+package org.crawler.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.crawler.common.UrlFingerprint;
+import org.crawler.domain.Link;
+import org.crawler.domain.Page;
+import org.crawler.domain.PageValidators;
+import org.crawler.domain.config.RecrawlConfig;
+import org.crawler.infrastructure.ValidatorStore;
+import org.crawler.service.worker.FetchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RecrawlCacheTest {
+  private static final String HTML = "<html><a href='/page1'>Page 1</a></html>";
+  private static final Link LINK = new Link(URI.create("https://example.com"), 0);
+  private static final URI OUTLINK = URI.create("https://example.com/page1");
+
+  private InMemoryValidatorStore store;
+  private RecrawlCache recrawlCache;
+
+  @BeforeEach
+  void setUp() {
+    store = new InMemoryValidatorStore();
+    recrawlCache = new RecrawlCache(store, new RecrawlConfig(true, true, Duration.ofDays(1)), 2);
+  }
+
+  @Test
+  void conditionalValidators_shouldRequireReusableOutlinks() {
+    // Given
+    var withoutOutlinks = new PageValidators("\"v1\"", null, 1, null);
+    var withOutlinks = new PageValidators("\"v1\"", null, 1, List.of(OUTLINK));
+
+    // Then
+    assertNull(recrawlCache.conditionalValidators(LINK, Optional.of(withoutOutlinks)));
+    assertEquals(withOutlinks, recrawlCache.conditionalValidators(LINK, Optional.of(withOutlinks)));
+    assertEquals(
+        withoutOutlinks,
+        recrawlCache.conditionalValidators(
+            new Link(LINK.uri(), 2), Optional.of(withoutOutlinks)));
+  }
+
+  @Test
+  void onFetched_shouldReuseOutlinks_whenNotModified() {
+    // Given
+    var stored = new PageValidators("\"v1\"", null, 1, List.of(OUTLINK));
+
+    // When
+    Optional<Set<Link>> reused =
+        recrawlCache.onFetched(LINK, Optional.of(stored), FetchResult.notModified(null, null));
+
+    // Then
+    assertEquals(Optional.of(Set.of(new Link(OUTLINK, 1))), reused);
+    assertEquals("\"v1\"", store.get(LINK.uri()).orElseThrow().etag());
+  }
+
+  @Test
+  void onFetched_shouldReuseOutlinks_whenContentHashIsUnchanged() {
+    // Given
+    var stored = new PageValidators(null, null, UrlFingerprint.of(HTML), List.of(OUTLINK));
+
+    // When
+    Optional<Set<Link>> reused =
+        recrawlCache.onFetched(
+            LINK, Optional.of(stored), new FetchResult(new Page(LINK, HTML), null, null));
+
+    // Then
+    assertEquals(Optional.of(Set.of(new Link(OUTLINK, 1))), reused);
+  }
+
+  @Test
+  void onFetched_shouldRequireExtractionAndDropOutlinks_whenContentChanged() {
+    // Given
+    store.putValidators(LINK.uri(), "\"v1\"", null, 1, false);
+    store.putOutlinks(LINK.uri(), List.of(OUTLINK));
+    Optional<PageValidators> stored = store.get(LINK.uri());
+
+    // When
+    Optional<Set<Link>> reused =
+        recrawlCache.onFetched(LINK, stored, new FetchResult(new Page(LINK, HTML), "\"v2\"", null));
+
+    // Then
+    assertTrue(reused.isEmpty());
+    PageValidators updated = store.get(LINK.uri()).orElseThrow();
+    assertEquals("\"v2\"", updated.etag());
+    assertNull(updated.outlinks());
+  }
+
+  @Test
+  void disabled_shouldNeverSkipExtraction() {
+    // Given
+    var stored = new PageValidators(null, null, UrlFingerprint.of(HTML), List.of(OUTLINK));
+
+    // When
+    Optional<Set<Link>> reused =
+        RecrawlCache.disabled()
+            .onFetched(
+                LINK, Optional.of(stored), new FetchResult(new Page(LINK, HTML), null, null));
+
+    // Then
+    assertTrue(reused.isEmpty());
+    assertTrue(RecrawlCache.disabled().lookup(LINK).isEmpty());
+  }
+
+  private static class InMemoryValidatorStore implements ValidatorStore {
+    private final Map<URI, PageValidators> validators = new HashMap<>();
+
+    @Override
+    public Optional<PageValidators> get(URI uri) {
+      return Optional.ofNullable(validators.get(uri));
+    }
+
+    @Override
+    public void putValidators(
+        URI uri, String etag, String lastModified, long contentHash, boolean keepOutlinks) {
+      List<URI> outlinks =
+          keepOutlinks ? get(uri).map(PageValidators::outlinks).orElse(null) : null;
+      validators.put(uri, new PageValidators(etag, lastModified, contentHash, outlinks));
+    }
+
+    @Override
+    public void putOutlinks(URI uri, Collection<URI> outlinks) {
+      PageValidators v = validators.get(uri);
+      validators.put(
+          uri,
+          new PageValidators(v.etag(), v.lastModified(), v.contentHash(), List.copyOf(outlinks)));
+    }
+
+    @Override
+    public void clear() {
+      validators.clear();
+    }
+  }
+}
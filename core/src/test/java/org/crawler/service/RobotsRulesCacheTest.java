@@ -0,0 +1,148 @@
+package org.crawler.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import crawlercommons.robots.BaseRobotRules;
+import crawlercommons.robots.SimpleRobotRules;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.crawler.domain.config.FetcherConfig;
+import org.crawler.domain.config.FetcherType;
+import org.crawler.domain.config.RobotsConfig;
+import org.junit.jupiter.api.Test;
+
+class RobotsRulesCacheTest {
+  private final AtomicLong clock = new AtomicLong();
+  private final AtomicInteger fetches = new AtomicInteger();
+  private boolean failFetches = false;
+
+  private RobotsRulesCache newCache(int maxHosts, Executor executor) {
+    var config = new RobotsConfig(maxHosts, Duration.ofSeconds(60), Duration.ofSeconds(5));
+
+    var fetcherConfig =
+        new FetcherConfig(
+            FetcherType.HTTP_CLIENT, Duration.ofSeconds(1), Duration.ofSeconds(1), 1, 1024);
+
+    return new RobotsRulesCache(config, fetcherConfig, executor, clock::get) {
+      @Override
+      protected BaseRobotRules fetchRules(String hostKey) throws IOException {
+        fetches.incrementAndGet();
+        if (failFetches) {
+          throw new IOException("Connection refused");
+        }
+        return new SimpleRobotRules(SimpleRobotRules.RobotRulesMode.ALLOW_ALL);
+      }
+    };
+  }
+
+  @Test
+  void get_shouldFetchRulesOncePerHost() {
+    // Given
+    var cache = newCache(10, Runnable::run);
+
+    // When
+    cache.get(URI.create("https://example.com/page1"));
+    cache.get(URI.create("https://example.com/page2"));
+
+    // Then
+    assertEquals(1, fetches.get());
+    assertEquals(1, cache.missCount());
+    assertEquals(1, cache.hitCount());
+  }
+
+  @Test
+  void get_shouldRefetchRulesAfterTtlExpires() {
+    // Given
+    var cache = newCache(10, Runnable::run);
+    cache.get(URI.create("https://example.com/page1"));
+
+    // When
+    clock.addAndGet(Duration.ofSeconds(61).toNanos());
+    cache.get(URI.create("https://example.com/page1"));
+
+    // Then
+    assertEquals(2, fetches.get());
+  }
+
+  @Test
+  void get_shouldCacheFailedFetchForErrorTtl() {
+    // Given
+    var cache = newCache(10, Runnable::run);
+    failFetches = true;
+
+    // When
+    BaseRobotRules rules = cache.get(URI.create("https://example.com/page1"));
+    cache.get(URI.create("https://example.com/page2"));
+    clock.addAndGet(Duration.ofSeconds(6).toNanos());
+    cache.get(URI.create("https://example.com/page3"));
+
+    // Then
+    assertTrue(rules.isAllowed("https://example.com/page1"));
+    assertEquals(2, fetches.get());
+  }
+
+  @Test
+  void get_shouldEvictLeastRecentlyUsedHost() {
+    // Given
+    var cache = newCache(2, Runnable::run);
+    cache.get(URI.create("https://a.com/"));
+    cache.get(URI.create("https://b.com/"));
+    cache.get(URI.create("https://a.com/"));
+
+    // When
+    cache.get(URI.create("https://c.com/"));
+    cache.get(URI.create("https://a.com/"));
+    cache.get(URI.create("https://b.com/"));
+
+    // Then
+    assertEquals(4, fetches.get());
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  void get_shouldWaitForInFlightPrefetch() throws Exception {
+    // Given
+    List<Runnable> scheduled = new ArrayList<>();
+    var cache = newCache(10, scheduled::add);
+    cache.prefetch(URI.create("https://example.com/"));
+
+    // When
+    Thread lookup = new Thread(() -> cache.get(URI.create("https://example.com/page1")));
+    lookup.start();
+    scheduled.forEach(Runnable::run);
+    lookup.join();
+
+    // Then
+    assertEquals(1, fetches.get());
+    assertEquals(1, cache.hitCount());
+    assertEquals(0, cache.missCount());
+  }
+
+  @Test
+  void prefetch_shouldForgetTheHostWhenTheExecutorRejectsTheFetch() {
+    // Given
+    var cache =
+        newCache(
+            10,
+            task -> {
+              throw new RejectedExecutionException("Executor shut down");
+            });
+
+    // When
+    assertThrows(
+        RejectedExecutionException.class, () -> cache.prefetch(URI.create("https://a.com/")));
+    BaseRobotRules rules = cache.get(URI.create("https://a.com/page1"));
+
+    // Then
+    assertTrue(rules.isAllowed("https://a.com/page1"));
+    assertEquals(1, fetches.get());
+    assertEquals(1, cache.missCount());
+  }
+}
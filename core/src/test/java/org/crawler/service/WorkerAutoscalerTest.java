@@ -0,0 +1,145 @@
+package org.crawler.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.crawler.domain.config.AutoscaleConfig;
+import org.crawler.infrastructure.memory.MemoryQueue;
+import org.crawler.metrics.MetricsRegistry;
+import org.crawler.service.CrawlCounters.Counter;
+import org.crawler.service.ScalingDecision.Stage;
+import org.crawler.service.WorkerAutoscaler.Sample;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class WorkerAutoscalerTest {
+  private static final AutoscaleConfig CONFIG =
+      new AutoscaleConfig(true, Duration.ofSeconds(10), 2, 8, 1, 4, 100, 0.3);
+
+  private MemoryQueue<String> frontierQueue;
+  private MemoryQueue<String> fetchedPagesQueue;
+  private CrawlCounters counters;
+  private WorkerAutoscaler autoscaler;
+
+  @BeforeEach
+  void setUp() {
+    frontierQueue = new MemoryQueue<>(1000, Duration.ZERO, Duration.ZERO);
+    fetchedPagesQueue = new MemoryQueue<>(1000, Duration.ZERO, Duration.ZERO);
+    counters = new CrawlCounters();
+    autoscaler =
+        new WorkerAutoscaler(null, frontierQueue, fetchedPagesQueue, counters, CONFIG, false, 1);
+  }
+
+  @Test
+  void decide_shouldAddExtractorAndKeepFetchers_whenPagesPileUp() {
+    // Given
+    var sample = new Sample(500, 200, 10, 5, 0.9, 0.95);
+
+    // When
+    List<ScalingDecision> decisions = autoscaler.decide(sample, 4, 2);
+
+    // Then
+    assertEquals(1, decisions.size());
+    assertEquals(Stage.LINKS_EXTRACTOR, decisions.get(0).stage());
+    assertEquals(3, decisions.get(0).to());
+  }
+
+  @Test
+  void decide_shouldRetireFetcher_whenExtractorsAreSaturated() {
+    // Given
+    var sample = new Sample(500, 200, 10, 5, 0.9, 0.95);
+
+    // When
+    List<ScalingDecision> decisions = autoscaler.decide(sample, 4, 4);
+
+    // Then
+    assertEquals(1, decisions.size());
+    assertEquals(Stage.PAGE_FETCHER, decisions.get(0).stage());
+    assertEquals(3, decisions.get(0).to());
+  }
+
+  @Test
+  void decide_shouldAddFetcher_whenBusyFetchersHaveBacklog() {
+    // Given
+    var sample = new Sample(500, 0, 10, 10, 0.8, 0.5);
+
+    // When
+    List<ScalingDecision> decisions = autoscaler.decide(sample, 4, 2);
+
+    // Then
+    assertEquals(1, decisions.size());
+    assertEquals(Stage.PAGE_FETCHER, decisions.get(0).stage());
+    assertEquals(5, decisions.get(0).to());
+  }
+
+  @Test
+  void decide_shouldNotAddFetcher_whenBacklogIsHeldUpElsewhere() {
+    // Given
+    var sample = new Sample(500, 0, 1, 1, 0.1, 0.5);
+
+    // When
+    List<ScalingDecision> decisions = autoscaler.decide(sample, 4, 2);
+
+    // Then
+    assertTrue(decisions.isEmpty());
+  }
+
+  @Test
+  void decide_shouldRetireIdleWorkers_downToTheirMinimum() {
+    // Given
+    var sample = new Sample(0, 0, 0, 0, 0, 0);
+
+    // When
+    List<ScalingDecision> shrinking = autoscaler.decide(sample, 3, 2);
+    List<ScalingDecision> atMinimum = autoscaler.decide(sample, 2, 1);
+
+    // Then
+    assertEquals(2, shrinking.size());
+    assertTrue(shrinking.stream().allMatch(decision -> decision.to() == decision.from() - 1));
+    assertTrue(atMinimum.isEmpty());
+  }
+
+  @Test
+  void sample_shouldReportQueueDepthsAndUtilizationSinceLastSample() throws InterruptedException {
+    // Given
+    frontierQueue.pushAll(List.of("a", "b", "c"));
+    fetchedPagesQueue.push("page");
+    Thread.sleep(20);
+    counters.add(Counter.PAGES_FETCHED, 4);
+    counters.add(Counter.FETCH_MICROS, 1_000_000_000L);
+
+    // When
+    Sample sample = autoscaler.sample(2, 1);
+
+    // Then
+    assertEquals(3, sample.frontierDepth());
+    assertEquals(1, sample.parsingDepth());
+    assertEquals(1.0, sample.fetchUtilization());
+    assertEquals(0.0, sample.extractUtilization());
+    assertTrue(sample.fetchRate() > 0);
+  }
+
+  @Test
+  void count_shouldExportScaleUpsAndDownsByStage() {
+    // Given
+    var registry = MetricsRegistry.global();
+    long upsBefore = registry.counter("autoscale_scale_ups_total", "stage", "page_fetcher").sum();
+    long downsBefore =
+        registry.counter("autoscale_scale_downs_total", "stage", "page_fetcher").sum();
+
+    // When
+    WorkerAutoscaler.count(new ScalingDecision(Instant.now(), Stage.PAGE_FETCHER, 2, 3, "up"));
+    WorkerAutoscaler.count(new ScalingDecision(Instant.now(), Stage.PAGE_FETCHER, 3, 2, "down"));
+    WorkerAutoscaler.count(new ScalingDecision(Instant.now(), Stage.PAGE_FETCHER, 2, 1, "down"));
+
+    // Then
+    assertEquals(
+        upsBefore + 1,
+        registry.counter("autoscale_scale_ups_total", "stage", "page_fetcher").sum());
+    assertEquals(
+        downsBefore + 2,
+        registry.counter("autoscale_scale_downs_total", "stage", "page_fetcher").sum());
+  }
+}
@@ -0,0 +1,66 @@
+package org.crawler.service.worker;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class AbstractStoppableWorkerTest {
+  private final AtomicInteger workDone = new AtomicInteger();
+  private final AtomicInteger stops = new AtomicInteger();
+
+  private final AbstractStoppableWorker worker =
+      new AbstractStoppableWorker() {
+        @Override
+        protected void doWork() throws Exception {
+          workDone.incrementAndGet();
+          Thread.sleep(10);
+        }
+
+        @Override
+        protected void onStop() {
+          stops.incrementAndGet();
+        }
+
+        @Override
+        protected Logger getLogger() {
+          return LoggerFactory.getLogger(AbstractStoppableWorkerTest.class);
+        }
+      };
+
+  @Test
+  void run_shouldReturnRightAway_whenStoppedBeforeItStarted() {
+    // Given
+    worker.requestStop();
+
+    // When
+    worker.run();
+    worker.awaitStop();
+
+    // Then
+    assertEquals(0, workDone.get());
+    assertEquals(1, stops.get());
+    assertFalse(worker.isRunning());
+  }
+
+  @Test
+  void interrupt_shouldWaitForTheWorkerToReturn() throws InterruptedException {
+    // Given
+    Thread thread = new Thread(worker);
+    thread.start();
+    while (workDone.get() == 0) {
+      Thread.sleep(1);
+    }
+
+    // When
+    worker.interrupt();
+
+    // Then
+    assertEquals(1, stops.get());
+    assertFalse(worker.isRunning());
+    thread.join(1000);
+    assertFalse(thread.isAlive());
+  }
+}
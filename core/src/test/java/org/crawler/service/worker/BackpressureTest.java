@@ -0,0 +1,80 @@
+package org.crawler.service.worker;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.crawler.infrastructure.memory.MemoryQueue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BackpressureTest {
+  private MemoryQueue<String> queue;
+
+  @BeforeEach
+  void setUp() {
+    queue = new MemoryQueue<>(100, Duration.ZERO, Duration.ZERO);
+  }
+
+  @Test
+  void awaitRoom_shouldReturnAtOnce_belowHighWatermark() {
+    // Given
+    queue.pushAll(List.of("a", "b"));
+    var backpressure = newBackpressure(Duration.ZERO);
+
+    // When
+    backpressure.awaitRoom();
+
+    // Then
+    assertFalse(backpressure.isPaused());
+    assertEquals(2, backpressure.depth());
+  }
+
+  @Test
+  void awaitRoom_shouldWaitUntilQueueDrainsToLowWatermark() throws Exception {
+    // Given
+    queue.pushAll(List.of("a", "b", "c", "d"));
+    var backpressure = newBackpressure(Duration.ZERO);
+
+    // When
+    var producer = CompletableFuture.runAsync(backpressure::awaitRoom);
+    Thread.sleep(50);
+    boolean waitedAboveLowWatermark = !producer.isDone();
+    queue.popBatch(3);
+    producer.get(1, TimeUnit.SECONDS);
+
+    // Then
+    assertTrue(waitedAboveLowWatermark);
+    assertFalse(backpressure.isPaused());
+    assertEquals(0, backpressure.overflows());
+  }
+
+  @Test
+  void awaitRoom_shouldGiveUpAfterMaxBlock() {
+    // Given
+    queue.pushAll(List.of("a", "b", "c", "d"));
+    var backpressure = newBackpressure(Duration.ofMillis(20));
+
+    // When
+    backpressure.awaitRoom();
+
+    // Then
+    assertTrue(backpressure.isPaused());
+    assertEquals(1, backpressure.overflows());
+  }
+
+  @Test
+  void none_shouldNeverWait() {
+    // When
+    Backpressure.none().awaitRoom();
+
+    // Then
+    assertFalse(Backpressure.none().isPaused());
+  }
+
+  private Backpressure newBackpressure(Duration maxBlock) {
+    return new Backpressure(queue, 4, 1, Duration.ofMillis(5), maxBlock);
+  }
+}
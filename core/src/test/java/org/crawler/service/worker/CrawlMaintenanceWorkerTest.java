@@ -0,0 +1,94 @@
+package org.crawler.service.worker;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.crawler.infrastructure.CheckpointStore;
+import org.crawler.infrastructure.memory.MemoryQueue;
+import org.crawler.service.CrawlCounters;
+import org.crawler.service.CrawlCounters.Counter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CrawlMaintenanceWorkerTest {
+  private InMemoryCheckpointStore checkpointStore;
+  private CrawlCounters counters;
+
+  @BeforeEach
+  void setUp() {
+    checkpointStore = new InMemoryCheckpointStore();
+    counters = new CrawlCounters();
+  }
+
+  @Test
+  void checkpoint_shouldOnlyAddProgressSinceRestore() {
+    // Given
+    checkpointStore.add(Map.of("pages_fetched", 10L, "links_queued", 40L));
+    counters.restore(checkpointStore.load());
+    counters.add(Counter.PAGES_FETCHED, 2);
+    var worker = newWorker(new LeasingQueue(0));
+
+    // When
+    worker.checkpoint();
+    worker.checkpoint();
+
+    // Then
+    assertEquals(12L, counters.get(Counter.PAGES_FETCHED));
+    assertEquals(Map.of("pages_fetched", 12L, "links_queued", 40L), checkpointStore.load());
+  }
+
+  @Test
+  void requeueExpired_shouldCountRequeuedItems() {
+    // Given
+    var worker = newWorker(new LeasingQueue(3));
+
+    // When
+    worker.requeueExpired();
+    worker.checkpoint();
+
+    // Then
+    assertEquals(3L, counters.get(Counter.ITEMS_REQUEUED));
+    assertEquals(Map.of("items_requeued", 3L), checkpointStore.load());
+  }
+
+  private CrawlMaintenanceWorker newWorker(LeasingQueue queue) {
+    return new CrawlMaintenanceWorker(
+        List.of(queue), counters, checkpointStore, Duration.ofSeconds(1));
+  }
+
+  private static class LeasingQueue extends MemoryQueue<String> {
+    private final int expired;
+
+    LeasingQueue(int expired) {
+      super(10, Duration.ZERO, Duration.ZERO);
+      this.expired = expired;
+    }
+
+    @Override
+    public int requeueExpired() {
+      return expired;
+    }
+  }
+
+  private static class InMemoryCheckpointStore implements CheckpointStore {
+    private final Map<String, Long> counters = new HashMap<>();
+
+    @Override
+    public Map<String, Long> load() {
+      return Map.copyOf(counters);
+    }
+
+    @Override
+    public void add(Map<String, Long> deltas) {
+      deltas.forEach((name, delta) -> counters.merge(name, delta, Long::sum));
+    }
+
+    @Override
+    public void clear() {
+      counters.clear();
+    }
+  }
+}
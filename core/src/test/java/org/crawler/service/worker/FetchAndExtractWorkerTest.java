@@ -0,0 +1,141 @@
+package org.crawler.service.worker;
+
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+import org.crawler.common.URLPredicate;
+import org.crawler.domain.Link;
+import org.crawler.domain.Page;
+import org.crawler.fixture.LinkFixture;
+import org.crawler.infrastructure.FrontierQueue;
+import org.crawler.infrastructure.VisitedUrlsSet;
+import org.crawler.service.RobotsChecker;
+import org.jsoup.Connection;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class FetchAndExtractWorkerTest {
+  private static final String HTML =
+      """
+      <html><body>
+      <a href='https://example.com/page1'>Page 1</a>
+      <a href='https://other.com/page2'>Page 2</a>
+      </body></html>""";
+
+  @Mock private FrontierQueue frontierQueue;
+  @Mock private VisitedUrlsSet visitedUrlsSet;
+  @Mock private URLPredicate urlPredicate;
+  @Mock private RobotsChecker robotsChecker;
+  @Mock private PageSink pageSink;
+  @Mock private Connection connection;
+  @Mock private Connection.Response response;
+
+  private FetchAndExtractWorker newWorker(int maxDepth) {
+    return new FetchAndExtractWorker(
+        frontierQueue,
+        visitedUrlsSet,
+        new JsoupLinkExtractor(urlPredicate, visitedUrlsSet, maxDepth),
+        robotsChecker,
+        List.of(pageSink),
+        1);
+  }
+
+  @Test
+  void process_shouldPushExtractedLinksAndHandPageToSinks() throws IOException {
+    // Given
+    Link link = LinkFixture.sampleLink();
+    Document document = Jsoup.parse(HTML, link.uri().toString());
+
+    when(visitedUrlsSet.addIfNotPresent("https://example.com/")).thenReturn(true);
+    when(robotsChecker.isUrlAllowed(link.uri())).thenReturn(true);
+    when(urlPredicate.isValid(anyString())).thenReturn(true);
+    when(visitedUrlsSet.isPresent(anyString())).thenReturn(false);
+
+    try (var jsoupMocked = mockStatic(Jsoup.class)) {
+      jsoupMocked.when(() -> Jsoup.connect(link.uri().toString())).thenReturn(connection);
+      when(connection.execute()).thenReturn(response);
+      when(response.body()).thenReturn(HTML);
+      when(response.parse()).thenReturn(document);
+
+      // When
+      newWorker(2).process(link);
+    }
+
+    // Then
+    verify(frontierQueue)
+        .pushAll(
+            Set.of(
+                new Link(URI.create("https://example.com/page1"), 1),
+                new Link(URI.create("https://other.com/page2"), 1)));
+    verify(pageSink).accept(new Page(link, HTML));
+  }
+
+  @Test
+  void process_shouldNotParsePageAtMaxDepth() throws IOException {
+    // Given
+    Link link = LinkFixture.deepLink(2);
+
+    when(visitedUrlsSet.addIfNotPresent(link.uri().toString())).thenReturn(true);
+    when(robotsChecker.isUrlAllowed(link.uri())).thenReturn(true);
+
+    try (var jsoupMocked = mockStatic(Jsoup.class)) {
+      jsoupMocked.when(() -> Jsoup.connect(link.uri().toString())).thenReturn(connection);
+      when(connection.execute()).thenReturn(response);
+      when(response.body()).thenReturn(HTML);
+
+      // When
+      newWorker(2).process(link);
+    }
+
+    // Then
+    verify(response, never()).parse();
+    verify(frontierQueue, never()).pushAll(any());
+    verify(pageSink).accept(new Page(link, HTML));
+  }
+
+  @Test
+  void process_shouldDoNothing_whenAlreadyVisited() {
+    // Given
+    Link link = LinkFixture.sampleLink();
+    when(visitedUrlsSet.addIfNotPresent("https://example.com/")).thenReturn(false);
+
+    // When
+    newWorker(2).process(link);
+
+    // Then
+    verify(frontierQueue, never()).pushAll(any());
+    verify(frontierQueue).ack(link);
+    verifyNoInteractions(pageSink);
+  }
+
+  @Test
+  void process_shouldCrawlRedeliveredLink_whenAlreadyVisited() throws IOException {
+    // Given
+    Link link = LinkFixture.deepLink(2);
+
+    when(visitedUrlsSet.addIfNotPresent(link.uri().toString())).thenReturn(false);
+    when(frontierQueue.isRedelivery(link)).thenReturn(true);
+    when(robotsChecker.isUrlAllowed(link.uri())).thenReturn(true);
+
+    try (var jsoupMocked = mockStatic(Jsoup.class)) {
+      jsoupMocked.when(() -> Jsoup.connect(link.uri().toString())).thenReturn(connection);
+      when(connection.execute()).thenReturn(response);
+      when(response.body()).thenReturn(HTML);
+
+      // When
+      newWorker(2).process(link);
+    }
+
+    // Then
+    verify(pageSink).accept(new Page(link, HTML));
+    verify(frontierQueue).ack(link);
+  }
+}
@@ -0,0 +1,233 @@
+package org.crawler.service.worker;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+import org.crawler.domain.Link;
+import org.crawler.domain.Page;
+import org.crawler.domain.PageValidators;
+import org.crawler.domain.config.FetcherConfig;
+import org.crawler.domain.config.FetcherType;
+import org.crawler.domain.exception.ConnectionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HttpClientPageFetcherTest {
+  private static final String HTML = "<html><body>Ünïcode</body></html>";
+  private static final int MAX_BODY_BYTES = 1024;
+
+  private HttpServer server;
+  private HttpClientPageFetcher fetcher;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    stub("/page", 200, "text/html; charset=ISO-8859-1", HTML.getBytes(StandardCharsets.ISO_8859_1));
+    stub("/missing", 404, "text/html", new byte[0]);
+    stub("/image.png", 200, "image/png", new byte[] {1, 2, 3});
+    server.createContext(
+        "/gzip",
+        exchange -> {
+          byte[] body = gzip(HTML.getBytes(StandardCharsets.UTF_8));
+          exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+          exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+          exchange.sendResponseHeaders(200, body.length);
+          try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+          }
+        });
+    server.createContext(
+        "/etag",
+        exchange -> {
+          exchange.getResponseHeaders().add("ETag", "\"v1\"");
+          if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+          }
+          byte[] body = HTML.getBytes(StandardCharsets.UTF_8);
+          exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+          exchange.sendResponseHeaders(200, body.length);
+          try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+          }
+        });
+    stub(
+        "/large",
+        200,
+        "text/html",
+        "a".repeat(64 * MAX_BODY_BYTES).getBytes(StandardCharsets.UTF_8));
+    server.createContext(
+        "/bomb",
+        exchange -> {
+          byte[] body = gzip(new byte[1024 * MAX_BODY_BYTES]);
+          exchange.getResponseHeaders().add("Content-Type", "text/html");
+          exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+          exchange.sendResponseHeaders(200, body.length);
+          try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+          }
+        });
+    server.createContext(
+        "/slow",
+        exchange -> {
+          exchange.getResponseHeaders().add("Content-Type", "text/html");
+          exchange.sendResponseHeaders(200, 0);
+          try (OutputStream output = exchange.getResponseBody()) {
+            for (int i = 0; i < 100; i++) {
+              output.write('a');
+              output.flush();
+              Thread.sleep(100);
+            }
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+    server.start();
+
+    var config =
+        new FetcherConfig(
+            FetcherType.HTTP_CLIENT,
+            Duration.ofSeconds(2),
+            Duration.ofSeconds(5),
+            8,
+            MAX_BODY_BYTES);
+    fetcher = new HttpClientPageFetcher(config, Executors.newVirtualThreadPerTaskExecutor());
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  void fetchPage_shouldDecodeBodyWithResponseCharset() {
+    // When
+    Page page = fetcher.fetchPage(link("/page"));
+
+    // Then
+    assertEquals(HTML, page.html());
+  }
+
+  @Test
+  void fetchPage_shouldDecompressGzipBody() {
+    // When
+    Page page = fetcher.fetchPage(link("/gzip"));
+
+    // Then
+    assertEquals(HTML, page.html());
+  }
+
+  @Test
+  void fetchPage_shouldThrowConnectionException_whenStatusIsError() {
+    assertThrows(ConnectionException.class, () -> fetcher.fetchPage(link("/missing")));
+  }
+
+  @Test
+  void fetchPage_shouldThrowConnectionException_whenContentIsNotText() {
+    assertThrows(ConnectionException.class, () -> fetcher.fetchPage(link("/image.png")));
+  }
+
+  @Test
+  void fetchPage_shouldTruncateBody_whenLargerThanMaxBodyBytes() {
+    // When
+    Page page = fetcher.fetchPage(link("/large"));
+
+    // Then
+    assertEquals("a".repeat(MAX_BODY_BYTES), page.html());
+  }
+
+  @Test
+  void fetchPage_shouldTruncateDecompressedBody_whenLargerThanMaxBodyBytes() {
+    // When
+    Page page = fetcher.fetchPage(link("/bomb"));
+
+    // Then
+    assertEquals(MAX_BODY_BYTES, page.html().length());
+  }
+
+  @Test
+  void fetchPage_shouldThrowConnectionException_whenBodyOutlastsTheTimeouts() {
+    // Given
+    var config =
+        new FetcherConfig(
+            FetcherType.HTTP_CLIENT,
+            Duration.ofMillis(200),
+            Duration.ofMillis(300),
+            8,
+            MAX_BODY_BYTES);
+    var impatientFetcher =
+        new HttpClientPageFetcher(config, Executors.newVirtualThreadPerTaskExecutor());
+    long start = System.nanoTime();
+
+    // When
+    assertThrows(ConnectionException.class, () -> impatientFetcher.fetchPage(link("/slow")));
+
+    // Then
+    assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(5)) < 0);
+  }
+
+  @Test
+  void fetchPageAsync_shouldKeepSeveralRequestsInFlight() {
+    // When
+    List<CompletableFuture<Page>> fetches =
+        IntStream.range(0, 16).mapToObj(i -> fetcher.fetchPageAsync(link("/page"))).toList();
+
+    // Then
+    fetches.forEach(fetch -> assertEquals(HTML, fetch.join().html()));
+  }
+
+  @Test
+  void fetchPageAsync_shouldReturnNotModified_whenEtagMatches() {
+    // Given
+    FetchResult first = fetcher.fetchPageAsync(link("/etag"), null).join();
+    var validators = new PageValidators(first.etag(), first.lastModified(), 0, null);
+
+    // When
+    FetchResult second = fetcher.fetchPageAsync(link("/etag"), validators).join();
+
+    // Then
+    assertEquals(HTML, first.page().html());
+    assertEquals("\"v1\"", first.etag());
+    assertTrue(second.isNotModified());
+  }
+
+  private Link link(String path) {
+    return new Link(
+        URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path), 0);
+  }
+
+  private void stub(String path, int status, String contentType, byte[] body) {
+    server.createContext(
+        path,
+        exchange -> {
+          exchange.getResponseHeaders().add("Content-Type", contentType);
+          exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+          try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+          }
+        });
+  }
+
+  private static byte[] gzip(byte[] data) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (GZIPOutputStream output = new GZIPOutputStream(bytes)) {
+      output.write(data);
+    }
+    return bytes.toByteArray();
+  }
+}
@@ -13,6 +13,7 @@ import org.crawler.fixture.LinkFixture;
 import org.crawler.infrastructure.FetchedPagesQueue;
 import org.crawler.infrastructure.FrontierQueue;
 import org.crawler.infrastructure.VisitedUrlsSet;
+import org.crawler.service.RobotsChecker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -26,6 +27,7 @@ class LinksExtractorWorkerTest {
   @Mock private FetchedPagesQueue fetchedPagesQueue;
   @Mock private VisitedUrlsSet visitedUrlsSet;
   @Mock private URLPredicate urlPredicate;
+  @Mock private RobotsChecker robotsChecker;
 
   private LinksExtractorWorker linksExtractorWorker;
 
@@ -34,7 +36,13 @@ class LinksExtractorWorkerTest {
     int maxDepth = 2;
     linksExtractorWorker =
         new LinksExtractorWorker(
-            frontierQueue, fetchedPagesQueue, visitedUrlsSet, urlPredicate, maxDepth);
+            frontierQueue,
+            fetchedPagesQueue,
+            visitedUrlsSet,
+            urlPredicate,
+            robotsChecker,
+            maxDepth,
+            1);
   }
 
   @Test
@@ -168,8 +176,12 @@ class LinksExtractorWorkerTest {
     linksExtractorWorker.process(page);
 
     // Then
-    verify(frontierQueue).push(new Link(URI.create("https://example.com/page1"), 1));
-    verify(frontierQueue).push(new Link(URI.create("https://example.com/page2"), 1));
-    verify(frontierQueue).push(new Link(URI.create("https://other.com/page3"), 1));
+    verify(frontierQueue)
+        .pushAll(
+            Set.of(
+                new Link(URI.create("https://example.com/page1"), 1),
+                new Link(URI.create("https://example.com/page2"), 1),
+                new Link(URI.create("https://other.com/page3"), 1)));
+    verify(robotsChecker).prefetch(URI.create("https://other.com/page3"));
   }
 }
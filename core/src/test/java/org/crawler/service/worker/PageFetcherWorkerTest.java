@@ -34,7 +34,7 @@ class PageFetcherWorkerTest {
   @BeforeEach
   void setUp() {
     pageFetcherWorker =
-        new PageFetcherWorker(frontierQueue, fetchedPagesQueue, visitedUrlsSet, robotsChecker);
+        new PageFetcherWorker(frontierQueue, fetchedPagesQueue, visitedUrlsSet, robotsChecker, 1);
   }
 
   @Test
@@ -75,7 +75,7 @@ class PageFetcherWorkerTest {
     Connection mockConnection = mock(Connection.class);
     Document mockDocument = mock(Document.class);
 
-    when(visitedUrlsSet.addIfNotPresent(link.uri().toString())).thenReturn(true);
+    when(visitedUrlsSet.addIfNotPresent("https://example.com/")).thenReturn(true);
     when(robotsChecker.isUrlAllowed(link.uri())).thenReturn(true);
 
     try (var jsoupMocked = mockStatic(Jsoup.class)) {
@@ -95,7 +95,7 @@ class PageFetcherWorkerTest {
   void process_shouldDoNothing_whenAlreadyVisited() {
     // Given
     Link link = LinkFixture.sampleLink();
-    when(visitedUrlsSet.addIfNotPresent(link.uri().toString())).thenReturn(false);
+    when(visitedUrlsSet.addIfNotPresent("https://example.com/")).thenReturn(false);
 
     // When
     pageFetcherWorker.process(link);
@@ -108,7 +108,7 @@ class PageFetcherWorkerTest {
   void process_shouldDoNothing_whenDisallowedByRobots() {
     // Given
     Link link = LinkFixture.sampleLink();
-    when(visitedUrlsSet.addIfNotPresent(link.uri().toString())).thenReturn(true);
+    when(visitedUrlsSet.addIfNotPresent("https://example.com/")).thenReturn(true);
     when(robotsChecker.isUrlAllowed(link.uri())).thenReturn(false);
 
     // When
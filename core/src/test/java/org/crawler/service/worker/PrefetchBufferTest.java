@@ -0,0 +1,98 @@
+package org.crawler.service.worker;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.crawler.infrastructure.memory.MemoryQueue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PrefetchBufferTest {
+  private final List<String> acked = new ArrayList<>();
+  private MemoryQueue<String> queue;
+
+  @BeforeEach
+  void setUp() {
+    queue =
+        new MemoryQueue<>(100, Duration.ZERO, Duration.ZERO) {
+          @Override
+          public void ack(String item) {
+            acked.add(item);
+          }
+        };
+  }
+
+  @Test
+  void next_shouldRefillFromOneBatchPop_onceTheBufferIsEmpty() {
+    // Given
+    queue.pushAll(List.of("a", "b", "c", "d", "e"));
+    var buffer = new PrefetchBuffer<>(queue, 3);
+
+    // When
+    List<String> firstBatch = List.of(next(buffer), next(buffer), next(buffer));
+    long sizeAfterFirstBatch = queue.size();
+    String refilled = next(buffer);
+
+    // Then
+    assertEquals(List.of("a", "b", "c"), firstBatch);
+    assertEquals(2, sizeAfterFirstBatch);
+    assertEquals("d", refilled);
+    assertEquals(0, queue.size());
+  }
+
+  @Test
+  void next_shouldHandOutAPartialBatch_whenTheQueueHoldsFewerItems() {
+    // Given
+    queue.pushAll(List.of("a", "b"));
+    var buffer = new PrefetchBuffer<>(queue, 5);
+
+    // When
+    String first = next(buffer);
+    String second = next(buffer);
+    Optional<String> third = buffer.next();
+
+    // Then
+    assertEquals("a", first);
+    assertEquals("b", second);
+    assertTrue(third.isEmpty());
+  }
+
+  @Test
+  void returnUnprocessed_shouldPushBackAndAckTheBufferedItems() {
+    // Given
+    queue.pushAll(List.of("a", "b", "c"));
+    var buffer = new PrefetchBuffer<>(queue, 3);
+    next(buffer);
+
+    // When
+    buffer.returnUnprocessed();
+
+    // Then
+    assertEquals(List.of("b", "c"), acked);
+    assertEquals(List.of("b", "c"), queue.popBatch(10));
+    assertTrue(buffer.next().isEmpty());
+  }
+
+  @Test
+  void returnUnprocessed_shouldDoNothing_whenTheBufferIsEmpty() {
+    // Given
+    queue.pushAll(List.of("a", "b"));
+    var buffer = new PrefetchBuffer<>(queue, 2);
+    next(buffer);
+    next(buffer);
+
+    // When
+    buffer.returnUnprocessed();
+
+    // Then
+    assertEquals(List.of(), acked);
+    assertEquals(0, queue.size());
+  }
+
+  private static String next(PrefetchBuffer<String> buffer) {
+    return buffer.next().orElseThrow();
+  }
+}
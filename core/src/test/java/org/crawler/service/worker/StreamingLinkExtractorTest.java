@@ -0,0 +1,160 @@
+package org.crawler.service.worker;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import org.crawler.common.URLPredicates;
+import org.crawler.domain.Link;
+import org.crawler.domain.Page;
+import org.crawler.fixture.LinkFixture;
+import org.crawler.infrastructure.VisitedUrlsSet;
+import org.junit.jupiter.api.Test;
+
+class StreamingLinkExtractorTest {
+  private static final List<String> FIXTURES =
+      List.of("html/basic.html", "html/base.html", "html/tricky.html");
+
+  private final VisitedUrlsSet visitedUrlsSet =
+      new VisitedUrlsSet() {
+        @Override
+        public void clear() {}
+
+        @Override
+        public boolean addIfNotPresent(String url) {
+          return !isPresent(url);
+        }
+
+        @Override
+        public boolean isPresent(String url) {
+          return url.equals("https://example.com/visited");
+        }
+      };
+
+  private final JsoupLinkExtractor jsoupExtractor =
+      new JsoupLinkExtractor(URLPredicates.defaultValidator(), visitedUrlsSet, 2);
+  private final StreamingLinkExtractor streamingExtractor =
+      new StreamingLinkExtractor(URLPredicates.defaultValidator(), visitedUrlsSet, 2);
+
+  @Test
+  void extractLinks_shouldMatchJsoupExtractorOnFixtures() throws IOException {
+    for (String fixture : FIXTURES) {
+      // Given
+      Page page = new Page(LinkFixture.sampleLink(), readFixture(fixture));
+
+      // When
+      Set<Link> streamingLinks = streamingExtractor.extractLinks(page);
+
+      // Then
+      assertFalse(streamingLinks.isEmpty(), fixture);
+      assertEquals(jsoupExtractor.extractLinks(page), streamingLinks, fixture);
+    }
+  }
+
+  @Test
+  void extractLinks_shouldResolveAgainstBaseHref() throws IOException {
+    // Given
+    Page page = new Page(LinkFixture.sampleLink(), readFixture("html/base.html"));
+
+    // When
+    Set<Link> links = streamingExtractor.extractLinks(page);
+
+    // Then
+    assertTrue(links.contains(new Link(URI.create("https://example.com/docs/v2/guide"), 1)));
+    assertTrue(links.contains(new Link(URI.create("https://example.com/docs/v2/before-base"), 1)));
+  }
+
+  @Test
+  void extractLinks_shouldSkipCommentsAndRawText() throws IOException {
+    // Given
+    Page page = new Page(LinkFixture.sampleLink(), readFixture("html/tricky.html"));
+
+    // When
+    Set<Link> links = streamingExtractor.extractLinks(page);
+
+    // Then
+    assertTrue(links.stream().noneMatch(link -> link.uri().getPath().startsWith("/in-")));
+    assertTrue(links.contains(new Link(URI.create("https://example.com/after-attribute"), 1)));
+  }
+
+  @Test
+  void scan_shouldFindFirstCanonicalLink() throws IOException {
+    // When
+    HrefScanner.Result result = HrefScanner.scan(readFixture("html/base.html"));
+
+    // Then
+    assertEquals("https://example.com/canonical", result.canonicalHref());
+    assertEquals("/docs/v2/", result.baseHref());
+  }
+
+  @Test
+  void extractLinks_shouldKeepPathCaseAndQuery() {
+    // Given
+    Page page =
+        new Page(
+            LinkFixture.sampleLink(),
+            "<a href='/Docs/Page?utm_source=mail&id=2'>Page</a>"
+                + "<a href='HTTPS://WWW.EXAMPLE.COM:443/a/./b/../index.html'>Index</a>");
+
+    // When
+    Set<Link> streamingLinks = streamingExtractor.extractLinks(page);
+
+    // Then
+    assertEquals(
+        Set.of(
+            new Link(URI.create("https://example.com/Docs/Page?utm_source=mail&id=2"), 1),
+            new Link(URI.create("https://www.example.com/a/index.html"), 1)),
+        streamingLinks);
+    assertEquals(jsoupExtractor.extractLinks(page), streamingLinks);
+  }
+
+  @Test
+  void extractLinks_shouldMergeHrefsWithTheSameCanonicalUrl() {
+    // Given
+    Page page =
+        new Page(
+            LinkFixture.sampleLink(),
+            "<a href='https://www.example.com/dir/'>Dir</a>"
+                + "<a href='https://example.com/dir'>Same dir</a>"
+                + "<a href='https://www.example.com/'>Home</a>");
+
+    // When
+    Set<Link> streamingLinks = streamingExtractor.extractLinks(page);
+
+    // Then
+    assertEquals(Set.of(new Link(URI.create("https://www.example.com/dir/"), 1)), streamingLinks);
+    assertEquals(jsoupExtractor.extractLinks(page), streamingLinks);
+  }
+
+  @Test
+  void extractLinks_shouldSkipPagesWhoseCanonicalWasVisited() {
+    // Given
+    Page page =
+        new Page(
+            LinkFixture.deepLink(0),
+            "<link rel='canonical' href='/visited'><a href='/page1'>Page 1</a>");
+
+    // Then
+    assertTrue(streamingExtractor.extractLinks(page).isEmpty());
+    assertTrue(jsoupExtractor.extractLinks(page).isEmpty());
+  }
+
+  @Test
+  void extractLinks_shouldRespectMaxDepth() {
+    // Given
+    Page page = new Page(LinkFixture.deepLink(2), "<a href='/page1'>Page 1</a>");
+
+    // Then
+    assertTrue(streamingExtractor.extractLinks(page).isEmpty());
+  }
+
+  private static String readFixture(String name) throws IOException {
+    try (InputStream input = StreamingLinkExtractorTest.class.getResourceAsStream("/" + name)) {
+      return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+}
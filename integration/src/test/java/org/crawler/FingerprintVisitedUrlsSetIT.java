@@ -0,0 +1,90 @@
+package org.crawler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.crawler.infrastructure.redis.FingerprintVisitedUrlsSet;
+import org.crawler.infrastructure.redis.VisitedUrlsSetImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.JedisPool;
+
+public class FingerprintVisitedUrlsSetIT extends AbstractIntegrationTest {
+  private JedisPool jedisPool;
+
+  @BeforeEach
+  void setUp() {
+    jedisPool = new JedisPool(redisHost(), redisPort());
+    new VisitedUrlsSetImpl(jedisPool).clear();
+  }
+
+  @AfterEach
+  void tearDown() {
+    jedisPool.close();
+  }
+
+  @Test
+  void addIfNotPresent_shouldAddEveryUrlOnce() {
+    // Given
+    var visited = new FingerprintVisitedUrlsSet(jedisPool, 4, false);
+    visited.clear();
+
+    // When
+    boolean first = visited.addIfNotPresent("http://example.com/1");
+    boolean again = visited.addIfNotPresent("http://example.com/1");
+    visited.addIfNotPresent("http://example.com/2");
+
+    // Then
+    assertTrue(first);
+    assertFalse(again);
+    assertTrue(visited.isPresent("http://example.com/1"));
+    assertTrue(visited.isPresent("http://example.com/2"));
+    assertFalse(visited.isPresent("http://example.com/3"));
+    assertEquals(2, visited.size());
+  }
+
+  @Test
+  void isPresent_shouldReadTheLegacySet_inCompatMode() {
+    // Given
+    var compat = new FingerprintVisitedUrlsSet(jedisPool, 4, true);
+    var strict = new FingerprintVisitedUrlsSet(jedisPool, 4, false);
+    compat.clear();
+    new VisitedUrlsSetImpl(jedisPool).addIfNotPresent("http://example.com/legacy");
+
+    // When
+    boolean presentInCompat = compat.isPresent("http://example.com/legacy");
+    boolean presentInStrict = strict.isPresent("http://example.com/legacy");
+    boolean added = compat.addIfNotPresent("http://example.com/legacy");
+
+    // Then
+    assertTrue(presentInCompat);
+    assertFalse(presentInStrict);
+    assertFalse(added);
+    assertTrue(strict.isPresent("http://example.com/legacy"));
+  }
+
+  @Test
+  void clear_shouldForgetTheLegacySet() {
+    // Given
+    var legacy = new VisitedUrlsSetImpl(jedisPool);
+    legacy.addIfNotPresent("http://example.com/legacy");
+    var compat = new FingerprintVisitedUrlsSet(jedisPool, 4, true);
+
+    // When
+    compat.clear();
+
+    // Then
+    assertFalse(compat.isPresent("http://example.com/legacy"));
+    assertTrue(compat.addIfNotPresent("http://example.com/legacy"));
+    assertEquals(0, legacy.size());
+  }
+
+  @Test
+  void bucketBitsFor_shouldKeepBucketsWithinTheIntsetLimit() {
+    assertEquals(0, FingerprintVisitedUrlsSet.bucketBitsFor(512));
+    assertEquals(1, FingerprintVisitedUrlsSet.bucketBitsFor(513));
+    assertEquals(16, FingerprintVisitedUrlsSet.bucketBitsFor(33_554_432));
+    assertEquals(18, FingerprintVisitedUrlsSet.bucketBitsFor(100_000_000));
+    assertEquals(24, FingerprintVisitedUrlsSet.bucketBitsFor(Long.MAX_VALUE));
+  }
+}
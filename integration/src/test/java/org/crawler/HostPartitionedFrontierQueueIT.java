@@ -0,0 +1,197 @@
+package org.crawler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import org.crawler.domain.Link;
+import org.crawler.domain.config.CodecFormat;
+import org.crawler.domain.config.FrontierConfig;
+import org.crawler.domain.config.FrontierType;
+import org.crawler.domain.config.ResumeConfig;
+import org.crawler.infrastructure.codec.LinkCodec;
+import org.crawler.infrastructure.redis.HostPartitionedFrontierQueue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.JedisPool;
+
+public class HostPartitionedFrontierQueueIT extends AbstractIntegrationTest {
+  private static final LinkCodec CODEC = new LinkCodec(CodecFormat.BINARY);
+
+  private JedisPool jedisPool;
+
+  @BeforeEach
+  void setUp() {
+    jedisPool = new JedisPool(redisHost(), redisPort());
+  }
+
+  @AfterEach
+  void tearDown() {
+    jedisPool.close();
+  }
+
+  @Test
+  void pop_shouldWaitThePolitenessDelayBetweenLinksOfAHost() {
+    // Given
+    var queue = queue(Duration.ofMillis(300), null);
+    queue.clear();
+    queue.pushAll(List.of(link("a.com", 1), link("a.com", 2)));
+    queue.pop();
+
+    // When
+    long startedAt = System.nanoTime();
+    var second = queue.pop();
+    long waitedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+    // Then
+    assertEquals(link("a.com", 2), second.orElseThrow());
+    assertTrue(waitedMillis >= 250, "waited " + waitedMillis + " ms");
+  }
+
+  @Test
+  void pop_shouldRotateAcrossHosts() {
+    // Given
+    var queue = queue(Duration.ofMillis(200), null);
+    queue.clear();
+    queue.pushAll(List.of(link("a.com", 1), link("a.com", 2), link("b.com", 1)));
+    queue.push(link("b.com", 2));
+
+    // When
+    List<Link> popped = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      popped.add(queue.pop().orElseThrow());
+    }
+
+    // Then
+    assertEquals(
+        List.of(link("a.com", 1), link("b.com", 1), link("a.com", 2), link("b.com", 2)), popped);
+    assertEquals(0, queue.size());
+  }
+
+  @Test
+  void popBatch_shouldHandOutOneLinkPerReadyHost() {
+    // Given
+    var queue = queue(Duration.ofSeconds(5), null);
+    queue.clear();
+    queue.pushAll(List.of(link("a.com", 1), link("a.com", 2), link("b.com", 1)));
+
+    // When
+    List<Link> popped = queue.popBatch(10);
+
+    // Then
+    assertEquals(List.of(link("a.com", 1), link("b.com", 1)), popped);
+    assertEquals(1, queue.size());
+  }
+
+  @Test
+  void recordFetch_shouldStretchTheDelayOfSlowHosts() {
+    // Given
+    var queue = queue(Duration.ofMillis(100), null);
+    queue.clear();
+    queue.pushAll(List.of(link("a.com", 1), link("a.com", 2), link("a.com", 3)));
+    queue.recordFetch(queue.pop().orElseThrow(), Duration.ofMillis(500), null);
+    queue.pop();
+
+    // When
+    long startedAt = System.nanoTime();
+    var third = queue.pop();
+    long waitedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+    // Then
+    assertEquals(link("a.com", 3), third.orElseThrow());
+    assertTrue(waitedMillis >= 900, "waited " + waitedMillis + " ms");
+  }
+
+  @Test
+  void recordFetch_shouldNotCapTheCrawlDelayAtTheMaxHostDelay() {
+    // Given
+    var queue = queue(Duration.ZERO, Duration.ofMillis(100), null, uri -> Duration.ZERO);
+    queue.clear();
+    queue.pushAll(List.of(link("a.com", 1), link("a.com", 2), link("a.com", 3)));
+    queue.recordFetch(queue.pop().orElseThrow(), Duration.ofMillis(1), Duration.ofMillis(600));
+    queue.pop();
+
+    // When
+    long startedAt = System.nanoTime();
+    var third = queue.pop();
+    long waitedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+    // Then
+    assertEquals(link("a.com", 3), third.orElseThrow());
+    assertTrue(waitedMillis >= 550, "waited " + waitedMillis + " ms");
+  }
+
+  @Test
+  void pop_shouldWaitTheCrawlDelay_beforeAnyFetchOfTheHostIsRecorded() {
+    // Given
+    var queue = queue(Duration.ZERO, Duration.ofSeconds(5), null, uri -> Duration.ofMillis(400));
+    queue.clear();
+    queue.pushAll(List.of(link("a.com", 1), link("a.com", 2)));
+    queue.pop();
+
+    // When
+    long startedAt = System.nanoTime();
+    var second = queue.pop();
+    long waitedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+    // Then
+    assertEquals(link("a.com", 2), second.orElseThrow());
+    assertTrue(waitedMillis >= 350, "waited " + waitedMillis + " ms");
+  }
+
+  @Test
+  void requeueExpired_shouldPutLeasedLinksBackOnTheirHost() throws Exception {
+    // Given
+    var resumeConfig = new ResumeConfig(true, Duration.ofMillis(100), Duration.ofSeconds(30), 3);
+    var queue = queue(Duration.ZERO, resumeConfig);
+    queue.clear();
+    queue.pushAll(List.of(link("a.com", 1), link("b.com", 1)));
+    Link acked = queue.pop().orElseThrow();
+    queue.ack(acked);
+    queue.pop();
+
+    // When
+    Thread.sleep(300);
+    int requeued = queue.requeueExpired();
+    List<Link> popped = queue.popBatch(10);
+
+    // Then
+    assertEquals(1, requeued);
+    assertEquals(List.of(link("b.com", 1)), popped);
+    assertTrue(queue.isRedelivery(popped.get(0)));
+  }
+
+  private HostPartitionedFrontierQueue queue(Duration minHostDelay, ResumeConfig resumeConfig) {
+    return queue(minHostDelay, Duration.ofSeconds(5), resumeConfig, uri -> Duration.ZERO);
+  }
+
+  private HostPartitionedFrontierQueue queue(
+      Duration minHostDelay,
+      Duration maxHostDelay,
+      ResumeConfig resumeConfig,
+      Function<URI, Duration> crawlDelays) {
+    var config =
+        new FrontierConfig(
+            FrontierType.POLITE,
+            minHostDelay,
+            maxHostDelay,
+            2.0,
+            1.0,
+            Path.of("build/frontier"),
+            1000,
+            1024 * 1024,
+            100,
+            0.1,
+            1.0);
+    return new HostPartitionedFrontierQueue(jedisPool, 2, config, CODEC, resumeConfig, crawlDelays);
+  }
+
+  private static Link link(String host, int page) {
+    return new Link(URI.create("http://" + host + "/" + page), 1);
+  }
+}
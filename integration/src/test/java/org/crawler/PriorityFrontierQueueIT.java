@@ -0,0 +1,149 @@
+package org.crawler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import org.crawler.domain.Link;
+import org.crawler.domain.config.CodecFormat;
+import org.crawler.domain.config.FrontierConfig;
+import org.crawler.domain.config.FrontierType;
+import org.crawler.domain.config.ResumeConfig;
+import org.crawler.infrastructure.codec.LinkCodec;
+import org.crawler.infrastructure.redis.PriorityFrontierQueue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.JedisPool;
+
+public class PriorityFrontierQueueIT extends AbstractIntegrationTest {
+  private static final LinkCodec CODEC = new LinkCodec(CodecFormat.BINARY);
+
+  private JedisPool jedisPool;
+
+  @BeforeEach
+  void setUp() {
+    jedisPool = new JedisPool(redisHost(), redisPort());
+  }
+
+  @AfterEach
+  void tearDown() {
+    jedisPool.close();
+  }
+
+  @Test
+  void popBatch_shouldHandOutShallowestLinksFirst() {
+    // Given
+    var queue = queue(100, null);
+    queue.clear();
+    queue.pushAll(List.of(link("a.com", 1, 3), link("b.com", 2, 1), link("c.com", 3, 2)));
+    queue.push(link("d.com", 4, 0));
+
+    // When
+    List<Link> top = queue.popBatch(2);
+    List<Link> rest = queue.popBatch(10);
+
+    // Then
+    assertEquals(List.of(link("d.com", 4, 0), link("b.com", 2, 1)), top);
+    assertEquals(List.of(link("c.com", 3, 2), link("a.com", 1, 3)), rest);
+    assertEquals(0, queue.size());
+  }
+
+  @Test
+  void popBatch_shouldHandOutLinksWithMoreInlinksFirst() {
+    // Given
+    var queue = queue(100, null);
+    queue.clear();
+    queue.pushAll(List.of(link("a.com", 1, 2), link("b.com", 1, 2)));
+    for (int i = 0; i < 3; i++) {
+      queue.push(link("b.com", 1, 2));
+    }
+
+    // When
+    List<Link> popped = queue.popBatch(10);
+
+    // Then
+    assertEquals(List.of(link("b.com", 1, 2), link("a.com", 1, 2)), popped);
+  }
+
+  @Test
+  void popBatch_shouldDemoteHostsPastTheirBudget() {
+    // Given
+    var queue = queue(2, null);
+    queue.clear();
+    queue.pushAll(List.of(link("big.com", 1, 1), link("big.com", 2, 1), link("big.com", 3, 1)));
+    queue.push(link("small.com", 1, 1));
+
+    // When
+    List<Link> popped = queue.popBatch(10);
+
+    // Then
+    assertEquals(
+        List.of(
+            link("small.com", 1, 1),
+            link("big.com", 1, 1),
+            link("big.com", 2, 1),
+            link("big.com", 3, 1)),
+        popped);
+  }
+
+  @Test
+  void popBatch_shouldKeepCountingTheBudgetOfAHost_afterItsLinksWerePopped() {
+    // Given
+    var queue = queue(2, null);
+    queue.clear();
+    queue.pushAll(List.of(link("big.com", 1, 1), link("big.com", 2, 1)));
+    queue.popBatch(10);
+    queue.pushAll(List.of(link("big.com", 3, 1), link("small.com", 2, 1)));
+
+    // When
+    List<Link> popped = queue.popBatch(10);
+
+    // Then
+    assertEquals(List.of(link("small.com", 2, 1), link("big.com", 3, 1)), popped);
+  }
+
+  @Test
+  void requeueExpired_shouldPutLeasedLinksBackAtTheirScore() throws Exception {
+    // Given
+    var resumeConfig = new ResumeConfig(true, Duration.ofMillis(100), Duration.ofSeconds(30), 3);
+    var queue = queue(100, resumeConfig);
+    queue.clear();
+    queue.pushAll(List.of(link("a.com", 1, 1), link("b.com", 1, 2)));
+    queue.pop();
+
+    // When
+    Thread.sleep(300);
+    int requeued = queue.requeueExpired();
+    List<Link> popped = queue.popBatch(10);
+
+    // Then
+    assertEquals(1, requeued);
+    assertEquals(List.of(link("a.com", 1, 1), link("b.com", 1, 2)), popped);
+    assertTrue(queue.isRedelivery(popped.get(0)));
+    assertFalse(queue.isRedelivery(popped.get(1)));
+  }
+
+  private PriorityFrontierQueue queue(int hostBudget, ResumeConfig resumeConfig) {
+    var config =
+        new FrontierConfig(
+            FrontierType.PRIORITY,
+            Duration.ZERO,
+            Duration.ZERO,
+            0,
+            0,
+            Path.of("build/frontier"),
+            1000,
+            1024 * 1024,
+            hostBudget,
+            0.1,
+            1.0);
+    return new PriorityFrontierQueue(jedisPool, 1, config, CODEC, resumeConfig);
+  }
+
+  private static Link link(String host, int page, int depth) {
+    return new Link(URI.create("http://" + host + "/" + page), depth);
+  }
+}
@@ -0,0 +1,100 @@
+package org.crawler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import org.crawler.domain.Link;
+import org.crawler.domain.config.CodecFormat;
+import org.crawler.domain.config.StreamConfig;
+import org.crawler.infrastructure.codec.LinkCodec;
+import org.crawler.infrastructure.redis.StreamFrontierQueue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.JedisPool;
+
+public class StreamQueueIT extends AbstractIntegrationTest {
+  private static final LinkCodec CODEC = new LinkCodec(CodecFormat.BINARY);
+
+  private JedisPool jedisPool;
+
+  @BeforeEach
+  void setUp() {
+    jedisPool = new JedisPool(redisHost(), redisPort());
+  }
+
+  @AfterEach
+  void tearDown() {
+    jedisPool.close();
+  }
+
+  @Test
+  void popBatch_shouldHandOutEveryItemOnce_acrossConsumers() {
+    // Given
+    var first = queue("first", Duration.ofMinutes(5), 3);
+    var second = queue("second", Duration.ofMinutes(5), 3);
+    first.clear();
+    first.pushAll(List.of(link(1), link(2), link(3)));
+
+    // When
+    List<Link> firstItems = first.popBatch(2);
+    List<Link> secondItems = second.popBatch(2);
+
+    // Then
+    assertEquals(List.of(link(1), link(2)), firstItems);
+    assertEquals(List.of(link(3)), secondItems);
+    assertEquals(0, first.size());
+    assertFalse(first.isRedelivery(firstItems.get(0)));
+  }
+
+  @Test
+  void popBatch_shouldClaimItemsAnotherConsumerNeverAcked() throws Exception {
+    // Given
+    var crashed = queue("crashed", Duration.ofMillis(100), 3);
+    var survivor = queue("survivor", Duration.ofMillis(100), 3);
+    crashed.clear();
+    crashed.push(link(1));
+    crashed.push(link(2));
+    crashed.ack(crashed.popBatch(1).get(0));
+    crashed.popBatch(1);
+
+    // When
+    Thread.sleep(300);
+    List<Link> claimed = survivor.popBatch(10);
+
+    // Then
+    assertEquals(List.of(link(2)), claimed);
+    assertTrue(survivor.isRedelivery(claimed.get(0)));
+  }
+
+  @Test
+  void popBatch_shouldDropItemsRedeliveredTooManyTimes() throws Exception {
+    // Given
+    var consumer = queue("poisoned", Duration.ofMillis(100), 1);
+    consumer.clear();
+    consumer.push(link(1));
+    consumer.popBatch(1);
+
+    // When
+    Thread.sleep(300);
+    List<Link> redelivered = consumer.popBatch(1);
+    Thread.sleep(300);
+    List<Link> dropped = consumer.popBatch(1);
+
+    // Then
+    assertEquals(List.of(link(1)), redelivered);
+    assertEquals(List.of(), dropped);
+  }
+
+  private StreamFrontierQueue queue(String consumer, Duration claimIdle, int maxRedeliveries) {
+    var config =
+        new StreamConfig("it", consumer, claimIdle, Duration.ZERO, maxRedeliveries, 64);
+    return new StreamFrontierQueue(jedisPool, 1, CODEC, config);
+  }
+
+  private static Link link(int page) {
+    return new Link(URI.create("http://example.com/" + page), 1);
+  }
+}
@@ -5,10 +5,40 @@ import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 
 import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import org.crawler.common.CompiledUrlFilter;
+import org.crawler.common.UrlCanonicalizer;
 import org.crawler.domain.Link;
 import org.crawler.domain.config.AppConfig;
+import org.crawler.domain.config.AutoscaleConfig;
+import org.crawler.domain.config.BackendConfig;
+import org.crawler.domain.config.BackendType;
+import org.crawler.domain.config.BackpressureConfig;
+import org.crawler.domain.config.CodecFormat;
+import org.crawler.domain.config.CompressionType;
+import org.crawler.domain.config.FetcherConfig;
+import org.crawler.domain.config.FetcherType;
+import org.crawler.domain.config.FrontierConfig;
+import org.crawler.domain.config.FrontierType;
+import org.crawler.domain.config.LinkExtractorType;
+import org.crawler.domain.config.MetricsConfig;
+import org.crawler.domain.config.PipelineMode;
+import org.crawler.domain.config.QueueConfig;
+import org.crawler.domain.config.QueueType;
+import org.crawler.domain.config.RecrawlConfig;
 import org.crawler.domain.config.RedisConfig;
+import org.crawler.domain.config.RedisEndpoint;
+import org.crawler.domain.config.ResumeConfig;
+import org.crawler.domain.config.RobotsConfig;
+import org.crawler.domain.config.SeenFilterConfig;
+import org.crawler.domain.config.StreamConfig;
+import org.crawler.domain.config.VisitedConfig;
+import org.crawler.domain.config.VisitedSetType;
+import org.crawler.infrastructure.disk.DiskVisitedUrlsSet;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import redis.clients.jedis.JedisPoolConfig;
 
 public class WebCrawlerRunnerIT extends AbstractIntegrationTest {
@@ -16,14 +46,10 @@ public class WebCrawlerRunnerIT extends AbstractIntegrationTest {
   @Test
   public void testWebCrawlerRunnerRunsSuccessfully() throws Exception {
     WebCrawlerRunner runner = new WebCrawlerRunner();
-    var redisConfig = new RedisConfig(0, redisHost(), redisPort(), new JedisPoolConfig());
-    var appConfig =
-        new AppConfig(
-            new Link(URI.create(String.format("%s/seed", wireMockBaseUrl())), 0),
-            2,
-            2,
-            2,
-            redisConfig);
+    var visitedConfig =
+        new VisitedConfig(
+            VisitedSetType.FINGERPRINTS, 4, false, Path.of("build/visited"), 1024, 1000);
+    var appConfig = appConfig("/seed", BackendType.REDIS, visitedConfig, false);
 
     var seedResponse =
         String.format(
@@ -53,6 +79,115 @@ public class WebCrawlerRunnerIT extends AbstractIntegrationTest {
     WIRE_MOCK_SERVER.verify(getRequestedFor(urlEqualTo("/page3")));
   }
 
+  @Test
+  public void testWebCrawlerRunnerKeepsTheDiskVisitedSet_whenResumingOnTheMemoryBackend(
+      @TempDir Path directory) throws Exception {
+    // Given
+    WebCrawlerRunner runner = new WebCrawlerRunner();
+    var visitedConfig = new VisitedConfig(VisitedSetType.DISK, 4, false, directory, 1024, 1);
+    var appConfig = appConfig("/resume/seed", BackendType.MEMORY, visitedConfig, true);
+    var urlCanonicalizer = new UrlCanonicalizer(UrlCanonicalizer.defaultConfig());
+
+    var visitedUrlsSet = new DiskVisitedUrlsSet(directory, 1024, 1);
+    visitedUrlsSet.addIfNotPresent(
+        urlCanonicalizer.key(URI.create(wireMockBaseUrl() + "/resume/crawled")));
+    visitedUrlsSet.close();
+
+    var seedResponse =
+        String.format(
+            """
+              <html><body>
+                      <a href='%1$s/resume/crawled'>Crawled</a>
+                      <a href='%1$s/resume/new'>New</a>
+                  </body></html>
+            """,
+            wireMockBaseUrl());
+    var emptyResponse = "<html><body>No more links</body></html>";
+    stubSimpleHtmlPage("/resume/seed", seedResponse);
+    stubSimpleHtmlPage("/resume/crawled", emptyResponse);
+    stubSimpleHtmlPage("/resume/new", emptyResponse);
+
+    // When
+    Thread thread = new Thread(() -> runner.run(appConfig));
+    thread.start();
+
+    // Longer than above, the disk visited set opens its shards before the crawl starts
+    Thread.sleep(3000);
+
+    // Then
+    WIRE_MOCK_SERVER.verify(getRequestedFor(urlEqualTo("/resume/seed")));
+    WIRE_MOCK_SERVER.verify(getRequestedFor(urlEqualTo("/resume/new")));
+    WIRE_MOCK_SERVER.verify(0, getRequestedFor(urlEqualTo("/resume/crawled")));
+  }
+
+  private AppConfig appConfig(
+      String seedPath, BackendType backendType, VisitedConfig visitedConfig, boolean resume) {
+    var redisConfig =
+        new RedisConfig(
+            0,
+            redisHost(),
+            redisPort(),
+            new JedisPoolConfig(),
+            List.of(new RedisEndpoint(redisHost(), redisPort())));
+    var robotsConfig = new RobotsConfig(100, Duration.ofMinutes(10), Duration.ofMinutes(1));
+    var frontierConfig =
+        new FrontierConfig(
+            FrontierType.FIFO,
+            Duration.ZERO,
+            Duration.ZERO,
+            0,
+            0,
+            Path.of("build/frontier"),
+            1000,
+            1024 * 1024,
+            100,
+            0.1,
+            1.0);
+    var seenFilterConfig = new SeenFilterConfig(true, 10_000, 0.01, 1024);
+    var queueConfig =
+        new QueueConfig(QueueType.LIST, CodecFormat.BINARY, CompressionType.DEFLATE, 64);
+    var fetcherConfig =
+        new FetcherConfig(
+            FetcherType.HTTP_CLIENT, Duration.ofSeconds(2), Duration.ofSeconds(5), 4, 1 << 20);
+    var recrawlConfig = new RecrawlConfig(true, true, Duration.ofDays(1));
+    var backendConfig =
+        new BackendConfig(
+            backendType, 1000, 100, 1024, Duration.ofSeconds(1), Duration.ofMillis(100));
+    var resumeConfig = new ResumeConfig(resume, Duration.ofMinutes(5), Duration.ofSeconds(30), 3);
+    var autoscaleConfig =
+        new AutoscaleConfig(false, Duration.ofSeconds(10), 1, 4, 1, 4, 1000, 0.3);
+    var backpressureConfig =
+        new BackpressureConfig(
+            true, 10000, 5000, 100, 50, Duration.ofMillis(100), Duration.ofSeconds(1));
+    var metricsConfig = new MetricsConfig(false, false, "127.0.0.1", 0);
+    var streamConfig =
+        new StreamConfig("crawlers", "it", Duration.ofMinutes(5), Duration.ofSeconds(30), 3, 64);
+    return new AppConfig(
+        new Link(URI.create(wireMockBaseUrl() + seedPath), 0),
+        2,
+        2,
+        2,
+        1,
+        PipelineMode.SPLIT,
+        LinkExtractorType.STREAMING,
+        redisConfig,
+        robotsConfig,
+        frontierConfig,
+        seenFilterConfig,
+        visitedConfig,
+        queueConfig,
+        fetcherConfig,
+        recrawlConfig,
+        CompiledUrlFilter.defaultConfig(),
+        UrlCanonicalizer.defaultConfig(),
+        backendConfig,
+        resumeConfig,
+        autoscaleConfig,
+        backpressureConfig,
+        metricsConfig,
+        streamConfig);
+  }
+
   private void stubSimpleHtmlPage(String path, String bodyContent) {
     WIRE_MOCK_SERVER.stubFor(
         get(urlEqualTo(path))
@@ -0,0 +1,92 @@
+package org.crawler.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shape of the synthetic site and how long to crawl it. {@code crawlerOverrides} holds the crawler
+ * properties to set on top of {@code config.properties}.
+ */
+record LoadTestConfig(
+    int pages,
+    int fanOut,
+    int pageBytes,
+    int hosts,
+    Duration latencyMin,
+    Duration latencyMax,
+    double latencySigma,
+    double errorRate,
+    long seed,
+    Duration idleTimeout,
+    Duration timeout,
+    Map<String, String> crawlerOverrides) {
+
+  private static final Map<String, String> DEFAULTS =
+      Map.ofEntries(
+          Map.entry("pages", "10000"),
+          Map.entry("fanOut", "10"),
+          Map.entry("pageBytes", "16384"),
+          Map.entry("hosts", "20"),
+          Map.entry("latencyMinMs", "5"),
+          Map.entry("latencyMaxMs", "50"),
+          Map.entry("latencySigma", "0.5"),
+          Map.entry("errorRate", "0.01"),
+          Map.entry("seed", "42"),
+          Map.entry("idleSeconds", "10"),
+          Map.entry("timeoutSeconds", "600"));
+
+  LoadTestConfig {
+    if (pages < 1 || fanOut < 1 || hosts < 1 || pageBytes < 0) {
+      throw new IllegalArgumentException("pages, fanOut and hosts must be positive");
+    }
+    if (latencyMax.compareTo(latencyMin) < 0) {
+      throw new IllegalArgumentException("latencyMaxMs must not be below latencyMinMs");
+    }
+    if (errorRate < 0 || errorRate >= 1) {
+      throw new IllegalArgumentException("errorRate must be in [0, 1)");
+    }
+  }
+
+  /**
+   * Parses {@code --name=value} arguments. Names with a dot are crawler properties, such as {@code
+   * --backend.type=MEMORY}, the others are the harness options above.
+   */
+  static LoadTestConfig parse(String... args) {
+    Map<String, String> options = new HashMap<>(DEFAULTS);
+    Map<String, String> crawlerOverrides = new LinkedHashMap<>();
+
+    for (String arg : args) {
+      int equals = arg.indexOf('=');
+      if (!arg.startsWith("--") || equals < 0) {
+        throw new IllegalArgumentException("Expected --name=value but got " + arg);
+      }
+
+      String name = arg.substring(2, equals);
+      String value = arg.substring(equals + 1);
+
+      if (name.contains(".")) {
+        crawlerOverrides.put(name, value);
+      } else if (DEFAULTS.containsKey(name)) {
+        options.put(name, value);
+      } else {
+        throw new IllegalArgumentException("Unknown option " + name + ", known: " + DEFAULTS);
+      }
+    }
+
+    return new LoadTestConfig(
+        Integer.parseInt(options.get("pages")),
+        Integer.parseInt(options.get("fanOut")),
+        Integer.parseInt(options.get("pageBytes")),
+        Integer.parseInt(options.get("hosts")),
+        Duration.ofMillis(Long.parseLong(options.get("latencyMinMs"))),
+        Duration.ofMillis(Long.parseLong(options.get("latencyMaxMs"))),
+        Double.parseDouble(options.get("latencySigma")),
+        Double.parseDouble(options.get("errorRate")),
+        Long.parseLong(options.get("seed")),
+        Duration.ofSeconds(Long.parseLong(options.get("idleSeconds"))),
+        Duration.ofSeconds(Long.parseLong(options.get("timeoutSeconds"))),
+        crawlerOverrides);
+  }
+}
@@ -0,0 +1,193 @@
+package org.crawler.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Properties;
+import org.crawler.WebCrawlerRunner;
+import org.crawler.config.ConfigLoaderImpl;
+import org.crawler.domain.config.AppConfig;
+import org.crawler.domain.config.BackendType;
+import org.crawler.domain.config.RedisEndpoint;
+import org.crawler.metrics.Histogram;
+import org.crawler.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Jedis;
+
+/**
+ * Crawls a {@link SyntheticWebGraph} served on loopback with the full crawler in-process, then
+ * reports throughput, fetch latency, Redis commands per page and peak heap. Needs no network
+ * beyond loopback, plus a local Redis unless run with {@code --backend.type=MEMORY}.
+ *
+ * <p>The crawl ends when every reachable page was served, when no page was requested for {@code
+ * idleSeconds}, or after {@code timeoutSeconds}. The heap is that of the whole process, the
+ * synthetic server included, sampled every 200 ms.
+ */
+public class LoadTestHarness {
+  private static final Logger logger = LoggerFactory.getLogger(LoadTestHarness.class);
+
+  private static final Duration POLL_INTERVAL = Duration.ofMillis(200);
+
+  public static void main(String[] args) throws Exception {
+    LoadTestConfig config = LoadTestConfig.parse(args);
+    SyntheticWebGraph graph = new SyntheticWebGraph(config);
+
+    try (SyntheticWebServer server = new SyntheticWebServer(graph, config.latencySigma())) {
+      AppConfig appConfig = crawlerConfig(config, graph, server);
+      int reachable = graph.reachablePages(appConfig.maxDepth());
+
+      logger.info(
+          "Crawling {} pages on {} hosts, {} reachable within depth {}, overrides {}",
+          graph.pages(),
+          graph.hosts(),
+          reachable,
+          appConfig.maxDepth(),
+          config.crawlerOverrides());
+
+      Report report = crawl(config, appConfig, server, reachable);
+      System.out.println(report.format());
+    }
+  }
+
+  private static AppConfig crawlerConfig(
+      LoadTestConfig config, SyntheticWebGraph graph, SyntheticWebServer server)
+      throws IOException {
+    Properties properties = new Properties();
+    try (InputStream input =
+        LoadTestHarness.class.getClassLoader().getResourceAsStream("config.properties")) {
+      properties.load(input);
+    }
+
+    properties.setProperty("app.seedLink", server.url(0));
+    properties.setProperty("app.maxDepth", String.valueOf(graph.depth()));
+    // Keeps concurrent runs from fighting over the metrics port
+    properties.setProperty("metrics.http.enabled", "false");
+    config.crawlerOverrides().forEach(properties::setProperty);
+
+    return new ConfigLoaderImpl().load(properties);
+  }
+
+  private static Report crawl(
+      LoadTestConfig config, AppConfig appConfig, SyntheticWebServer server, int reachable)
+      throws InterruptedException {
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    long redisCommandsBefore = redisCommands(appConfig);
+
+    WebCrawlerRunner runner = new WebCrawlerRunner();
+    Thread crawler = Thread.ofPlatform().name("crawler").start(() -> runner.run(appConfig));
+
+    long startedAt = System.nanoTime();
+    long peakHeap = 0;
+    String stopReason;
+
+    while (true) {
+      Thread.sleep(POLL_INTERVAL);
+      peakHeap = Math.max(peakHeap, memory.getHeapMemoryUsage().getUsed());
+
+      long now = System.nanoTime();
+      long lastRequest = server.lastRequestNanos() != 0 ? server.lastRequestNanos() : startedAt;
+
+      if (server.distinctPages() >= reachable) {
+        stopReason = "all reachable pages served";
+        break;
+      }
+      if (now - lastRequest > config.idleTimeout().toNanos()) {
+        stopReason = "idle for " + config.idleTimeout().toSeconds() + "s";
+        break;
+      }
+      if (now - startedAt > config.timeout().toNanos()) {
+        stopReason = "timed out after " + config.timeout().toSeconds() + "s";
+        break;
+      }
+    }
+
+    runner.stop();
+    crawler.join();
+
+    long redisCommands = redisCommands(appConfig) - redisCommandsBefore;
+    Histogram.Snapshot latency =
+        MetricsRegistry.global().histogram("fetch_latency_micros").snapshot();
+
+    return new Report(
+        stopReason,
+        reachable,
+        server.distinctPages(),
+        server.requests(),
+        server.errors(),
+        server.bytes(),
+        server.activeNanos(),
+        latency.quantile(0.5),
+        latency.quantile(0.99),
+        redisCommandsBefore < 0 ? -1 : redisCommands,
+        peakHeap);
+  }
+
+  /** Commands the Redis servers processed so far, -1 with the memory backend. */
+  private static long redisCommands(AppConfig appConfig) {
+    if (appConfig.backend().type() != BackendType.REDIS) {
+      return -1;
+    }
+
+    long commands = 0;
+    for (RedisEndpoint endpoint : appConfig.redis().endpoints()) {
+      try (Jedis jedis = new Jedis(endpoint.host(), endpoint.port())) {
+        for (String line : jedis.info("stats").split("\r?\n")) {
+          if (line.startsWith("total_commands_processed:")) {
+            commands += Long.parseLong(line.substring(line.indexOf(':') + 1).trim());
+          }
+        }
+      }
+    }
+    return commands;
+  }
+
+  record Report(
+      String stopReason,
+      long reachablePages,
+      long distinctPages,
+      long requests,
+      long errors,
+      long bytes,
+      long activeNanos,
+      long fetchLatencyP50Micros,
+      long fetchLatencyP99Micros,
+      long redisCommands,
+      long peakHeapBytes) {
+
+    String format() {
+      double seconds = Math.max(1e-9, activeNanos / 1e9);
+      long fetched = requests - errors;
+
+      return String.format(
+          Locale.ROOT,
+          """
+          stop reason         %s
+          pages served        %d of %d reachable, %d requests, %d errors
+          duration            %.1f s
+          pages/sec           %.1f
+          MB/sec              %.2f
+          fetch latency p50   %.1f ms (bucket bound)
+          fetch latency p99   %.1f ms (bucket bound)
+          redis ops/page      %s
+          peak heap           %d MB""",
+          stopReason,
+          distinctPages,
+          reachablePages,
+          requests,
+          errors,
+          seconds,
+          fetched / seconds,
+          bytes / seconds / (1024 * 1024),
+          fetchLatencyP50Micros / 1000.0,
+          fetchLatencyP99Micros / 1000.0,
+          redisCommands < 0
+              ? "n/a"
+              : String.format(Locale.ROOT, "%.1f", (double) redisCommands / Math.max(1, requests)),
+          peakHeapBytes / (1024 * 1024));
+    }
+  }
+}
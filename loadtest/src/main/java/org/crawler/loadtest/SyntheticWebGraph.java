@@ -0,0 +1,134 @@
+package org.crawler.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+
+/**
+ * Deterministic site graph: everything is derived from the page number and the seed, so two runs
+ * with the same options crawl the same site.
+ *
+ * <p>Page {@code i} lives on host {@code i % hosts} and links to the pages {@code i * fanOut + 1}
+ * to {@code i * fanOut + fanOut}, the tree that makes every page reachable from page 0. Links past
+ * the last page point at random pages instead, so leaves add the duplicate links a real site has.
+ * A fixed share of pages, never page 0, answers with an error.
+ */
+final class SyntheticWebGraph {
+  private static final String FILLER =
+      "<p>Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor"
+          + " incididunt ut labore et dolore magna aliqua.</p>\n";
+
+  private final int pages;
+  private final int fanOut;
+  private final int pageBytes;
+  private final int hosts;
+  private final double errorRate;
+  private final long seed;
+  private final Duration latencyMin;
+  private final Duration latencyMax;
+
+  SyntheticWebGraph(LoadTestConfig config) {
+    this.pages = config.pages();
+    this.fanOut = config.fanOut();
+    this.pageBytes = config.pageBytes();
+    this.hosts = config.hosts();
+    this.errorRate = config.errorRate();
+    this.seed = config.seed();
+    this.latencyMin = config.latencyMin();
+    this.latencyMax = config.latencyMax();
+  }
+
+  int pages() {
+    return pages;
+  }
+
+  int hosts() {
+    return hosts;
+  }
+
+  int hostOf(int page) {
+    return page % hosts;
+  }
+
+  int[] links(int page) {
+    SplittableRandom random = new SplittableRandom(seed * 31 + page);
+    int[] links = new int[fanOut];
+
+    for (int k = 0; k < fanOut; k++) {
+      long child = (long) page * fanOut + k + 1;
+      links[k] = child < pages ? (int) child : random.nextInt(pages);
+    }
+    return links;
+  }
+
+  boolean isError(int page) {
+    return page != 0 && new SplittableRandom(seed ^ 0x5DEECE66DL ^ page).nextDouble() < errorRate;
+  }
+
+  /** Depth of the last page in the tree, the depth needed to reach every page. */
+  int depth() {
+    int depth = 0;
+    for (long page = pages - 1; page > 0; page = (page - 1) / fanOut) {
+      depth++;
+    }
+    return depth;
+  }
+
+  /** Pages reachable from page 0 within {@code maxDepth} links without going through an error. */
+  int reachablePages(int maxDepth) {
+    BitSet seen = new BitSet(pages);
+    ArrayDeque<int[]> queue = new ArrayDeque<>();
+    seen.set(0);
+    queue.add(new int[] {0, 0});
+    int reachable = 0;
+
+    while (!queue.isEmpty()) {
+      int[] next = queue.poll();
+      reachable++;
+
+      if (next[1] == maxDepth || isError(next[0])) {
+        continue;
+      }
+      for (int link : links(next[0])) {
+        if (!seen.get(link)) {
+          seen.set(link);
+          queue.add(new int[] {link, next[1] + 1});
+        }
+      }
+    }
+    return reachable;
+  }
+
+  /**
+   * Median response time of a host. The medians spread log-uniformly from {@code latencyMin} on the
+   * first host to {@code latencyMax} on the last, so a few hosts are much slower than the rest.
+   */
+  Duration medianLatency(int host) {
+    if (hosts == 1) {
+      return latencyMin;
+    }
+    double min = Math.max(1, latencyMin.toNanos());
+    double ratio = Math.max(1, latencyMax.toNanos()) / min;
+    return Duration.ofNanos((long) (min * Math.pow(ratio, (double) host / (hosts - 1))));
+  }
+
+  String html(int page, IntFunction<String> url) {
+    StringBuilder html = new StringBuilder(pageBytes + 512);
+    html.append("<!DOCTYPE html><html><head><title>Page ")
+        .append(page)
+        .append("</title></head><body>\n<ul>\n");
+
+    for (int link : links(page)) {
+      html.append("<li><a href=\"").append(url.apply(link)).append("\">Page ");
+      html.append(link).append("</a></li>\n");
+    }
+    html.append("</ul>\n");
+
+    while (html.length() < pageBytes) {
+      html.append(FILLER);
+    }
+    return html.append("</body></html>\n").toString();
+  }
+}
@@ -0,0 +1,164 @@
+package org.crawler.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves a {@link SyntheticWebGraph} on loopback, one port per host, so that the crawler sees each
+ * as a host of its own for politeness and robots.txt. Responses are delayed by a log-normal draw
+ * around the median of their host, the slow tail that drives a real crawl.
+ */
+final class SyntheticWebServer implements AutoCloseable {
+  private static final byte[] ROBOTS_TXT =
+      "User-agent: *\nAllow: /\n".getBytes(StandardCharsets.US_ASCII);
+
+  private final SyntheticWebGraph graph;
+  private final double latencySigma;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final List<HttpServer> servers = new ArrayList<>();
+  private final int[] ports;
+
+  private final AtomicIntegerArray fetchesPerPage;
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+  private final LongAdder bytes = new LongAdder();
+  private final AtomicLong firstRequestNanos = new AtomicLong();
+  private final AtomicLong lastRequestNanos = new AtomicLong();
+
+  SyntheticWebServer(SyntheticWebGraph graph, double latencySigma) throws IOException {
+    this.graph = graph;
+    this.latencySigma = latencySigma;
+    this.fetchesPerPage = new AtomicIntegerArray(graph.pages());
+    this.ports = new int[graph.hosts()];
+
+    for (int host = 0; host < graph.hosts(); host++) {
+      HttpServer server =
+          HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+      int hostIndex = host;
+      server.createContext("/", exchange -> handle(hostIndex, exchange));
+      server.setExecutor(executor);
+      server.start();
+      servers.add(server);
+      ports[host] = server.getAddress().getPort();
+    }
+  }
+
+  String url(int page) {
+    return "http://127.0.0.1:" + ports[graph.hostOf(page)] + "/p/" + page;
+  }
+
+  private void handle(int host, HttpExchange exchange) throws IOException {
+    try (exchange) {
+      String path = exchange.getRequestURI().getPath();
+
+      if (path.equals("/robots.txt")) {
+        respond(exchange, 200, ROBOTS_TXT);
+        return;
+      }
+
+      int page = parsePage(path);
+      if (page < 0 || graph.hostOf(page) != host) {
+        respond(exchange, 404, new byte[0]);
+        return;
+      }
+
+      long now = System.nanoTime();
+      firstRequestNanos.compareAndSet(0, now);
+      requests.increment();
+      fetchesPerPage.incrementAndGet(page);
+
+      Thread.sleep(latency(host));
+
+      if (graph.isError(page)) {
+        errors.increment();
+        respond(exchange, 503, new byte[0]);
+      } else {
+        byte[] body = graph.html(page, this::url).getBytes(StandardCharsets.UTF_8);
+        bytes.add(body.length);
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+        respond(exchange, 200, body);
+      }
+
+      lastRequestNanos.accumulateAndGet(System.nanoTime(), Math::max);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private int parsePage(String path) {
+    if (!path.startsWith("/p/")) {
+      return -1;
+    }
+    try {
+      int page = Integer.parseInt(path.substring(3));
+      return page < graph.pages() ? page : -1;
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  // Log-normal around the host median: exp(sigma * N(0, 1)) has a median of 1
+  private long latency(int host) {
+    double factor = Math.exp(latencySigma * ThreadLocalRandom.current().nextGaussian());
+    return (long) (graph.medianLatency(host).toMillis() * factor);
+  }
+
+  private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+    exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+    if (body.length > 0) {
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    }
+  }
+
+  /** Page requests, robots.txt excluded, including repeated fetches of a page. */
+  long requests() {
+    return requests.sum();
+  }
+
+  long errors() {
+    return errors.sum();
+  }
+
+  long bytes() {
+    return bytes.sum();
+  }
+
+  long distinctPages() {
+    long distinct = 0;
+    for (int page = 0; page < fetchesPerPage.length(); page++) {
+      distinct += fetchesPerPage.get(page) > 0 ? 1 : 0;
+    }
+    return distinct;
+  }
+
+  /** Nanos from the first page request to the last response, 0 before any request. */
+  long activeNanos() {
+    long first = firstRequestNanos.get();
+    return first == 0 ? 0 : Math.max(0, lastRequestNanos.get() - first);
+  }
+
+  long lastRequestNanos() {
+    return lastRequestNanos.get();
+  }
+
+  @Override
+  public void close() {
+    servers.forEach(server -> server.stop(0));
+    executor.close();
+  }
+}
@@ -0,0 +1,95 @@
+package org.crawler.loadtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class SyntheticWebGraphTest {
+
+  @Test
+  void links_shouldFollowTheTreeThenPointAtRandomPages() {
+    // Given
+    var graph = new SyntheticWebGraph(LoadTestConfig.parse("--pages=10", "--fanOut=3"));
+
+    // When
+    int[] rootLinks = graph.links(0);
+    int[] leafLinks = graph.links(5);
+
+    // Then
+    assertArrayEquals(new int[] {1, 2, 3}, rootLinks);
+    assertArrayEquals(leafLinks, graph.links(5));
+    for (int link : leafLinks) {
+      assertTrue(link >= 0 && link < 10);
+    }
+  }
+
+  @Test
+  void reachablePages_shouldCoverEveryPage_atTreeDepthWithoutErrors() {
+    // Given
+    var graph =
+        new SyntheticWebGraph(LoadTestConfig.parse("--pages=1000", "--fanOut=4", "--errorRate=0"));
+
+    // When
+    int depth = graph.depth();
+
+    // Then
+    assertEquals(5, depth);
+    assertEquals(1000, graph.reachablePages(depth));
+    assertTrue(graph.reachablePages(depth - 1) < 1000);
+  }
+
+  @Test
+  void isError_shouldHitRoughlyTheErrorRate_butNeverTheSeed() {
+    // Given
+    var graph = new SyntheticWebGraph(LoadTestConfig.parse("--pages=100000", "--errorRate=0.1"));
+
+    // When
+    int errors = 0;
+    for (int page = 0; page < graph.pages(); page++) {
+      errors += graph.isError(page) ? 1 : 0;
+    }
+
+    // Then
+    assertFalse(graph.isError(0));
+    assertTrue(errors > 9_000 && errors < 11_000, "errors: " + errors);
+  }
+
+  @Test
+  void medianLatency_shouldSpreadFromMinToMaxAcrossHosts() {
+    // Given
+    var graph =
+        new SyntheticWebGraph(
+            LoadTestConfig.parse("--hosts=3", "--latencyMinMs=10", "--latencyMaxMs=1000"));
+
+    // Then
+    assertEquals(Duration.ofMillis(10), graph.medianLatency(0));
+    assertEquals(Duration.ofMillis(100), graph.medianLatency(1));
+    assertEquals(Duration.ofMillis(1000), graph.medianLatency(2));
+  }
+
+  @Test
+  void html_shouldLinkEveryOutlinkAndReachThePageSize() {
+    // Given
+    var graph = new SyntheticWebGraph(LoadTestConfig.parse("--fanOut=2", "--pageBytes=4096"));
+
+    // When
+    String html = graph.html(0, page -> "http://host/p/" + page);
+
+    // Then
+    assertTrue(html.contains("href=\"http://host/p/1\""));
+    assertTrue(html.contains("href=\"http://host/p/2\""));
+    assertTrue(html.length() >= 4096);
+  }
+
+  @Test
+  void parse_shouldPassDottedNamesToTheCrawler() {
+    // When
+    var config = LoadTestConfig.parse("--pages=5", "--backend.type=MEMORY");
+
+    // Then
+    assertEquals(5, config.pages());
+    assertEquals("MEMORY", config.crawlerOverrides().get("backend.type"));
+    assertThrows(IllegalArgumentException.class, () -> LoadTestConfig.parse("--unknown=1"));
+  }
+}